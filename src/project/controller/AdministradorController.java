@@ -1,29 +1,25 @@
 
 package project.controller;
 
+import project.data.Coleccion;
 import project.model.entities.Cliente;
 import project.model.entities.HistorialDeEntrega;
 import project.model.entities.Pedido;
 import project.model.entities.Repartidor;
 import project.model.enums.Combo;
 import project.model.enums.MetodoDePago;
+import project.model.estadisticas.AgregadorDeIndicadores;
+import project.model.estadisticas.RankingDeRepartidores;
 import project.model.repositories.ClienteRepository;
 import project.model.repositories.PedidoRepository;
 import project.model.repositories.RepartidorRepository;
 import project.model.repositories.HistorialEntregaRepository;
+import project.util.FormatoFecha;
 import project.util.ValidacionDeDato;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import javax.swing.DefaultComboBoxModel;
-import javax.swing.JButton;
 import javax.swing.table.DefaultTableModel;
 
 /*
@@ -37,8 +33,8 @@ public class AdministradorController {
    private final PedidoRepository pedidoRepo;
    private final RepartidorRepository repartidorRepo;
    private final HistorialEntregaRepository historialRepo;
-   // Umbral de tiempo para considerar una entrega "a tiempo"
-   private static final long ON_TIME_THRESHOLD_MINUTES = 60;
+   // Número de repartidores que muestra la tabla del top
+   private static final int TOP_REPARTIDORES = 10;
    
    /*
     * Constructor de la clase AdministradorController.
@@ -87,9 +83,7 @@ public class AdministradorController {
     * Elimina un cliente del sistema, junto con todos los pedidos y historiales de entrega asociados.
     */
    public boolean eliminarCliente(String idCliente) {
-      List<Pedido> pedidosCliente = pedidoRepo.obtenerTodos().stream()
-                                             .filter(p -> p.getCliente() != null && p.getCliente().getCedulaIdentidad().equals(idCliente))
-                                             .collect(Collectors.toList());
+      List<Pedido> pedidosCliente = pedidoRepo.buscarPorCliente(idCliente);
       for (Pedido pedido : pedidosCliente) {
          eliminarHistorialYPedido(pedido);
       }
@@ -100,10 +94,7 @@ public class AdministradorController {
     * Elimina el historial de entrega y el pedido asociado.
     */
    private void eliminarHistorialYPedido(Pedido pedido) {
-      HistorialDeEntrega historial = historialRepo.obtenerTodos().stream()
-                                                 .filter(h -> h.getPedidoAsociado() != null && h.getPedidoAsociado().getIdPedido().equals(pedido.getIdPedido()))
-                                                 .findFirst().orElse(null);
-      if (historial != null) {
+      for (HistorialDeEntrega historial : historialRepo.buscarPorPedido(pedido.getIdPedido())) {
          historialRepo.eliminarPorId(historial.getIdHistorial());
       }
       pedidoRepo.eliminar(pedido.getIdPedido());
@@ -167,12 +158,10 @@ public class AdministradorController {
     * Antes de eliminar, desasigna al repartidor de cualquier pedido que tenga asignado.
     */
    public boolean eliminarRepartidor(String idRepartidor) {
-      List<Pedido> pedidosRepartidor = pedidoRepo.obtenerTodos().stream()
-                                                .filter(p -> p.getRepartidorAsignado() != null && p.getRepartidorAsignado().getCedulaIdentidad().equals(idRepartidor))
-                                                .collect(Collectors.toList());
+      List<Pedido> pedidosRepartidor = pedidoRepo.buscarPorRepartidor(idRepartidor);
       for (Pedido pedido : pedidosRepartidor) {
-         pedido.setRepartidorAsignado(null); // Desasignar el repartidor
-         pedidoRepo.guardar(pedido); // Guardar el pedido actualizado
+         // Desasignar el repartidor; el almacén guarda el pedido modificado
+         pedidoRepo.actualizarPedido(pedido.getIdPedido(), p -> p.setRepartidorAsignado(null));
       }
       return repartidorRepo.eliminar(idRepartidor);
    }
@@ -255,8 +244,7 @@ public class AdministradorController {
       if ("Entregado".equalsIgnoreCase(pedido.getEstado()) || "Cancelado".equalsIgnoreCase(pedido.getEstado())) {
          return "El pedido ya ha sido entregado o cancelado y no puede ser modificado.";
       }
-      pedido.setEstado("Cancelado");
-      pedidoRepo.guardar(pedido);
+      pedidoRepo.actualizarPedido(idPedido, p -> p.setEstado("Cancelado"));
       return null;
    }
 
@@ -275,8 +263,7 @@ public class AdministradorController {
       if (nuevoRepartidor == null || nuevoRepartidor.getCedulaIdentidad() == null || nuevoRepartidor.getCedulaIdentidad().isEmpty()) {
          return "Debe seleccionar un repartidor válido.";
       }
-      pedido.setRepartidorAsignado(nuevoRepartidor);
-      pedidoRepo.guardar(pedido);
+      pedidoRepo.actualizarPedido(idPedido, p -> p.setRepartidorAsignado(nuevoRepartidor));
       return null;
    }
 
@@ -298,119 +285,116 @@ public class AdministradorController {
     * Genera un modelo de tabla para mostrar los pedidos pendientes en el dashboard.
     * Incluye columnas para ID, Cliente, Tiempo de creación, Estado y una columna de acción.
     */
-   public DefaultTableModel generarModeloTablaPedidosDashboard() {
-      DefaultTableModel model = crearModeloTablaEditable(new Object[]{"ID", "Cliente", "Tiempo", "Estado", "Acción"}, 4);
-      SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-      pedidoRepo.obtenerTodos().stream()
-                .filter(p -> "Pendiente".equalsIgnoreCase(p.getEstado()))
-                .forEach(pedido -> {
-                   String clienteNombre = (pedido.getCliente() != null) ? pedido.getCliente().getNombre() : "N/A";
-                   String tiempoCreacion = (pedido.getFechaCreacion() != null) ? sdf.format(pedido.getFechaCreacion()) : "N/A";
-                   model.addRow(new Object[]{pedido.getIdPedido(), clienteNombre, tiempoCreacion, pedido.getEstado(), "Ver Detalle"});
-                });
-      return model;
+   public ModeloTablaEntidades<Pedido> generarModeloTablaPedidosDashboard() {
+      return SincronizadorDeTablas.getInstancia().cargar(Coleccion.PEDIDOS, pedido -> "Pendiente".equalsIgnoreCase(pedido.getEstado()), () -> pedidoRepo.buscarPorEstado("Pendiente"),
+            new ModeloTablaEntidades<Pedido>(4)
+            .columna("ID", Pedido::getIdPedido)
+            .columna("Cliente", pedido -> (pedido.getCliente() != null) ? pedido.getCliente().getNombre() : "N/A")
+            .columna("Tiempo", pedido -> FormatoFecha.hora(pedido.getFechaCreacionMs()))
+            .columna("Estado", Pedido::getEstado)
+            .columna("Acción", pedido -> ModeloTablaEntidades.VER_DETALLE));
    }
 
    /*
     * Genera un modelo de tabla para mostrar la disponibilidad de los repartidores en el dashboard.
     */
-   public DefaultTableModel generarModeloTablaRepartidoresDashboard() {
-      DefaultTableModel model = crearModeloTablaNoEditable(new Object[]{"Repartidor", "Disponibilidad"});
-      repartidorRepo.obtenerTodos().forEach(r -> 
-         model.addRow(new Object[]{r.getNombre(), r.isDisponibilidad() ? "Disponible" : "No Disponible"})
-      );
-      return model;
+   public ModeloTablaEntidades<Repartidor> generarModeloTablaRepartidoresDashboard() {
+      return SincronizadorDeTablas.getInstancia().cargar(Coleccion.REPARTIDORES, null, repartidorRepo::obtenerTodos,
+            new ModeloTablaEntidades<Repartidor>(-1)
+            .columna("Repartidor", Repartidor::getNombre)
+            .columna("Disponibilidad", r -> r.isDisponibilidad() ? "Disponible" : "No Disponible"));
    }
 
    /*
     * Genera un modelo de tabla para mostrar el historial de entregas en el dashboard.
     */
-   public DefaultTableModel generarModeloTablaHistorialDeEntregaDashboard() {
-      DefaultTableModel model = crearModeloTablaNoEditable(new Object[]{"ID Historial", "ID Pedido", "Repartidor", "Fecha", "Estado", "Direccion"});
-      SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-      historialRepo.obtenerTodos().forEach(h -> {
-         String pedidoId = (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getIdPedido() : "N/A";
-         String repartidorNombre = (h.getRepartidor() != null) ? h.getRepartidor().getNombre() : "N/A";
-         String fechaRegistro = (h.getFechaRegistro() != null) ? sdf.format(h.getFechaRegistro()) : "N/A";
-         String direccionEntrega = (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getDireccionEntrega() : "N/A";
-         model.addRow(new Object[]{h.getIdHistorial(), pedidoId, repartidorNombre, fechaRegistro, h.getEstadoEntrega(), direccionEntrega});
-      });
-      return model;
+   public ModeloTablaEntidades<HistorialDeEntrega> generarModeloTablaHistorialDeEntregaDashboard() {
+      return SincronizadorDeTablas.getInstancia().cargar(Coleccion.HISTORIAL, null, historialRepo::obtenerTodos,
+            new ModeloTablaEntidades<HistorialDeEntrega>(-1)
+            .columna("ID Historial", HistorialDeEntrega::getIdHistorial)
+            .columna("ID Pedido", h -> (h.getIdPedido() != null) ? h.getIdPedido() : "N/A")
+            .columna("Repartidor", h -> (h.getRepartidor() != null) ? h.getRepartidor().getNombre() : "N/A")
+            .columna("Fecha", h -> FormatoFecha.fechaHora(h.getFechaRegistroMs()))
+            .columna("Estado", HistorialDeEntrega::getEstadoEntrega)
+            .columna("Direccion", h -> (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getDireccionEntrega() : "N/A"));
    }
 
    /*
-    * Genera un modelo de tabla para mostrar la lista completa de clientes.
+    * Genera un modelo de tabla paginado para mostrar la lista completa de clientes.
+    * Solo se leen las páginas que la tabla muestra, en el orden elegido en su cabecera.
     */
-   public DefaultTableModel generarModeloTablaClientes() {
-      DefaultTableModel model = crearModeloTablaEditable(new Object[]{"Nombre", "C.I.", "N° Teléfono", "Dirección", "Detalle"}, 4);
-      clienteRepo.obtenerTodos().forEach(c -> 
-         model.addRow(new Object[]{c.getNombre(), c.getCedulaIdentidad(), c.getNumeroTelefono(), c.getDireccion(), "Ver Detalle"})
-      );
-      return model;
+   public ModeloTablaPaginada<Cliente> generarModeloTablaClientes() {
+      return SincronizadorDeTablas.getInstancia().cargarPaginada(Coleccion.CLIENTES,
+            new ModeloTablaPaginada<>(clienteRepo, 4)
+            .columna("Nombre", Cliente::getNombre, c -> alfabetico(c.getNombre()))
+            .columna("C.I.", Cliente::getCedulaIdentidad, Cliente::getCedulaIdentidad)
+            .columna("N° Teléfono", Cliente::getNumeroTelefono, Cliente::getNumeroTelefono)
+            .columna("Dirección", Cliente::getDireccion, c -> alfabetico(c.getDireccion()))
+            .columna("Detalle", c -> ModeloTablaEntidades.VER_DETALLE));
    }
 
    /*
-    * Genera un modelo de tabla para mostrar la lista completa de repartidores.
+    * Genera un modelo de tabla paginado para mostrar la lista completa de repartidores.
+    * Solo se leen las páginas que la tabla muestra, en el orden elegido en su cabecera.
     */
-   public DefaultTableModel generarModeloTablaRepartidores() {
-      DefaultTableModel model = crearModeloTablaEditable(new Object[]{"Nombre", "C.I.", "N° Teléfono", "Disponibilidad", "Detalle"}, 4);
-      repartidorRepo.obtenerTodos().forEach(r -> 
-         model.addRow(new Object[]{r.getNombre(), r.getCedulaIdentidad(), r.getNumeroTelefono(), r.isDisponibilidad() ? "Disponible" : "No Disponible", "Ver Detalle"})
-      );
-      return model;
+   public ModeloTablaPaginada<Repartidor> generarModeloTablaRepartidores() {
+      return SincronizadorDeTablas.getInstancia().cargarPaginada(Coleccion.REPARTIDORES,
+            new ModeloTablaPaginada<>(repartidorRepo, 4)
+            .columna("Nombre", Repartidor::getNombre, r -> alfabetico(r.getNombre()))
+            .columna("C.I.", Repartidor::getCedulaIdentidad, Repartidor::getCedulaIdentidad)
+            .columna("N° Teléfono", Repartidor::getNumeroTelefono, Repartidor::getNumeroTelefono)
+            .columna("Disponibilidad", r -> r.isDisponibilidad() ? "Disponible" : "No Disponible", Repartidor::isDisponibilidad)
+            .columna("Detalle", r -> ModeloTablaEntidades.VER_DETALLE));
    }
 
    /*
-    * Genera un modelo de tabla para mostrar la lista completa de pedidos.
+    * Genera un modelo de tabla paginado para mostrar la lista completa de pedidos.
+    * Solo se leen las páginas que la tabla muestra, en el orden elegido en su cabecera; las columnas
+    * se ordenan por su valor (la fecha y el total por número, no por el texto que se muestra).
     */
-   public DefaultTableModel generarModeloTablaPedidos() {
-      DefaultTableModel model = crearModeloTablaEditable(new Object[]{"ID", "Cliente", "Fecha", "Total", "Estado", "Repartidor", "Método de Pago", "Acción"}, 7);
-      SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-      pedidoRepo.obtenerTodos().forEach(p -> {
-         String clienteNombre = (p.getCliente() != null) ? p.getCliente().getNombre() : "N/A";
-         String repartidorNombre = (p.getRepartidorAsignado() != null) ? p.getRepartidorAsignado().getNombre() : "N/A";
-         String fechaCreacion = (p.getFechaCreacion() != null) ? sdf.format(p.getFechaCreacion()) : "N/A";
-         double total = p.getPrecioCombo() + p.getCostoEntrega();
-         model.addRow(new Object[]{
-            p.getIdPedido(), clienteNombre, fechaCreacion, String.format("%.2f", total), p.getEstado(), repartidorNombre, p.getMetodoPago() != null ? p.getMetodoPago().name() : "N/A", "Ver Detalle"
-         });
-      });
-      return model;
+   public ModeloTablaPaginada<Pedido> generarModeloTablaPedidos() {
+      return SincronizadorDeTablas.getInstancia().cargarPaginada(Coleccion.PEDIDOS,
+            new ModeloTablaPaginada<>(pedidoRepo, 7)
+            .columna("ID", Pedido::getIdPedido, Pedido::getIdPedido)
+            .columna("Cliente", p -> (p.getCliente() != null) ? p.getCliente().getNombre() : "N/A",
+                  p -> (p.getCliente() != null) ? alfabetico(p.getCliente().getNombre()) : null)
+            .columna("Fecha", p -> FormatoFecha.fechaHora(p.getFechaCreacionMs()), Pedido::getFechaCreacionMs)
+            .columna("Total", p -> String.format("%.2f", p.getPrecioCombo() + p.getCostoEntrega()), p -> p.getPrecioCombo() + p.getCostoEntrega())
+            .columna("Estado", Pedido::getEstado, Pedido::getEstado)
+            .columna("Repartidor", p -> (p.getRepartidorAsignado() != null) ? p.getRepartidorAsignado().getNombre() : "N/A",
+                  p -> (p.getRepartidorAsignado() != null) ? alfabetico(p.getRepartidorAsignado().getNombre()) : null)
+            .columna("Método de Pago", p -> (p.getMetodoPago() != null) ? p.getMetodoPago().name() : "N/A", Pedido::getMetodoPago)
+            .columna("Acción", p -> ModeloTablaEntidades.VER_DETALLE));
    }
 
    /*
-    * Genera un modelo de tabla para mostrar el historial completo de entregas.
+    * Genera un modelo de tabla paginado para mostrar el historial completo de entregas.
+    * Solo se leen las páginas que la tabla muestra, en el orden elegido en su cabecera.
     */
-   public DefaultTableModel generarModeloTablaHistorialDeEntrega() {
-      DefaultTableModel model = crearModeloTablaEditable(new Object[]{"ID Historial", "ID Pedido", "Combo", "Monto total", "Cliente", "Repartidor", "Metodo de Pago", "Estado", "Detalle"}, 8);
-      historialRepo.obtenerTodos().forEach(h -> {
-         String pedidoId = (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getIdPedido() : "N/A";
-         String comboNombre = (h.getPedidoAsociado() != null && h.getPedidoAsociado().getCombo() != null) ? h.getPedidoAsociado().getCombo().name() : "N/A";
-         double montoTotal = (h.getPedidoAsociado() != null) ? (h.getPedidoAsociado().getPrecioCombo() + h.getPedidoAsociado().getCostoEntrega()) : 0.0;
-         String clienteNombre = (h.getPedidoAsociado() != null && h.getPedidoAsociado().getCliente() != null) ? h.getPedidoAsociado().getCliente().getNombre() : "N/A";
-         String repartidorNombre = (h.getRepartidor() != null) ? h.getRepartidor().getNombre() : "N/A";
-         String metodoPago = (h.getPedidoAsociado() != null && h.getPedidoAsociado().getMetodoPago() != null) ? h.getPedidoAsociado().getMetodoPago().name() : "N/A";
-         model.addRow(new Object[]{
-            h.getIdHistorial(), pedidoId, comboNombre, String.format("%.2f", montoTotal), clienteNombre, repartidorNombre, metodoPago, h.getEstadoEntrega(), "Ver Detalle"
-         });
-      });
-      return model;
+   public ModeloTablaPaginada<HistorialDeEntrega> generarModeloTablaHistorialDeEntrega() {
+      return SincronizadorDeTablas.getInstancia().cargarPaginada(Coleccion.HISTORIAL,
+            new ModeloTablaPaginada<>(historialRepo, 8)
+            .columna("ID Historial", HistorialDeEntrega::getIdHistorial, HistorialDeEntrega::getIdHistorial)
+            .columna("ID Pedido", h -> (h.getIdPedido() != null) ? h.getIdPedido() : "N/A", HistorialDeEntrega::getIdPedido)
+            .columna("Combo", h -> (h.getPedidoAsociado() != null && h.getPedidoAsociado().getCombo() != null) ? h.getPedidoAsociado().getCombo().name() : "N/A",
+                  h -> (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getCombo() : null)
+            .columna("Monto total", h -> String.format("%.2f", (h.getPedidoAsociado() != null) ? (h.getPedidoAsociado().getPrecioCombo() + h.getPedidoAsociado().getCostoEntrega()) : 0.0),
+                  h -> (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getPrecioCombo() + h.getPedidoAsociado().getCostoEntrega() : 0.0)
+            .columna("Cliente", h -> (h.getPedidoAsociado() != null && h.getPedidoAsociado().getCliente() != null) ? h.getPedidoAsociado().getCliente().getNombre() : "N/A",
+                  h -> (h.getPedidoAsociado() != null && h.getPedidoAsociado().getCliente() != null) ? alfabetico(h.getPedidoAsociado().getCliente().getNombre()) : null)
+            .columna("Repartidor", h -> (h.getRepartidor() != null) ? h.getRepartidor().getNombre() : "N/A",
+                  h -> (h.getRepartidor() != null) ? alfabetico(h.getRepartidor().getNombre()) : null)
+            .columna("Metodo de Pago", h -> (h.getPedidoAsociado() != null && h.getPedidoAsociado().getMetodoPago() != null) ? h.getPedidoAsociado().getMetodoPago().name() : "N/A",
+                  h -> (h.getPedidoAsociado() != null) ? h.getPedidoAsociado().getMetodoPago() : null)
+            .columna("Estado", HistorialDeEntrega::getEstadoEntrega, HistorialDeEntrega::getEstadoEntrega)
+            .columna("Detalle", h -> ModeloTablaEntidades.VER_DETALLE));
    }
 
    /*
-    * Crea un modelo de tabla con una columna específica editable como JButton.
+    * Obtiene el valor por el que se ordena alfabéticamente un texto: sin acentos ni mayúsculas.
     */
-   private DefaultTableModel crearModeloTablaEditable(Object[] columnNames, int editableColumnIndex) {
-      return new DefaultTableModel(columnNames, 0) {
-         @Override
-         public boolean isCellEditable(int row, int column) {
-            return column == editableColumnIndex;
-         }
-         @Override
-         public Class<?> getColumnClass(int columnIndex) {
-            return columnIndex == editableColumnIndex ? JButton.class : Object.class;
-         }
-      };
+   private static String alfabetico(String texto) {
+      return (texto != null) ? IndiceDeBusqueda.normalizar(texto) : null;
    }
 
    /*
@@ -479,222 +463,70 @@ public class AdministradorController {
    }
 
    /*
-    * Genera un modelo de tabla que muestra el top de repartidores basado en el número de entregas
-    * y el porcentaje de entregas a tiempo (OTD%).
+    * Genera un modelo de tabla que muestra el top de repartidores basado en el porcentaje de
+    * entregas a tiempo (OTD%) y el número de entregas, con los percentiles de su tiempo de entrega.
+    * El ranking se mantiene actualizado con cada cambio (ver `RankingDeRepartidores`), por lo que
+    * solo se leen las filas que se muestran.
     */
    public DefaultTableModel generarModeloTablaTopRepartidores() {
-      DefaultTableModel model = crearModeloTablaNoEditable(new Object[]{"Nombre del Repartidor", "Número de Entregas", "OTD%"});
-      
-      // Inicializar estadísticas para todos los repartidores
-      Map<String, RepartidorStats> statsMap = inicializarEstadisticasRepartidores();
-      
-      // Procesar historiales de entrega para actualizar estadísticas
-      actualizarEstadisticasConHistorial(statsMap);
-      
-      // Calcular OTD y ordenar los repartidores
-      List<RepartidorStats> sortedStats = calcularOtdYOrdenar(statsMap);
-
-      // Añadir los 10 mejores repartidores al modelo de tabla
-      agregarTopRepartidoresATabla(model, sortedStats);
-
-      return model;
-   }
-
-   /*
-    * Inicializa un mapa de estadísticas para cada repartidor existente.
-    */
-   private Map<String, RepartidorStats> inicializarEstadisticasRepartidores() {
-      Map<String, RepartidorStats> statsMap = new HashMap<>();
-      repartidorRepo.obtenerTodos().forEach(r -> 
-         statsMap.put(r.getCedulaIdentidad(), new RepartidorStats(r.getNombre()))
-      );
-      return statsMap;
-   }
-
-   /*
-    * Actualiza las estadísticas de los repartidores procesando cada historial de entrega.
-    */
-   private void actualizarEstadisticasConHistorial(Map<String, RepartidorStats> statsMap) {
-      for (HistorialDeEntrega historial : historialRepo.obtenerTodos()) {
-         if (esHistorialValidoParaEstadisticas(historial)) {
-            String repartidorId = historial.getRepartidor().getCedulaIdentidad();
-            RepartidorStats stats = statsMap.get(repartidorId);
-            if (stats != null) {
-               stats.totalDeliveries++;
-               if ("Entregado".equalsIgnoreCase(historial.getEstadoEntrega())) {
-                  long diffInMillies = Math.abs(historial.getFechaRegistro().getTime() - historial.getPedidoAsociado().getFechaCreacion().getTime());
-                  long diffInMinutes = TimeUnit.MINUTES.convert(diffInMillies, TimeUnit.MILLISECONDS);
-                  if (diffInMinutes <= ON_TIME_THRESHOLD_MINUTES) {
-                     stats.onTimeDeliveries++;
-                  }
-               }
-            }
-         }
-      }
-   }
-
-   /*
-    * Verifica si un historial de entrega es válido para ser incluido en las estadísticas.
-    */
-   private boolean esHistorialValidoParaEstadisticas(HistorialDeEntrega historial) {
-      return historial.getRepartidor() != null && historial.getPedidoAsociado() != null &&
-             historial.getFechaRegistro() != null && historial.getPedidoAsociado().getFechaCreacion() != null;
-   }
-
-   /*
-    * Calcula el porcentaje OTD (On-Time Delivery) para cada repartidor y los ordena.
-    * Los repartidores se ordenan primero por OTD (descendente) y luego por número total de entregas (descendente).
-    */
-   private List<RepartidorStats> calcularOtdYOrdenar(Map<String, RepartidorStats> statsMap) {
-      List<RepartidorStats> sortedStats = new ArrayList<>();
-      for (RepartidorStats stats : statsMap.values()) {
-         if (stats.totalDeliveries > 0)
-            stats.otdPercentage = (double) stats.onTimeDeliveries / stats.totalDeliveries * 100.0;
-         else
-            stats.otdPercentage = 0.0;
-         sortedStats.add(stats);
-      }
-      sortedStats.sort((s1, s2) -> {
-         int otdComparison = Double.compare(s2.otdPercentage, s1.otdPercentage);
-         if (otdComparison == 0)
-            return Integer.compare(s2.totalDeliveries, s1.totalDeliveries);
-         return otdComparison;
-      });
-      return sortedStats;
-   }
-
-   /*
-    * Agrega los primeros 10 repartidores de la lista ordenada al modelo de tabla.
-    */
-   private void agregarTopRepartidoresATabla(DefaultTableModel model, List<RepartidorStats> sortedStats) {
-      int count = 0;
-      for (RepartidorStats stats : sortedStats) {
-         if (count < 10) {
-            model.addRow(new Object[]{
-                stats.name,
-                stats.totalDeliveries,
-                String.format("%.2f%%", stats.otdPercentage)
-            });
-            count++;
-         } else {
-            break;
-         }
-      }
-   }
-
-   /*
-    * Clase interna para almacenar estadísticas de repartidores.
-    * Contiene el nombre del repartidor, el total de entregas, las entregas a tiempo
-    * y el porcentaje de entregas a tiempo.
-    */
-   private static class RepartidorStats {
-      String name;
-      int totalDeliveries;
-      int onTimeDeliveries;
-      double otdPercentage;
-
-      /*
-       * Constructor de RepartidorStats.
-       */
-      public RepartidorStats(String name) {
-         this.name = name;
-         this.totalDeliveries = 0;
-         this.onTimeDeliveries = 0;
-         this.otdPercentage = 0.0;
+      DefaultTableModel model = crearModeloTablaNoEditable(new Object[]{"Nombre del Repartidor", "Número de Entregas", "OTD%", "p50 (min)", "p90 (min)", "p99 (min)"});
+      for (RankingDeRepartidores.Posicion posicion : AgregadorDeIndicadores.getInstancia().getTopRepartidores(TOP_REPARTIDORES)) {
+         Repartidor repartidor = repartidorRepo.buscarPorId(posicion.getCedula());
+         model.addRow(new Object[]{
+             (repartidor != null) ? repartidor.getNombre() : FormatoFecha.NO_DISPONIBLE,
+             posicion.getEntregas(),
+             String.format("%.2f%%", posicion.getPorcentajeATiempo()),
+             posicion.getPercentilMinutos(50),
+             posicion.getPercentilMinutos(90),
+             posicion.getPercentilMinutos(99)
+         });
       }
+      return model;
    }
 
    /*
     * Obtiene el número de pedidos entregados en el día actual.
     */
    public int getPedidosEntregadosHoy() {
-      List<HistorialDeEntrega> historiales = historialRepo.obtenerTodos();
-      Date today = new Date();
-      int count = 0;
-      for (HistorialDeEntrega h : historiales) {
-         if ("Entregado".equalsIgnoreCase(h.getEstadoEntrega()) && h.getFechaRegistro() != null) {
-            if (isSameDay(h.getFechaRegistro(), today)) {
-               count++;
-            }
-         }
-      }
-      return count;
+      return AgregadorDeIndicadores.getInstancia().getEntregasHoy();
    }
 
    /*
     * Calcula el porcentaje de entregas a tiempo (On-Time Delivery) de todos los pedidos completados.
     * Una entrega se considera a tiempo si la duración desde la creación del pedido hasta la entrega
-    * es menor o igual al umbral definido (ON_TIME_THRESHOLD_MINUTES).
+    * es menor o igual al umbral definido (`ResumenDiario.UMBRAL_A_TIEMPO_MINUTOS`).
     */
    public double getOnTimeDeliveryPorcentaje() {
-      int totalOnTimeDeliveries = 0;
-      int totalCompletedDeliveries = 0;
-      for (HistorialDeEntrega historial : historialRepo.obtenerTodos()) {
-         if (esEntregaCompletadaYValida(historial)) {
-            totalCompletedDeliveries++;
-            long diffInMillies = Math.abs(historial.getFechaRegistro().getTime() - historial.getPedidoAsociado().getFechaCreacion().getTime());
-            long diffInMinutes = TimeUnit.MINUTES.convert(diffInMillies, TimeUnit.MILLISECONDS);
-            if (diffInMinutes <= ON_TIME_THRESHOLD_MINUTES)
-               totalOnTimeDeliveries++;
-         }
-      }
-      return (totalCompletedDeliveries == 0) ? 0.0 : (double) totalOnTimeDeliveries / totalCompletedDeliveries * 100.0;
+      return AgregadorDeIndicadores.getInstancia().getPorcentajeATiempo();
    }
 
    /*
-    * Verifica si una entrega está completada y tiene datos válidos para el cálculo de OTD.
+    * Calcula el tiempo promedio de entrega para todos los pedidos completados.
     */
-   private boolean esEntregaCompletadaYValida(HistorialDeEntrega historial) {
-      return "Entregado".equalsIgnoreCase(historial.getEstadoEntrega()) && 
-             historial.getPedidoAsociado() != null && 
-             historial.getFechaRegistro() != null && 
-             historial.getPedidoAsociado().getFechaCreacion() != null;
+   public double getTiempoPromedioEntrega() {
+      return AgregadorDeIndicadores.getInstancia().getTiempoPromedioEntrega();
    }
 
    /*
-    * Calcula el tiempo promedio de entrega para todos los pedidos completados.
+    * Obtiene el tiempo de entrega, en minutos, del percentil indicado (50, 90, 99...) de todos los
+    * pedidos completados, calculado a partir de un histograma con un error relativo de como mucho 3,2%.
     */
-   public double getTiempoPromedioEntrega() {
-      long totalDurationMinutes = 0;
-      int completedDeliveriesCount = 0;
-      for (HistorialDeEntrega historial : historialRepo.obtenerTodos()) {
-         if (esEntregaCompletadaYValida(historial)) {
-            long diffInMillies = Math.abs(historial.getFechaRegistro().getTime() - historial.getPedidoAsociado().getFechaCreacion().getTime());
-            totalDurationMinutes += TimeUnit.MINUTES.convert(diffInMillies, TimeUnit.MILLISECONDS);
-            completedDeliveriesCount++;
-         }
-      }
-      return (completedDeliveriesCount == 0) ? 0.0 : (double) totalDurationMinutes / completedDeliveriesCount;
+   public long getPercentilTiempoEntrega(double percentil) {
+      return AgregadorDeIndicadores.getInstancia().getPercentilTiempoEntrega(percentil);
    }
 
    /*
     * Obtiene el número total de pedidos que se encuentran en estado "Pendiente" o "En Camino".
     */
    public int getPedidosEnCurso() {
-      return (int) pedidoRepo.obtenerTodos().stream()
-                             .filter(p -> "Pendiente".equalsIgnoreCase(p.getEstado()) || "En Camino".equalsIgnoreCase(p.getEstado()))
-                             .count();
+      return AgregadorDeIndicadores.getInstancia().getPedidosEnCurso();
    }
 
    /*
     * Obtiene el número total de repartidores que están actualmente disponibles.
     */
    public int getRepartidoresDisponiblesActivos() {
-      return (int) repartidorRepo.obtenerTodos().stream().filter(Repartidor::isDisponibilidad).count();
+      return AgregadorDeIndicadores.getInstancia().getRepartidoresDisponibles();
    }
    
-   /*
-    * Compara si dos fechas caen en el mismo día (ignorando la hora).
-    */
-   private boolean isSameDay(Date date1, Date date2) {
-      if (date1 == null || date2 == null)
-         return false;
-      Calendar cal1 = Calendar.getInstance();
-      cal1.setTime(date1);
-      Calendar cal2 = Calendar.getInstance();
-      cal2.setTime(date2);
-      return cal1.get(Calendar.YEAR) == cal2.get(Calendar.YEAR) && 
-             cal1.get(Calendar.MONTH) == cal2.get(Calendar.MONTH) && 
-             cal1.get(Calendar.DAY_OF_MONTH) == cal2.get(Calendar.DAY_OF_MONTH);
-   }
 }
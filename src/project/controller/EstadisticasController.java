@@ -3,8 +3,13 @@ package project.controller;
 
 import project.model.entities.HistorialDeEntrega;
 import project.model.entities.Pedido;
+import project.model.entities.ResumenDiario;
+import project.model.enums.Granularidad;
 import project.model.repositories.HistorialEntregaRepository;
 import project.model.repositories.PedidoRepository;
+import project.model.repositories.ResumenDiarioRepository;
+import project.util.FormatoFecha;
+import project.util.Registro;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -16,125 +21,132 @@ import org.jfree.chart.renderer.category.BarRenderer;
 import org.jfree.chart.renderer.category.LineAndShapeRenderer;
 import java.awt.Color;
 import java.awt.BasicStroke;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.LinkedHashMap;
 
 /*
  * Controlador para la gestión y generación de estadísticas relacionadas con pedidos y entregas.
  * Encapsula la lógica de negocio para obtener datos de los repositorios y transformarlos
- * en formatos adecuados para la visualización, como gráficos.
+ * en formatos adecuados para la visualización, como gráficos. Las consultas se limitan a un rango
+ * de fechas y agrupan los datos por hora, día, semana o mes (ver `Granularidad`).
  */
 public class EstadisticasController {
-   // Repositorios para acceder a los datos de pedidos e historiales de entrega
+   private static final Registro REGISTRO = Registro.para(EstadisticasController.class);
+
+   /*
+    * Número de días, hasta el día actual, que muestra la gráfica por defecto.
+    */
+   public static final int DIAS_POR_DEFECTO = 30;
+
+   // Repositorio del resumen diario de pedidos y entregas que mantiene el almacén
+   private final ResumenDiarioRepository resumenRepo;
+   // Repositorios de pedidos e historial, consultados por día solo para la granularidad por hora
    private final PedidoRepository pedidoRepo;
    private final HistorialEntregaRepository historialRepo;
-   // Formato de fecha para estandarizar la representación de fechas
-   private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy");
 
    /*
     * Constructor de la clase EstadisticasController.
     * Inicializa los repositorios necesarios para la obtención de datos.
     */
    public EstadisticasController() {
+      this.resumenRepo = new ResumenDiarioRepository();
       this.pedidoRepo = new PedidoRepository();
       this.historialRepo = new HistorialEntregaRepository();
    }
 
    /*
-    * Prepara y consolida los datos de pedidos y tiempos de entrega para su uso en una gráfica.
-    * Este método orquesta la obtención de datos de los repositorios, su procesamiento
-    * para calcular pedidos por día y el tiempo promedio de entrega, y finalmente los organiza
-    * en un mapa para facilitar su consumo por el método de generación de gráficos.
+    * Prepara los datos de la gráfica por defecto: los últimos `DIAS_POR_DEFECTO` días, por día.
     */
    public Map<String, Object> prepararDatosParaGrafica() {
-      // Obtener todos los pedidos y historiales de entrega
-      List<Pedido> pedidos = pedidoRepo.obtenerTodos();
-      List<HistorialDeEntrega> historiales = historialRepo.obtenerTodos();
-
-      // Calcular el número de pedidos por día
-      Map<String, Long> pedidosPorDia = calcularPedidosPorDia(pedidos);
-      // Calcular las duraciones de entrega por día
-      Map<String, List<Long>> duracionesPorDia = calcularDuracionesPorDia(historiales);
-      // Calcular el tiempo promedio de entrega por día
-      Map<String, Double> tiempoPromedioEntregaPorDia = calcularTiempoPromedioEntregaPorDia(duracionesPorDia);
-
-      // Consolidar todas las fechas únicas y ordenarlas
-      List<String> fechas = consolidarFechas(pedidosPorDia, tiempoPromedioEntregaPorDia);
-
-      // Preparar los datos finales para la gráfica
-      return organizarDatosParaGrafica(fechas, pedidosPorDia, tiempoPromedioEntregaPorDia);
+      LocalDate hoy = LocalDate.now();
+      return prepararDatosParaGrafica(hoy.minusDays(DIAS_POR_DEFECTO - 1), hoy, Granularidad.DIA);
    }
 
    /*
-    * Calcula el número de pedidos agrupados por día de creación.
+    * Prepara los datos de pedidos y tiempos de entrega entre `desde` y `hasta` (ambos incluidos),
+    * agrupados según `granularidad`, y los organiza en un mapa para el método de generación de gráficos.
+    * Por día, semana o mes se suman los días del resumen diario que mantiene el almacén; por hora se
+    * consultan los pedidos e historiales de cada día del rango con los índices por día. En ningún
+    * caso se recorren los datos fuera del rango.
     */
-   private Map<String, Long> calcularPedidosPorDia(List<Pedido> pedidos) {
-      return pedidos.stream()
-                   .collect(Collectors.groupingBy(pedido -> dateFormat.format(pedido.getFechaCreacion()), Collectors.counting()));
+   public Map<String, Object> prepararDatosParaGrafica(LocalDate desde, LocalDate hasta, Granularidad granularidad) {
+      long primerDia = desde.toEpochDay();
+      long ultimoDia = hasta.toEpochDay();
+      if (granularidad == Granularidad.HORA)
+         return organizarDatosParaGrafica(resumirPorHora(primerDia, ultimoDia));
+      return organizarDatosParaGrafica(resumirPorPeriodo(primerDia, ultimoDia, granularidad));
    }
 
    /*
-    * Calcula las duraciones de entrega en minutos para cada día.
-    * Solo considera historiales de entrega que están en estado "Entregado" y tienen fechas válidas.
+    * Suma los resúmenes diarios del rango en un resumen por periodo, con la etiqueta del periodo como
+    * clave. Los días llegan en orden, por lo que los periodos también quedan en orden cronológico.
     */
-   private Map<String, List<Long>> calcularDuracionesPorDia(List<HistorialDeEntrega> historiales) {
-      Map<String, List<Long>> duracionesPorDia = new HashMap<>();
-      for (HistorialDeEntrega historial : historiales) {
-         if (esHistorialDeEntregaValido(historial)) {
-            long diffInMillies = Math.abs(historial.getFechaRegistro().getTime() - historial.getPedidoAsociado().getFechaCreacion().getTime());
-            long diffInMinutes = TimeUnit.MINUTES.convert(diffInMillies, TimeUnit.MILLISECONDS);
-            String fechaEntrega = dateFormat.format(historial.getFechaRegistro());
-            duracionesPorDia.computeIfAbsent(fechaEntrega, k -> new ArrayList<>()).add(diffInMinutes);
-         }
+   private Map<String, ResumenDiario> resumirPorPeriodo(long primerDia, long ultimoDia, Granularidad granularidad) {
+      Map<String, ResumenDiario> periodos = new LinkedHashMap<>();
+      for (ResumenDiario dia : resumenRepo.obtenerEntre(primerDia, ultimoDia)) {
+         long inicio = granularidad.inicioDelPeriodo(dia.getDia());
+         periodos.computeIfAbsent(granularidad.etiquetaDelPeriodo(inicio), etiqueta -> new ResumenDiario(inicio)).sumar(dia);
       }
-      return duracionesPorDia;
-   }
-
-   /*
-    * Verifica si un historial de entrega es válido para el cálculo de duración.
-    */
-   private boolean esHistorialDeEntregaValido(HistorialDeEntrega historial) {
-      return historial.getPedidoAsociado() != null &&
-             historial.getPedidoAsociado().getFechaCreacion() != null &&
-             historial.getFechaRegistro() != null &&
-             "Entregado".equals(historial.getEstadoEntrega());
+      return periodos;
    }
 
    /*
-    * Calcula el tiempo promedio de entrega por día.
+    * Resume por hora los pedidos creados y los historiales registrados en cada día del rango, con
+    * la etiqueta "dd/MM/yyyy HH:00" como clave, en orden cronológico. Se aplican los mismos
+    * criterios que el resumen diario del almacén.
     */
-   private Map<String, Double> calcularTiempoPromedioEntregaPorDia(Map<String, List<Long>> duracionesPorDia) {
-      return duracionesPorDia.entrySet().stream()
-                   .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream().mapToLong(Long::longValue).average().orElse(0.0)));
+   private Map<String, ResumenDiario> resumirPorHora(long primerDia, long ultimoDia) {
+      Map<String, ResumenDiario> periodos = new LinkedHashMap<>();
+      for (long dia = primerDia; dia <= ultimoDia; dia++) {
+         ResumenDiario[] horas = new ResumenDiario[24];
+         for (Pedido pedido : pedidoRepo.buscarPorDia(dia))
+            resumenDeHora(horas, dia, pedido.getFechaCreacionMs()).registrarPedido(pedido.getCombo(), pedido.getMetodoPago(), 1);
+         for (HistorialDeEntrega historial : historialRepo.buscarPorDia(dia)) {
+            if ("Entregado".equalsIgnoreCase(historial.getEstadoEntrega())) {
+               long minutos = ResumenDiario.minutosDeEntrega(historial);
+               resumenDeHora(horas, dia, historial.getFechaRegistroMs()).registrarEntrega(minutos >= 0, minutos, 1);
+            } else if ("Cancelado".equalsIgnoreCase(historial.getEstadoEntrega())) {
+               resumenDeHora(horas, dia, historial.getFechaRegistroMs()).registrarCancelacion(1);
+            }
+         }
+         for (int hora = 0; hora < horas.length; hora++) {
+            if (horas[hora] != null)
+               periodos.put(String.format("%s %02d:00", FormatoFecha.etiquetaDia(dia), hora), horas[hora]);
+         }
+      }
+      return periodos;
    }
 
    /*
-    * Consolida y ordena las fechas únicas de pedidos y tiempos de entrega.
+    * Obtiene el resumen de la hora a la que pertenece un instante, creándolo si no existe.
     */
-   private List<String> consolidarFechas(Map<String, Long> pedidosPorDia, Map<String, Double> tiempoPromedioEntregaPorDia) {
-      List<String> fechas = new ArrayList<>();
-      fechas.addAll(pedidosPorDia.keySet());
-      fechas.addAll(tiempoPromedioEntregaPorDia.keySet());
-      return fechas.stream().distinct().sorted().collect(Collectors.toList());
+   private ResumenDiario resumenDeHora(ResumenDiario[] horas, long dia, long milisegundos) {
+      int hora = FormatoFecha.horaDelDia(milisegundos);
+      if (horas[hora] == null)
+         horas[hora] = new ResumenDiario(dia);
+      return horas[hora];
    }
 
    /*
-    * Organiza los datos procesados en listas separadas para su uso en la gráfica.
+    * Organiza los resúmenes por periodo en listas separadas para su uso en la gráfica, una posición
+    * por cada periodo con pedidos creados o entregas medidas, en orden cronológico.
     */
-   private Map<String, Object> organizarDatosParaGrafica(List<String> fechas, Map<String, Long> pedidosPorDia, Map<String, Double> tiempoPromedioEntregaPorDia) {
+   private Map<String, Object> organizarDatosParaGrafica(Map<String, ResumenDiario> periodos) {
       List<String> xData = new ArrayList<>();
       List<Double> yDataPedidos = new ArrayList<>();
       List<Double> yDataTiempo = new ArrayList<>();
 
-      for (String fecha : fechas) {
-         xData.add(fecha);
-         yDataPedidos.add(pedidosPorDia.getOrDefault(fecha, 0L).doubleValue());
-         yDataTiempo.add(tiempoPromedioEntregaPorDia.getOrDefault(fecha, 0.0));
+      for (Map.Entry<String, ResumenDiario> periodo : periodos.entrySet()) {
+         ResumenDiario resumen = periodo.getValue();
+         if (resumen.getPedidosCreados() == 0 && resumen.getEntregasMedidas() == 0)
+            continue;
+         xData.add(periodo.getKey());
+         yDataPedidos.add((double) resumen.getPedidosCreados());
+         yDataTiempo.add(resumen.getPromedioMinutosEntrega());
       }
 
       Map<String, Object> data = new HashMap<>();
@@ -145,20 +157,29 @@ public class EstadisticasController {
    }
 
    /*
-    * Genera un panel de gráfico que muestra estadísticas de pedidos y tiempo de entrega por día.
+    * Genera el panel de gráfico por defecto: los últimos `DIAS_POR_DEFECTO` días, por día.
+    */
+   public ChartPanel generarGraficaEstadisticasPanel() {
+      LocalDate hoy = LocalDate.now();
+      return generarGraficaEstadisticasPanel(hoy.minusDays(DIAS_POR_DEFECTO - 1), hoy, Granularidad.DIA);
+   }
+
+   /*
+    * Genera un panel de gráfico que muestra estadísticas de pedidos y tiempo de entrega entre
+    * `desde` y `hasta`, agrupadas según `granularidad`.
     * Este método utiliza los datos preparados por {@code prepararDatosParaGrafica} para construir
     * un gráfico de barras y líneas con JFreeChart, configurando los ejes y renderizadores
     * para una visualización clara.
     */
-   public ChartPanel generarGraficaEstadisticasPanel() {
-      Map<String, Object> data = prepararDatosParaGrafica();
+   public ChartPanel generarGraficaEstadisticasPanel(LocalDate desde, LocalDate hasta, Granularidad granularidad) {
+      Map<String, Object> data = prepararDatosParaGrafica(desde, hasta, granularidad);
       List<String> xData = (List<String>) data.get("fechas");
       List<Double> yDataPedidos = (List<Double>) data.get("pedidosPorDia");
       List<Double> yDataTiempo = (List<Double>) data.get("tiempoPromedioEntrega");
 
       // Si no hay datos, se imprime un mensaje y se retorna un panel vacío.
       if (xData.isEmpty()) {
-         System.out.println("No hay datos disponibles para generar la gráfica.");
+         REGISTRO.depurar(() -> "No hay datos disponibles para generar la gráfica.");
          return new ChartPanel(null);
       }
 
@@ -168,8 +189,8 @@ public class EstadisticasController {
 
       // Crear el gráfico principal de barras
       JFreeChart chart = ChartFactory.createBarChart(
-         "Estadísticas de Pedidos y Entrega por Día", // Título del gráfico
-         "Día",                                     // Etiqueta del eje X
+         "Estadísticas de Pedidos y Entrega por " + granularidad, // Título del gráfico
+         granularidad.toString(),                   // Etiqueta del eje X
          "Número de Pedidos",                       // Etiqueta del eje Y principal
          datasetPedidos,                            // Dataset para las barras (pedidos)
          PlotOrientation.VERTICAL,                  // Orientación del gráfico
@@ -0,0 +1,395 @@
+package project.controller;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+/*
+ * La clase `IndiceDeBusqueda` es un índice invertido de las palabras de las filas de una tabla.
+ * Cada fila se identifica por la clave primaria de su entidad y su texto se divide en palabras
+ * normalizadas (sin acentos y en minúsculas). Una consulta coincide con las filas que tienen, para
+ * cada palabra de la consulta, alguna palabra que empieza por ella.
+ * El índice se construye de una vez en una parte compacta: las palabras distintas ordenadas en un
+ * arreglo y, a continuación unas de otras, las filas de cada palabra en un arreglo de enteros. Las
+ * palabras que empiezan por un prefijo son un rango contiguo que se encuentra con búsqueda binaria,
+ * y sus filas también, así que una consulta recorre solo las filas que coinciden.
+ * Las filas que cambian después se marcan como obsoletas en la parte compacta y sus palabras nuevas
+ * se guardan en un `TreeMap` aparte; cuando esas filas son muchas, la siguiente búsqueda las
+ * vuelve a compactar.
+ * El índice conoce además la fila del modelo de cada una de sus filas, de modo que una búsqueda
+ * entrega directamente las filas del modelo que coinciden y el filtro de la tabla solo las consulta.
+ * Para un modelo que no tiene todas las filas, como `ModeloTablaPaginada`, `buscarClaves` entrega
+ * en cambio las claves que coinciden.
+ * Los métodos son seguros entre hilos: el modelo lo actualiza desde el hilo de eventos y las
+ * búsquedas se hacen en segundo plano.
+ */
+public final class IndiceDeBusqueda {
+   private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+   // Filas cambiadas a partir de las cuales se compacta, como mínimo y como fracción de las filas
+   private static final int CAMBIOS_MINIMOS = 1024;
+   private static final int FRACCION_CAMBIOS = 8;
+
+   /*
+    * Conjunto ordenado de números de fila; la mayoría de las palabras aparece en pocas filas.
+    */
+   private static final class Filas {
+      private int[] datos = new int[2];
+      private int tamano;
+
+      void agregar(int fila) {
+         int i = Arrays.binarySearch(datos, 0, tamano, fila);
+         if (i >= 0)
+            return;
+         i = -i - 1;
+         if (tamano == datos.length)
+            datos = Arrays.copyOf(datos, tamano * 2);
+         System.arraycopy(datos, i, datos, i + 1, tamano - i);
+         datos[i] = fila;
+         tamano++;
+      }
+
+      void quitar(int fila) {
+         int i = Arrays.binarySearch(datos, 0, tamano, fila);
+         if (i < 0)
+            return;
+         System.arraycopy(datos, i + 1, datos, i, tamano - i - 1);
+         tamano--;
+      }
+
+      void agregarA(BitSet destino) {
+         for (int i = 0; i < tamano; i++)
+            destino.set(datos[i]);
+      }
+   }
+
+   /*
+    * Resultado de una búsqueda: las filas que coinciden en el momento de la consulta, como filas
+    * del índice y como filas del modelo. Mientras el modelo no elimine filas, `contiene` solo
+    * consulta un bit, sin tomar el monitor del índice ni esperar a una búsqueda o compactación en
+    * curso.
+    */
+   public final class Coincidencias {
+      private final int generacion;
+      private final int numeracion;
+      private final BitSet filas;
+      private final BitSet filasDelModelo;
+
+      private Coincidencias(int generacion, int numeracion, BitSet filas, BitSet filasDelModelo) {
+         this.generacion = generacion;
+         this.numeracion = numeracion;
+         this.filas = filas;
+         this.filasDelModelo = filasDelModelo;
+      }
+
+      /*
+       * Indica si la fila del modelo indicada, cuya clave se obtiene con `clave`, coincide con la
+       * consulta. Las filas añadidas después de la consulta no coinciden. Si desde la consulta se
+       * eliminaron filas, los números de fila ya no valen y, hasta la siguiente búsqueda, la fila se
+       * ubica por su clave. Retorna false si el índice se reconstruyó después de la consulta.
+       */
+      public boolean contiene(int filaDelModelo, IntFunction<String> clave) {
+         if (numeracion == IndiceDeBusqueda.this.numeracion)
+            return filasDelModelo.get(filaDelModelo);
+         synchronized (IndiceDeBusqueda.this) {
+            Integer fila = filaPorClave.get(clave.apply(filaDelModelo));
+            return generacion == IndiceDeBusqueda.this.generacion && fila != null && filas.get(fila);
+         }
+      }
+
+      /*
+       * Obtiene el número de filas que coinciden.
+       */
+      public int getCantidad() {
+         return filasDelModelo.cardinality();
+      }
+   }
+
+   // Parte compacta: las filas de palabras[i] son filas[inicios[i]] .. filas[inicios[i + 1] - 1]
+   private String[] palabras = new String[0];
+   private int[] inicios = {0};
+   private int[] filas = new int[0];
+   // Filas cuyas palabras en la parte compacta ya no son válidas
+   private final BitSet obsoletas = new BitSet();
+   // Palabras de las filas cambiadas desde la última compactación
+   private final TreeMap<String, Filas> recientes = new TreeMap<>();
+   private final Map<Integer, String[]> palabrasRecientes = new HashMap<>();
+
+   private final Map<String, Integer> filaPorClave = new HashMap<>();
+   private final BitSet existentes = new BitSet();
+   // Fila del modelo y clave de cada fila del índice
+   private int[] filasDelModelo = new int[0];
+   private String[] claves = new String[0];
+   private int siguienteFila;
+   // Aumenta en cada reconstrucción, que vuelve a numerar las filas
+   private int generacion;
+   // Aumenta cada vez que cambian los números de las filas del modelo: al reconstruir o al eliminar
+   private volatile int numeracion;
+
+   /*
+    * Reemplaza todo el contenido del índice por las filas indicadas, en el orden de las filas del
+    * modelo: la clave de cada una y su texto. Las coincidencias obtenidas antes dejan de ser válidas.
+    */
+   public synchronized void reconstruir(List<String> claves, List<String> textos) {
+      filaPorClave.clear();
+      existentes.clear();
+      obsoletas.clear();
+      recientes.clear();
+      palabrasRecientes.clear();
+      generacion++;
+      numeracion++;
+      Map<String, Filas> filasPorPalabra = new HashMap<>();
+      filasDelModelo = new int[Math.max(16, claves.size())];
+      this.claves = new String[filasDelModelo.length];
+      for (int fila = 0; fila < claves.size(); fila++) {
+         filasDelModelo[fila] = fila;
+         this.claves[fila] = claves.get(fila);
+         Integer anterior = filaPorClave.put(claves.get(fila), fila);
+         if (anterior != null) {
+            existentes.clear(anterior);
+            obsoletas.set(anterior);
+         }
+         existentes.set(fila);
+         for (String palabra : palabras(textos.get(fila)))
+            filasPorPalabra.computeIfAbsent(palabra, p -> new Filas()).agregar(fila);
+      }
+      siguienteFila = claves.size();
+      compactar(filasPorPalabra);
+   }
+
+   /*
+    * Indexa el texto de la fila de la entidad con la clave indicada, que ocupa la fila del modelo
+    * indicada, reemplazando el anterior. Una fila que ya existe conserva su número, de modo que las
+    * coincidencias obtenidas antes siguen refiriéndose a ella.
+    */
+   public synchronized void actualizar(String clave, String texto, int filaDelModelo) {
+      Integer fila = filaPorClave.get(clave);
+      if (fila == null) {
+         fila = siguienteFila++;
+         filaPorClave.put(clave, fila);
+         existentes.set(fila);
+         if (fila == filasDelModelo.length) {
+            filasDelModelo = Arrays.copyOf(filasDelModelo, Math.max(16, fila * 2));
+            claves = Arrays.copyOf(claves, filasDelModelo.length);
+         }
+         filasDelModelo[fila] = filaDelModelo;
+         claves[fila] = clave;
+      } else {
+         quitarRecientes(fila);
+      }
+      obsoletas.set(fila);
+      List<String> nuevas = palabras(texto);
+      String[] propias = new String[nuevas.size()];
+      for (int i = 0; i < propias.length; i++) {
+         // Se guarda la misma instancia que ya tiene la parte compacta, si la palabra existe.
+         String palabra = nuevas.get(i);
+         int posicion = Arrays.binarySearch(palabras, palabra);
+         if (posicion >= 0)
+            palabra = palabras[posicion];
+         recientes.computeIfAbsent(palabra, p -> new Filas()).agregar(fila);
+         propias[i] = palabra;
+      }
+      palabrasRecientes.put(fila, propias);
+   }
+
+   /*
+    * Indexa el texto de la entidad con la clave indicada, reemplazando el anterior, en un índice
+    * cuyas filas no son las de un modelo y que se consulta con `buscarClaves`.
+    */
+   public synchronized void actualizar(String clave, String texto) {
+      Integer fila = filaPorClave.get(clave);
+      actualizar(clave, texto, (fila != null) ? filasDelModelo[fila] : siguienteFila);
+   }
+
+   /*
+    * Quita del índice la fila de la entidad con la clave indicada, si existe. Las filas del modelo
+    * posteriores a la suya se desplazan una posición, como en el modelo.
+    */
+   public synchronized void quitar(String clave) {
+      Integer fila = filaPorClave.remove(clave);
+      if (fila == null)
+         return;
+      quitarRecientes(fila);
+      obsoletas.set(fila);
+      existentes.clear(fila);
+      claves[fila] = null;
+      int quitada = filasDelModelo[fila];
+      for (int otra = existentes.nextSetBit(0); otra >= 0; otra = existentes.nextSetBit(otra + 1)) {
+         if (filasDelModelo[otra] > quitada)
+            filasDelModelo[otra]--;
+      }
+      numeracion++;
+   }
+
+   /*
+    * Indica que el modelo reemplazó este índice por otro y volvió a numerar sus filas. Las
+    * coincidencias obtenidas antes ubican desde entonces sus filas por la clave.
+    */
+   synchronized void descartar() {
+      numeracion++;
+   }
+
+   /*
+    * Busca las filas que, para cada palabra de la consulta, tienen alguna palabra que empieza por ella,
+    * y las entrega como filas del modelo. Una consulta sin palabras coincide con todas las filas.
+    */
+   public synchronized Coincidencias buscar(String consulta) {
+      BitSet resultado = filasQueCoinciden(consulta);
+      BitSet delModelo = new BitSet();
+      for (int fila = resultado.nextSetBit(0); fila >= 0; fila = resultado.nextSetBit(fila + 1))
+         delModelo.set(filasDelModelo[fila]);
+      return new Coincidencias(generacion, numeracion, resultado, delModelo);
+   }
+
+   /*
+    * Busca como `buscar`, pero entrega las claves de las filas que coinciden.
+    */
+   public synchronized Set<String> buscarClaves(String consulta) {
+      BitSet resultado = filasQueCoinciden(consulta);
+      Set<String> coincidentes = new HashSet<>(Math.max(16, resultado.cardinality() * 4 / 3 + 1));
+      for (int fila = resultado.nextSetBit(0); fila >= 0; fila = resultado.nextSetBit(fila + 1))
+         coincidentes.add(claves[fila]);
+      return coincidentes;
+   }
+
+   /*
+    * Obtiene las filas del índice que coinciden con la consulta.
+    */
+   private BitSet filasQueCoinciden(String consulta) {
+      if (palabrasRecientes.size() > Math.max(CAMBIOS_MINIMOS, filaPorClave.size() / FRACCION_CAMBIOS))
+         recompactar();
+      BitSet resultado = (BitSet) existentes.clone();
+      for (String prefijo : palabras(consulta)) {
+         String limite = prefijo + Character.MAX_VALUE;
+         BitSet conPrefijo = new BitSet(siguienteFila);
+         for (int i = inicios[posicion(prefijo)], fin = inicios[posicion(limite)]; i < fin; i++)
+            conPrefijo.set(filas[i]);
+         conPrefijo.andNot(obsoletas);
+         for (Filas conPalabra : recientes.subMap(prefijo, true, limite, false).values())
+            conPalabra.agregarA(conPrefijo);
+         resultado.and(conPrefijo);
+         if (resultado.isEmpty())
+            break;
+      }
+      return resultado;
+   }
+
+   /*
+    * Normaliza un texto para buscar: quita los acentos y lo pasa a minúsculas.
+    */
+   public static String normalizar(String texto) {
+      for (int i = 0; i < texto.length(); i++) {
+         if (texto.charAt(i) > 127) {
+            String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+            return sinAcentos.toLowerCase(Locale.ROOT);
+         }
+      }
+      // Un texto ASCII no tiene acentos.
+      return texto.toLowerCase(Locale.ROOT);
+   }
+
+   /*
+    * Divide un texto en sus palabras normalizadas (letras y dígitos seguidos), sin repetir, en
+    * orden de aparición.
+    */
+   private static List<String> palabras(String texto) {
+      List<String> palabras = new ArrayList<>();
+      if (texto == null)
+         return palabras;
+      String normalizado = normalizar(texto);
+      int inicio = -1;
+      for (int i = 0; i <= normalizado.length(); i++) {
+         boolean enPalabra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+         if (enPalabra && inicio < 0) {
+            inicio = i;
+         } else if (!enPalabra && inicio >= 0) {
+            String palabra = normalizado.substring(inicio, i);
+            if (!palabras.contains(palabra))
+               palabras.add(palabra);
+            inicio = -1;
+         }
+      }
+      return palabras;
+   }
+
+   /*
+    * Obtiene la posición de la primera palabra de la parte compacta mayor o igual que la indicada.
+    */
+   private int posicion(String palabra) {
+      int posicion = Arrays.binarySearch(palabras, palabra);
+      return (posicion >= 0) ? posicion : -posicion - 1;
+   }
+
+   /*
+    * Quita las palabras recientes de una fila, olvidando las que quedan sin filas.
+    */
+   private void quitarRecientes(int fila) {
+      String[] propias = palabrasRecientes.remove(fila);
+      if (propias == null)
+         return;
+      for (String palabra : propias) {
+         Filas conPalabra = recientes.get(palabra);
+         conPalabra.quitar(fila);
+         if (conPalabra.tamano == 0)
+            recientes.remove(palabra);
+      }
+   }
+
+   /*
+    * Incorpora a la parte compacta las palabras recientes y descarta las filas obsoletas, sin
+    * cambiar los números de las filas.
+    */
+   private void recompactar() {
+      Map<String, Filas> filasPorPalabra = new HashMap<>();
+      for (int i = 0; i < palabras.length; i++) {
+         Filas vigentes = new Filas();
+         for (int j = inicios[i]; j < inicios[i + 1]; j++) {
+            if (!obsoletas.get(filas[j]))
+               vigentes.agregar(filas[j]);
+         }
+         if (vigentes.tamano > 0)
+            filasPorPalabra.put(palabras[i], vigentes);
+      }
+      for (Map.Entry<Integer, String[]> reciente : palabrasRecientes.entrySet()) {
+         for (String palabra : reciente.getValue())
+            filasPorPalabra.computeIfAbsent(palabra, p -> new Filas()).agregar(reciente.getKey());
+      }
+      recientes.clear();
+      palabrasRecientes.clear();
+      obsoletas.clear();
+      compactar(filasPorPalabra);
+   }
+
+   /*
+    * Reemplaza la parte compacta por las palabras y filas indicadas.
+    */
+   private void compactar(Map<String, Filas> filasPorPalabra) {
+      String[] ordenadas = filasPorPalabra.keySet().toArray(new String[0]);
+      Arrays.sort(ordenadas);
+      int total = 0;
+      for (Filas conPalabra : filasPorPalabra.values())
+         total += conPalabra.tamano;
+      int[] nuevosInicios = new int[ordenadas.length + 1];
+      int[] nuevasFilas = new int[total];
+      int siguiente = 0;
+      for (int i = 0; i < ordenadas.length; i++) {
+         Filas conPalabra = filasPorPalabra.get(ordenadas[i]);
+         nuevosInicios[i] = siguiente;
+         System.arraycopy(conPalabra.datos, 0, nuevasFilas, siguiente, conPalabra.tamano);
+         siguiente += conPalabra.tamano;
+      }
+      nuevosInicios[ordenadas.length] = siguiente;
+      palabras = ordenadas;
+      inicios = nuevosInicios;
+      filas = nuevasFilas;
+   }
+}
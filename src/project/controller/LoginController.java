@@ -1,30 +1,33 @@
 
 package project.controller;
 
-import project.data.GestorJSON;
-import project.model.entities.BaseDeDatos;
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
 import project.model.entities.Repartidor;
 import project.model.entities.Usuario;
-import java.util.List;
+import project.util.Registro;
 
 /*
  * La clase `LoginController` maneja la lógica de negocio relacionada con el inicio de sesión de usuarios.
  * Se encarga de validar credenciales, obtener roles de usuario y procesar el flujo de login
- * interactuando con la capa de datos (`GestorJSON`) para acceder a la `BaseDeDatos`.
+ * interactuando con el almacén compartido (`AlmacenDeDatos`) para acceder a la `BaseDeDatos`.
  */
 public class LoginController {
+   private static final Registro REGISTRO = Registro.para(LoginController.class);
+
    /*
-    * Instancia de la base de datos que contiene la información de usuarios y repartidores.
+    * Almacén compartido que contiene la información de usuarios y repartidores.
     */
-   private final BaseDeDatos baseDeDatos;
+   private final AlmacenDeDatos almacen;
 
    /*
     * Constructor de la clase `LoginController`.
-    * Inicializa el controlador cargando la base de datos desde el archivo JSON.
+    * Inicializa el controlador obteniendo el almacén compartido; la primera vez
+    * que se solicita, el almacén carga la base de datos desde el archivo JSON.
     */
    public LoginController() {
-      baseDeDatos = GestorJSON.leerBaseDatos();
-      System.out.println("DEBUG: LoginController inicializado. BaseDeDatos cargada.");
+      almacen = AlmacenDeDatos.getInstancia();
+      REGISTRO.depurar(() -> "LoginController inicializado. BaseDeDatos cargada.");
    }
     
    /*
@@ -32,15 +35,15 @@ public class LoginController {
     * Busca el usuario por cédula y compara la contraseña proporcionada con la almacenada.
     */
    public boolean validarCredenciales(String cedula, String contrasena) {
-      System.out.println("DEBUG: Validando credenciales para Cédula: '" + cedula + "' y Contraseña: '" + contrasena + "'");
+      REGISTRO.depurar(() -> "Validando credenciales para Cédula: '" + cedula + "'");
       Usuario usuario = buscarUsuarioPorCedula(cedula);
       if (usuario != null) {
-         System.out.println("DEBUG: Usuario encontrado: Cédula='" + usuario.getCedula() + "', Contraseña Almacenada='" + usuario.getContrasena() + "'");
+         REGISTRO.depurar(() -> "Usuario encontrado: Cédula='" + usuario.getCedula() + "'");
          boolean passwordMatch = usuario.getContrasena().equals(contrasena);
-         System.out.println("DEBUG: Coincidencia de contraseña: " + passwordMatch);
+         REGISTRO.depurar(() -> "Coincidencia de contraseña: " + passwordMatch);
          return passwordMatch;
       } else {
-         System.out.println("DEBUG: Usuario no encontrado para cédula: " + cedula);
+         REGISTRO.depurar(() -> "Usuario no encontrado para cédula: " + cedula);
          return false;
       }
    }
@@ -69,7 +72,7 @@ public class LoginController {
    public LoginResult procesarLogin(String cedula, String contrasena) {
       String cedulaLimpia = cedula.trim();
       String contrasenaLimpia = contrasena; 
-      System.out.println("DEBUG: Procesando Login para Cédula (limpia): '" + cedulaLimpia + "' y Contraseña (limpia): '" + contrasenaLimpia + "'");
+      REGISTRO.depurar(() -> "Procesando Login para Cédula (limpia): '" + cedulaLimpia + "'");
       
       // Valida el usuario y la contraseña.
       Usuario usuario = validarUsuario(cedulaLimpia, contrasenaLimpia);
@@ -89,14 +92,14 @@ public class LoginController {
    private Usuario validarUsuario(String cedula, String contrasena) {
       Usuario usuario = buscarUsuarioPorCedula(cedula);
       if (usuario == null) {
-         System.out.println("DEBUG: Usuario NO encontrado después de buscar por cédula.");
+         REGISTRO.depurar(() -> "Usuario NO encontrado después de buscar por cédula.");
          return null;
       }
       if (!usuario.getContrasena().equals(contrasena)) {
-         System.out.println("DEBUG: Contraseña NO coincide. Almacenada: '" + usuario.getContrasena() + "', Ingresada: '" + contrasena + "'");
+         REGISTRO.depurar(() -> "Contraseña NO coincide para cédula: '" + cedula + "'");
          return null;
       }
-      System.out.println("DEBUG: Credenciales correctas. Rol: " + usuario.getRol());
+      REGISTRO.depurar(() -> "Credenciales correctas. Rol: " + usuario.getRol());
       return usuario;
    }
 
@@ -109,7 +112,7 @@ public class LoginController {
       if ("repartidor".equalsIgnoreCase(rol)) {
          Repartidor rep = buscarRepartidorPorCedula(usuario.getCedula());
          if (rep == null) {
-            System.err.println("ERROR: Usuario es repartidor pero NO se encontró el perfil de repartidor para cédula: " + usuario.getCedula() + ". Asegúrese de que el repartidor exista en la base de datos de repartidores.");
+            REGISTRO.error("Usuario es repartidor pero NO se encontró el perfil de repartidor para cédula: " + usuario.getCedula() + ". Asegúrese de que el repartidor exista en la base de datos de repartidores.");
             return new LoginResult(false, "Error de configuración: Perfil de repartidor no encontrado.", rol, null);
          }
          return new LoginResult(true, "Acceso concedido.", rol, rep);
@@ -121,34 +124,19 @@ public class LoginController {
     * Busca un objeto `Usuario` en la base de datos por su cédula de identidad.
     */
    private Usuario buscarUsuarioPorCedula(String cedula) {
-      List<Usuario> usuarios = baseDeDatos.getUsuarios();
-      if (usuarios == null) {
-         System.err.println("Advertencia: La lista de usuarios en la BaseDeDatos es nula al buscar por cédula.");
-         return null;
-      }
-      for (Usuario u : usuarios) {
-         System.out.println("DEBUG: Comparando cédula buscada '" + cedula + "' con usuario en lista '" + u.getCedula() + "'");
-         if (u.getCedula() != null && u.getCedula().equals(cedula)) // Added null check for u.getCedula()
-            return u;
-      }
-      return null;
+      // Búsqueda directa por clave primaria en el índice del almacén.
+      Usuario usuario = almacen.buscar(Coleccion.USUARIOS, cedula);
+      REGISTRO.depurar(() -> "Usuario con cédula '" + cedula + "' " + (usuario != null ? "encontrado." : "no encontrado."));
+      return usuario;
    }
     
    /*
     * Busca un objeto `Repartidor` en la base de datos por su cédula de identidad.
     */
    private Repartidor buscarRepartidorPorCedula(String cedula) {
-      List<Repartidor> repartidores = baseDeDatos.getRepartidor();
-      if (repartidores == null) {
-         System.err.println("Advertencia: La lista de repartidores en la BaseDeDatos es nula al buscar por cédula.");
-         return null;
-      }
-      for (Repartidor r : repartidores) {
-         System.out.println("DEBUG: Comparando cédula buscada '" + cedula + "' con repartidor en lista '" + r.getCedulaIdentidad() + "'");
-         if (r.getCedulaIdentidad() != null && r.getCedulaIdentidad().equals(cedula)) { // Added null check for r.getCedulaIdentidad()
-            return r;
-         }
-      }
-      return null;
+      // Búsqueda directa por clave primaria en el índice del almacén.
+      Repartidor repartidor = almacen.buscar(Coleccion.REPARTIDORES, cedula);
+      REGISTRO.depurar(() -> "Repartidor con cédula '" + cedula + "' " + (repartidor != null ? "encontrado." : "no encontrado."));
+      return repartidor;
    }
 }
@@ -0,0 +1,237 @@
+package project.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.swing.JButton;
+import javax.swing.table.AbstractTableModel;
+
+/*
+ * La clase `ModeloTablaEntidades` es un modelo de tabla respaldado directamente por una lista de
+ * entidades. Cada columna se declara con una función que obtiene su valor a partir de la entidad,
+ * y el valor se calcula cuando la tabla lo pide, es decir, solo para las filas que se dibujan o se
+ * filtran. Así el modelo guarda una referencia por fila en lugar de una fila de textos ya formateados,
+ * y la memoria no crece con el número de columnas.
+ * Cuando se crea con `SincronizadorDeTablas.cargar`, el modelo recibe los cambios del almacén fila
+ * por fila y emite eventos que solo afectan a la fila insertada, actualizada o eliminada.
+ * Con `conBusqueda` el modelo mantiene además un `IndiceDeBusqueda` con el texto de sus filas,
+ * que se construye al cargarlo y se actualiza con cada fila que cambia.
+ * Como cualquier modelo de Swing, debe usarse desde el hilo de eventos una vez asignado a una tabla.
+ */
+public class ModeloTablaEntidades<T> extends AbstractTableModel {
+   // Texto de las columnas que muestran el botón "Ver Detalle"
+   public static final String VER_DETALLE = "Ver Detalle";
+
+   private final int columnaBoton;
+   private final List<String> nombres = new ArrayList<>();
+   private final List<Function<T, Object>> valores = new ArrayList<>();
+   private List<T> entidades = new ArrayList<>();
+   // Clave primaria de cada entidad, usada para ubicar las filas que cambian
+   private Function<T, String> clave;
+   // Posición de cada clave en `entidades`; se construye con el primer cambio y se descarta al recargar
+   private Map<String, Integer> posiciones;
+   // Índice de las palabras de cada fila; null si el modelo no admite búsquedas
+   private IndiceDeBusqueda indice;
+
+   /*
+    * Crea un modelo sin filas. `columnaBoton` es el índice de la única columna editable, la que
+    * muestra un botón, o -1 si no hay ninguna.
+    */
+   public ModeloTablaEntidades(int columnaBoton) {
+      this.columnaBoton = columnaBoton;
+   }
+
+   /*
+    * Añade una columna cuyo valor se obtiene de cada entidad con la función indicada.
+    * Retorna el propio modelo para encadenar las columnas.
+    */
+   public ModeloTablaEntidades<T> columna(String nombre, Function<T, Object> valor) {
+      nombres.add(nombre);
+      valores.add(valor);
+      return this;
+   }
+
+   /*
+    * Mantiene un índice de búsqueda con el texto de las columnas de cada fila, salvo la del botón.
+    * Debe indicarse antes de cargar el modelo. Retorna el propio modelo.
+    */
+   public ModeloTablaEntidades<T> conBusqueda() {
+      indice = new IndiceDeBusqueda();
+      return this;
+   }
+
+   /*
+    * Obtiene el índice de búsqueda del modelo, o null si no se creó con `conBusqueda`.
+    */
+   public IndiceDeBusqueda getIndiceDeBusqueda() {
+      return indice;
+   }
+
+   /*
+    * Obtiene la clave primaria de la entidad de una fila del modelo.
+    */
+   public String getClave(int fila) {
+      return clave.apply(entidades.get(fila));
+   }
+
+   /*
+    * Obtiene la entidad de una fila del modelo.
+    */
+   public T getEntidad(int fila) {
+      return entidades.get(fila);
+   }
+
+   /*
+    * Filas preparadas para el modelo: las entidades y, si el modelo admite búsquedas, su índice ya
+    * construido.
+    */
+   static final class Contenido<T> {
+      private final List<T> entidades;
+      private final IndiceDeBusqueda indice;
+
+      private Contenido(List<T> entidades, IndiceDeBusqueda indice) {
+         this.entidades = entidades;
+         this.indice = indice;
+      }
+   }
+
+   /*
+    * Prepara las entidades indicadas, que no deben modificarse después, para reemplazar con ellas
+    * las filas del modelo. Construir el índice de búsqueda recorre todas las filas, así que puede
+    * hacerse desde cualquier hilo y dejar para el hilo de eventos solo el reemplazo.
+    */
+   Contenido<T> preparar(List<T> nuevas) {
+      if (indice == null)
+         return new Contenido<>(nuevas, null);
+      List<String> claves = new ArrayList<>(nuevas.size());
+      List<String> textos = new ArrayList<>(nuevas.size());
+      for (T entidad : nuevas) {
+         claves.add(clave.apply(entidad));
+         textos.add(texto(entidad));
+      }
+      IndiceDeBusqueda nuevo = new IndiceDeBusqueda();
+      nuevo.reconstruir(claves, textos);
+      return new Contenido<>(nuevas, nuevo);
+   }
+
+   /*
+    * Reemplaza todas las filas por las entidades indicadas, que no deben modificarse después.
+    */
+   void reemplazarTodas(List<T> nuevas) {
+      reemplazarTodas(preparar(nuevas));
+   }
+
+   /*
+    * Reemplaza todas las filas por un contenido ya preparado con `preparar`.
+    */
+   void reemplazarTodas(Contenido<T> contenido) {
+      entidades = contenido.entidades;
+      posiciones = null;
+      if (contenido.indice != null) {
+         if (indice != null && indice != contenido.indice)
+            indice.descartar();
+         indice = contenido.indice;
+      }
+      fireTableDataChanged();
+   }
+
+   /*
+    * Indica la función que obtiene la clave primaria de una entidad, necesaria para `guardar` y `eliminar`.
+    */
+   void setClave(Function<T, String> clave) {
+      this.clave = clave;
+   }
+
+   /*
+    * Actualiza la fila de la entidad con la clave indicada, o la añade al final si no existe.
+    */
+   void guardar(String id, T entidad) {
+      Integer posicion = posiciones().get(id);
+      if (indice != null)
+         indice.actualizar(id, texto(entidad), (posicion != null) ? posicion : entidades.size());
+      if (posicion != null) {
+         entidades.set(posicion, entidad);
+         fireTableRowsUpdated(posicion, posicion);
+      } else {
+         entidades.add(entidad);
+         posiciones.put(id, entidades.size() - 1);
+         fireTableRowsInserted(entidades.size() - 1, entidades.size() - 1);
+      }
+   }
+
+   /*
+    * Quita la fila de la entidad con la clave indicada, si existe. Las filas posteriores se
+    * desplazan una posición, así que se reindexan.
+    */
+   void eliminar(String id) {
+      Integer posicion = posiciones().remove(id);
+      if (posicion == null)
+         return;
+      if (indice != null)
+         indice.quitar(id);
+      entidades.remove((int) posicion);
+      for (int i = posicion; i < entidades.size(); i++) {
+         String siguiente = clave.apply(entidades.get(i));
+         Integer actual = posiciones.get(siguiente);
+         if (actual != null && actual == i + 1)
+            posiciones.put(siguiente, i);
+      }
+      fireTableRowsDeleted(posicion, posicion);
+   }
+
+   /*
+    * Obtiene el índice de posiciones por clave, construyéndolo si hace falta.
+    */
+   private Map<String, Integer> posiciones() {
+      if (posiciones == null) {
+         posiciones = new HashMap<>(Math.max(16, entidades.size() * 4 / 3 + 1));
+         for (int i = 0; i < entidades.size(); i++)
+            posiciones.putIfAbsent(clave.apply(entidades.get(i)), i);
+      }
+      return posiciones;
+   }
+
+   /*
+    * Obtiene el texto que se indexa de una entidad: los valores de sus columnas, salvo la del botón.
+    */
+   private String texto(T entidad) {
+      StringBuilder texto = new StringBuilder();
+      for (int i = 0; i < valores.size(); i++) {
+         if (i != columnaBoton)
+            texto.append(valores.get(i).apply(entidad)).append(' ');
+      }
+      return texto.toString();
+   }
+
+   @Override
+   public int getRowCount() {
+      return entidades.size();
+   }
+
+   @Override
+   public int getColumnCount() {
+      return nombres.size();
+   }
+
+   @Override
+   public String getColumnName(int columna) {
+      return nombres.get(columna);
+   }
+
+   @Override
+   public Class<?> getColumnClass(int columna) {
+      return (columna == columnaBoton) ? JButton.class : Object.class;
+   }
+
+   @Override
+   public boolean isCellEditable(int fila, int columna) {
+      return columna == columnaBoton;
+   }
+
+   @Override
+   public Object getValueAt(int fila, int columna) {
+      return valores.get(columna).apply(entidades.get(fila));
+   }
+}
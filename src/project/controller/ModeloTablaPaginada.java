@@ -0,0 +1,546 @@
+package project.controller;
+
+import project.data.Coleccion;
+import project.data.Mutacion;
+import project.model.base.Orden;
+import project.model.base.Pagina;
+import project.model.base.Repository;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import javax.swing.JButton;
+import javax.swing.JTable;
+import javax.swing.JViewport;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ChangeListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/*
+ * La clase `ModeloTablaPaginada` es un modelo de tabla que no contiene la colección, solo las páginas
+ * de las filas visibles de la tabla y algunas vecinas. El número de filas es el total de la consulta,
+ * y cada página se pide al repositorio en segundo plano cuando la tabla la muestra, con el orden
+ * elegido en la cabecera (clave y dirección) y, si hay una búsqueda, solo entre las claves que
+ * coinciden. Así cargar, ordenar o refrescar la tabla no depende del número de entidades.
+ * Las columnas se declaran como en `ModeloTablaEntidades`; las que indican un valor de orden se
+ * ordenan en el almacén con un `Orden` que lleva el nombre de la columna.
+ * La búsqueda usa un `IndiceDeBusqueda` con el texto de todas las filas, que se construye en segundo
+ * plano leyendo la colección por páginas y se actualiza con cada cambio. Es lo único del modelo que
+ * abarca toda la colección, y guarda palabras y claves, no entidades.
+ * `SincronizadorDeTablas.cargarPaginada` lo carga y le entrega los cambios del almacén; tras cada
+ * serie de cambios se vuelven a pedir las páginas visibles. Se coloca en una tabla con `mostrarEn`.
+ * Como cualquier modelo de Swing, debe usarse desde el hilo de eventos una vez asignado a una tabla.
+ */
+public class ModeloTablaPaginada<T> extends AbstractTableModel {
+   // Filas de cada página que se pide al repositorio
+   private static final int FILAS_POR_PAGINA = 100;
+   // Páginas que se conservan a cada lado de las visibles
+   private static final int PAGINAS_VECINAS = 2;
+   // Entidades de cada página que se lee para construir el índice de búsqueda
+   private static final int PAGINA_DEL_INDICE = 5000;
+   // Milisegundos durante los que se agrupan los cambios del almacén antes de refrescar
+   private static final int ESPERA_MS = 150;
+   // Las páginas y los índices de búsqueda de todos los modelos se leen, en orden, en un único hilo
+   private static final ExecutorService CARGAS = Executors.newSingleThreadExecutor(tarea -> {
+      Thread hilo = new Thread(tarea, "paginas-de-tablas");
+      hilo.setDaemon(true);
+      return hilo;
+   });
+
+   private final Repository<T> repositorio;
+   private final int columnaBoton;
+   private final List<String> nombres = new ArrayList<>();
+   private final List<Function<T, Object>> valores = new ArrayList<>();
+   // Orden de cada columna; null si la columna no se puede ordenar
+   private final List<Orden<T>> ordenes = new ArrayList<>();
+   private final Timer espera;
+   private Coleccion<T> coleccion;
+
+   // Índice de búsqueda; null mientras se construye, y entonces los cambios se guardan para él
+   private IndiceDeBusqueda indice;
+   private List<Mutacion> cambiosDelIndice = new ArrayList<>();
+   // Número de la última construcción del índice; las anteriores se descartan
+   private int construccion;
+
+   // Consulta actual: orden, dirección, texto buscado y claves que coinciden con él
+   private Orden<T> orden;
+   private boolean descendente;
+   private String busqueda;
+   private Set<String> claves;
+   // Filas de la consulta y páginas leídas, por número de página
+   private int total;
+   private final Map<Integer, List<T>> paginas = new HashMap<>();
+   private final Set<Integer> pedidas = new HashSet<>();
+   // Aumenta cada vez que se colocan páginas de otra consulta; las lecturas anteriores se descartan
+   private int generacion;
+   // Número del último refresco pedido; las respuestas de refrescos anteriores se descartan
+   private int refresco;
+   private int primeraVisible;
+   private int ultimaVisible = FILAS_POR_PAGINA - 1;
+
+   /*
+    * Crea un modelo que lee sus páginas del repositorio indicado. `columnaBoton` es el índice de la
+    * única columna editable, la que muestra un botón, o -1 si no hay ninguna.
+    */
+   public ModeloTablaPaginada(Repository<T> repositorio, int columnaBoton) {
+      this.repositorio = repositorio;
+      this.columnaBoton = columnaBoton;
+      // Los cambios no reinician la espera, para que una serie continua de cambios no aplace el
+      // refresco indefinidamente.
+      this.espera = new Timer(ESPERA_MS, e -> refrescar(false));
+      this.espera.setRepeats(false);
+   }
+
+   /*
+    * Añade una columna que no se puede ordenar. Retorna el propio modelo para encadenar las columnas.
+    */
+   public ModeloTablaPaginada<T> columna(String nombre, Function<T, Object> valor) {
+      return columna(nombre, valor, null);
+   }
+
+   /*
+    * Añade una columna cuyo valor se obtiene de cada entidad con `valor` y que se ordena por el
+    * valor que obtiene `orden`. Retorna el propio modelo para encadenar las columnas.
+    */
+   public ModeloTablaPaginada<T> columna(String nombre, Function<T, Object> valor, Function<? super T, ? extends Comparable<?>> orden) {
+      nombres.add(nombre);
+      valores.add(valor);
+      ordenes.add((orden != null) ? new Orden<>(nombre, orden) : null);
+      return this;
+   }
+
+   /*
+    * Coloca el modelo en la tabla, con un ordenador que traslada al modelo el orden elegido en la
+    * cabecera, y hace que la tabla le indique qué filas muestra cada vez que se desplaza. Debe
+    * invocarse desde el hilo de eventos.
+    */
+   public void mostrarEn(JTable tabla) {
+      tabla.setModel(this);
+      tabla.setRowSorter(new Ordenador<>(this));
+      if (tabla.getClientProperty(ModeloTablaPaginada.class) == null && tabla.getParent() instanceof JViewport) {
+         // Un único oyente por tabla, que avisa al modelo que la tabla tenga en cada momento.
+         ChangeListener alDesplazar = e -> avisarFilasVisibles(tabla);
+         tabla.putClientProperty(ModeloTablaPaginada.class, alDesplazar);
+         ((JViewport) tabla.getParent()).addChangeListener(alDesplazar);
+      }
+      avisarFilasVisibles(tabla);
+   }
+
+   /*
+    * Obtiene la entidad de una fila, o null si su página aún no se ha leído; en ese caso la pide.
+    */
+   public T getEntidad(int fila) {
+      int numero = fila / FILAS_POR_PAGINA;
+      List<T> pagina = paginas.get(numero);
+      if (pagina == null) {
+         pedir(numero);
+         return null;
+      }
+      int posicion = fila % FILAS_POR_PAGINA;
+      return (posicion < pagina.size()) ? pagina.get(posicion) : null;
+   }
+
+   /*
+    * Busca el texto indicado: desde entonces las filas son solo las de las entidades que, para cada
+    * palabra del texto, tienen alguna palabra que empieza por ella. Un texto vacío o null quita la
+    * búsqueda. La búsqueda se resuelve en segundo plano.
+    */
+   public void buscar(String texto) {
+      String nueva = (texto == null || texto.trim().isEmpty()) ? null : texto;
+      if (Objects.equals(nueva, busqueda))
+         return;
+      busqueda = nueva;
+      refrescar(true);
+   }
+
+   /*
+    * Indica si la columna se puede ordenar.
+    */
+   boolean esOrdenable(int columna) {
+      return columna >= 0 && columna < ordenes.size() && ordenes.get(columna) != null;
+   }
+
+   /*
+    * Ordena las filas por la columna indicada en la dirección indicada, o en el orden de la
+    * colección si `columna` es -1. El orden se aplica en el almacén y se piden de nuevo las páginas.
+    */
+   void ordenarPor(int columna, boolean descendente) {
+      this.orden = esOrdenable(columna) ? ordenes.get(columna) : null;
+      this.descendente = descendente && orden != null;
+      refrescar(true);
+   }
+
+   /*
+    * Carga la primera página de la colección y empieza a construir el índice de búsqueda. Puede
+    * invocarse desde cualquier hilo, antes de asignar el modelo a una tabla.
+    */
+   void cargar(Coleccion<T> coleccion) {
+      this.coleccion = coleccion;
+      Pagina<T> primera = repositorio.obtenerPagina(null, false, null, 0, FILAS_POR_PAGINA);
+      total = primera.getTotal();
+      paginas.put(0, primera.getEntidades());
+      construirIndice();
+   }
+
+   /*
+    * Aplica un cambio de una entidad de la colección: lo incorpora al índice de búsqueda y programa
+    * un refresco de las páginas visibles, que agrupa los cambios próximos.
+    */
+   void aplicar(Mutacion mutacion) {
+      if (indice != null)
+         indexar(indice, mutacion);
+      else
+         cambiosDelIndice.add(mutacion);
+      if (!espera.isRunning())
+         espera.start();
+   }
+
+   /*
+    * Vuelve a construir el índice de búsqueda y a pedir las páginas visibles, después de que la
+    * base de datos se haya cargado de nuevo.
+    */
+   void recargar() {
+      construirIndice();
+      refrescar(false);
+   }
+
+   /*
+    * Lee en segundo plano el texto de toda la colección, por páginas para no retener el candado del
+    * almacén, y construye con él un índice de búsqueda nuevo. Los cambios que llegan entretanto se
+    * guardan y se le aplican al colocarlo; uno que ya estuviera incluido en la lectura no altera el
+    * resultado al volver a aplicarse.
+    */
+   private void construirIndice() {
+      int numero = ++construccion;
+      indice = null;
+      cambiosDelIndice = new ArrayList<>();
+      CARGAS.execute(() -> {
+         List<String> clavesLeidas = new ArrayList<>();
+         List<String> textos = new ArrayList<>();
+         Pagina<T> pagina = repositorio.obtenerPagina(null, PAGINA_DEL_INDICE);
+         while (true) {
+            for (T entidad : pagina.getEntidades()) {
+               clavesLeidas.add(coleccion.claveDe(entidad));
+               textos.add(texto(entidad));
+            }
+            if (!pagina.hayMas())
+               break;
+            pagina = repositorio.obtenerPagina(pagina.getCursor(), PAGINA_DEL_INDICE);
+         }
+         IndiceDeBusqueda nuevo = new IndiceDeBusqueda();
+         nuevo.reconstruir(clavesLeidas, textos);
+         SwingUtilities.invokeLater(() -> colocarIndice(numero, nuevo));
+      });
+   }
+
+   /*
+    * Coloca el índice de búsqueda construido con los cambios recibidos mientras tanto y, si había
+    * una búsqueda esperándolo, la resuelve.
+    */
+   private void colocarIndice(int numero, IndiceDeBusqueda nuevo) {
+      if (numero != construccion)
+         return;
+      for (Mutacion mutacion : cambiosDelIndice)
+         indexar(nuevo, mutacion);
+      cambiosDelIndice = null;
+      indice = nuevo;
+      if (busqueda != null)
+         refrescar(true);
+   }
+
+   /*
+    * Incorpora un cambio de una entidad al índice de búsqueda indicado.
+    */
+   private void indexar(IndiceDeBusqueda destino, Mutacion mutacion) {
+      if (mutacion.getColeccion() != coleccion || mutacion.getId() == null)
+         return;
+      T entidad = coleccion.getTipo().cast(mutacion.getEntidad());
+      if (entidad != null)
+         destino.actualizar(mutacion.getId(), texto(entidad));
+      else
+         destino.quitar(mutacion.getId());
+   }
+
+   /*
+    * Pide en segundo plano, con la consulta actual, las páginas de las filas visibles junto con el
+    * total, y las coloca todas a la vez al recibirlas; mientras tanto la tabla sigue mostrando las
+    * anteriores. `nuevaConsulta` indica que cambió el orden o la búsqueda, y no solo los datos.
+    * Si la búsqueda necesita el índice y aún se construye, el refresco se hace al colocarlo.
+    */
+   private void refrescar(boolean nuevaConsulta) {
+      espera.stop();
+      int numero = ++refresco;
+      if (busqueda != null && indice == null)
+         return;
+      Orden<T> ordenPedido = orden;
+      boolean descendentePedido = descendente;
+      String buscado = busqueda;
+      IndiceDeBusqueda indicePedido = indice;
+      int primera = primeraVisible / FILAS_POR_PAGINA;
+      int ultima = ultimaVisible / FILAS_POR_PAGINA;
+      CARGAS.execute(() -> {
+         Set<String> coincidentes = (buscado != null) ? indicePedido.buscarClaves(buscado) : null;
+         Map<Integer, List<T>> leidas = new HashMap<>();
+         int leido = 0;
+         for (int pagina = primera; pagina <= ultima; pagina++) {
+            Pagina<T> leida = repositorio.obtenerPagina(ordenPedido, descendentePedido, coincidentes, pagina * FILAS_POR_PAGINA, FILAS_POR_PAGINA);
+            leidas.put(pagina, leida.getEntidades());
+            leido = leida.getTotal();
+         }
+         int totalLeido = leido;
+         SwingUtilities.invokeLater(() -> colocar(numero, nuevaConsulta, coincidentes, leidas, totalLeido));
+      });
+   }
+
+   /*
+    * Reemplaza las páginas por las leídas en el refresco número `numero`, si no se pidió otro
+    * después, y avisa a la tabla. Tras una consulta nueva las filas son otras, así que la tabla
+    * se avisa de un cambio completo; tras un refresco de datos se conserva la selección.
+    */
+   private void colocar(int numero, boolean nuevaConsulta, Set<String> coincidentes, Map<Integer, List<T>> leidas, int totalLeido) {
+      if (numero != refresco)
+         return;
+      claves = coincidentes;
+      generacion++;
+      pedidas.clear();
+      paginas.clear();
+      paginas.putAll(leidas);
+      int anterior = total;
+      total = totalLeido;
+      if (nuevaConsulta) {
+         fireTableDataChanged();
+         return;
+      }
+      if (total > anterior)
+         fireTableRowsInserted(anterior, total - 1);
+      else if (total < anterior)
+         fireTableRowsDeleted(total, anterior - 1);
+      if (Math.min(anterior, total) > 0)
+         fireTableRowsUpdated(0, Math.min(anterior, total) - 1);
+   }
+
+   /*
+    * Pide en segundo plano una página de la consulta actual, si no está leída ni pedida.
+    */
+   private void pedir(int numero) {
+      if (numero < 0 || (long) numero * FILAS_POR_PAGINA >= total || paginas.containsKey(numero) || !pedidas.add(numero))
+         return;
+      int generacionPedida = generacion;
+      Orden<T> ordenPedido = orden;
+      boolean descendentePedido = descendente;
+      Set<String> clavesPedidas = claves;
+      CARGAS.execute(() -> {
+         Pagina<T> pagina = repositorio.obtenerPagina(ordenPedido, descendentePedido, clavesPedidas, numero * FILAS_POR_PAGINA, FILAS_POR_PAGINA);
+         SwingUtilities.invokeLater(() -> recibir(generacionPedida, numero, pagina));
+      });
+   }
+
+   /*
+    * Coloca una página pedida con `pedir`, si la consulta no cambió entretanto y la página sigue
+    * cerca de las visibles. Si el total ya no coincide, la colección cambió y se programa un refresco.
+    */
+   private void recibir(int generacionPedida, int numero, Pagina<T> pagina) {
+      if (generacionPedida != generacion)
+         return;
+      pedidas.remove(numero);
+      if (numero < primeraVisible / FILAS_POR_PAGINA - PAGINAS_VECINAS || numero > ultimaVisible / FILAS_POR_PAGINA + PAGINAS_VECINAS)
+         return;
+      paginas.put(numero, pagina.getEntidades());
+      if (pagina.getTotal() != total && !espera.isRunning())
+         espera.start();
+      int desde = numero * FILAS_POR_PAGINA;
+      int hasta = Math.min(total, desde + FILAS_POR_PAGINA) - 1;
+      if (desde <= hasta)
+         fireTableRowsUpdated(desde, hasta);
+   }
+
+   /*
+    * Registra las filas que muestra la tabla: descarta las páginas alejadas de ellas y adelanta la
+    * lectura de la página siguiente. Las páginas visibles las pide la propia tabla al dibujarlas.
+    */
+   private void mostrarFilas(int primera, int ultima) {
+      primeraVisible = Math.max(0, primera);
+      ultimaVisible = Math.max(primeraVisible, ultima);
+      int desde = primeraVisible / FILAS_POR_PAGINA - PAGINAS_VECINAS;
+      int hasta = ultimaVisible / FILAS_POR_PAGINA + PAGINAS_VECINAS;
+      paginas.keySet().removeIf(numero -> numero < desde || numero > hasta);
+      pedir(ultimaVisible / FILAS_POR_PAGINA + 1);
+   }
+
+   /*
+    * Indica al modelo paginado de la tabla, si lo tiene, qué filas quedan dentro de su área visible.
+    */
+   private static void avisarFilasVisibles(JTable tabla) {
+      if (!(tabla.getModel() instanceof ModeloTablaPaginada))
+         return;
+      // Una tabla que aún no se ha mostrado, o cuyas filas no llegan al área visible, no la indica.
+      Rectangle visible = tabla.getVisibleRect();
+      int primera = tabla.rowAtPoint(visible.getLocation());
+      if (visible.isEmpty() || primera < 0)
+         return;
+      int ultima = tabla.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+      // Si el área visible termina después de la última fila, la última visible es esa.
+      if (ultima < 0)
+         ultima = tabla.getRowCount() - 1;
+      ((ModeloTablaPaginada<?>) tabla.getModel()).mostrarFilas(primera, ultima);
+   }
+
+   /*
+    * Obtiene el texto que se indexa de una entidad: los valores de sus columnas, salvo la del botón.
+    */
+   private String texto(T entidad) {
+      StringBuilder texto = new StringBuilder();
+      for (int i = 0; i < valores.size(); i++) {
+         if (i != columnaBoton)
+            texto.append(valores.get(i).apply(entidad)).append(' ');
+      }
+      return texto.toString();
+   }
+
+   @Override
+   public int getRowCount() {
+      return total;
+   }
+
+   @Override
+   public int getColumnCount() {
+      return nombres.size();
+   }
+
+   @Override
+   public String getColumnName(int columna) {
+      return nombres.get(columna);
+   }
+
+   @Override
+   public Class<?> getColumnClass(int columna) {
+      return (columna == columnaBoton) ? JButton.class : Object.class;
+   }
+
+   @Override
+   public boolean isCellEditable(int fila, int columna) {
+      return columna == columnaBoton;
+   }
+
+   @Override
+   public Object getValueAt(int fila, int columna) {
+      // Mientras la página se lee, la fila se muestra vacía.
+      T entidad = getEntidad(fila);
+      return (entidad != null) ? valores.get(columna).apply(entidad) : "";
+   }
+
+   /*
+    * Ordenador de una tabla con un `ModeloTablaPaginada`. No reordena filas, ya que el modelo las
+    * recibe ordenadas del almacén: traslada al modelo la columna y la dirección que se eligen en la
+    * cabecera, y las filas de la vista son las del modelo.
+    */
+   private static final class Ordenador<T> extends RowSorter<TableModel> {
+      private final ModeloTablaPaginada<T> modelo;
+      private List<SortKey> claves = List.of();
+
+      Ordenador(ModeloTablaPaginada<T> modelo) {
+         this.modelo = modelo;
+      }
+
+      @Override
+      public TableModel getModel() {
+         return modelo;
+      }
+
+      @Override
+      public void toggleSortOrder(int columna) {
+         if (!modelo.esOrdenable(columna))
+            return;
+         boolean ascendente = !claves.isEmpty() && claves.get(0).getColumn() == columna && claves.get(0).getSortOrder() == SortOrder.ASCENDING;
+         setSortKeys(List.of(new SortKey(columna, ascendente ? SortOrder.DESCENDING : SortOrder.ASCENDING)));
+      }
+
+      @Override
+      public int convertRowIndexToModel(int fila) {
+         return verificar(fila);
+      }
+
+      @Override
+      public int convertRowIndexToView(int fila) {
+         return verificar(fila);
+      }
+
+      /*
+       * Solo se conserva la primera clave, ya que el almacén ordena por una sola.
+       */
+      @Override
+      public void setSortKeys(List<? extends SortKey> nuevas) {
+         List<SortKey> primera = (nuevas == null || nuevas.isEmpty() || nuevas.get(0).getSortOrder() == SortOrder.UNSORTED
+               || !modelo.esOrdenable(nuevas.get(0).getColumn())) ? List.of() : List.of(nuevas.get(0));
+         if (primera.equals(claves))
+            return;
+         claves = primera;
+         if (claves.isEmpty())
+            modelo.ordenarPor(-1, false);
+         else
+            modelo.ordenarPor(claves.get(0).getColumn(), claves.get(0).getSortOrder() == SortOrder.DESCENDING);
+         fireSortOrderChanged();
+      }
+
+      @Override
+      public List<? extends SortKey> getSortKeys() {
+         return claves;
+      }
+
+      @Override
+      public int getViewRowCount() {
+         return modelo.getRowCount();
+      }
+
+      @Override
+      public int getModelRowCount() {
+         return modelo.getRowCount();
+      }
+
+      // Las filas ya llegan ordenadas, así que los cambios del modelo no cambian el orden.
+      @Override
+      public void modelStructureChanged() {
+      }
+
+      @Override
+      public void allRowsChanged() {
+      }
+
+      @Override
+      public void rowsInserted(int primera, int ultima) {
+      }
+
+      @Override
+      public void rowsDeleted(int primera, int ultima) {
+      }
+
+      @Override
+      public void rowsUpdated(int primera, int ultima) {
+      }
+
+      @Override
+      public void rowsUpdated(int primera, int ultima, int columna) {
+      }
+
+      /*
+       * Verifica que la fila exista, como `DefaultRowSorter`, y la retorna.
+       */
+      private int verificar(int fila) {
+         if (fila < 0 || fila >= modelo.getRowCount())
+            throw new IndexOutOfBoundsException("Fila inválida: " + fila);
+         return fila;
+      }
+   }
+}
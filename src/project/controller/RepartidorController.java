@@ -1,16 +1,17 @@
 package project.controller;
 
+import project.data.Coleccion;
 import project.model.entities.Pedido;
 import project.model.entities.HistorialDeEntrega;
 import project.model.entities.Repartidor;
 import project.model.repositories.PedidoRepository;
 import project.model.repositories.HistorialEntregaRepository;
 import project.model.repositories.RepartidorRepository;
-import java.text.SimpleDateFormat;
+import project.util.FormatoFecha;
+import project.util.Registro;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Date;
-import javax.swing.table.DefaultTableModel;
 import java.util.Random;
 
 /*
@@ -19,13 +20,14 @@ import java.util.Random;
  * y gestionar el estado de los pedidos (cancelar, marcar como entregado).
  */
 public class RepartidorController {
+   private static final Registro REGISTRO = Registro.para(RepartidorController.class);
+
    // Repositorios para interactuar con la capa de datos
    private final PedidoRepository pedidoRepo;
    private final HistorialEntregaRepository historialRepo;
    private final RepartidorRepository repartidorRepo;
    
    // Utilidades
-   private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
    private final Random random = new Random();
 
    /*
@@ -57,9 +59,10 @@ public class RepartidorController {
          return new ArrayList<>();
       }
 
-      List<Pedido> todosLosPedidos = pedidoRepo.obtenerTodos();
+      // Solo se recorren los pedidos del repartidor, obtenidos del índice por repartidor.
+      List<Pedido> pedidosRepartidor = pedidoRepo.buscarPorRepartidor(repartidor.getCedulaIdentidad());
       List<Pedido> pedidosFiltrados = new ArrayList<>();
-      for (Pedido pedido : todosLosPedidos) {
+      for (Pedido pedido : pedidosRepartidor) {
          if (isPedidoAsignadoYActivo(pedido, repartidor.getCedulaIdentidad())) {
             pedidosFiltrados.add(pedido);
          }
@@ -72,7 +75,7 @@ public class RepartidorController {
     */
    private boolean isValidRepartidor(Repartidor repartidor, String methodName) {
       if (repartidor == null || repartidor.getCedulaIdentidad() == null) {
-         System.err.println("ERROR: El objeto repartidor o su cédula de identidad es nulo en " + methodName + ".");
+         REGISTRO.error("El objeto repartidor o su cédula de identidad es nulo en " + methodName + ".");
          return false;
       }
       return true;
@@ -99,9 +102,10 @@ public class RepartidorController {
          return new ArrayList<>();
       }
 
-      List<HistorialDeEntrega> todosLosHistoriales = historialRepo.obtenerTodos();
+      // Solo se recorren los historiales del repartidor, obtenidos del índice por repartidor.
+      List<HistorialDeEntrega> historialesRepartidor = historialRepo.buscarPorRepartidor(repartidor.getCedulaIdentidad());
       List<HistorialDeEntrega> historialesEntregados = new ArrayList<>();
-      for (HistorialDeEntrega historial : todosLosHistoriales) {
+      for (HistorialDeEntrega historial : historialesRepartidor) {
          if (isHistorialDeRepartidorEntregado(historial, repartidor.getCedulaIdentidad())) {
             historialesEntregados.add(historial);
          }
@@ -121,8 +125,9 @@ public class RepartidorController {
 
    /*
     * Cambia el estado de disponibilidad de un repartidor.
-    * Busca el repartidor en la base de datos y actualiza su estado de disponibilidad.
-    * Retorna el estado actual del repartidor si no se pudo actualizar o si el repartidor es nulo.
+    * Busca el repartidor en la base de datos y actualiza su estado de disponibilidad; el objeto
+    * recibido no se modifica. Para conocer el estado resultante use `consultarDisponibilidad`.
+    * Retorna true si la disponibilidad se actualizó.
     */
    public boolean cambiarEstadoDisponibilidad(Repartidor repartidor) {
       if (!isValidRepartidor(repartidor, "cambiarEstadoDisponibilidad")) {
@@ -130,47 +135,39 @@ public class RepartidorController {
       }
       
       Repartidor repEnBD = repartidorRepo.buscarPorId(repartidor.getCedulaIdentidad());
-      if (repEnBD != null) {
-         boolean nuevoEstado = !repEnBD.isDisponibilidad();
-         repartidorRepo.actualizarDisponibilidad(repEnBD.getCedulaIdentidad(), nuevoEstado);
-         // Actualiza el estado en los objetos en memoria
-         repEnBD.setDisponibilidad(nuevoEstado);
-         repartidor.setDisponibilidad(nuevoEstado);
-         return nuevoEstado;
+      if (repEnBD != null && repartidorRepo.actualizarDisponibilidad(repEnBD.getCedulaIdentidad(), !repEnBD.isDisponibilidad())) {
+         return true;
       }
-      System.err.println("ERROR: Repartidor no encontrado en la base de datos para actualizar disponibilidad: " + repartidor.getCedulaIdentidad());
-      return repartidor.isDisponibilidad(); // Retorna el estado actual si no se encontró o actualizó
+      REGISTRO.error("Repartidor no encontrado en la base de datos para actualizar disponibilidad: " + repartidor.getCedulaIdentidad());
+      return false;
    }
 
    /*
-    * Obtiene un DefaultTableModel con los datos de los pedidos asignados al repartidor.
+    * Obtiene la disponibilidad guardada de un repartidor, o la del objeto indicado si no se encuentra
+    * en la base de datos.
     */
-   public DefaultTableModel obtenerModeloPedidosAsignados(Repartidor repartidor) {
-      String[] columnNames = {"ID Pedido", "Combo", "Cliente", "Dirección", "Estado", "Detalle"};
-      DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
-         @Override
-         public boolean isCellEditable(int row, int column) {
-            // Solo la columna "Detalle" es editable (índice 5)
-            return column == 5;
-         }
-         @Override
-         public Class<?> getColumnClass(int columnIndex) {
-            // La columna "Detalle" debe ser de tipo Object para el renderizado del botón
-            if (columnIndex == 5) 
-               return Object.class;
-            return super.getColumnClass(columnIndex);
-         }
-      };
-      
-      List<Pedido> pedidos = obtenerPedidosPendientesParaRepartidor(repartidor); 
-      for (Pedido pedido : pedidos) {
-         String nombreCliente = getNombreCliente(pedido);
-         String comboNombre = getNombreCombo(pedido);
-         model.addRow(new Object[]{
-            pedido.getIdPedido(), comboNombre, nombreCliente, pedido.getDireccionEntrega(), pedido.getEstado(), "Ver Detalle"
-         });
+   public boolean consultarDisponibilidad(Repartidor repartidor) {
+      if (!isValidRepartidor(repartidor, "consultarDisponibilidad")) {
+         return false;
       }
-      return model;
+      Repartidor repEnBD = repartidorRepo.buscarPorId(repartidor.getCedulaIdentidad());
+      return (repEnBD != null) ? repEnBD.isDisponibilidad() : repartidor.isDisponibilidad();
+   }
+
+   /*
+    * Obtiene un modelo de tabla con los pedidos asignados al repartidor. Solo la columna "Detalle"
+    * es editable, para mostrar el botón.
+    */
+   public ModeloTablaEntidades<Pedido> obtenerModeloPedidosAsignados(Repartidor repartidor) {
+      String cedula = (repartidor != null) ? repartidor.getCedulaIdentidad() : null;
+      return SincronizadorDeTablas.getInstancia().cargar(Coleccion.PEDIDOS, pedido -> isPedidoAsignadoYActivo(pedido, cedula), () -> obtenerPedidosPendientesParaRepartidor(repartidor),
+            new ModeloTablaEntidades<Pedido>(5)
+            .columna("ID Pedido", Pedido::getIdPedido)
+            .columna("Combo", this::getNombreCombo)
+            .columna("Cliente", this::getNombreCliente)
+            .columna("Dirección", Pedido::getDireccionEntrega)
+            .columna("Estado", Pedido::getEstado)
+            .columna("Detalle", pedido -> ModeloTablaEntidades.VER_DETALLE));
    }
 
    /*
@@ -188,37 +185,33 @@ public class RepartidorController {
    }
 
    /*
-    * Obtiene un DefaultTableModel con los datos del historial de entregas del repartidor.
+    * Obtiene un modelo de tabla con el historial de entregas del repartidor.
     */
-   public DefaultTableModel obtenerModeloHistorialDeEntregas(Repartidor repartidor) {
-      String[] columnNames = {"ID Historial", "ID Pedido", "Repartidor", "Estado Entrega", "Fecha Registro", "Ubicación"};
-      DefaultTableModel model = new DefaultTableModel(columnNames, 0);
-      
-      List<HistorialDeEntrega> historiales = obtenerHistorialDeEntregasEntregadasParaRepartidor(repartidor);
-      for (HistorialDeEntrega historial : historiales) {
-         String idPedido = getIdPedidoAsociado(historial);
-         String fechaRegistroStr = getFechaRegistroHistorial(historial);
-         String nombreRepartidor = getNombreRepartidorHistorial(historial);
-         
-         model.addRow(new Object[]{
-            historial.getIdHistorial(), idPedido, nombreRepartidor, historial.getEstadoEntrega(), fechaRegistroStr, historial.getUbicacionEntrega()
-         });
-      }
-      return model;
+   public ModeloTablaEntidades<HistorialDeEntrega> obtenerModeloHistorialDeEntregas(Repartidor repartidor) {
+      String cedula = (repartidor != null) ? repartidor.getCedulaIdentidad() : null;
+      return SincronizadorDeTablas.getInstancia().cargar(Coleccion.HISTORIAL, historial -> isHistorialDeRepartidorEntregado(historial, cedula), () -> obtenerHistorialDeEntregasEntregadasParaRepartidor(repartidor),
+            new ModeloTablaEntidades<HistorialDeEntrega>(-1)
+            .conBusqueda()
+            .columna("ID Historial", HistorialDeEntrega::getIdHistorial)
+            .columna("ID Pedido", this::getIdPedidoAsociado)
+            .columna("Repartidor", this::getNombreRepartidorHistorial)
+            .columna("Estado Entrega", HistorialDeEntrega::getEstadoEntrega)
+            .columna("Fecha Registro", this::getFechaRegistroHistorial)
+            .columna("Ubicación", HistorialDeEntrega::getUbicacionEntrega));
    }
 
    /*
     * Obtiene el ID del pedido asociado a un historial de entrega, o "N/A" si el pedido es nulo.
     */
    private String getIdPedidoAsociado(HistorialDeEntrega historial) {
-      return (historial.getPedidoAsociado() != null) ? historial.getPedidoAsociado().getIdPedido() : "N/A";
+      return (historial.getIdPedido() != null) ? historial.getIdPedido() : "N/A";
    }
 
    /*
     * Obtiene la fecha de registro de un historial de entrega formateada, o "N/A" si la fecha es nula.
     */
    private String getFechaRegistroHistorial(HistorialDeEntrega historial) {
-      return (historial.getFechaRegistro() != null) ? dateFormat.format(historial.getFechaRegistro()) : "N/A";
+      return FormatoFecha.fechaHora(historial.getFechaRegistroMs());
    }
 
    /*
@@ -239,23 +232,24 @@ public class RepartidorController {
     * Cancela un pedido y registra un historial de entrega con estado "Cancelado".
     */
    public boolean cancelarPedido(String idPedido) {
-      Pedido pedido = pedidoRepo.buscarPorId(idPedido);
+      long ahora = System.currentTimeMillis();
+      Pedido pedido = pedidoRepo.actualizarPedido(idPedido, p -> {
+         p.setEstado("Cancelado");
+         p.setFechaEntregaMs(ahora); // Establece la fecha de entrega como la fecha de cancelación
+      });
       if (pedido != null) {
-         pedido.setEstado("Cancelado");
-         pedido.setFechaEntrega(new Date()); // Establece la fecha de entrega como la fecha de cancelación
-         
          HistorialDeEntrega historial = new HistorialDeEntrega(
             "HIST" + generateNumericId(), 
-            new Date(), 
+            new Date(ahora), 
             "Cancelado", 
             pedido.getDireccionEntrega(), 
             pedido.getRepartidorAsignado(), 
             pedido
          );
          historialRepo.guardar(historial);
-         return pedidoRepo.actualizarPedido(pedido);
+         return true;
       }
-      System.err.println("ERROR: No se pudo cancelar el pedido. Pedido con ID " + idPedido + " no encontrado.");
+      REGISTRO.error("No se pudo cancelar el pedido. Pedido con ID " + idPedido + " no encontrado.");
       return false;
    }
 
@@ -263,23 +257,24 @@ public class RepartidorController {
     * Marca un pedido como "Entregado" y registra un historial de entrega con estado "Entregado".
     */
    public boolean marcarPedidoComoEntregado(String idPedido) {
-      Pedido pedido = pedidoRepo.buscarPorId(idPedido);
+      long ahora = System.currentTimeMillis();
+      Pedido pedido = pedidoRepo.actualizarPedido(idPedido, p -> {
+         p.setEstado("Entregado");
+         p.setFechaEntregaMs(ahora); // Establece la fecha de entrega actual
+      });
       if (pedido != null) {
-         pedido.setEstado("Entregado");
-         pedido.setFechaEntrega(new Date()); // Establece la fecha de entrega actual
-         
          HistorialDeEntrega historial = new HistorialDeEntrega(
             "HIST" + generateNumericId(), 
-            new Date(), 
+            new Date(ahora), 
             "Entregado", 
             pedido.getDireccionEntrega(), 
             pedido.getRepartidorAsignado(), 
             pedido
          );
          historialRepo.guardar(historial);
-         return pedidoRepo.actualizarPedido(pedido);
+         return true;
       }
-      System.err.println("ERROR: No se pudo marcar el pedido como entregado. Pedido con ID " + idPedido + " no encontrado.");
+      REGISTRO.error("No se pudo marcar el pedido como entregado. Pedido con ID " + idPedido + " no encontrado.");
       return false;
    }
 }
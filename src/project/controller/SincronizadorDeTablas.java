@@ -0,0 +1,272 @@
+package project.controller;
+
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.data.Mutacion;
+import project.data.OyenteDeMutaciones;
+import project.model.entities.BaseDeDatos;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.SwingUtilities;
+
+/*
+ * La clase `SincronizadorDeTablas` mantiene al día los `ModeloTablaEntidades` con los cambios del
+ * almacén. Como oyente del almacén numera cada mutación y la entrega al hilo de eventos, donde
+ * cada modelo vinculado a esa colección actualiza, añade o quita solo la fila afectada. Así un
+ * cambio no obliga a volver a generar las tablas.
+ * Un modelo se carga con una consulta en cualquier hilo y se vincula después en el hilo de eventos;
+ * los cambios ocurridos entretanto se conservan en `recientes` y se le aplican al vincularlo.
+ * Un `ModeloTablaPaginada` se vincula con `cargarPaginada`: no recibe las filas sino cada cambio de
+ * su colección, con el que actualiza su índice de búsqueda y vuelve a pedir sus páginas visibles.
+ * Los modelos se guardan con referencias débiles: dejan de actualizarse cuando ninguna tabla los usa.
+ */
+public final class SincronizadorDeTablas implements OyenteDeMutaciones {
+   // Número de cambios recientes que se conservan para los modelos que aún no se han vinculado
+   private static final int CAMBIOS_RECIENTES = 1024;
+
+   /*
+    * Contenedor de la instancia compartida, creada al primer uso.
+    */
+   private static final class Contenedor {
+      private static final SincronizadorDeTablas INSTANCIA = crear();
+   }
+
+   /*
+    * Cambio numerado del almacén: una mutación, o la base de datos completa tras recargarla.
+    */
+   private static final class Cambio {
+      final long secuencia;
+      final Mutacion mutacion;
+      final Map<Coleccion<?>, List<?>> colecciones;
+
+      Cambio(long secuencia, Mutacion mutacion, Map<Coleccion<?>, List<?>> colecciones) {
+         this.secuencia = secuencia;
+         this.mutacion = mutacion;
+         this.colecciones = colecciones;
+      }
+   }
+
+   /*
+    * Modelo vinculado a una colección, con el filtro de las entidades que muestra y el número del
+    * último cambio incluido en su carga.
+    */
+   private static final class Vinculo<T> {
+      final Coleccion<T> coleccion;
+      final Predicate<T> filtro;
+      final long version;
+      final WeakReference<ModeloTablaEntidades<T>> modelo;
+
+      Vinculo(Coleccion<T> coleccion, Predicate<T> filtro, long version, ModeloTablaEntidades<T> modelo) {
+         this.coleccion = coleccion;
+         this.filtro = filtro;
+         this.version = version;
+         this.modelo = new WeakReference<>(modelo);
+      }
+
+      /*
+       * Aplica un cambio posterior a la carga del modelo. Retorna false si el modelo ya no existe.
+       */
+      @SuppressWarnings("unchecked")
+      boolean aplicar(Cambio cambio) {
+         ModeloTablaEntidades<T> destino = modelo.get();
+         if (destino == null)
+            return false;
+         if (cambio.secuencia <= version)
+            return true;
+         if (cambio.colecciones != null) {
+            destino.reemplazarTodas(filtrar((List<T>) cambio.colecciones.get(coleccion)));
+         } else if (cambio.mutacion.getColeccion() == coleccion && cambio.mutacion.getId() != null) {
+            T entidad = coleccion.getTipo().cast(cambio.mutacion.getEntidad());
+            if (entidad != null && (filtro == null || filtro.test(entidad)))
+               destino.guardar(cambio.mutacion.getId(), entidad);
+            else
+               destino.eliminar(cambio.mutacion.getId());
+         }
+         return true;
+      }
+
+      /*
+       * Obtiene las entidades de una lista que pasan el filtro.
+       */
+      List<T> filtrar(List<T> entidades) {
+         List<T> resultado = new ArrayList<>();
+         for (T entidad : entidades) {
+            if (filtro == null || filtro.test(entidad))
+               resultado.add(entidad);
+         }
+         return resultado;
+      }
+   }
+
+   /*
+    * Modelo paginado vinculado a una colección, con el número del último cambio anterior a su carga.
+    */
+   private static final class VinculoPaginado<T> {
+      final Coleccion<T> coleccion;
+      final long version;
+      final WeakReference<ModeloTablaPaginada<T>> modelo;
+
+      VinculoPaginado(Coleccion<T> coleccion, long version, ModeloTablaPaginada<T> modelo) {
+         this.coleccion = coleccion;
+         this.version = version;
+         this.modelo = new WeakReference<>(modelo);
+      }
+
+      /*
+       * Entrega al modelo un cambio posterior a su carga. Retorna false si el modelo ya no existe.
+       */
+      boolean aplicar(Cambio cambio) {
+         ModeloTablaPaginada<T> destino = modelo.get();
+         if (destino == null)
+            return false;
+         if (cambio.secuencia <= version)
+            return true;
+         if (cambio.colecciones != null)
+            destino.recargar();
+         else if (cambio.mutacion.getColeccion() == coleccion)
+            destino.aplicar(cambio.mutacion);
+         return true;
+      }
+   }
+
+   // Número del último cambio del almacén; solo se incrementa con el candado de escritura tomado
+   private volatile long secuencia;
+   // Solo se usan desde el hilo de eventos
+   private final List<Vinculo<?>> vinculos = new ArrayList<>();
+   private final List<VinculoPaginado<?>> paginados = new ArrayList<>();
+   private final ArrayDeque<Cambio> recientes = new ArrayDeque<>();
+
+   /*
+    * Constructor privado; la instancia compartida se obtiene con `getInstancia`.
+    */
+   private SincronizadorDeTablas() {
+   }
+
+   /*
+    * Obtiene la instancia compartida del sincronizador, registrada como oyente del almacén.
+    */
+   public static SincronizadorDeTablas getInstancia() {
+      return Contenedor.INSTANCIA;
+   }
+
+   /*
+    * Crea el sincronizador y lo registra en el almacén.
+    */
+   private static SincronizadorDeTablas crear() {
+      SincronizadorDeTablas sincronizador = new SincronizadorDeTablas();
+      AlmacenDeDatos.getInstancia().agregarOyente(sincronizador);
+      return sincronizador;
+   }
+
+   /*
+    * Carga un modelo con el resultado de `consulta` y lo vincula a la colección para que reciba sus
+    * cambios. `filtro` indica qué entidades de la colección muestra el modelo (null para todas) y
+    * debe coincidir con la consulta. Puede invocarse desde cualquier hilo; retorna el mismo modelo.
+    */
+   public <T> ModeloTablaEntidades<T> cargar(Coleccion<T> coleccion, Predicate<T> filtro, Supplier<List<T>> consulta, ModeloTablaEntidades<T> modelo) {
+      // La versión se lee antes de consultar: un cambio incluido en la consulta puede volver a
+      // aplicarse, lo que no altera el resultado, pero ninguno posterior se pierde.
+      long version = secuencia;
+      modelo.setClave(coleccion::claveDe);
+      modelo.reemplazarTodas(consulta.get());
+      Vinculo<T> vinculo = new Vinculo<>(coleccion, filtro, version, modelo);
+      SwingUtilities.invokeLater(() -> vincular(vinculo));
+      return modelo;
+   }
+
+   /*
+    * Carga un modelo paginado con la primera página de la colección y lo vincula a ella para que
+    * reciba sus cambios. El modelo lee el resto de las páginas a medida que la tabla las muestra.
+    * Puede invocarse desde cualquier hilo; retorna el mismo modelo.
+    */
+   public <T> ModeloTablaPaginada<T> cargarPaginada(Coleccion<T> coleccion, ModeloTablaPaginada<T> modelo) {
+      long version = secuencia;
+      modelo.cargar(coleccion);
+      VinculoPaginado<T> vinculo = new VinculoPaginado<>(coleccion, version, modelo);
+      SwingUtilities.invokeLater(() -> vincular(vinculo));
+      return modelo;
+   }
+
+   @Override
+   public void alCargar(BaseDeDatos baseDeDatos) {
+      Map<Coleccion<?>, List<?>> colecciones = new HashMap<>();
+      for (Coleccion<?> coleccion : Coleccion.todas())
+         colecciones.put(coleccion, new ArrayList<>(coleccion.listaEn(baseDeDatos)));
+      publicar(new Cambio(++secuencia, null, colecciones));
+   }
+
+   @Override
+   public void alAplicar(Mutacion mutacion) {
+      publicar(new Cambio(++secuencia, mutacion, null));
+   }
+
+   /*
+    * Entrega un cambio a los modelos vinculados desde el hilo de eventos.
+    */
+   private void publicar(Cambio cambio) {
+      SwingUtilities.invokeLater(() -> distribuir(cambio));
+   }
+
+   /*
+    * Aplica un cambio a todos los modelos vinculados, olvidando los que ya no existen, y lo
+    * conserva para los modelos que se vinculen más tarde.
+    */
+   private void distribuir(Cambio cambio) {
+      for (Iterator<Vinculo<?>> iterador = vinculos.iterator(); iterador.hasNext(); ) {
+         if (!iterador.next().aplicar(cambio))
+            iterador.remove();
+      }
+      for (Iterator<VinculoPaginado<?>> iterador = paginados.iterator(); iterador.hasNext(); ) {
+         if (!iterador.next().aplicar(cambio))
+            iterador.remove();
+      }
+      recientes.addLast(cambio);
+      if (recientes.size() > CAMBIOS_RECIENTES)
+         recientes.removeFirst();
+   }
+
+   /*
+    * Vincula un modelo ya cargado y le aplica los cambios ocurridos desde su carga. Si son más de
+    * los que se conservan, el modelo se recarga con la consulta completa de la colección.
+    */
+   private <T> void vincular(Vinculo<T> vinculo) {
+      Cambio primero = recientes.peekFirst();
+      if (primero != null && primero.secuencia > vinculo.version + 1) {
+         ModeloTablaEntidades<T> modelo = vinculo.modelo.get();
+         if (modelo == null)
+            return;
+         long version = secuencia;
+         modelo.reemplazarTodas(vinculo.filtrar(AlmacenDeDatos.getInstancia().obtenerTodos(vinculo.coleccion)));
+         vinculo = new Vinculo<>(vinculo.coleccion, vinculo.filtro, version, modelo);
+      } else {
+         for (Cambio cambio : recientes)
+            vinculo.aplicar(cambio);
+      }
+      vinculos.add(vinculo);
+   }
+
+   /*
+    * Vincula un modelo paginado ya cargado y le entrega los cambios ocurridos desde su carga. Si son
+    * más de los que se conservan, el modelo se recarga.
+    */
+   private <T> void vincular(VinculoPaginado<T> vinculo) {
+      ModeloTablaPaginada<T> modelo = vinculo.modelo.get();
+      if (modelo == null)
+         return;
+      Cambio primero = recientes.peekFirst();
+      if (primero != null && primero.secuencia > vinculo.version + 1) {
+         modelo.recargar();
+      } else {
+         for (Cambio cambio : recientes)
+            vinculo.aplicar(cambio);
+      }
+      paginados.add(vinculo);
+   }
+}
@@ -0,0 +1,686 @@
+package project.data;
+
+import project.model.base.Orden;
+import project.model.base.Pagina;
+import project.model.entities.BaseDeDatos;
+import project.model.entities.ResumenDiario;
+import project.util.Registro;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * La clase `AlmacenDeDatos` mantiene en memoria una única instancia de `BaseDeDatos`
+ * compartida por todos los repositorios del proceso. El archivo JSON se lee una sola vez,
+ * la primera vez que se solicita el almacén, y a partir de ahí todas las lecturas se sirven
+ * desde memoria. Cada colección se envuelve en una `Tabla` indexada por clave primaria, de modo
+ * que las búsquedas y los guardados por clave son O(1). Cada modificación se expresa como una `Mutacion` que se entrega a la
+ * estrategia de `Persistencia` configurada (por defecto, la bitácora de escritura).
+ * El acceso está protegido por un candado de lectura/escritura, de modo que varias lecturas
+ * pueden ejecutarse en paralelo mientras que las modificaciones se serializan.
+ * Las colecciones de `COLECCIONES_DIFERIDAS` (el historial, la más grande) se decodifican en un
+ * hilo de fondo cuando no hay bitácora pendiente, de modo que la aplicación puede abrirse antes de
+ * que termine la carga; las operaciones que las necesitan esperan a que estén disponibles.
+ * Los componentes que mantienen datos derivados se registran como `OyenteDeMutaciones` y reciben
+ * cada mutación aplicada, de modo que no necesitan volver a recorrer las colecciones.
+ * El resumen diario de pedidos y entregas (ver `TablaDeResumenes`) se actualiza con cada mutación
+ * y se guarda con la base de datos, de modo que las estadísticas no recorren el historial.
+ */
+public final class AlmacenDeDatos {
+   private static final Registro REGISTRO = Registro.para(AlmacenDeDatos.class);
+
+   /*
+    * Propiedad del sistema que selecciona la estrategia de persistencia: "bitacora" (por defecto),
+    * "diferida" o "instantanea".
+    */
+   public static final String PROPIEDAD_PERSISTENCIA = "project.persistencia";
+   /*
+    * Propiedad del sistema con la ventana, en milisegundos, en la que la persistencia diferida
+    * consolida las mutaciones antes de escribir el archivo.
+    */
+   public static final String PROPIEDAD_VENTANA_DIFERIDA = "project.persistencia.ventana";
+   /*
+    * Ventana por defecto de la persistencia diferida.
+    */
+   private static final long VENTANA_DIFERIDA_MS = 1000;
+   /*
+    * Colecciones que se cargan en segundo plano después de las demás.
+    */
+   private static final List<Coleccion<?>> COLECCIONES_DIFERIDAS = List.of(Coleccion.HISTORIAL);
+
+   /*
+    * Contenedor perezoso y seguro entre hilos para la instancia única del almacén.
+    */
+   private static class Contenedor {
+      private static final AlmacenDeDatos INSTANCIA = new AlmacenDeDatos();
+   }
+
+   /*
+    * Candado que protege el acceso a la base de datos en memoria.
+    */
+   private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+   /*
+    * Ruta del archivo de bitácora, junto al archivo JSON de la base de datos.
+    */
+   private final Path rutaBitacora = Paths.get(GestorJSON.rutaArchivo() + ".log");
+   /*
+    * Estrategia con la que se llevan a disco las mutaciones.
+    */
+   private final Persistencia persistencia;
+   /*
+    * Copia en memoria de la base de datos.
+    */
+   private BaseDeDatos baseDeDatos;
+   /*
+    * Tablas indexadas por clave primaria sobre las listas de `baseDeDatos`.
+    */
+   private Map<Coleccion<?>, Tabla<?>> tablas;
+   /*
+    * Resolvedor de las referencias entre pedidos, clientes, repartidores e historial.
+    */
+   private Referencias referencias;
+   /*
+    * Resumen diario de pedidos y entregas.
+    */
+   private TablaDeResumenes resumenes;
+   /*
+    * Indica si el resumen puede consultarse sin esperar la carga diferida: ya se calculó, o se
+    * leyó del archivo y no había bitácora pendiente.
+    */
+   private volatile boolean resumenDisponible;
+   /*
+    * Se libera cuando terminan de cargarse las colecciones diferidas de la última carga.
+    */
+   private volatile CountDownLatch cargaPendiente = new CountDownLatch(0);
+   /*
+    * Indica que la última carga diferida falló: las colecciones diferidas no están en memoria, así
+    * que el almacén queda de solo lectura hasta que una recarga termine correctamente. Sin cambios
+    * no se registra ninguna mutación, y la persistencia no escribe una base de datos incompleta.
+    */
+   private volatile boolean soloLectura;
+   /*
+    * Oyentes que reciben las mutaciones aplicadas.
+    */
+   private final List<OyenteDeMutaciones> oyentes = new CopyOnWriteArrayList<>();
+
+   /*
+    * Constructor privado. Carga la base de datos desde disco una única vez, aplica los
+    * cambios pendientes de la bitácora y prepara la estrategia de persistencia.
+    */
+   private AlmacenDeDatos() {
+      recuperar();
+      this.persistencia = crearPersistencia();
+      Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "almacen-cierre"));
+   }
+
+   /*
+    * Obtiene la instancia compartida del almacén.
+    */
+   public static AlmacenDeDatos getInstancia() {
+      return Contenedor.INSTANCIA;
+   }
+
+   /*
+    * Ejecuta una consulta de solo lectura sobre la base de datos en memoria.
+    * La consulta no debe modificar las listas recibidas.
+    */
+   public <R> R leer(Function<BaseDeDatos, R> consulta) {
+      esperarCarga();
+      candado.readLock().lock();
+      try {
+         return consulta.apply(baseDeDatos);
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Obtiene una copia de todas las entidades de una colección.
+    */
+   public <T> List<T> obtenerTodos(Coleccion<T> coleccion) {
+      esperarCarga(coleccion);
+      candado.readLock().lock();
+      try {
+         return new ArrayList<>(coleccion.listaEn(baseDeDatos));
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Busca una entidad por su clave primaria. Retorna null si no existe.
+    */
+   public <T> T buscar(Coleccion<T> coleccion, String id) {
+      esperarCarga(coleccion);
+      candado.readLock().lock();
+      try {
+         return tabla(coleccion).buscar(id);
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Obtiene, en el orden de la colección, las entidades cuyo valor en el índice secundario coincide con `valor`.
+    */
+   public <T> List<T> buscarPor(IndiceSecundario<T> indice, String valor) {
+      esperarCarga(indice.getColeccion());
+      candado.readLock().lock();
+      try {
+         return tabla(indice.getColeccion()).buscarPor(indice, valor);
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Obtiene hasta `cantidad` entidades de una colección en su orden, a continuación de la entidad
+    * con la clave `despuesDe`, o desde la primera si es null. El candado de lectura se mantiene
+    * solo mientras se copia la página.
+    */
+   public <T> Pagina<T> obtenerPagina(Coleccion<T> coleccion, String despuesDe, int cantidad) {
+      esperarCarga(coleccion);
+      candado.readLock().lock();
+      try {
+         return tabla(coleccion).pagina(despuesDe, cantidad);
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Obtiene hasta `cantidad` entidades de una colección a partir de la posición `desde` en el orden
+    * `orden` (null para el de la colección) y la dirección indicada, solo entre las claves `claves` si
+    * no es null. La primera consulta con un orden construye su índice ordenado; las siguientes solo
+    * incorporan las entidades que cambiaron.
+    */
+   public <T> Pagina<T> obtenerPagina(Coleccion<T> coleccion, Orden<T> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      esperarCarga(coleccion);
+      candado.readLock().lock();
+      try {
+         return tabla(coleccion).pagina(orden, descendente, claves, desde, cantidad);
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Guarda una entidad: reemplaza la que tenga la misma clave primaria o la añade al final.
+    * Retorna si se añadió y en qué índices secundarios cambió su valor, calculado en el mismo cambio.
+    */
+   public <T> Guardado<T> guardar(Coleccion<T> coleccion, T entidad) {
+      Mutacion mutacion = Mutacion.guardado(coleccion, entidad);
+      esperarCargaParaEscribir();
+      candado.writeLock().lock();
+      try {
+         Guardado<T> guardado = tabla(coleccion).guardar(entidad);
+         List<Mutacion> dependientes = referencias.despuesDe(mutacion);
+         resumenes.despuesDe(mutacion, dependientes);
+         persistencia.registrar(mutacion, baseDeDatos);
+         notificar(mutacion, dependientes);
+         return guardado;
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Elimina la entidad con la clave primaria indicada. Retorna true si existía.
+    */
+   public <T> boolean eliminar(Coleccion<T> coleccion, String id) {
+      Mutacion mutacion = Mutacion.eliminacion(coleccion, id);
+      esperarCargaParaEscribir();
+      candado.writeLock().lock();
+      try {
+         boolean eliminado = aplicar(tablas, mutacion);
+         if (eliminado) {
+            List<Mutacion> dependientes = referencias.despuesDe(mutacion);
+            resumenes.despuesDe(mutacion, dependientes);
+            persistencia.registrar(mutacion, baseDeDatos);
+            notificar(mutacion, dependientes);
+         }
+         return eliminado;
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Modifica la entidad con la clave primaria indicada y registra su nuevo estado, todo bajo el
+    * candado de escritura. El cambio se aplica sobre una copia que reemplaza a la entidad guardada:
+    * las instancias que otros hilos ya obtuvieron del almacén no cambian mientras las leen.
+    * El cambio no debe modificar la clave primaria. Retorna el resultado del guardado, o null si
+    * la entidad no existe.
+    */
+   public <T> Guardado<T> actualizar(Coleccion<T> coleccion, String id, Consumer<T> cambio) {
+      esperarCargaParaEscribir();
+      candado.writeLock().lock();
+      try {
+         T entidad = tabla(coleccion).buscar(id);
+         if (entidad == null)
+            return null;
+         T copia = coleccion.copiar(entidad);
+         cambio.accept(copia);
+         Mutacion mutacion = Mutacion.guardado(coleccion, copia);
+         Guardado<T> guardado = tabla(coleccion).guardar(copia);
+         List<Mutacion> dependientes = referencias.despuesDe(mutacion);
+         resumenes.despuesDe(mutacion, dependientes);
+         persistencia.registrar(mutacion, baseDeDatos);
+         notificar(mutacion, dependientes);
+         return guardado;
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Obtiene los resúmenes de los días entre `desde` y `hasta` (días desde el 01/01/1970), ambos
+    * incluidos y en orden; los días sin actividad se omiten.
+    */
+   public List<ResumenDiario> obtenerResumenDiario(long desde, long hasta) {
+      return leerResumen(tabla -> tabla.entre(desde, hasta));
+   }
+
+   /*
+    * Obtiene el resumen de un día (días desde el 01/01/1970); vacío si no hubo actividad.
+    */
+   public ResumenDiario obtenerResumenDelDia(long dia) {
+      return leerResumen(tabla -> tabla.delDia(dia));
+   }
+
+   /*
+    * Obtiene el resumen acumulado de todos los días.
+    */
+   public ResumenDiario obtenerResumenTotal() {
+      return leerResumen(TablaDeResumenes::total);
+   }
+
+   /*
+    * Ejecuta una consulta sobre el resumen diario. Mientras el historial se carga en segundo plano,
+    * responde con el resumen leído del archivo si lo había; si no, espera a que termine la carga.
+    */
+   private <R> R leerResumen(Function<TablaDeResumenes, R> consulta) {
+      if (!resumenDisponible)
+         esperarCarga();
+      candado.readLock().lock();
+      try {
+         return consulta.apply(resumenes);
+      } finally {
+         candado.readLock().unlock();
+      }
+   }
+
+   /*
+    * Registra un oyente de mutaciones. Antes de recibir la primera mutación, el oyente recibe la
+    * base de datos completa en `alCargar` para construir su estado inicial.
+    */
+   public void agregarOyente(OyenteDeMutaciones oyente) {
+      esperarCarga();
+      candado.writeLock().lock();
+      try {
+         oyentes.add(oyente);
+         notificarCarga(oyente);
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Deja de notificar a un oyente de mutaciones.
+    */
+   public void quitarOyente(OyenteDeMutaciones oyente) {
+      oyentes.remove(oyente);
+   }
+
+   /*
+    * Fuerza a disco cualquier cambio pendiente de la persistencia y espera a que termine.
+    * Retorna true si todos los cambios realizados hasta ahora quedaron guardados en disco.
+    */
+   public boolean sincronizar() {
+      esperarCarga();
+      candado.writeLock().lock();
+      try {
+         return persistencia.sincronizar(baseDeDatos);
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Descarta la copia en memoria y vuelve a leer la base de datos desde disco.
+    * Útil cuando el archivo fue modificado por un proceso externo.
+    */
+   public void recargar() {
+      esperarCarga();
+      candado.writeLock().lock();
+      try {
+         persistencia.sincronizar(baseDeDatos);
+         cargar();
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Compacta la bitácora en el archivo JSON y libera los recursos. Se invoca al cerrar la aplicación.
+    */
+   private void cerrar() {
+      esperarCarga();
+      candado.writeLock().lock();
+      try {
+         persistencia.cerrar(baseDeDatos);
+      } finally {
+         candado.writeLock().unlock();
+      }
+   }
+
+   /*
+    * Espera a que terminen de cargarse las colecciones diferidas, si la colección es una de ellas.
+    */
+   private void esperarCarga(Coleccion<?> coleccion) {
+      if (COLECCIONES_DIFERIDAS.contains(coleccion))
+         esperarCarga();
+   }
+
+   /*
+    * Espera a que terminen de cargarse las colecciones diferidas antes de un cambio. Si la carga
+    * falló, rechaza el cambio: aplicarlo y persistirlo escribiría en disco las colecciones diferidas vacías.
+    */
+   private void esperarCargaParaEscribir() {
+      esperarCarga();
+      if (soloLectura)
+         throw new IllegalStateException("No se pudieron cargar " + COLECCIONES_DIFERIDAS + "; la base de datos es de solo lectura hasta que se recargue.");
+   }
+
+   /*
+    * Espera a que terminen de cargarse las colecciones diferidas. No debe invocarse con el candado
+    * tomado, ya que el hilo de carga necesita el candado de escritura para publicar las colecciones.
+    */
+   private void esperarCarga() {
+      CountDownLatch pendiente = cargaPendiente;
+      if (pendiente.getCount() == 0)
+         return;
+      try {
+         pendiente.await();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /*
+    * Carga la base de datos y reaplica la bitácora que haya quedado de una ejecución anterior.
+    * Si se recuperaron cambios o el archivo tenía un formato anterior, se consolida el archivo
+    * JSON (en el formato actual) y la bitácora se vacía.
+    */
+   private void recuperar() {
+      boolean formatoAnterior = false;
+      int aplicados = cargar();
+      if (!formatoActual(baseDeDatos)) {
+         formatoAnterior = true;
+         REGISTRO.info("Migrando " + GestorJSON.rutaArchivo() + " al formato versión " + BaseDeDatos.VERSION_FORMATO + ".");
+      }
+      if (aplicados > 0)
+         REGISTRO.info("Se recuperaron " + aplicados + " cambios desde la bitácora " + rutaBitacora);
+      if ((aplicados > 0 || formatoAnterior) && GestorJSON.guardarBaseDatos(baseDeDatos))
+         vaciarBitacora();
+   }
+
+   /*
+    * Lee la base de datos, construye sus índices, reaplica la bitácora y resuelve las referencias
+    * entre entidades. Retorna el número de registros de la bitácora aplicados.
+    * Si la bitácora está vacía y el archivo tiene el formato actual, las colecciones diferidas se
+    * leen en segundo plano; en otro caso todo se carga antes de retornar, porque la reaplicación de
+    * la bitácora y la migración necesitan la base de datos completa.
+    */
+   private int cargar() {
+      soloLectura = false;
+      List<String> registros = BitacoraDeEscritura.leerRegistros(rutaBitacora);
+      boolean diferir = registros.isEmpty();
+      List<Coleccion<?>> inmediatas = new ArrayList<>(Coleccion.todas());
+      if (diferir)
+         inmediatas.removeAll(COLECCIONES_DIFERIDAS);
+      BaseDeDatos bd = GestorJSON.leerBaseDatos(inmediatas);
+      boolean resumenLeido = bd.getResumenDiario() != null;
+      completarListas(bd);
+      if (diferir && !formatoActual(bd)) {
+         agregarColecciones(bd, GestorJSON.leerBaseDatos(COLECCIONES_DIFERIDAS));
+         diferir = false;
+      }
+      this.baseDeDatos = bd;
+      this.tablas = indexar(baseDeDatos);
+      this.referencias = new Referencias(tablas);
+      this.resumenes = new TablaDeResumenes(bd.getResumenDiario());
+      int aplicados = reaplicarBitacora(tablas, registros);
+      int sinResolver = referencias.resolverTodo();
+      // Con colecciones diferidas el conteo aún es parcial; lo informa el hilo de carga.
+      if (sinResolver > 0 && !diferir)
+         REGISTRO.advertencia(sinResolver + " referencias a clientes, repartidores o pedidos que ya no existen; se mostrarán como N/A.");
+      if (diferir) {
+         // Sin bitácora pendiente, el resumen del archivo corresponde a las entidades leídas.
+         resumenDisponible = resumenLeido && aplicados == 0;
+         cargarDiferidas(bd);
+      } else {
+         reconstruirResumen();
+         oyentes.forEach(this::notificarCarga);
+      }
+      return aplicados;
+   }
+
+   /*
+    * Inicia la lectura de las colecciones diferidas en un hilo de fondo. La decodificación se hace
+    * sin el candado; solo la publicación en las tablas lo toma. Si entretanto la base de datos se
+    * recargó, el resultado se descarta. La lectura no recurre a otro archivo ni a una base vacía:
+    * si falla, las colecciones no se publican y el almacén queda de solo lectura.
+    */
+   private void cargarDiferidas(BaseDeDatos destino) {
+      CountDownLatch pendiente = new CountDownLatch(1);
+      this.cargaPendiente = pendiente;
+      Thread hilo = new Thread(() -> {
+         try {
+            BaseDeDatos diferida = completarListas(GestorJSON.leerBaseDatosSinRespaldo(COLECCIONES_DIFERIDAS));
+            candado.writeLock().lock();
+            try {
+               if (baseDeDatos != destino)
+                  return;
+               agregarColecciones(destino, diferida);
+               for (Coleccion<?> coleccion : COLECCIONES_DIFERIDAS)
+                  tablas.put(coleccion, crearTabla(coleccion, destino));
+               int sinResolver = referencias.resolverTodo();
+               if (sinResolver > 0)
+                  REGISTRO.advertencia(sinResolver + " referencias a clientes, repartidores o pedidos que ya no existen; se mostrarán como N/A.");
+               reconstruirResumen();
+               REGISTRO.depurar(() -> "Colecciones diferidas cargadas: " + COLECCIONES_DIFERIDAS);
+               oyentes.forEach(this::notificarCarga);
+            } finally {
+               candado.writeLock().unlock();
+            }
+         } catch (IOException | RuntimeException e) {
+            // Se marca antes de liberar a quienes esperan la carga, para que ningún cambio se aplique.
+            soloLectura = true;
+            REGISTRO.error("No se pudieron cargar las colecciones diferidas; la base de datos queda de solo lectura.", e);
+         } finally {
+            pendiente.countDown();
+         }
+      }, "almacen-carga-diferida");
+      hilo.setDaemon(true);
+      hilo.start();
+   }
+
+   /*
+    * Entrega a los oyentes una mutación aplicada y, a continuación, las entidades dependientes que
+    * se volvieron a enlazar. Un oyente que falla no impide notificar a los demás.
+    */
+   private void notificar(Mutacion mutacion, List<Mutacion> dependientes) {
+      for (OyenteDeMutaciones oyente : oyentes) {
+         try {
+            oyente.alAplicar(mutacion);
+            for (Mutacion dependiente : dependientes)
+               oyente.alAplicar(dependiente);
+         } catch (RuntimeException e) {
+            REGISTRO.error("Un oyente del almacén falló al procesar un cambio en " + mutacion.getColeccion() + ": " + e.getMessage(), e);
+         }
+      }
+   }
+
+   /*
+    * Entrega a un oyente la base de datos completa.
+    */
+   private void notificarCarga(OyenteDeMutaciones oyente) {
+      try {
+         oyente.alCargar(baseDeDatos);
+      } catch (RuntimeException e) {
+         REGISTRO.error("Un oyente del almacén falló al cargar la base de datos: " + e.getMessage(), e);
+      }
+   }
+
+   /*
+    * Recalcula el resumen diario a partir de la base de datos completa. Corrige también un resumen
+    * del archivo que no coincida con las entidades (por ejemplo, si el archivo se editó a mano).
+    */
+   private void reconstruirResumen() {
+      resumenes.reconstruir(tabla(Coleccion.PEDIDOS).filas(), tabla(Coleccion.HISTORIAL).filas());
+      resumenDisponible = true;
+   }
+
+   /*
+    * Indica si la base de datos leída tiene la versión actual del formato.
+    */
+   private static boolean formatoActual(BaseDeDatos bd) {
+      Integer version = bd.getVersion();
+      return version != null && version >= BaseDeDatos.VERSION_FORMATO;
+   }
+
+   /*
+    * Añade a `destino` las entidades de las colecciones diferidas leídas en `origen`.
+    */
+   private static void agregarColecciones(BaseDeDatos destino, BaseDeDatos origen) {
+      completarListas(origen);
+      for (Coleccion<?> coleccion : COLECCIONES_DIFERIDAS)
+         agregarColeccion(coleccion, destino, origen);
+   }
+
+   /*
+    * Añade las entidades de una colección conservando su tipo genérico.
+    */
+   private static <T> void agregarColeccion(Coleccion<T> coleccion, BaseDeDatos destino, BaseDeDatos origen) {
+      coleccion.listaEn(destino).addAll(coleccion.listaEn(origen));
+   }
+
+   /*
+    * Aplica sobre las tablas todos los registros válidos de la bitácora, en orden. Se detiene en el
+    * primer registro ilegible, ya que los posteriores no pueden haberse confirmado.
+    * Retorna el número de registros aplicados.
+    */
+   private int reaplicarBitacora(Map<Coleccion<?>, Tabla<?>> tablas, List<String> registros) {
+      int aplicados = 0;
+      for (String registro : registros) {
+         try {
+            aplicar(tablas, GestorJSON.deserializarMutacion(registro));
+            aplicados++;
+         } catch (RuntimeException e) {
+            REGISTRO.error("Registro inválido en la bitácora, se detiene la recuperación: " + e.getMessage());
+            break;
+         }
+      }
+      return aplicados;
+   }
+
+   /*
+    * Vacía la bitácora de recuperación sin necesidad de tenerla abierta.
+    */
+   private void vaciarBitacora() {
+      try {
+         Files.write(rutaBitacora, new byte[0]);
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo vaciar la bitácora " + rutaBitacora + ": " + e.getMessage());
+      }
+   }
+
+   /*
+    * Crea la estrategia de persistencia según la propiedad `project.persistencia`.
+    * Si la bitácora no puede abrirse, se usa la reescritura completa del archivo.
+    */
+   private Persistencia crearPersistencia() {
+      String estrategia = System.getProperty(PROPIEDAD_PERSISTENCIA, "bitacora");
+      if ("instantanea".equalsIgnoreCase(estrategia))
+         return new PersistenciaInstantanea();
+      if ("diferida".equalsIgnoreCase(estrategia))
+         return new PersistenciaDiferida(candado.readLock(), Long.getLong(PROPIEDAD_VENTANA_DIFERIDA, VENTANA_DIFERIDA_MS));
+      try {
+         return new PersistenciaBitacora(new BitacoraDeEscritura(rutaBitacora));
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo abrir la bitácora " + rutaBitacora + ", se reescribirá el archivo completo en cada cambio: " + e.getMessage());
+         return new PersistenciaInstantanea();
+      }
+   }
+
+   /*
+    * Obtiene la tabla indexada de una colección.
+    */
+   @SuppressWarnings("unchecked")
+   private <T> Tabla<T> tabla(Coleccion<T> coleccion) {
+      return (Tabla<T>) tablas.get(coleccion);
+   }
+
+   /*
+    * Construye las tablas indexadas sobre las listas de la base de datos.
+    */
+   private static Map<Coleccion<?>, Tabla<?>> indexar(BaseDeDatos bd) {
+      Map<Coleccion<?>, Tabla<?>> resultado = new HashMap<>();
+      for (Coleccion<?> coleccion : Coleccion.todas())
+         resultado.put(coleccion, crearTabla(coleccion, bd));
+      return resultado;
+   }
+
+   /*
+    * Crea la tabla de una colección conservando su tipo genérico.
+    */
+   private static <T> Tabla<T> crearTabla(Coleccion<T> coleccion, BaseDeDatos bd) {
+      return new Tabla<>(coleccion, coleccion.listaEn(bd));
+   }
+
+   /*
+    * Aplica una mutación sobre las tablas. Es idempotente: reaplicar la misma mutación
+    * deja la base en el mismo estado, lo que permite reproducir la bitácora sin riesgo.
+    * Retorna true si la base cambió (para eliminaciones, si la entidad existía).
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> boolean aplicar(Map<Coleccion<?>, Tabla<?>> tablas, Mutacion mutacion) {
+      Tabla<T> tabla = (Tabla<T>) tablas.get(mutacion.getColeccion());
+      if (mutacion.getTipo() == Mutacion.Tipo.ELIMINAR)
+         return tabla.eliminar(mutacion.getId()) != null;
+      tabla.guardar((T) mutacion.getEntidad());
+      return true;
+   }
+
+   /*
+    * Asegura que ninguna de las listas de la base de datos sea nula, ya que Gson
+    * las deja en null cuando el archivo contiene explícitamente ese valor.
+    */
+   private static BaseDeDatos completarListas(BaseDeDatos bd) {
+      if (bd.getUsuarios() == null)
+         bd.setUsuarios(new ArrayList<>());
+      if (bd.getRepartidor() == null)
+         bd.setRepartidor(new ArrayList<>());
+      if (bd.getPedido() == null)
+         bd.setPedido(new ArrayList<>());
+      if (bd.getCliente() == null)
+         bd.setCliente(new ArrayList<>());
+      if (bd.getHistorial() == null)
+         bd.setHistorial(new ArrayList<>());
+      if (bd.getResumenDiario() == null)
+         bd.setResumenDiario(new ArrayList<>());
+      return bd;
+   }
+}
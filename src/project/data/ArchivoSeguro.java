@@ -0,0 +1,189 @@
+package project.data;
+
+import project.util.Registro;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * La clase `ArchivoSeguro` escribe las instantáneas de la base de datos de forma que una caída a
+ * mitad de la escritura nunca deja el archivo truncado:
+ *   1. El contenido se escribe en `<archivo>.tmp`, se sincroniza con el disco y se calcula su CRC32.
+ *   2. El CRC32 y la longitud se escriben en `<archivo>.tmp.crc` de la misma forma.
+ *   3. La instantánea anterior y su suma pasan a `<archivo>.bak` y `<archivo>.bak.crc`.
+ *   4. Los temporales se mueven atómicamente a `<archivo>` y `<archivo>.crc`.
+ * Al leer, `rutaParaLeer` verifica la suma y, si el archivo falta o no coincide, recurre a la copia
+ * anterior. Como la bitácora solo se vacía después de una escritura exitosa, sus registros siguen
+ * siendo aplicables sobre la copia anterior.
+ */
+final class ArchivoSeguro {
+   private static final Registro REGISTRO = Registro.para(ArchivoSeguro.class);
+
+   private static final String SUFIJO_TEMPORAL = ".tmp";
+   private static final String SUFIJO_RESPALDO = ".bak";
+   private static final String SUFIJO_SUMA = ".crc";
+
+   /*
+    * Contenido que se escribe en el archivo.
+    */
+   interface Contenido {
+      void escribirEn(OutputStream salida) throws IOException;
+   }
+
+   // Última verificación realizada, para no recalcular la suma cuando el archivo se lee por partes.
+   private static String ultimaVerificada;
+   // Último aviso emitido, para no repetirlo en cada lectura parcial del mismo archivo.
+   private static String ultimoAviso;
+
+   /*
+    * Clase utilitaria; no se instancia.
+    */
+   private ArchivoSeguro() {
+   }
+
+   /*
+    * Escribe `contenido` en `ruta` de forma atómica, conservando la versión anterior como respaldo.
+    * Si falla, el archivo existente queda intacto.
+    */
+   static void escribir(String ruta, Contenido contenido) throws IOException {
+      Path destino = Paths.get(ruta);
+      Path temporal = Paths.get(ruta + SUFIJO_TEMPORAL);
+      CRC32 crc = new CRC32();
+      try (FileOutputStream archivo = new FileOutputStream(temporal.toFile())) {
+         CheckedOutputStream salida = new CheckedOutputStream(new BufferedOutputStream(archivo, 64 * 1024), crc);
+         contenido.escribirEn(salida);
+         salida.flush();
+         archivo.getFD().sync();
+      }
+      String suma = Long.toHexString(crc.getValue()) + " " + Files.size(temporal);
+      Path sumaTemporal = Paths.get(ruta + SUFIJO_TEMPORAL + SUFIJO_SUMA);
+      try (FileOutputStream archivo = new FileOutputStream(sumaTemporal.toFile())) {
+         archivo.write(suma.getBytes(StandardCharsets.US_ASCII));
+         archivo.getFD().sync();
+      }
+      // La suma se mueve antes que los datos: un archivo sin suma se lee sin verificar, nunca con una suma ajena.
+      if (Files.exists(destino)) {
+         // Si la instantánea actual no tiene suma, el respaldo tampoco debe conservar una suma antigua.
+         Files.deleteIfExists(Paths.get(ruta + SUFIJO_RESPALDO + SUFIJO_SUMA));
+         mover(Paths.get(ruta + SUFIJO_SUMA), Paths.get(ruta + SUFIJO_RESPALDO + SUFIJO_SUMA));
+         mover(destino, Paths.get(ruta + SUFIJO_RESPALDO));
+      }
+      mover(temporal, destino);
+      mover(sumaTemporal, Paths.get(ruta + SUFIJO_SUMA));
+      sincronizarDirectorio(destino);
+   }
+
+   /*
+    * Obtiene la ruta desde la que debe leerse `ruta`: el propio archivo si su suma coincide (o si no
+    * tiene suma), la copia de respaldo si el archivo falta o está dañado y el respaldo es válido,
+    * y en último caso el archivo tal como está.
+    */
+   static synchronized String rutaParaLeer(String ruta) {
+      if (Files.exists(Paths.get(ruta)) && esValido(ruta))
+         return ruta;
+      String respaldo = ruta + SUFIJO_RESPALDO;
+      if (Files.exists(Paths.get(respaldo)) && esValido(respaldo)) {
+         avisar(ruta + " falta o no coincide con su suma de verificación; se usa la copia anterior " + respaldo);
+         return respaldo;
+      }
+      if (Files.exists(Paths.get(ruta)))
+         avisar(ruta + " no coincide con su suma de verificación y no hay copia anterior válida; se lee tal como está.");
+      return ruta;
+   }
+
+   /*
+    * Emite un aviso si no es el mismo que el anterior.
+    */
+   private static void avisar(String aviso) {
+      if (!aviso.equals(ultimoAviso))
+         REGISTRO.error(aviso);
+      ultimoAviso = aviso;
+   }
+
+   /*
+    * Indica si existe el archivo o su copia de respaldo.
+    */
+   static boolean existe(String ruta) {
+      return Files.isRegularFile(Paths.get(ruta)) || Files.isRegularFile(Paths.get(ruta + SUFIJO_RESPALDO));
+   }
+
+   /*
+    * Verifica el archivo contra su suma. Un archivo sin suma (escrito a mano o por una versión
+    * anterior de la aplicación) se considera válido.
+    */
+   private static boolean esValido(String ruta) {
+      Path archivo = Paths.get(ruta);
+      Path rutaSuma = Paths.get(ruta + SUFIJO_SUMA);
+      try {
+         if (!Files.exists(rutaSuma))
+            return true;
+         String firma = ruta + "|" + Files.size(archivo) + "|" + Files.getLastModifiedTime(archivo).toMillis() + "|" + Files.getLastModifiedTime(rutaSuma).toMillis();
+         if (firma.equals(ultimaVerificada))
+            return true;
+         String[] partes = new String(Files.readAllBytes(rutaSuma), StandardCharsets.US_ASCII).trim().split(" ");
+         if (partes.length != 2 || Long.parseLong(partes[1]) != Files.size(archivo) || Long.parseLong(partes[0], 16) != calcularSuma(archivo))
+            return false;
+         ultimaVerificada = firma;
+         return true;
+      } catch (IOException | NumberFormatException e) {
+         REGISTRO.error("No se pudo verificar " + ruta + ": " + e.getMessage());
+         return false;
+      }
+   }
+
+   /*
+    * Calcula el CRC32 de un archivo leyéndolo por bloques.
+    */
+   private static long calcularSuma(Path archivo) throws IOException {
+      CRC32 crc = new CRC32();
+      ByteBuffer bloque = ByteBuffer.allocateDirect(64 * 1024);
+      try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+         while (canal.read(bloque) != -1) {
+            bloque.flip();
+            crc.update(bloque);
+            bloque.clear();
+         }
+      }
+      return crc.getValue();
+   }
+
+   /*
+    * Mueve un archivo reemplazando el destino, de forma atómica si el sistema de archivos lo permite.
+    */
+   private static void mover(Path origen, Path destino) throws IOException {
+      if (!Files.exists(origen))
+         return;
+      try {
+         Files.move(origen, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+         Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+      }
+   }
+
+   /*
+    * Sincroniza el directorio para que los renombrados sobrevivan a una caída. Algunos sistemas
+    * (por ejemplo Windows) no permiten abrir un directorio; en ese caso se omite.
+    */
+   private static void sincronizarDirectorio(Path archivo) {
+      Path directorio = archivo.toAbsolutePath().getParent();
+      if (directorio == null)
+         return;
+      try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+         canal.force(true);
+      } catch (IOException | RuntimeException e) {
+         // No soportado en esta plataforma.
+      }
+   }
+}
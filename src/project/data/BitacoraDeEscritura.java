@@ -0,0 +1,139 @@
+package project.data;
+
+import project.util.Registro;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * La clase `BitacoraDeEscritura` mantiene un archivo de solo anexado (write-ahead log) junto
+ * al archivo JSON de la base de datos. Cada mutación se escribe como una línea JSON compacta.
+ * Para no pagar un fsync por cada registro, las escrituras se agrupan: el canal se fuerza a disco
+ * cuando se acumulan `MAX_REGISTROS_PENDIENTES` registros o, como máximo, cada `INTERVALO_SINCRONIZACION_MS`.
+ */
+final class BitacoraDeEscritura {
+   private static final Registro REGISTRO = Registro.para(BitacoraDeEscritura.class);
+
+   /*
+    * Número de registros escritos sin sincronizar que fuerzan un fsync inmediato.
+    */
+   private static final int MAX_REGISTROS_PENDIENTES = 32;
+   /*
+    * Intervalo máximo, en milisegundos, que un registro puede permanecer sin sincronizar.
+    */
+   private static final long INTERVALO_SINCRONIZACION_MS = 200;
+
+   private final Path ruta;
+   private final FileChannel canal;
+   private final ScheduledExecutorService sincronizador;
+   private int registrosPendientes;
+
+   /*
+    * Abre (o crea) el archivo de bitácora en modo anexado e inicia la sincronización periódica.
+    */
+   BitacoraDeEscritura(Path ruta) throws IOException {
+      this.ruta = ruta;
+      this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      this.sincronizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+         Thread hilo = new Thread(tarea, "bitacora-fsync");
+         hilo.setDaemon(true);
+         return hilo;
+      });
+      this.sincronizador.scheduleWithFixedDelay(this::sincronizarSilenciosamente, INTERVALO_SINCRONIZACION_MS, INTERVALO_SINCRONIZACION_MS, TimeUnit.MILLISECONDS);
+   }
+
+   /*
+    * Anexa un registro (una línea JSON) a la bitácora.
+    */
+   synchronized void anexar(String registro) throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap((registro + "\n").getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining())
+         canal.write(buffer);
+      if (++registrosPendientes >= MAX_REGISTROS_PENDIENTES)
+         sincronizar();
+   }
+
+   /*
+    * Fuerza a disco los registros escritos hasta el momento.
+    */
+   synchronized void sincronizar() throws IOException {
+      if (registrosPendientes == 0 || !canal.isOpen())
+         return;
+      canal.force(false);
+      registrosPendientes = 0;
+   }
+
+   /*
+    * Vacía la bitácora. Solo debe llamarse después de que la base de datos completa se escribió en disco.
+    */
+   synchronized void truncar() throws IOException {
+      canal.truncate(0);
+      canal.force(true);
+      registrosPendientes = 0;
+   }
+
+   /*
+    * Detiene la sincronización periódica y cierra el archivo.
+    */
+   synchronized void cerrar() throws IOException {
+      sincronizador.shutdownNow();
+      sincronizar();
+      canal.close();
+   }
+
+   /*
+    * Obtiene la ruta del archivo de bitácora.
+    */
+   Path getRuta() {
+      return ruta;
+   }
+
+   /*
+    * Tarea periódica de sincronización; los errores se reportan pero no detienen la tarea.
+    */
+   private void sincronizarSilenciosamente() {
+      try {
+         sincronizar();
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo sincronizar la bitácora de escritura: " + e.getMessage());
+      }
+   }
+
+   /*
+    * Lee los registros de una bitácora existente. Retorna una lista vacía si el archivo no existe.
+    * Una última línea sin salto de línea se considera un registro cortado por un cierre inesperado y se descarta.
+    */
+   static List<String> leerRegistros(Path ruta) {
+      List<String> registros = new ArrayList<>();
+      String contenido;
+      try {
+         contenido = Files.readString(ruta, StandardCharsets.UTF_8);
+      } catch (NoSuchFileException e) {
+         return registros;
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo leer la bitácora de escritura " + ruta + ": " + e.getMessage());
+         return registros;
+      }
+      int inicio = 0;
+      int fin;
+      while ((fin = contenido.indexOf('\n', inicio)) >= 0) {
+         String linea = contenido.substring(inicio, fin).trim();
+         if (!linea.isEmpty())
+            registros.add(linea);
+         inicio = fin + 1;
+      }
+      if (inicio < contenido.length() && !contenido.substring(inicio).isBlank())
+         REGISTRO.advertencia("Se descartó un registro incompleto al final de la bitácora " + ruta + ".");
+      return registros;
+   }
+}
@@ -0,0 +1,118 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+import project.model.entities.Cliente;
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.model.entities.Repartidor;
+import project.model.entities.Usuario;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/*
+ * La clase `Coleccion` describe cada una de las listas de entidades que forman la `BaseDeDatos`:
+ * su nombre dentro del archivo JSON, el tipo de entidad que contiene, cómo obtener la clave
+ * primaria de una entidad, cómo copiarla y cómo acceder a la lista dentro de una `BaseDeDatos`.
+ * Permite que el almacén y la bitácora traten todas las colecciones de forma genérica.
+ */
+public final class Coleccion<T> {
+   /*
+    * Usuarios del sistema, identificados por su cédula.
+    */
+   public static final Coleccion<Usuario> USUARIOS = new Coleccion<>("usuarios", Usuario.class, Usuario::getCedula, Usuario::new, BaseDeDatos::getUsuarios);
+   /*
+    * Repartidores, identificados por su cédula de identidad.
+    */
+   public static final Coleccion<Repartidor> REPARTIDORES = new Coleccion<>("repartidor", Repartidor.class, Repartidor::getCedulaIdentidad, Repartidor::new, BaseDeDatos::getRepartidor);
+   /*
+    * Pedidos, identificados por su ID de pedido.
+    */
+   public static final Coleccion<Pedido> PEDIDOS = new Coleccion<>("pedido", Pedido.class, Pedido::getIdPedido, Pedido::new, BaseDeDatos::getPedido);
+   /*
+    * Clientes, identificados por su cédula de identidad.
+    */
+   public static final Coleccion<Cliente> CLIENTES = new Coleccion<>("cliente", Cliente.class, Cliente::getCedulaIdentidad, Cliente::new, BaseDeDatos::getCliente);
+   /*
+    * Historial de entregas, identificado por su ID de historial.
+    */
+   public static final Coleccion<HistorialDeEntrega> HISTORIAL = new Coleccion<>("historial", HistorialDeEntrega.class, HistorialDeEntrega::getIdHistorial, HistorialDeEntrega::new, BaseDeDatos::getHistorial);
+
+   // Todas las colecciones, en el mismo orden en que aparecen en el archivo JSON.
+   private static final List<Coleccion<?>> TODAS = List.of(USUARIOS, REPARTIDORES, PEDIDOS, CLIENTES, HISTORIAL);
+
+   private final String nombre;
+   private final Class<T> tipo;
+   private final Function<T, String> extractorClave;
+   private final UnaryOperator<T> copiador;
+   private final Function<BaseDeDatos, List<T>> accesoLista;
+
+   /*
+    * Constructor privado; las colecciones válidas son únicamente las constantes de esta clase.
+    */
+   private Coleccion(String nombre, Class<T> tipo, Function<T, String> extractorClave, UnaryOperator<T> copiador, Function<BaseDeDatos, List<T>> accesoLista) {
+      this.nombre = nombre;
+      this.tipo = tipo;
+      this.extractorClave = extractorClave;
+      this.copiador = copiador;
+      this.accesoLista = accesoLista;
+   }
+
+   /*
+    * Obtiene el nombre de la colección tal como aparece en el archivo JSON.
+    */
+   public String getNombre() {
+      return nombre;
+   }
+
+   /*
+    * Obtiene la clase de las entidades de la colección.
+    */
+   public Class<T> getTipo() {
+      return tipo;
+   }
+
+   /*
+    * Obtiene la clave primaria de una entidad, o null si la entidad o su clave son nulas.
+    */
+   public String claveDe(T entidad) {
+      return (entidad == null) ? null : extractorClave.apply(entidad);
+   }
+
+   /*
+    * Obtiene una copia de una entidad, con los mismos datos y las mismas referencias enlazadas.
+    */
+   public T copiar(T entidad) {
+      return copiador.apply(entidad);
+   }
+
+   /*
+    * Obtiene la lista de entidades de esta colección dentro de una `BaseDeDatos`.
+    */
+   public List<T> listaEn(BaseDeDatos bd) {
+      return accesoLista.apply(bd);
+   }
+
+   /*
+    * Busca una colección por su nombre en el archivo JSON. Retorna null si no existe.
+    */
+   public static Coleccion<?> porNombre(String nombre) {
+      for (Coleccion<?> coleccion : TODAS) {
+         if (coleccion.nombre.equals(nombre))
+            return coleccion;
+      }
+      return null;
+   }
+
+   /*
+    * Obtiene todas las colecciones de la base de datos.
+    */
+   public static List<Coleccion<?>> todas() {
+      return TODAS;
+   }
+
+   @Override
+   public String toString() {
+      return nombre;
+   }
+}
@@ -0,0 +1,165 @@
+package project.data;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/*
+ * La clase `EntradaMapeada` implementa `DataInput` directamente sobre un `MemorySegment`, normalmente
+ * un archivo mapeado en memoria con `FileChannel.map`. Los valores se decodifican desde las páginas
+ * del archivo sin copiarlos antes a un búfer intermedio en el heap. Como `DataOutputStream`, que
+ * escribe la instantánea, los valores se leen en orden big-endian.
+ */
+final class EntradaMapeada implements DataInput {
+   private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+   private static final ValueLayout.OfChar CHAR = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+   private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+   private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+   private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+   private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+   private final MemorySegment segmento;
+   private long posicion;
+
+   /*
+    * Crea la entrada sobre el segmento indicado, desde su primer byte.
+    */
+   EntradaMapeada(MemorySegment segmento) {
+      this.segmento = segmento;
+   }
+
+   @Override
+   public void readFully(byte[] destino) throws IOException {
+      readFully(destino, 0, destino.length);
+   }
+
+   @Override
+   public void readFully(byte[] destino, int desplazamiento, int longitud) throws IOException {
+      requerir(longitud);
+      MemorySegment.copy(segmento, ValueLayout.JAVA_BYTE, posicion, destino, desplazamiento, longitud);
+      posicion += longitud;
+   }
+
+   @Override
+   public int skipBytes(int n) {
+      int saltados = (int) Math.max(0, Math.min(n, restantes()));
+      posicion += saltados;
+      return saltados;
+   }
+
+   @Override
+   public boolean readBoolean() throws IOException {
+      return readByte() != 0;
+   }
+
+   @Override
+   public byte readByte() throws IOException {
+      requerir(1);
+      return segmento.get(ValueLayout.JAVA_BYTE, posicion++);
+   }
+
+   @Override
+   public int readUnsignedByte() throws IOException {
+      return readByte() & 0xFF;
+   }
+
+   @Override
+   public short readShort() throws IOException {
+      requerir(2);
+      short valor = segmento.get(SHORT, posicion);
+      posicion += 2;
+      return valor;
+   }
+
+   @Override
+   public int readUnsignedShort() throws IOException {
+      return readShort() & 0xFFFF;
+   }
+
+   @Override
+   public char readChar() throws IOException {
+      requerir(2);
+      char valor = segmento.get(CHAR, posicion);
+      posicion += 2;
+      return valor;
+   }
+
+   @Override
+   public int readInt() throws IOException {
+      requerir(4);
+      int valor = segmento.get(INT, posicion);
+      posicion += 4;
+      return valor;
+   }
+
+   @Override
+   public long readLong() throws IOException {
+      requerir(8);
+      long valor = segmento.get(LONG, posicion);
+      posicion += 8;
+      return valor;
+   }
+
+   @Override
+   public float readFloat() throws IOException {
+      requerir(4);
+      float valor = segmento.get(FLOAT, posicion);
+      posicion += 4;
+      return valor;
+   }
+
+   @Override
+   public double readDouble() throws IOException {
+      requerir(8);
+      double valor = segmento.get(DOUBLE, posicion);
+      posicion += 8;
+      return valor;
+   }
+
+   /*
+    * Lee una línea como `DataInputStream.readLine`: cada byte es un carácter, la línea termina en
+    * "\n", "\r" o "\r\n" (sin incluirlos) y se retorna null si ya no quedan bytes.
+    */
+   @Override
+   public String readLine() {
+      if (restantes() <= 0)
+         return null;
+      StringBuilder linea = new StringBuilder();
+      while (restantes() > 0) {
+         char caracter = (char) (segmento.get(ValueLayout.JAVA_BYTE, posicion++) & 0xFF);
+         if (caracter == '\n')
+            break;
+         if (caracter == '\r') {
+            if (restantes() > 0 && segmento.get(ValueLayout.JAVA_BYTE, posicion) == '\n')
+               posicion++;
+            break;
+         }
+         linea.append(caracter);
+      }
+      return linea.toString();
+   }
+
+   @Override
+   public String readUTF() throws IOException {
+      return DataInputStream.readUTF(this);
+   }
+
+   /*
+    * Obtiene el número de bytes que quedan por leer.
+    */
+   private long restantes() {
+      return segmento.byteSize() - posicion;
+   }
+
+   /*
+    * Verifica que queden al menos `bytes` bytes por leer.
+    */
+   private void requerir(int bytes) throws EOFException {
+      if (restantes() < bytes)
+         throw new EOFException("Instantánea binaria truncada.");
+   }
+}
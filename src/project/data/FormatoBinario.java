@@ -0,0 +1,376 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+import project.model.entities.Cliente;
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.model.entities.Repartidor;
+import project.model.entities.ResumenDiario;
+import project.model.entities.Usuario;
+import project.model.enums.Combo;
+import project.model.enums.MetodoDePago;
+import project.model.estadisticas.HistogramaDeMinutos;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * La clase `FormatoBinario` lee y escribe una instantánea compacta de la `BaseDeDatos`.
+ * Estructura del archivo:
+ *    int MAGICO, int versión del formato de datos, int número de secciones;
+ *    por sección: nombre (UTF), cantidad de registros (int), longitud en bytes (int) y los registros;
+ *    cada registro: longitud (int) seguida de sus campos.
+ * Tras las colecciones puede ir la sección del resumen diario (`GestorJSON.SECCION_RESUMEN_DIARIO`),
+ * que se lee junto con los pedidos; si falta, como en los archivos anteriores, el resumen se recalcula.
+ * Las fechas se guardan como milisegundos desde la época (`FormatoFecha.SIN_FECHA` si no hay fecha),
+ * igual que en las entidades, y los enums como su ordinal, lo que evita analizar texto al cargar. La longitud de cada sección permite
+ * saltar las colecciones que no se solicitan sin decodificarlas.
+ */
+final class FormatoBinario {
+   /*
+    * Identificador del formato ("BDB1").
+    */
+   static final int MAGICO = 0x42444231;
+
+   /*
+    * Codificación de los campos de un tipo de entidad.
+    */
+   private interface Codificador<T> {
+      void escribir(DataOutput salida, T entidad) throws IOException;
+
+      T leer(DataInput entrada) throws IOException;
+   }
+
+   // Codificador de cada colección.
+   private static final Map<Coleccion<?>, Codificador<?>> CODIFICADORES = new HashMap<>();
+
+   static {
+      CODIFICADORES.put(Coleccion.USUARIOS, new Codificador<Usuario>() {
+         @Override
+         public void escribir(DataOutput salida, Usuario u) throws IOException {
+            escribirTexto(salida, u.getCedula());
+            escribirTexto(salida, u.getContrasena());
+            escribirTexto(salida, u.getRol());
+         }
+
+         @Override
+         public Usuario leer(DataInput entrada) throws IOException {
+            Usuario u = new Usuario();
+            u.setCedula(leerTexto(entrada));
+            u.setContrasena(leerTexto(entrada));
+            u.setRol(leerTexto(entrada));
+            return u;
+         }
+      });
+      CODIFICADORES.put(Coleccion.REPARTIDORES, new Codificador<Repartidor>() {
+         @Override
+         public void escribir(DataOutput salida, Repartidor r) throws IOException {
+            escribirTexto(salida, r.getNombre());
+            escribirTexto(salida, r.getCedulaIdentidad());
+            escribirTexto(salida, r.getNumeroTelefono());
+            salida.writeBoolean(r.isDisponibilidad());
+            escribirTexto(salida, r.getContrasena());
+         }
+
+         @Override
+         public Repartidor leer(DataInput entrada) throws IOException {
+            return new Repartidor(leerTexto(entrada), leerTexto(entrada), leerTexto(entrada), entrada.readBoolean(), leerTexto(entrada));
+         }
+      });
+      CODIFICADORES.put(Coleccion.CLIENTES, new Codificador<Cliente>() {
+         @Override
+         public void escribir(DataOutput salida, Cliente c) throws IOException {
+            escribirTexto(salida, c.getNombre());
+            escribirTexto(salida, c.getCedulaIdentidad());
+            escribirTexto(salida, c.getNumeroTelefono());
+            escribirTexto(salida, c.getDireccion());
+         }
+
+         @Override
+         public Cliente leer(DataInput entrada) throws IOException {
+            return new Cliente(leerTexto(entrada), leerTexto(entrada), leerTexto(entrada), leerTexto(entrada));
+         }
+      });
+      CODIFICADORES.put(Coleccion.PEDIDOS, new Codificador<Pedido>() {
+         @Override
+         public void escribir(DataOutput salida, Pedido p) throws IOException {
+            escribirTexto(salida, p.getIdPedido());
+            escribirTexto(salida, p.getCedulaCliente());
+            escribirTexto(salida, p.getCedulaRepartidor());
+            escribirTexto(salida, p.getDireccionEntrega());
+            escribirEnum(salida, p.getCombo());
+            salida.writeDouble(p.getPrecioCombo());
+            escribirEnum(salida, p.getMetodoPago());
+            salida.writeBoolean(p.isRequiereCambio());
+            salida.writeDouble(p.getCostoEntrega());
+            salida.writeDouble(p.getVuelto());
+            escribirTexto(salida, p.getEstado());
+            salida.writeLong(p.getFechaCreacionMs());
+            salida.writeLong(p.getFechaEntregaMs());
+            salida.writeDouble(p.getMontoTotal());
+         }
+
+         @Override
+         public Pedido leer(DataInput entrada) throws IOException {
+            String idPedido = leerTexto(entrada);
+            String cedulaCliente = leerTexto(entrada);
+            String cedulaRepartidor = leerTexto(entrada);
+            String direccionEntrega = leerTexto(entrada);
+            Combo combo = leerEnum(entrada, Combo.values());
+            double precioCombo = entrada.readDouble();
+            MetodoDePago metodoPago = leerEnum(entrada, MetodoDePago.values());
+            boolean requiereCambio = entrada.readBoolean();
+            double costoEntrega = entrada.readDouble();
+            double vuelto = entrada.readDouble();
+            String estado = leerTexto(entrada);
+            long fechaCreacion = entrada.readLong();
+            long fechaEntrega = entrada.readLong();
+            // El constructor deriva el precio y el total del combo; se restauran los valores guardados.
+            Pedido p = new Pedido(idPedido, null, null, direccionEntrega, Combo.SELECCIONAR, metodoPago, requiereCambio, costoEntrega, vuelto, estado, null, null, null);
+            p.setFechaCreacionMs(fechaCreacion);
+            p.setFechaEntregaMs(fechaEntrega);
+            p.setCombo(combo);
+            p.setPrecioCombo(precioCombo);
+            p.setMontoTotal(entrada.readDouble());
+            p.setCedulaCliente(cedulaCliente);
+            p.setCedulaRepartidor(cedulaRepartidor);
+            return p;
+         }
+      });
+      CODIFICADORES.put(Coleccion.HISTORIAL, new Codificador<HistorialDeEntrega>() {
+         @Override
+         public void escribir(DataOutput salida, HistorialDeEntrega h) throws IOException {
+            escribirTexto(salida, h.getIdHistorial());
+            escribirTexto(salida, h.getIdPedido());
+            escribirTexto(salida, h.getCedulaRepartidor());
+            salida.writeLong(h.getFechaRegistroMs());
+            escribirTexto(salida, h.getEstadoEntrega());
+            escribirTexto(salida, h.getUbicacionEntrega());
+         }
+
+         @Override
+         public HistorialDeEntrega leer(DataInput entrada) throws IOException {
+            String idHistorial = leerTexto(entrada);
+            String idPedido = leerTexto(entrada);
+            String cedulaRepartidor = leerTexto(entrada);
+            long fechaRegistro = entrada.readLong();
+            HistorialDeEntrega h = new HistorialDeEntrega(idHistorial, null, leerTexto(entrada), leerTexto(entrada), null, null);
+            h.setFechaRegistroMs(fechaRegistro);
+            h.setIdPedido(idPedido);
+            h.setCedulaRepartidor(cedulaRepartidor);
+            return h;
+         }
+      });
+   }
+
+   // Codificador de los resúmenes diarios.
+   private static final Codificador<ResumenDiario> CODIFICADOR_RESUMEN = new Codificador<ResumenDiario>() {
+      @Override
+      public void escribir(DataOutput salida, ResumenDiario r) throws IOException {
+         salida.writeLong(r.getDia());
+         salida.writeInt(r.getPedidosCreados());
+         salida.writeInt(r.getPedidosEntregados());
+         salida.writeInt(r.getPedidosCancelados());
+         salida.writeInt(r.getEntregasMedidas());
+         salida.writeInt(r.getEntregasATiempo());
+         salida.writeLong(r.getMinutosEntrega());
+         int[] cuentas = r.getHistogramaMinutos().getCuentas();
+         salida.writeInt(cuentas.length);
+         for (int cuenta : cuentas)
+            salida.writeInt(cuenta);
+         escribirContadores(salida, r.getPedidosPorCombo());
+         escribirContadores(salida, r.getPedidosPorMetodoPago());
+      }
+
+      @Override
+      public ResumenDiario leer(DataInput entrada) throws IOException {
+         long dia = entrada.readLong();
+         int pedidosCreados = entrada.readInt();
+         int pedidosEntregados = entrada.readInt();
+         int pedidosCancelados = entrada.readInt();
+         int entregasMedidas = entrada.readInt();
+         int entregasATiempo = entrada.readInt();
+         long minutosEntrega = entrada.readLong();
+         int[] cuentas = new int[entrada.readInt()];
+         for (int i = 0; i < cuentas.length; i++)
+            cuentas[i] = entrada.readInt();
+         return new ResumenDiario(dia, pedidosCreados, pedidosEntregados, pedidosCancelados, entregasMedidas, entregasATiempo,
+               minutosEntrega, new HistogramaDeMinutos(cuentas), leerContadores(entrada), leerContadores(entrada));
+      }
+   };
+
+   /*
+    * Constructor privado; la clase solo expone métodos estáticos.
+    */
+   private FormatoBinario() {
+   }
+
+   /*
+    * Escribe la base de datos completa en `ruta` de forma atómica (ver `ArchivoSeguro`).
+    */
+   static void escribir(String ruta, BaseDeDatos bd) throws IOException {
+      ArchivoSeguro.escribir(ruta, destino -> {
+         DataOutputStream salida = new DataOutputStream(destino);
+         salida.writeInt(MAGICO);
+         salida.writeInt(bd.getVersion() != null ? bd.getVersion() : BaseDeDatos.VERSION_FORMATO);
+         // Sin resumen (una base de datos que no proviene del almacén) la sección se omite y se recalcula al cargar.
+         boolean conResumen = bd.getResumenDiario() != null;
+         salida.writeInt(Coleccion.todas().size() + (conResumen ? 1 : 0));
+         for (Coleccion<?> coleccion : Coleccion.todas())
+            escribirSeccion(salida, coleccion, bd);
+         if (conResumen)
+            escribirSeccion(salida, GestorJSON.SECCION_RESUMEN_DIARIO, bd.getResumenDiario(), CODIFICADOR_RESUMEN);
+         salida.flush();
+      });
+   }
+
+   /*
+    * Lee desde `ruta` las colecciones indicadas; las demás secciones se saltan sin decodificarlas.
+    * El archivo se mapea en memoria con `FileChannel.map`, de modo que saltar una sección solo
+    * mueve la posición de lectura y los registros se decodifican sin copias intermedias.
+    * El mapeo pertenece a un `Arena` confinado al hilo que lee y se libera al cerrarlo, en cuanto
+    * termina la decodificación (todas las entidades ya están copiadas al heap): en Windows un
+    * archivo mapeado no puede reescribirse, y la instantánea se reescribe en cada compactación.
+    */
+   static BaseDeDatos leer(String ruta, Collection<Coleccion<?>> secciones) throws IOException {
+      try (FileChannel canal = FileChannel.open(Paths.get(ruta), StandardOpenOption.READ);
+           Arena arena = Arena.ofConfined()) {
+         MemorySegment mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size(), arena);
+         return leer(new EntradaMapeada(mapeo), secciones);
+      }
+   }
+
+   /*
+    * Lee una instantánea binaria desde cualquier fuente de datos.
+    */
+   static BaseDeDatos leer(DataInput entrada, Collection<Coleccion<?>> secciones) throws IOException {
+      if (entrada.readInt() != MAGICO)
+         throw new IOException("El archivo no es una instantánea binaria de la base de datos.");
+      BaseDeDatos bd = new BaseDeDatos();
+      bd.setVersion(entrada.readInt());
+      int numeroSecciones = entrada.readInt();
+      for (int i = 0; i < numeroSecciones; i++) {
+         String nombre = entrada.readUTF();
+         Coleccion<?> coleccion = Coleccion.porNombre(nombre);
+         int cantidad = entrada.readInt();
+         int longitud = entrada.readInt();
+         if (coleccion != null && secciones.contains(coleccion))
+            leerSeccion(entrada, coleccion, cantidad, bd);
+         else if (GestorJSON.SECCION_RESUMEN_DIARIO.equals(nombre) && secciones.contains(Coleccion.PEDIDOS)) {
+            List<ResumenDiario> resumenes = new ArrayList<>(cantidad);
+            leerRegistros(entrada, CODIFICADOR_RESUMEN, cantidad, resumenes);
+            bd.setResumenDiario(resumenes);
+         } else
+            saltar(entrada, longitud);
+      }
+      return bd;
+   }
+
+   /*
+    * Escribe la sección de una colección.
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> void escribirSeccion(DataOutputStream salida, Coleccion<T> coleccion, BaseDeDatos bd) throws IOException {
+      escribirSeccion(salida, coleccion.getNombre(), coleccion.listaEn(bd), (Codificador<T>) CODIFICADORES.get(coleccion));
+   }
+
+   /*
+    * Escribe una sección: primero se codifica en memoria para conocer su longitud.
+    */
+   private static <T> void escribirSeccion(DataOutputStream salida, String nombre, List<T> lista, Codificador<T> codificador) throws IOException {
+      ByteArrayOutputStream seccion = new ByteArrayOutputStream();
+      DataOutputStream salidaSeccion = new DataOutputStream(seccion);
+      ByteArrayOutputStream registro = new ByteArrayOutputStream(256);
+      DataOutputStream salidaRegistro = new DataOutputStream(registro);
+      for (T entidad : lista) {
+         registro.reset();
+         codificador.escribir(salidaRegistro, entidad);
+         salidaSeccion.writeInt(registro.size());
+         registro.writeTo(salidaSeccion);
+      }
+      salida.writeUTF(nombre);
+      salida.writeInt(lista.size());
+      salida.writeInt(seccion.size());
+      seccion.writeTo(salida);
+   }
+
+   /*
+    * Decodifica los registros de una sección y los añade a su lista en `bd`.
+    */
+   @SuppressWarnings("unchecked")
+   private static <T> void leerSeccion(DataInput entrada, Coleccion<T> coleccion, int cantidad, BaseDeDatos bd) throws IOException {
+      leerRegistros(entrada, (Codificador<T>) CODIFICADORES.get(coleccion), cantidad, coleccion.listaEn(bd));
+   }
+
+   /*
+    * Decodifica `cantidad` registros y los añade a `lista`.
+    */
+   private static <T> void leerRegistros(DataInput entrada, Codificador<T> codificador, int cantidad, List<T> lista) throws IOException {
+      for (int i = 0; i < cantidad; i++) {
+         entrada.readInt(); // Longitud del registro; solo se usa para saltarlo.
+         lista.add(codificador.leer(entrada));
+      }
+   }
+
+   /*
+    * Salta exactamente `bytes` bytes de la entrada.
+    */
+   private static void saltar(DataInput entrada, int bytes) throws IOException {
+      int restantes = bytes;
+      while (restantes > 0) {
+         int saltados = entrada.skipBytes(restantes);
+         if (saltados <= 0)
+            throw new EOFException("Instantánea binaria truncada.");
+         restantes -= saltados;
+      }
+   }
+
+   private static void escribirTexto(DataOutput salida, String texto) throws IOException {
+      salida.writeBoolean(texto != null);
+      if (texto != null)
+         salida.writeUTF(texto);
+   }
+
+   private static String leerTexto(DataInput entrada) throws IOException {
+      return entrada.readBoolean() ? entrada.readUTF() : null;
+   }
+
+   private static void escribirContadores(DataOutput salida, Map<String, Integer> contadores) throws IOException {
+      salida.writeInt(contadores.size());
+      for (Map.Entry<String, Integer> contador : contadores.entrySet()) {
+         salida.writeUTF(contador.getKey());
+         salida.writeInt(contador.getValue());
+      }
+   }
+
+   private static Map<String, Integer> leerContadores(DataInput entrada) throws IOException {
+      int cantidad = entrada.readInt();
+      Map<String, Integer> contadores = new LinkedHashMap<>();
+      for (int i = 0; i < cantidad; i++)
+         contadores.put(entrada.readUTF(), entrada.readInt());
+      return contadores;
+   }
+
+   private static void escribirEnum(DataOutput salida, Enum<?> valor) throws IOException {
+      salida.writeByte(valor != null ? valor.ordinal() : -1);
+   }
+
+   private static <E extends Enum<E>> E leerEnum(DataInput entrada, E[] valores) throws IOException {
+      int ordinal = entrada.readByte();
+      return (ordinal >= 0 && ordinal < valores.length) ? valores[ordinal] : null;
+   }
+}
@@ -2,23 +2,36 @@
 package project.data;
 
 import project.model.entities.BaseDeDatos;
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.model.entities.ResumenDiario;
+import project.model.estadisticas.HistogramaDeMinutos;
+import project.util.FormatoFecha;
+import project.util.Registro;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
+import com.google.gson.Strictness;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.Reader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.lang.reflect.Type;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.DateTimeException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /*
  * La clase `GestorJSON` es responsable de la lectura y escritura de la base de datos
@@ -27,69 +40,415 @@ import java.util.List;
  * personalizado para el manejo de fechas.
  */
 public class GestorJSON {
+   private static final Registro REGISTRO = Registro.para(GestorJSON.class);
+
    /*
     * Ruta del archivo JSON donde se almacena la base de datos.
     */
    private static final String FILE_PATH = "src\\project\\data\\BaseDeDatos.json";
    /*
-    * Formato de fecha utilizado para la serialización y deserialización de objetos `Date`.
+    * Ruta de la instantánea binaria opcional, junto al archivo JSON.
     */
-   private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+   private static final String BINARY_FILE_PATH = FILE_PATH.substring(0, FILE_PATH.length() - ".json".length()) + ".bin";
    /*
-    * Instancia de Gson configurada para pretty printing y manejo personalizado de fechas.
+    * Propiedad del sistema que selecciona el formato de la instantánea: "json" (por defecto) o "binario".
+    * Con "binario", el archivo JSON se conserva solo como formato de exportación (`exportarJSON`).
     */
-   private static final Gson gson = new GsonBuilder().setPrettyPrinting().registerTypeAdapter(Date.class, (JsonSerializer<Date>) (src, typeOfSrc, context) -> {
-      // Serializador para objetos Date: convierte Date a String en el formato DATE_FORMAT.
-      return src == null ? null : new JsonPrimitive(DATE_FORMAT.format(src));
-   }).registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (JsonElement json, Type typeOfT, JsonDeserializationContext context) -> {
-      // Deserializador para objetos Date: convierte String a Date en el formato DATE_FORMAT.
-      if (json == null || json.isJsonNull())
-         return null;
-      String dateString = json.getAsString();
+   public static final String PROPIEDAD_FORMATO = "project.formato";
+   /*
+    * Tamaño del búfer de lectura del archivo JSON.
+    */
+   private static final int TAMANO_BUFFER_LECTURA = 64 * 1024;
+
+   /*
+    * Nombre de la sección del resumen diario, que se lee junto con los pedidos.
+    */
+   static final String SECCION_RESUMEN_DIARIO = "resumenDiario";
+   /*
+    * Adapta pedidos e historiales entre su forma en memoria y su forma en el archivo:
+    * - Las fechas, que en memoria son milisegundos desde la época, se escriben y se leen con el
+    *   formato "dd/MM/yyyy HH:mm"; una fecha ausente se omite, como hacía Gson con un `Date` nulo.
+    * - Las relaciones embebidas del formato anterior a la versión 2 (objetos `cliente`,
+    *   `repartidorAsignado`, `pedidoAsociado` y `repartidor` completos) se convierten en las
+    *   cédulas e IDs que se persisten ahora.
+    * Se aplica a cada pedido e historial, tanto del archivo como de la bitácora.
+    */
+   private static final TypeAdapterFactory ADAPTADOR_ENTIDADES = new TypeAdapterFactory() {
+      @Override
+      public <T> TypeAdapter<T> create(Gson gsonActual, TypeToken<T> tipo) {
+         Class<? super T> clase = tipo.getRawType();
+         if (clase != Pedido.class && clase != HistorialDeEntrega.class)
+            return null;
+         TypeAdapter<T> delegado = gsonActual.getDelegateAdapter(this, tipo);
+         TypeAdapter<JsonElement> adaptadorArbol = gsonActual.getAdapter(JsonElement.class);
+         List<String> camposFecha = (clase == Pedido.class) ? CAMPOS_FECHA_PEDIDO : CAMPOS_FECHA_HISTORIAL;
+         return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T valor) throws IOException {
+               JsonElement arbol = delegado.toJsonTree(valor);
+               if (arbol.isJsonObject()) {
+                  for (String campo : camposFecha)
+                     escribirFecha(arbol.getAsJsonObject(), campo);
+               }
+               adaptadorArbol.write(out, arbol);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+               JsonElement arbol = adaptadorArbol.read(in);
+               if (arbol.isJsonObject()) {
+                  JsonObject entidad = arbol.getAsJsonObject();
+                  for (String campo : camposFecha)
+                     leerFecha(entidad, campo);
+                  if (clase == Pedido.class) {
+                     migrarReferencia(entidad, "cliente", "cedulaIdentidad", "cedulaCliente");
+                     migrarReferencia(entidad, "repartidorAsignado", "cedulaIdentidad", "cedulaRepartidor");
+                  } else {
+                     migrarReferencia(entidad, "pedidoAsociado", "idPedido", "idPedido");
+                     migrarReferencia(entidad, "repartidor", "cedulaIdentidad", "cedulaRepartidor");
+                  }
+               }
+               return delegado.fromJsonTree(arbol);
+            }
+         };
+      }
+   };
+   /*
+    * Escribe un `HistogramaDeMinutos` como un objeto con los contadores de sus cubetas no vacías,
+    * por el mayor valor en minutos de cada una (por ejemplo {"45": 3, "95": 1}), en lugar del
+    * arreglo completo de cubetas.
+    */
+   private static final TypeAdapter<HistogramaDeMinutos> ADAPTADOR_HISTOGRAMA = new TypeAdapter<HistogramaDeMinutos>() {
+      @Override
+      public void write(JsonWriter out, HistogramaDeMinutos histograma) throws IOException {
+         if (histograma == null) {
+            out.nullValue();
+            return;
+         }
+         out.beginObject();
+         for (Map.Entry<Long, Integer> cubeta : histograma.getCuentasPorMinutos().entrySet())
+            out.name(String.valueOf(cubeta.getKey())).value(cubeta.getValue());
+         out.endObject();
+      }
+
+      @Override
+      public HistogramaDeMinutos read(JsonReader in) throws IOException {
+         if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+         }
+         HistogramaDeMinutos histograma = new HistogramaDeMinutos();
+         in.beginObject();
+         while (in.hasNext())
+            histograma.registrar(Long.parseLong(in.nextName()), in.nextInt());
+         in.endObject();
+         return histograma;
+      }
+   };
+   /*
+    * Campos de fecha de cada entidad, guardados en memoria como milisegundos.
+    */
+   private static final List<String> CAMPOS_FECHA_PEDIDO = List.of("fechaCreacion", "fechaEntrega");
+   private static final List<String> CAMPOS_FECHA_HISTORIAL = List.of("fechaRegistro");
+
+   /*
+    * Reemplaza una fecha en milisegundos por su texto "dd/MM/yyyy HH:mm", o la omite si no tiene.
+    */
+   private static void escribirFecha(JsonObject entidad, String campo) {
+      // Se reemplaza en su sitio para conservar el orden de los campos en el archivo.
+      JsonElement valor = entidad.get(campo);
+      if (valor == null || !valor.isJsonPrimitive() || valor.getAsLong() == FormatoFecha.SIN_FECHA)
+         entidad.remove(campo);
+      else
+         entidad.addProperty(campo, FormatoFecha.fechaHora(valor.getAsLong()));
+   }
+
+   /*
+    * Reemplaza el texto "dd/MM/yyyy HH:mm" de una fecha por sus milisegundos. Una fecha ausente o
+    * nula se convierte en `FormatoFecha.SIN_FECHA`.
+    */
+   private static void leerFecha(JsonObject entidad, String campo) {
+      JsonElement valor = entidad.get(campo);
+      if (valor == null || valor.isJsonNull()) {
+         entidad.addProperty(campo, FormatoFecha.SIN_FECHA);
+         return;
+      }
+      String texto = valor.getAsString();
       try {
-         return DATE_FORMAT.parse(dateString);
-      } catch (ParseException e) {
+         entidad.addProperty(campo, FormatoFecha.analizarFechaHora(texto));
+      } catch (DateTimeException e) {
          // Manejo de errores si el formato de fecha es incorrecto.
-         System.err.println("DEBUG: Falló la conversión de String a Date para fecha: '" + dateString + "'. Formato esperado: 'dd/MM/yyyy HH:mm'. Error: " + e.getMessage());
-         throw new JsonParseException("Formato de fecha inesperado para: " + dateString, e);
+         REGISTRO.advertencia("Falló la conversión de String a fecha para: '" + texto + "'. Formato esperado: 'dd/MM/yyyy HH:mm'. Error: " + e.getMessage());
+         throw new JsonParseException("Formato de fecha inesperado para: " + texto, e);
       }
-   }).create();
+   }
 
    /*
-    * Lee la base de datos desde el archivo JSON especificado por `FILE_PATH`.
+    * Reemplaza un objeto embebido por el valor de su clave, salvo que la clave ya esté presente.
+    */
+   private static void migrarReferencia(JsonObject entidad, String campoEmbebido, String campoClave, String campoReferencia) {
+      JsonElement embebido = entidad.remove(campoEmbebido);
+      if (embebido == null || !embebido.isJsonObject() || entidad.has(campoReferencia))
+         return;
+      JsonElement clave = embebido.getAsJsonObject().get(campoClave);
+      if (clave != null && !clave.isJsonNull())
+         entidad.add(campoReferencia, clave);
+   }
+
+   /*
+    * Instancia de Gson configurada para pretty printing y manejo personalizado de fechas.
+    */
+   private static final Gson gson = crearConstructorGson().setPrettyPrinting().create();
+   /*
+    * Instancia de Gson sin pretty printing, usada para los registros compactos de la bitácora.
+    */
+   private static final Gson gsonCompacto = crearConstructorGson().create();
+
+   /*
+    * Crea un `GsonBuilder` con el adaptador de pedidos e historiales (fechas y referencias) y el
+    * de los histogramas del resumen diario.
+    */
+   private static GsonBuilder crearConstructorGson() {
+      return new GsonBuilder().registerTypeAdapterFactory(ADAPTADOR_ENTIDADES).registerTypeAdapter(HistogramaDeMinutos.class, ADAPTADOR_HISTOGRAMA);
+   }
+
+   /*
+    * Obtiene la ruta del archivo JSON de la base de datos.
+    */
+   static String rutaArchivo() {
+      return FILE_PATH;
+   }
+
+   /*
+    * Lee la base de datos completa desde el archivo JSON especificado por `FILE_PATH`.
     * Si el archivo no existe, está vacío o malformado, retorna una nueva instancia de `BaseDeDatos`.
     */
    public static BaseDeDatos leerBaseDatos() {
-      try (Reader reader = new FileReader(FILE_PATH)) {
-         System.out.println("DEBUG: Intentando leer BaseDeDatos desde: " + FILE_PATH);
-         BaseDeDatos bd = gson.fromJson(reader, BaseDeDatos.class);
-         if (bd != null) {
-            System.out.println("DEBUG: BaseDeDatos leída correctamente.");
-            List<?> usuarios = bd.getUsuarios();
-            if (usuarios != null) {
-               System.out.println("DEBUG: Número de usuarios encontrados: " + usuarios.size());
-               usuarios.forEach(u -> System.out.println("DEBUG: Usuario en BD: " + (u != null ? u.toString() : "null"))); 
-            } else
-               System.out.println("DEBUG: Lista de usuarios en BaseDeDatos es NULL.");
-         } else
-            System.out.println("DEBUG: gson.fromJson devolvió NULL. Archivo podría estar vacío o malformado.");
-         return (bd != null) ? bd : new BaseDeDatos();
+      return leerBaseDatos(Coleccion.todas());
+   }
+
+   /*
+    * Lee desde el archivo JSON solo las colecciones indicadas; las demás secciones se saltan sin
+    * construir objetos y quedan como listas vacías. El archivo se recorre como un flujo de tokens,
+    * materializando cada entidad a medida que se lee, en lugar de construir el documento completo.
+    * Si el archivo no existe, está vacío o malformado, retorna una nueva instancia de `BaseDeDatos`.
+    */
+   public static BaseDeDatos leerBaseDatos(Collection<Coleccion<?>> secciones) {
+      if (leerDesdeBinario()) {
+         BaseDeDatos bd = leerBinario(secciones);
+         if (bd != null)
+            return bd;
+      }
+      return leerJSON(secciones);
+   }
+
+   /*
+    * Lee las colecciones indicadas del archivo que elige `leerBaseDatos` (la instantánea binaria o
+    * el archivo JSON), pero sin recurrir al otro archivo ni retornar una base de datos vacía:
+    * cualquier error se propaga. Lo usa la carga diferida del almacén, que no debe publicar una
+    * colección vacía o de un archivo anterior como si se hubiera leído correctamente.
+    */
+   static BaseDeDatos leerBaseDatosSinRespaldo(Collection<Coleccion<?>> secciones) throws IOException {
+      if (leerDesdeBinario())
+         return FormatoBinario.leer(ArchivoSeguro.rutaParaLeer(BINARY_FILE_PATH), secciones);
+      return leerJSONSinRespaldo(secciones);
+   }
+
+   /*
+    * Indica si la carga debe hacerse desde la instantánea binaria: cuando existe y está configurado
+    * el formato binario, o cuando es más reciente que el archivo JSON.
+    */
+   private static boolean leerDesdeBinario() {
+      if (!ArchivoSeguro.existe(BINARY_FILE_PATH))
+         return false;
+      return usarFormatoBinario() || new File(BINARY_FILE_PATH).lastModified() > new File(FILE_PATH).lastModified();
+   }
+
+   /*
+    * Indica si la propiedad `project.formato` selecciona la instantánea binaria.
+    */
+   private static boolean usarFormatoBinario() {
+      return "binario".equalsIgnoreCase(System.getProperty(PROPIEDAD_FORMATO, "json"));
+   }
+
+   /*
+    * Lee la instantánea binaria. Retorna null si no se pudo leer, para recurrir al archivo JSON.
+    */
+   private static BaseDeDatos leerBinario(Collection<Coleccion<?>> secciones) {
+      long inicio = System.nanoTime();
+      String ruta = ArchivoSeguro.rutaParaLeer(BINARY_FILE_PATH);
+      try {
+         BaseDeDatos bd = FormatoBinario.leer(ruta, secciones);
+         REGISTRO.depurar(() -> "BaseDeDatos leída desde la instantánea binaria: " + ruta);
+         reportarRendimiento(ruta, inicio);
+         return bd;
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo leer la instantánea binaria, se usará el archivo JSON: " + e.getMessage());
+         return null;
+      }
+   }
+
+   /*
+    * Lee las colecciones indicadas desde el archivo JSON. Si el archivo no existe, está vacío o
+    * malformado, retorna una base de datos vacía.
+    */
+   private static BaseDeDatos leerJSON(Collection<Coleccion<?>> secciones) {
+      try {
+         return leerJSONSinRespaldo(secciones);
+      } catch (EOFException e) {
+         REGISTRO.depurar(() -> "El archivo de la BaseDeDatos está vacío: " + FILE_PATH);
+         return baseDeDatosVacia();
       } catch (Exception e) {
-         System.err.println("ERROR: No se pudo leer la BaseDeDatos desde JSON: " + e.getMessage());
-         return new BaseDeDatos(); // Retorna una base de datos vacía en caso de error
+         REGISTRO.error("No se pudo leer la BaseDeDatos desde JSON: " + e.getMessage());
+         return baseDeDatosVacia(); // Retorna una base de datos vacía en caso de error
+      }
+   }
+
+   /*
+    * Lee las colecciones indicadas desde el archivo JSON como un flujo de tokens. Si el archivo no
+    * puede leerse o no contiene un objeto JSON, lanza la excepción en lugar de retornar una base vacía.
+    */
+   private static BaseDeDatos leerJSONSinRespaldo(Collection<Coleccion<?>> secciones) throws IOException {
+      long inicio = System.nanoTime();
+      String ruta = ArchivoSeguro.rutaParaLeer(FILE_PATH);
+      try (JsonReader reader = new JsonReader(new BufferedReader(new FileReader(ruta), TAMANO_BUFFER_LECTURA))) {
+         REGISTRO.depurar(() -> "Intentando leer BaseDeDatos desde: " + ruta);
+         reader.setStrictness(Strictness.LENIENT);
+         if (reader.peek() != JsonToken.BEGIN_OBJECT)
+            throw new IOException("El archivo no contiene un objeto JSON: " + ruta);
+         BaseDeDatos bd = new BaseDeDatos();
+         reader.beginObject();
+         while (reader.hasNext()) {
+            String nombre = reader.nextName();
+            Coleccion<?> coleccion = Coleccion.porNombre(nombre);
+            if ("version".equals(nombre) && reader.peek() == JsonToken.NUMBER)
+               bd.setVersion(reader.nextInt());
+            else if (coleccion != null && secciones.contains(coleccion))
+               leerSeccion(reader, coleccion, bd);
+            else if (SECCION_RESUMEN_DIARIO.equals(nombre) && secciones.contains(Coleccion.PEDIDOS))
+               bd.setResumenDiario(gson.fromJson(reader, new TypeToken<List<ResumenDiario>>() {}.getType()));
+            else
+               reader.skipValue(); // Sección no solicitada o desconocida.
+         }
+         reader.endObject();
+         REGISTRO.depurar(() -> "BaseDeDatos leída correctamente.");
+         REGISTRO.depurar(() -> "Número de usuarios encontrados: " + bd.getUsuarios().size());
+         if (REGISTRO.depuracionActiva())
+            bd.getUsuarios().forEach(u -> REGISTRO.depurar(() -> "Usuario en BD: " + (u != null ? u.toString() : "null")));
+         reportarRendimiento(ruta, inicio);
+         return bd;
+      }
+   }
+
+   /*
+    * Lee el arreglo de una colección entidad por entidad y lo añade a su lista en `bd`.
+    */
+   private static <T> void leerSeccion(JsonReader reader, Coleccion<T> coleccion, BaseDeDatos bd) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+         reader.nextNull();
+         return;
+      }
+      TypeAdapter<T> adaptador = gson.getAdapter(coleccion.getTipo());
+      List<T> lista = coleccion.listaEn(bd);
+      reader.beginArray();
+      while (reader.hasNext())
+         lista.add(adaptador.read(reader));
+      reader.endArray();
+   }
+
+   /*
+    * Informa el tiempo y el rendimiento (MB/s) de la lectura del archivo.
+    */
+   private static void reportarRendimiento(String ruta, long inicioNanos) {
+      double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+      double megabytes = new File(ruta).length() / (1024.0 * 1024.0);
+      REGISTRO.depurar(() -> String.format("BaseDeDatos leída en %.1f ms (%.2f MB, %.1f MB/s).", segundos * 1000, megabytes, segundos > 0 ? megabytes / segundos : 0.0));
+   }
+
+   /*
+    * Crea una base de datos vacía marcada con la versión actual del formato, para que no se
+    * confunda con un archivo antiguo que necesita migración.
+    */
+   private static BaseDeDatos baseDeDatosVacia() {
+      BaseDeDatos bd = new BaseDeDatos();
+      bd.setVersion(BaseDeDatos.VERSION_FORMATO);
+      return bd;
+   }
+
+   /*
+    * Guarda el objeto `BaseDeDatos` en el formato configurado: la instantánea binaria si
+    * `project.formato=binario`, o el archivo JSON en otro caso.
+    * Retorna true si la base de datos se escribió completa.
+    */
+   public static boolean guardarBaseDatos(BaseDeDatos bd) {
+      bd.setVersion(BaseDeDatos.VERSION_FORMATO);
+      if (!usarFormatoBinario())
+         return exportarJSON(bd);
+      try {
+         FormatoBinario.escribir(BINARY_FILE_PATH, bd);
+         REGISTRO.depurar(() -> "BaseDeDatos guardada correctamente en: " + BINARY_FILE_PATH);
+         return true;
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo guardar la instantánea binaria de la BaseDeDatos: " + e.getMessage());
+         return false;
       }
    }
 
    /*
     * Guarda el objeto `BaseDeDatos` proporcionado en el archivo JSON especificado por `FILE_PATH`.
     * El JSON se guarda con formato "pretty printing" para facilitar la lectura.
+    * La escritura es atómica (ver `ArchivoSeguro`): si falla, el archivo anterior queda intacto.
+    * Retorna true si la base de datos se escribió completa.
     */
-   public static void guardarBaseDatos(BaseDeDatos bd) {
-      try (Writer writer = new FileWriter(FILE_PATH)) {
-         gson.toJson(bd, writer);
-         System.out.println("DEBUG: BaseDeDatos guardada correctamente en: " + FILE_PATH);
+   public static boolean exportarJSON(BaseDeDatos bd) {
+      bd.setVersion(BaseDeDatos.VERSION_FORMATO);
+      try {
+         ArchivoSeguro.escribir(FILE_PATH, salida -> {
+            Writer writer = new OutputStreamWriter(salida);
+            gson.toJson(bd, writer);
+            writer.flush();
+         });
+         REGISTRO.depurar(() -> "BaseDeDatos guardada correctamente en: " + FILE_PATH);
+         return true;
       } catch (Exception e) {
-         System.err.println("ERROR: No se pudo guardar la BaseDeDatos en JSON: " + e.getMessage());
+         REGISTRO.error("No se pudo guardar la BaseDeDatos en JSON: " + e.getMessage());
+         return false;
       }
    }
+
+   /*
+    * Convierte una mutación en una línea JSON compacta para la bitácora de escritura.
+    * Formato: {"op":"G|E","c":"<colección>","id":"<clave>","e":{...entidad...}}
+    */
+   static String serializarMutacion(Mutacion mutacion) {
+      JsonObject registro = new JsonObject();
+      registro.addProperty("op", mutacion.getTipo() == Mutacion.Tipo.GUARDAR ? "G" : "E");
+      registro.addProperty("c", mutacion.getColeccion().getNombre());
+      registro.addProperty("id", mutacion.getId());
+      if (mutacion.getEntidad() != null)
+         registro.add("e", gsonCompacto.toJsonTree(mutacion.getEntidad()));
+      return gsonCompacto.toJson(registro);
+   }
+
+   /*
+    * Reconstruye una mutación a partir de una línea de la bitácora de escritura.
+    * Lanza JsonParseException si la línea está incompleta o malformada.
+    */
+   static Mutacion deserializarMutacion(String linea) {
+      JsonObject registro = JsonParser.parseString(linea).getAsJsonObject();
+      Coleccion<?> coleccion = Coleccion.porNombre(registro.get("c").getAsString());
+      if (coleccion == null)
+         throw new JsonParseException("Colección desconocida en la bitácora: " + registro.get("c"));
+      String id = registro.has("id") && !registro.get("id").isJsonNull() ? registro.get("id").getAsString() : null;
+      if ("E".equals(registro.get("op").getAsString()))
+         return Mutacion.eliminacion(coleccion, id);
+      return deserializarGuardado(coleccion, registro.get("e"));
+   }
+
+   /*
+    * Reconstruye una mutación de guardado conservando el tipo genérico de la colección.
+    */
+   private static <T> Mutacion deserializarGuardado(Coleccion<T> coleccion, JsonElement entidad) {
+      return Mutacion.guardado(coleccion, gsonCompacto.fromJson(entidad, coleccion.getTipo()));
+   }
 }
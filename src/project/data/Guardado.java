@@ -0,0 +1,45 @@
+package project.data;
+
+import java.util.Set;
+
+/*
+ * La clase `Guardado` describe el resultado de guardar una entidad en el almacén: si la entidad se
+ * añadió o reemplazó a otra con la misma clave, y en qué índices secundarios cambió su valor
+ * respecto del que tenía indexado. Se calcula bajo el mismo candado de escritura que aplica el
+ * cambio, así que no depende de lo que otros hilos guarden antes o después.
+ */
+public final class Guardado<T> {
+   private final T entidad;
+   private final boolean insercion;
+   private final Set<IndiceSecundario<T>> cambiados;
+
+   /*
+    * Constructor de la clase `Guardado`.
+    */
+   Guardado(T entidad, boolean insercion, Set<IndiceSecundario<T>> cambiados) {
+      this.entidad = entidad;
+      this.insercion = insercion;
+      this.cambiados = cambiados;
+   }
+
+   /*
+    * Obtiene la entidad guardada.
+    */
+   public T getEntidad() {
+      return entidad;
+   }
+
+   /*
+    * Indica si la entidad se añadió, es decir, si no había otra con la misma clave.
+    */
+   public boolean esInsercion() {
+      return insercion;
+   }
+
+   /*
+    * Indica si la entidad ya existía y su valor en el índice secundario indicado cambió con el guardado.
+    */
+   public boolean cambio(IndiceSecundario<T> indice) {
+      return !insercion && cambiados.contains(indice);
+   }
+}
@@ -0,0 +1,121 @@
+package project.data;
+
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.util.FormatoFecha;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/*
+ * La clase `IndiceSecundario` describe un índice no único sobre una `Coleccion`: a partir de una
+ * entidad obtiene el valor por el que se agrupa (estado, cédula del repartidor, etc.).
+ * Cada `Tabla` mantiene los índices declarados para su colección, de modo que las consultas por
+ * estos valores cuestan en proporción al número de resultados y no al tamaño de la colección.
+ */
+public final class IndiceSecundario<T> {
+   /*
+    * Pedidos agrupados por estado, sin distinguir mayúsculas de minúsculas.
+    */
+   public static final IndiceSecundario<Pedido> PEDIDOS_POR_ESTADO = new IndiceSecundario<>("pedidosPorEstado", Coleccion.PEDIDOS, Pedido::getEstado, true);
+   /*
+    * Pedidos agrupados por la cédula del repartidor asignado.
+    */
+   public static final IndiceSecundario<Pedido> PEDIDOS_POR_REPARTIDOR = new IndiceSecundario<>("pedidosPorRepartidor", Coleccion.PEDIDOS, Pedido::getCedulaRepartidor, false);
+   /*
+    * Pedidos agrupados por la cédula del cliente.
+    */
+   public static final IndiceSecundario<Pedido> PEDIDOS_POR_CLIENTE = new IndiceSecundario<>("pedidosPorCliente", Coleccion.PEDIDOS, Pedido::getCedulaCliente, false);
+   /*
+    * Historiales de entrega agrupados por la cédula del repartidor.
+    */
+   public static final IndiceSecundario<HistorialDeEntrega> HISTORIAL_POR_REPARTIDOR = new IndiceSecundario<>("historialPorRepartidor", Coleccion.HISTORIAL, HistorialDeEntrega::getCedulaRepartidor, false);
+   /*
+    * Historiales de entrega agrupados por el ID del pedido asociado.
+    */
+   public static final IndiceSecundario<HistorialDeEntrega> HISTORIAL_POR_PEDIDO = new IndiceSecundario<>("historialPorPedido", Coleccion.HISTORIAL, HistorialDeEntrega::getIdPedido, false);
+   /*
+    * Pedidos agrupados por el día de creación ("dd/MM/yyyy"); los pedidos sin fecha no se indexan.
+    */
+   public static final IndiceSecundario<Pedido> PEDIDOS_POR_DIA = new IndiceSecundario<>("pedidosPorDia", Coleccion.PEDIDOS, p -> etiquetaDia(p.getFechaCreacionMs()), false);
+   /*
+    * Historiales de entrega agrupados por el día de registro ("dd/MM/yyyy"); los que no tienen fecha no se indexan.
+    */
+   public static final IndiceSecundario<HistorialDeEntrega> HISTORIAL_POR_DIA = new IndiceSecundario<>("historialPorDia", Coleccion.HISTORIAL, h -> etiquetaDia(h.getFechaRegistroMs()), false);
+
+   // Todos los índices secundarios declarados.
+   private static final List<IndiceSecundario<?>> TODOS = List.of(PEDIDOS_POR_ESTADO, PEDIDOS_POR_REPARTIDOR, PEDIDOS_POR_CLIENTE, HISTORIAL_POR_REPARTIDOR, HISTORIAL_POR_PEDIDO,
+         PEDIDOS_POR_DIA, HISTORIAL_POR_DIA);
+
+   private final String nombre;
+   private final Coleccion<T> coleccion;
+   private final Function<T, String> extractorValor;
+   private final boolean ignorarMayusculas;
+
+   /*
+    * Constructor privado; los índices válidos son únicamente las constantes de esta clase.
+    */
+   private IndiceSecundario(String nombre, Coleccion<T> coleccion, Function<T, String> extractorValor, boolean ignorarMayusculas) {
+      this.nombre = nombre;
+      this.coleccion = coleccion;
+      this.extractorValor = extractorValor;
+      this.ignorarMayusculas = ignorarMayusculas;
+   }
+
+   /*
+    * Obtiene el nombre del índice.
+    */
+   public String getNombre() {
+      return nombre;
+   }
+
+   /*
+    * Obtiene la colección sobre la que se define el índice.
+    */
+   public Coleccion<T> getColeccion() {
+      return coleccion;
+   }
+
+   /*
+    * Obtiene el valor indexado de una entidad, o null si la entidad no debe aparecer en el índice.
+    */
+   public String valorDe(T entidad) {
+      return (entidad == null) ? null : normalizarConsulta(extractorValor.apply(entidad));
+   }
+
+   /*
+    * Normaliza un valor de consulta igual que lo hace el índice con los valores de las entidades.
+    */
+   public String normalizarConsulta(String valor) {
+      if (valor == null || !ignorarMayusculas)
+         return valor;
+      return valor.trim().toLowerCase(Locale.ROOT);
+   }
+
+   /*
+    * Obtiene los índices secundarios declarados sobre una colección.
+    */
+   @SuppressWarnings("unchecked")
+   static <T> List<IndiceSecundario<T>> de(Coleccion<T> coleccion) {
+      List<IndiceSecundario<T>> resultado = new ArrayList<>();
+      for (IndiceSecundario<?> indice : TODOS) {
+         if (indice.coleccion == coleccion)
+            resultado.add((IndiceSecundario<T>) indice);
+      }
+      return resultado;
+   }
+
+   /*
+    * Obtiene la etiqueta del día de una fecha en milisegundos, o null si no hay fecha. Las etiquetas
+    * de `FormatoFecha` se comparten, de modo que el índice no guarda una cadena por entidad.
+    */
+   private static String etiquetaDia(long milisegundos) {
+      return (milisegundos == FormatoFecha.SIN_FECHA) ? null : FormatoFecha.fecha(milisegundos);
+   }
+
+   @Override
+   public String toString() {
+      return nombre;
+   }
+}
@@ -0,0 +1,74 @@
+package project.data;
+
+/*
+ * La clase `Mutacion` representa un cambio atómico sobre una colección de la base de datos:
+ * el guardado (alta o actualización) de una entidad o la eliminación de una entidad por su clave.
+ * Es la unidad que se registra en la bitácora de escritura y que se vuelve a aplicar
+ * durante la recuperación tras un cierre inesperado.
+ */
+public final class Mutacion {
+   /*
+    * Tipos de mutación soportados.
+    */
+   public enum Tipo {
+      GUARDAR,
+      ELIMINAR
+   }
+
+   private final Tipo tipo;
+   private final Coleccion<?> coleccion;
+   private final String id;
+   private final Object entidad;
+
+   /*
+    * Constructor privado; se usan los métodos de fábrica `guardado` y `eliminacion`.
+    */
+   private Mutacion(Tipo tipo, Coleccion<?> coleccion, String id, Object entidad) {
+      this.tipo = tipo;
+      this.coleccion = coleccion;
+      this.id = id;
+      this.entidad = entidad;
+   }
+
+   /*
+    * Crea una mutación que guarda (inserta o reemplaza) una entidad en la colección.
+    */
+   public static <T> Mutacion guardado(Coleccion<T> coleccion, T entidad) {
+      return new Mutacion(Tipo.GUARDAR, coleccion, coleccion.claveDe(entidad), entidad);
+   }
+
+   /*
+    * Crea una mutación que elimina de la colección la entidad con la clave indicada.
+    */
+   public static Mutacion eliminacion(Coleccion<?> coleccion, String id) {
+      return new Mutacion(Tipo.ELIMINAR, coleccion, id, null);
+   }
+
+   /*
+    * Obtiene el tipo de la mutación.
+    */
+   public Tipo getTipo() {
+      return tipo;
+   }
+
+   /*
+    * Obtiene la colección afectada por la mutación.
+    */
+   public Coleccion<?> getColeccion() {
+      return coleccion;
+   }
+
+   /*
+    * Obtiene la clave primaria de la entidad afectada.
+    */
+   public String getId() {
+      return id;
+   }
+
+   /*
+    * Obtiene la entidad guardada, o null si la mutación es una eliminación.
+    */
+   public Object getEntidad() {
+      return entidad;
+   }
+}
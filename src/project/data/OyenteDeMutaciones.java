@@ -0,0 +1,25 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+
+/*
+ * La interfaz `OyenteDeMutaciones` permite a otros componentes (contadores, modelos de tabla,
+ * índices de búsqueda) mantener información derivada de la base de datos sin volver a recorrerla.
+ * Todos los métodos se invocan mientras el almacén mantiene el candado de escritura: deben ser
+ * breves, no deben llamar de nuevo al almacén y no deben modificar las entidades recibidas.
+ */
+public interface OyenteDeMutaciones {
+
+   /*
+    * Se invoca con la base de datos completa (incluidas las colecciones diferidas) al registrar el
+    * oyente y cada vez que el almacén vuelve a cargarla desde disco.
+    */
+   void alCargar(BaseDeDatos baseDeDatos);
+
+   /*
+    * Se invoca después de aplicar una mutación, con las referencias entre entidades ya resueltas.
+    * Las entidades cuyas referencias cambiaron por la mutación (por ejemplo, los historiales de un
+    * pedido eliminado) se notifican a continuación como guardados.
+    */
+   void alAplicar(Mutacion mutacion);
+}
@@ -0,0 +1,26 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+
+/*
+ * La interfaz `Persistencia` define cómo el `AlmacenDeDatos` lleva a disco los cambios
+ * que se aplican sobre la base de datos en memoria. Todos los métodos se invocan mientras
+ * el almacén mantiene el candado de escritura, por lo que `estado` es consistente.
+ */
+interface Persistencia {
+
+   /*
+    * Registra una mutación ya aplicada en memoria. `estado` es la base de datos resultante.
+    */
+   void registrar(Mutacion mutacion, BaseDeDatos estado);
+
+   /*
+    * Fuerza a disco cualquier cambio pendiente. Retorna true si todos los cambios registrados quedaron en disco.
+    */
+   boolean sincronizar(BaseDeDatos estado);
+
+   /*
+    * Sincroniza los cambios pendientes y libera los recursos al cerrar la aplicación.
+    */
+   void cerrar(BaseDeDatos estado);
+}
@@ -0,0 +1,80 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+import project.util.Registro;
+import java.io.IOException;
+
+/*
+ * La clase `PersistenciaBitacora` registra cada mutación como una línea en la bitácora de escritura
+ * en lugar de reescribir el archivo JSON completo. Cada `UMBRAL_COMPACTACION` registros (y al cerrar
+ * la aplicación) la base de datos en memoria se vuelca a `BaseDeDatos.json` y la bitácora se vacía.
+ */
+final class PersistenciaBitacora implements Persistencia {
+   private static final Registro REGISTRO = Registro.para(PersistenciaBitacora.class);
+
+   /*
+    * Número de registros en la bitácora que disparan una compactación.
+    */
+   private static final int UMBRAL_COMPACTACION = 500;
+
+   private final BitacoraDeEscritura bitacora;
+   private int registrosDesdeCompactacion;
+
+   /*
+    * Crea la persistencia sobre una bitácora ya abierta.
+    */
+   PersistenciaBitacora(BitacoraDeEscritura bitacora) {
+      this.bitacora = bitacora;
+   }
+
+   @Override
+   public void registrar(Mutacion mutacion, BaseDeDatos estado) {
+      try {
+         bitacora.anexar(GestorJSON.serializarMutacion(mutacion));
+      } catch (IOException e) {
+         // Si no se puede anexar, se vuelca la base completa para no perder el cambio.
+         REGISTRO.error("No se pudo escribir en la bitácora, se guarda la base de datos completa: " + e.getMessage());
+         compactar(estado);
+         return;
+      }
+      if (++registrosDesdeCompactacion >= UMBRAL_COMPACTACION)
+         compactar(estado);
+   }
+
+   @Override
+   public boolean sincronizar(BaseDeDatos estado) {
+      try {
+         bitacora.sincronizar();
+         return true;
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo sincronizar la bitácora de escritura: " + e.getMessage());
+         return false;
+      }
+   }
+
+   @Override
+   public void cerrar(BaseDeDatos estado) {
+      if (registrosDesdeCompactacion > 0)
+         compactar(estado);
+      try {
+         bitacora.cerrar();
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo cerrar la bitácora de escritura: " + e.getMessage());
+      }
+   }
+
+   /*
+    * Vuelca la base de datos completa al archivo JSON y, solo si la escritura fue exitosa, vacía la bitácora.
+    */
+   private void compactar(BaseDeDatos estado) {
+      sincronizar(estado);
+      if (!GestorJSON.guardarBaseDatos(estado))
+         return; // La bitácora se conserva para poder recuperar los cambios en el próximo arranque.
+      try {
+         bitacora.truncar();
+         registrosDesdeCompactacion = 0;
+      } catch (IOException e) {
+         REGISTRO.error("No se pudo vaciar la bitácora de escritura: " + e.getMessage());
+      }
+   }
+}
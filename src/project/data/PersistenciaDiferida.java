@@ -0,0 +1,158 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+import project.model.entities.ResumenDiario;
+import project.util.Registro;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/*
+ * La clase `PersistenciaDiferida` escribe la base de datos en segundo plano. Las mutaciones solo se
+ * aplican en memoria y programan un volcado que se ejecuta `ventanaMs` milisegundos después de la
+ * primera mutación pendiente; todas las mutaciones que llegan dentro de esa ventana se consolidan en
+ * una única escritura del archivo. El hilo de escritura toma el candado de lectura del almacén solo
+ * para copiar las listas de entidades y los resúmenes diarios, y serializa la copia ya sin candado,
+ * así que las mutaciones no esperan a que termine la escritura. Copiar las listas basta porque el
+ * almacén no modifica las entidades que ya publicó: `actualizar` guarda una copia nueva.
+ * Los cambios de la ventana en curso se pierden si el proceso termina de forma abrupta;
+ * `sincronizar` los escribe de inmediato y confirma si quedaron en disco.
+ */
+final class PersistenciaDiferida implements Persistencia {
+   private static final Registro REGISTRO = Registro.para(PersistenciaDiferida.class);
+
+   private final Lock candadoLectura;
+   private final long ventanaMs;
+   private final ScheduledExecutorService escritor;
+
+   // Serializa las escrituras del archivo, para que una copia antigua no reemplace a una más reciente.
+   private final Object escritura = new Object();
+
+   // Protegidos por el monitor de esta instancia.
+   private BaseDeDatos ultimoEstado;
+   private long cambiosRegistrados;
+   private long cambiosPersistidos;
+   private ScheduledFuture<?> volcadoProgramado;
+
+   /*
+    * Crea la persistencia. `candadoLectura` es el candado de lectura del almacén y `ventanaMs`
+    * el tiempo durante el que se acumulan mutaciones antes de escribir.
+    */
+   PersistenciaDiferida(Lock candadoLectura, long ventanaMs) {
+      this.candadoLectura = candadoLectura;
+      this.ventanaMs = ventanaMs;
+      this.escritor = Executors.newSingleThreadScheduledExecutor(tarea -> {
+         Thread hilo = new Thread(tarea, "almacen-escritura-diferida");
+         hilo.setDaemon(true);
+         return hilo;
+      });
+   }
+
+   @Override
+   public synchronized void registrar(Mutacion mutacion, BaseDeDatos estado) {
+      ultimoEstado = estado;
+      cambiosRegistrados++;
+      programarVolcado();
+   }
+
+   @Override
+   public boolean sincronizar(BaseDeDatos estado) {
+      long objetivo;
+      synchronized (this) {
+         if (cambiosPersistidos == cambiosRegistrados)
+            return true;
+         if (volcadoProgramado != null) {
+            volcadoProgramado.cancel(false);
+            volcadoProgramado = null;
+         }
+         objetivo = cambiosRegistrados;
+      }
+      // El almacén mantiene el candado de escritura: ninguna mutación puede ocurrir durante la escritura.
+      return escribir(estado, objetivo);
+   }
+
+   @Override
+   public void cerrar(BaseDeDatos estado) {
+      if (!sincronizar(estado))
+         REGISTRO.error("Los últimos cambios no pudieron guardarse al cerrar la aplicación.");
+      escritor.shutdown();
+   }
+
+   /*
+    * Ejecuta el volcado programado en el hilo de escritura.
+    */
+   private void volcar() {
+      BaseDeDatos copia;
+      long objetivo;
+      candadoLectura.lock();
+      try {
+         synchronized (this) {
+            volcadoProgramado = null;
+            // Un `sincronizar` pudo escribir los cambios mientras el volcado esperaba el candado.
+            if (cambiosPersistidos == cambiosRegistrados)
+               return;
+            objetivo = cambiosRegistrados;
+            copia = copiar(ultimoEstado);
+         }
+      } finally {
+         candadoLectura.unlock();
+      }
+      escribir(copia, objetivo);
+   }
+
+   /*
+    * Escribe la base de datos completa, que refleja las primeras `objetivo` mutaciones registradas.
+    * No escribe nada si ya se guardó un estado igual o más reciente. Si falla, vuelve a programar el
+    * volcado para reintentarlo. `estado` no debe cambiar durante la escritura: es una copia, o el
+    * almacén mantiene tomado el candado de escritura.
+    */
+   private boolean escribir(BaseDeDatos estado, long objetivo) {
+      synchronized (escritura) {
+         synchronized (this) {
+            if (cambiosPersistidos >= objetivo)
+               return true;
+         }
+         boolean guardado = GestorJSON.guardarBaseDatos(estado);
+         synchronized (this) {
+            if (guardado)
+               cambiosPersistidos = objetivo;
+            else
+               programarVolcado();
+         }
+         return guardado;
+      }
+   }
+
+   /*
+    * Copia las listas de la base de datos y los resúmenes diarios, que el almacén modifica en su
+    * lugar. Las entidades se comparten. Debe invocarse con el candado de lectura del almacén tomado.
+    */
+   private static BaseDeDatos copiar(BaseDeDatos estado) {
+      BaseDeDatos copia = new BaseDeDatos();
+      copia.setVersion(estado.getVersion());
+      copia.setUsuarios(new ArrayList<>(estado.getUsuarios()));
+      copia.setRepartidor(new ArrayList<>(estado.getRepartidor()));
+      copia.setPedido(new ArrayList<>(estado.getPedido()));
+      copia.setCliente(new ArrayList<>(estado.getCliente()));
+      copia.setHistorial(new ArrayList<>(estado.getHistorial()));
+      if (estado.getResumenDiario() != null) {
+         List<ResumenDiario> resumenes = new ArrayList<>(estado.getResumenDiario().size());
+         for (ResumenDiario resumen : estado.getResumenDiario())
+            resumenes.add(new ResumenDiario(resumen));
+         copia.setResumenDiario(resumenes);
+      }
+      return copia;
+   }
+
+   /*
+    * Programa un volcado al final de la ventana, si no hay uno pendiente.
+    */
+   private synchronized void programarVolcado() {
+      if (volcadoProgramado == null && !escritor.isShutdown())
+         volcadoProgramado = escritor.schedule(this::volcar, ventanaMs, TimeUnit.MILLISECONDS);
+   }
+}
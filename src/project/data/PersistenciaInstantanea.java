@@ -0,0 +1,30 @@
+package project.data;
+
+import project.model.entities.BaseDeDatos;
+
+/*
+ * La clase `PersistenciaInstantanea` reescribe el archivo JSON completo después de cada
+ * mutación. Es el comportamiento original de la aplicación; se conserva como alternativa
+ * a la bitácora mediante la propiedad del sistema `project.persistencia=instantanea`.
+ */
+final class PersistenciaInstantanea implements Persistencia {
+   private boolean ultimoGuardadoFallido;
+
+   @Override
+   public void registrar(Mutacion mutacion, BaseDeDatos estado) {
+      ultimoGuardadoFallido = !GestorJSON.guardarBaseDatos(estado);
+   }
+
+   @Override
+   public boolean sincronizar(BaseDeDatos estado) {
+      // Cada mutación se escribe en disco al registrarse; solo queda pendiente si esa escritura falló.
+      if (ultimoGuardadoFallido)
+         ultimoGuardadoFallido = !GestorJSON.guardarBaseDatos(estado);
+      return !ultimoGuardadoFallido;
+   }
+
+   @Override
+   public void cerrar(BaseDeDatos estado) {
+      sincronizar(estado);
+   }
+}
@@ -0,0 +1,139 @@
+package project.data;
+
+import project.model.entities.Cliente;
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.model.entities.Repartidor;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * La clase `Referencias` enlaza los objetos relacionados a partir de las cédulas e IDs que se
+ * persisten en pedidos e historiales. Las búsquedas se hacen sobre los índices por clave primaria
+ * de cada `Tabla`, y las entidades que dependen de otra se localizan con los índices secundarios,
+ * de modo que todas las entidades comparten una única instancia de cada cliente, repartidor y pedido.
+ * Las entidades dependientes ya guardadas no se modifican: se reemplazan por una copia enlazada, como
+ * en `AlmacenDeDatos.actualizar`, porque otros hilos pueden estar leyéndolas.
+ * Se invoca siempre con el candado de escritura del almacén tomado.
+ */
+final class Referencias {
+   private final Map<Coleccion<?>, Tabla<?>> tablas;
+
+   /*
+    * Crea el resolvedor sobre las tablas del almacén.
+    */
+   Referencias(Map<Coleccion<?>, Tabla<?>> tablas) {
+      this.tablas = tablas;
+   }
+
+   /*
+    * Resuelve las referencias de todos los pedidos e historiales.
+    * Retorna el número de referencias persistidas que no corresponden a ninguna entidad existente.
+    */
+   int resolverTodo() {
+      int sinResolver = 0;
+      for (Pedido pedido : tabla(Coleccion.PEDIDOS).filas())
+         sinResolver += resolver(pedido);
+      for (HistorialDeEntrega historial : tabla(Coleccion.HISTORIAL).filas())
+         sinResolver += resolver(historial);
+      return sinResolver;
+   }
+
+   /*
+    * Actualiza las referencias afectadas por una mutación ya aplicada: las de la propia entidad
+    * guardada y las de las entidades que apuntan a la clave modificada o eliminada. La entidad
+    * guardada se enlaza en su lugar, ya que se acaba de guardar en esta misma mutación; cada
+    * dependiente se reemplaza por una copia enlazada. Cuando se reemplaza un pedido, también se
+    * vuelven a enlazar sus historiales, para que apunten a la nueva instancia.
+    * Retorna, como guardados, las copias de las entidades dependientes.
+    */
+   List<Mutacion> despuesDe(Mutacion mutacion) {
+      Coleccion<?> coleccion = mutacion.getColeccion();
+      String id = mutacion.getId();
+      List<Mutacion> dependientes = new ArrayList<>();
+      // Historiales por volver a enlazar; se reemplazan al final, una sola vez cada uno.
+      Set<String> historiales = new LinkedHashSet<>();
+      if (coleccion == Coleccion.PEDIDOS) {
+         Pedido pedido = tabla(Coleccion.PEDIDOS).buscar(id);
+         if (pedido != null)
+            resolver(pedido);
+         agregarHistoriales(IndiceSecundario.HISTORIAL_POR_PEDIDO, id, historiales);
+      } else if (coleccion == Coleccion.HISTORIAL) {
+         HistorialDeEntrega historial = tabla(Coleccion.HISTORIAL).buscar(id);
+         if (historial != null)
+            resolver(historial);
+      } else if (coleccion == Coleccion.CLIENTES) {
+         for (Pedido pedido : tabla(Coleccion.PEDIDOS).buscarPor(IndiceSecundario.PEDIDOS_POR_CLIENTE, id))
+            reenlazar(pedido, dependientes, historiales);
+      } else if (coleccion == Coleccion.REPARTIDORES) {
+         for (Pedido pedido : tabla(Coleccion.PEDIDOS).buscarPor(IndiceSecundario.PEDIDOS_POR_REPARTIDOR, id))
+            reenlazar(pedido, dependientes, historiales);
+         agregarHistoriales(IndiceSecundario.HISTORIAL_POR_REPARTIDOR, id, historiales);
+      }
+      for (String idHistorial : historiales) {
+         HistorialDeEntrega copia = Coleccion.HISTORIAL.copiar(tabla(Coleccion.HISTORIAL).buscar(idHistorial));
+         resolver(copia);
+         tabla(Coleccion.HISTORIAL).guardar(copia);
+         dependientes.add(Mutacion.guardado(Coleccion.HISTORIAL, copia));
+      }
+      return dependientes;
+   }
+
+   /*
+    * Reemplaza un pedido guardado por una copia con sus referencias enlazadas de nuevo, y anota sus
+    * historiales para enlazarlos con la copia.
+    */
+   private void reenlazar(Pedido pedido, List<Mutacion> dependientes, Set<String> historiales) {
+      Pedido copia = Coleccion.PEDIDOS.copiar(pedido);
+      resolver(copia);
+      tabla(Coleccion.PEDIDOS).guardar(copia);
+      dependientes.add(Mutacion.guardado(Coleccion.PEDIDOS, copia));
+      agregarHistoriales(IndiceSecundario.HISTORIAL_POR_PEDIDO, copia.getIdPedido(), historiales);
+   }
+
+   /*
+    * Añade a `historiales` las claves de los historiales con el valor indicado en el índice.
+    */
+   private void agregarHistoriales(IndiceSecundario<HistorialDeEntrega> indice, String valor, Set<String> historiales) {
+      for (HistorialDeEntrega historial : tabla(Coleccion.HISTORIAL).buscarPor(indice, valor))
+         historiales.add(historial.getIdHistorial());
+   }
+
+   /*
+    * Enlaza el cliente y el repartidor de un pedido. Retorna cuántas referencias no se pudieron resolver.
+    */
+   private int resolver(Pedido pedido) {
+      Cliente cliente = tabla(Coleccion.CLIENTES).buscar(pedido.getCedulaCliente());
+      Repartidor repartidor = tabla(Coleccion.REPARTIDORES).buscar(pedido.getCedulaRepartidor());
+      pedido.vincularReferencias(cliente, repartidor);
+      return faltante(pedido.getCedulaCliente(), cliente) + faltante(pedido.getCedulaRepartidor(), repartidor);
+   }
+
+   /*
+    * Enlaza el pedido y el repartidor de un historial. Retorna cuántas referencias no se pudieron resolver.
+    */
+   private int resolver(HistorialDeEntrega historial) {
+      Pedido pedido = tabla(Coleccion.PEDIDOS).buscar(historial.getIdPedido());
+      Repartidor repartidor = tabla(Coleccion.REPARTIDORES).buscar(historial.getCedulaRepartidor());
+      historial.vincularReferencias(pedido, repartidor);
+      return faltante(historial.getIdPedido(), pedido) + faltante(historial.getCedulaRepartidor(), repartidor);
+   }
+
+   /*
+    * Retorna 1 si hay una clave persistida sin entidad correspondiente, 0 en otro caso.
+    */
+   private static int faltante(String clave, Object resuelto) {
+      return (clave != null && resuelto == null) ? 1 : 0;
+   }
+
+   /*
+    * Obtiene la tabla indexada de una colección.
+    */
+   @SuppressWarnings("unchecked")
+   private <T> Tabla<T> tabla(Coleccion<T> coleccion) {
+      return (Tabla<T>) tablas.get(coleccion);
+   }
+}
@@ -0,0 +1,430 @@
+package project.data;
+
+import project.model.base.Orden;
+import project.model.base.Pagina;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/*
+ * La clase `Tabla` envuelve la lista de entidades de una `Coleccion` y mantiene un índice hash
+ * desde la clave primaria hasta la posición de la entidad en la lista. Las búsquedas y los
+ * reemplazos por clave son O(1); las eliminaciones reindexan solo las posiciones posteriores.
+ * La lista envuelta es la misma que contiene la `BaseDeDatos`, de modo que el orden de las
+ * entidades (y por tanto el del archivo JSON) no cambia. Además mantiene los `IndiceSecundario`
+ * declarados para la colección y, para las consultas por páginas ordenadas, un índice ordenado por
+ * cada `Orden` consultado recientemente.
+ * No es segura entre hilos por sí misma: el `AlmacenDeDatos` la protege con su candado. Los índices
+ * ordenados se actualizan al consultarlos, con el candado de lectura, así que los protege además su
+ * propio monitor.
+ */
+final class Tabla<T> {
+   // Índices ordenados que se conservan; el menos consultado recientemente se descarta
+   private static final int ORDENES = 8;
+   // Cambios pendientes a partir de los cuales un índice ordenado se reconstruye, como mínimo y
+   // como fracción de las entidades, en lugar de incorporarlos uno a uno
+   private static final int CAMBIOS_MINIMOS = 1024;
+   private static final int FRACCION_CAMBIOS = 8;
+   // Una consulta con menos claves que esta fracción de las entidades las ordena directamente
+   private static final int FRACCION_CLAVES = 8;
+
+   private final Coleccion<T> coleccion;
+   private final List<T> filas;
+   private final Map<String, Integer> indice;
+   private final Map<IndiceSecundario<T>, Secundario> secundarios = new HashMap<>();
+   private final Map<Orden<T>, Ordenado> ordenados = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Orden<T>, Ordenado> mayor) {
+         return size() > ORDENES;
+      }
+   };
+
+   /*
+    * Estado de un índice secundario: las claves primarias agrupadas por valor, y el valor con el que
+    * se indexó cada clave primaria. Este último permite retirar una entidad del grupo correcto aunque
+    * haya sido modificada en el lugar antes de volver a guardarse.
+    */
+   private static final class Secundario {
+      private final Map<String, Set<String>> idsPorValor = new HashMap<>();
+      private final Map<String, String> valorPorId = new HashMap<>();
+
+      void agregar(String id, String valor) {
+         if (valor == null)
+            return;
+         idsPorValor.computeIfAbsent(valor, v -> new LinkedHashSet<>()).add(id);
+         valorPorId.put(id, valor);
+      }
+
+      String retirar(String id) {
+         String valor = valorPorId.remove(id);
+         if (valor == null)
+            return null;
+         Set<String> ids = idsPorValor.get(valor);
+         ids.remove(id);
+         if (ids.isEmpty())
+            idsPorValor.remove(valor);
+         return valor;
+      }
+
+      Set<String> ids(String valor) {
+         Set<String> ids = (valor == null) ? null : idsPorValor.get(valor);
+         return (ids == null) ? Set.of() : ids;
+      }
+   }
+
+   /*
+    * Clave primaria de una entidad junto con el valor por el que se ordenó.
+    */
+   private static final class Entrada {
+      private final Comparable<?> valor;
+      private final String clave;
+
+      Entrada(Comparable<?> valor, String clave) {
+         this.valor = valor;
+         this.clave = clave;
+      }
+   }
+
+   // Orden de las entradas: por valor y, a igualdad, por clave primaria
+   private static final Comparator<Entrada> POR_VALOR = (a, b) -> {
+      int comparacion = Orden.comparar(a.valor, b.valor);
+      return (comparacion != 0) ? comparacion : a.clave.compareTo(b.clave);
+   };
+
+   /*
+    * Estado de un índice ordenado: las entradas de las entidades ordenadas por su valor, y la entrada
+    * de cada clave primaria, que permite retirarla de su posición aunque la entidad haya sido
+    * modificada en el lugar. Las claves guardadas o eliminadas se anotan como pendientes y se
+    * incorporan en la siguiente consulta, cuando las referencias de la entidad ya están resueltas.
+    */
+   private final class Ordenado {
+      private final Orden<T> orden;
+      private final ArrayList<Entrada> entradas;
+      private final Map<String, Entrada> entradaPorClave;
+      private final Set<String> pendientes = new HashSet<>();
+
+      Ordenado(Orden<T> orden) {
+         this.orden = orden;
+         this.entradas = new ArrayList<>(indice.size());
+         this.entradaPorClave = new HashMap<>(Math.max(16, indice.size() * 4 / 3 + 1));
+         for (Map.Entry<String, Integer> clave : indice.entrySet()) {
+            Entrada entrada = new Entrada(orden.valorDe(filas.get(clave.getValue())), clave.getKey());
+            entradas.add(entrada);
+            entradaPorClave.put(entrada.clave, entrada);
+         }
+         entradas.sort(POR_VALOR);
+      }
+
+      /*
+       * Obtiene una vista, sin copiarlas, de las claves en el orden del índice.
+       */
+      List<String> claves() {
+         return new AbstractList<String>() {
+            @Override
+            public String get(int posicion) {
+               return entradas.get(posicion).clave;
+            }
+
+            @Override
+            public int size() {
+               return entradas.size();
+            }
+         };
+      }
+
+      /*
+       * Vuelve a ubicar cada clave pendiente según el estado actual de su entidad. Cada cambio
+       * cuesta una búsqueda binaria y un desplazamiento de la lista, sin ordenarla de nuevo.
+       */
+      void incorporarPendientes() {
+         for (String clave : pendientes) {
+            Entrada anterior = entradaPorClave.remove(clave);
+            if (anterior != null) {
+               int posicion = Collections.binarySearch(entradas, anterior, POR_VALOR);
+               // Un valor de orden que cambió en el lugar ya no se encuentra por búsqueda binaria.
+               if (posicion >= 0)
+                  entradas.remove(posicion);
+               else
+                  entradas.remove(anterior);
+            }
+            T entidad = buscar(clave);
+            if (entidad != null) {
+               Entrada entrada = new Entrada(orden.valorDe(entidad), clave);
+               entradas.add(-Collections.binarySearch(entradas, entrada, POR_VALOR) - 1, entrada);
+               entradaPorClave.put(clave, entrada);
+            }
+         }
+         pendientes.clear();
+      }
+   }
+
+   /*
+    * Crea la tabla sobre una lista existente y construye el índice por clave primaria.
+    * Si la lista contiene claves repetidas, el índice apunta a la primera aparición.
+    */
+   Tabla(Coleccion<T> coleccion, List<T> filas) {
+      this.coleccion = coleccion;
+      this.filas = filas;
+      this.indice = new HashMap<>(Math.max(16, filas.size() * 4 / 3 + 1));
+      for (int i = 0; i < filas.size(); i++) {
+         String clave = coleccion.claveDe(filas.get(i));
+         if (clave != null)
+            indice.putIfAbsent(clave, i);
+      }
+      for (IndiceSecundario<T> secundario : IndiceSecundario.de(coleccion)) {
+         Secundario estado = new Secundario();
+         for (Map.Entry<String, Integer> entrada : indice.entrySet())
+            estado.agregar(entrada.getKey(), secundario.valorDe(filas.get(entrada.getValue())));
+         secundarios.put(secundario, estado);
+      }
+   }
+
+   /*
+    * Obtiene la entidad con la clave indicada, o null si no existe.
+    */
+   T buscar(String id) {
+      Integer posicion = (id == null) ? null : indice.get(id);
+      return (posicion == null) ? null : filas.get(posicion);
+   }
+
+   /*
+    * Obtiene la posición de la entidad con la clave indicada, o -1 si no existe.
+    */
+   int posicionDe(String id) {
+      Integer posicion = (id == null) ? null : indice.get(id);
+      return (posicion == null) ? -1 : posicion;
+   }
+
+   /*
+    * Reemplaza la entidad con la misma clave o la añade al final. Retorna si se añadió y en qué
+    * índices secundarios cambió su valor respecto del indexado, que es el de la última vez que se
+    * guardó aunque la entidad se haya modificado en el lugar.
+    */
+   Guardado<T> guardar(T entidad) {
+      String clave = coleccion.claveDe(entidad);
+      Integer posicion = (clave == null) ? null : indice.get(clave);
+      if (posicion != null) {
+         filas.set(posicion, entidad);
+      } else {
+         filas.add(entidad);
+         if (clave != null)
+            indice.put(clave, filas.size() - 1);
+      }
+      Set<IndiceSecundario<T>> cambiados = (clave == null) ? Set.of() : reindexarSecundarios(clave, entidad);
+      if (clave != null)
+         anotarEnOrdenados(clave);
+      return new Guardado<>(entidad, posicion == null, cambiados);
+   }
+
+   /*
+    * Elimina la entidad con la clave indicada. Retorna la entidad eliminada, o null si no existía.
+    */
+   T eliminar(String id) {
+      Integer posicion = (id == null) ? null : indice.remove(id);
+      if (posicion == null)
+         return null;
+      T eliminada = filas.remove((int) posicion);
+      for (Secundario estado : secundarios.values())
+         estado.retirar(id);
+      // Las entidades posteriores se desplazaron una posición hacia atrás.
+      // Si había una entidad repetida con la misma clave, pasa a ser la indexada.
+      for (int i = posicion; i < filas.size(); i++) {
+         String clave = coleccion.claveDe(filas.get(i));
+         if (clave == null)
+            continue;
+         Integer actual = indice.get(clave);
+         if (actual == null ? clave.equals(id) : actual == i + 1)
+            indice.put(clave, i);
+      }
+      // La entidad repetida que pasó a estar indexada también entra en los índices secundarios.
+      T sustituta = buscar(id);
+      if (sustituta != null)
+         reindexarSecundarios(id, sustituta);
+      anotarEnOrdenados(id);
+      return eliminada;
+   }
+
+   /*
+    * Obtiene, en el orden de la lista, las entidades cuyo valor en el índice secundario coincide
+    * con `valor`. El costo es proporcional al número de resultados.
+    */
+   List<T> buscarPor(IndiceSecundario<T> secundario, String valor) {
+      String normalizado = secundario.normalizarConsulta(valor);
+      Set<String> ids = secundarios.get(secundario).ids(normalizado);
+      List<Integer> posiciones = new ArrayList<>(ids.size());
+      for (String id : ids)
+         posiciones.add(indice.get(id));
+      posiciones.sort(Comparator.naturalOrder());
+      List<T> resultado = new ArrayList<>(posiciones.size());
+      for (Integer posicion : posiciones) {
+         T entidad = filas.get(posicion);
+         // Una entidad modificada en el lugar y aún no guardada podría no coincidir ya con el valor.
+         if (normalizado.equals(secundario.valorDe(entidad)))
+            resultado.add(entidad);
+      }
+      return resultado;
+   }
+
+   /*
+    * Obtiene hasta `cantidad` entidades en el orden de la lista, a continuación de la entidad con la
+    * clave `despuesDe`, o desde la primera si es null. La posición de partida se obtiene del índice
+    * por clave, así que el costo es proporcional a `cantidad`. Si la entidad `despuesDe` ya no existe
+    * la página empieza de nuevo por la primera: repetir entidades es preferible a saltarse alguna.
+    */
+   Pagina<T> pagina(String despuesDe, int cantidad) {
+      int desde = (despuesDe == null) ? 0 : posicionDe(despuesDe) + 1;
+      int hasta = (int) Math.min(filas.size(), (long) desde + cantidad);
+      String cursor = null;
+      for (int i = hasta - 1; i >= desde && cursor == null; i--)
+         cursor = coleccion.claveDe(filas.get(i));
+      // Sin ninguna clave en la página no hay cursor desde el que seguir.
+      return new Pagina<>(new ArrayList<>(filas.subList(desde, hasta)), cursor, hasta < filas.size() && cursor != null, filas.size());
+   }
+
+   /*
+    * Obtiene hasta `cantidad` entidades a partir de la posición `desde` en el orden `orden` y la
+    * dirección indicada, o en el de la lista si `orden` es null. Si `claves` no es null solo cuentan
+    * las entidades con esas claves. Sin `claves` el costo es proporcional a `cantidad`; con ellas,
+    * si son pocas se ordenan directamente y si son muchas se filtra el orden completo.
+    * El total de la página es el de entidades que cumplen la consulta.
+    */
+   Pagina<T> pagina(Orden<T> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      synchronized (ordenados) {
+         List<String> ordenadas;
+         if (claves != null && (long) claves.size() * FRACCION_CLAVES < indice.size())
+            ordenadas = ordenarClaves(orden, claves);
+         else
+            ordenadas = filtrar((orden == null) ? clavesEnLista() : ordenado(orden).claves(), claves);
+         int total = ordenadas.size();
+         List<T> entidades = new ArrayList<>();
+         for (int i = Math.max(0, desde); i < total && entidades.size() < cantidad; i++) {
+            T entidad = buscar(ordenadas.get(descendente ? total - 1 - i : i));
+            if (entidad != null)
+               entidades.add(entidad);
+         }
+         String cursor = entidades.isEmpty() ? null : coleccion.claveDe(entidades.get(entidades.size() - 1));
+         return new Pagina<>(entidades, cursor, (long) Math.max(0, desde) + entidades.size() < total, total);
+      }
+   }
+
+   /*
+    * Obtiene el índice ordenado de `orden` con sus cambios pendientes incorporados, creándolo si no
+    * existe o si acumuló tantos cambios que reconstruirlo es más barato. Requiere el monitor de
+    * `ordenados`.
+    */
+   private Ordenado ordenado(Orden<T> orden) {
+      Ordenado ordenado = ordenados.get(orden);
+      if (ordenado == null || ordenado.pendientes.size() > Math.max(CAMBIOS_MINIMOS, indice.size() / FRACCION_CAMBIOS)) {
+         ordenado = new Ordenado(orden);
+         ordenados.put(orden, ordenado);
+      }
+      ordenado.incorporarPendientes();
+      return ordenado;
+   }
+
+   /*
+    * Obtiene una vista, sin copiarlas, de las claves de la lista en su orden.
+    */
+   private List<String> clavesEnLista() {
+      return new AbstractList<String>() {
+         @Override
+         public String get(int posicion) {
+            return coleccion.claveDe(filas.get(posicion));
+         }
+
+         @Override
+         public int size() {
+            return filas.size();
+         }
+      };
+   }
+
+   /*
+    * Obtiene las claves de `ordenadas` que están en `claves`, en el mismo orden, o la propia lista
+    * si `claves` es null.
+    */
+   private static List<String> filtrar(List<String> ordenadas, Set<String> claves) {
+      if (claves == null)
+         return ordenadas;
+      List<String> resultado = new ArrayList<>(claves.size());
+      for (String clave : ordenadas) {
+         if (claves.contains(clave))
+            resultado.add(clave);
+      }
+      return resultado;
+   }
+
+   /*
+    * Ordena solo las claves indicadas que existen, por `orden` o por su posición en la lista si es
+    * null, sin recorrer el resto de la tabla.
+    */
+   private List<String> ordenarClaves(Orden<T> orden, Set<String> claves) {
+      List<Entrada> entradas = new ArrayList<>(claves.size());
+      for (String clave : claves) {
+         Integer posicion = indice.get(clave);
+         if (posicion != null)
+            entradas.add(new Entrada((orden == null) ? posicion : orden.valorDe(filas.get(posicion)), clave));
+      }
+      entradas.sort(POR_VALOR);
+      List<String> resultado = new ArrayList<>(entradas.size());
+      for (Entrada entrada : entradas)
+         resultado.add(entrada.clave);
+      return resultado;
+   }
+
+   /*
+    * Anota una clave guardada o eliminada como pendiente en todos los índices ordenados.
+    */
+   private void anotarEnOrdenados(String clave) {
+      synchronized (ordenados) {
+         for (Ordenado ordenado : ordenados.values())
+            ordenado.pendientes.add(clave);
+      }
+   }
+
+   /*
+    * Vuelve a ubicar una clave primaria en todos los índices secundarios según el estado actual de la
+    * entidad. Retorna los índices en los que el valor cambió.
+    */
+   private Set<IndiceSecundario<T>> reindexarSecundarios(String clave, T entidad) {
+      Set<IndiceSecundario<T>> cambiados = new HashSet<>();
+      for (Map.Entry<IndiceSecundario<T>, Secundario> entrada : secundarios.entrySet()) {
+         String anterior = entrada.getValue().retirar(clave);
+         String valor = entrada.getKey().valorDe(entidad);
+         entrada.getValue().agregar(clave, valor);
+         if (!Objects.equals(anterior, valor))
+            cambiados.add(entrada.getKey());
+      }
+      return cambiados;
+   }
+
+   /*
+    * Obtiene la entidad en una posición de la lista.
+    */
+   T get(int posicion) {
+      return filas.get(posicion);
+   }
+
+   /*
+    * Obtiene el número de entidades de la tabla.
+    */
+   int tamano() {
+      return filas.size();
+   }
+
+   /*
+    * Obtiene la lista de entidades envuelta. No debe modificarse fuera de esta clase.
+    */
+   List<T> filas() {
+      return filas;
+   }
+}
@@ -0,0 +1,241 @@
+package project.data;
+
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.model.entities.ResumenDiario;
+import project.model.enums.Combo;
+import project.model.enums.MetodoDePago;
+import project.util.FormatoFecha;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * La clase `TablaDeResumenes` mantiene el resumen diario de la base de datos (la lista
+ * `resumenDiario` de `BaseDeDatos`, ordenada por día) y el resumen total de todos los días.
+ * Guarda el aporte de cada pedido e historial a su día: cuando una entidad cambia o se elimina,
+ * se resta su aporte anterior y se suma el nuevo, de modo que cada mutación cuesta O(log días).
+ * Mientras las colecciones diferidas se cargan, sirve el resumen leído del archivo; cuando la base
+ * de datos está completa, `reconstruir` lo recalcula a partir de las entidades.
+ * Se invoca siempre con el candado de escritura del almacén tomado.
+ */
+final class TablaDeResumenes {
+   /*
+    * Aporte de un pedido a su día.
+    */
+   private static final class AportePedido {
+      long dia;
+      Combo combo;
+      MetodoDePago metodoPago;
+   }
+
+   /*
+    * Aporte de un historial a su día.
+    */
+   private static final class AporteHistorial {
+      long dia;
+      boolean entregado;
+      boolean cancelado;
+      // Si la entrega tiene pedido y fechas válidas, y su tiempo de entrega en minutos.
+      boolean medida;
+      long minutos;
+   }
+
+   private final List<ResumenDiario> dias;
+   private final Map<String, AportePedido> aportesPedido = new HashMap<>();
+   private final Map<String, AporteHistorial> aportesHistorial = new HashMap<>();
+   private ResumenDiario total = new ResumenDiario(FormatoFecha.SIN_FECHA);
+
+   /*
+    * Crea la tabla sobre la lista de resúmenes de la base de datos. Los días que no pueden
+    * interpretarse se descartan y los demás se ordenan, por si el archivo se editó a mano.
+    */
+   TablaDeResumenes(List<ResumenDiario> dias) {
+      this.dias = dias;
+      dias.removeIf(resumen -> resumen == null || !diaValido(resumen));
+      dias.sort(Comparator.comparingLong(ResumenDiario::getDia));
+      for (ResumenDiario resumen : dias)
+         total.sumar(resumen);
+   }
+
+   /*
+    * Recalcula todos los resúmenes a partir de los pedidos e historiales indicados.
+    */
+   void reconstruir(Iterable<Pedido> pedidos, Iterable<HistorialDeEntrega> historiales) {
+      dias.clear();
+      aportesPedido.clear();
+      aportesHistorial.clear();
+      total = new ResumenDiario(FormatoFecha.SIN_FECHA);
+      for (Pedido pedido : pedidos)
+         actualizarPedido(pedido.getIdPedido(), pedido);
+      for (HistorialDeEntrega historial : historiales)
+         actualizarHistorial(historial.getIdHistorial(), historial);
+   }
+
+   /*
+    * Actualiza los resúmenes con una mutación ya aplicada y con las entidades dependientes que
+    * se volvieron a enlazar por ella (ver `Referencias.despuesDe`).
+    */
+   void despuesDe(Mutacion mutacion, List<Mutacion> dependientes) {
+      aplicar(mutacion);
+      for (Mutacion dependiente : dependientes)
+         aplicar(dependiente);
+   }
+
+   /*
+    * Obtiene copias de los resúmenes de los días entre `desde` y `hasta`, ambos incluidos, en orden.
+    */
+   List<ResumenDiario> entre(long desde, long hasta) {
+      List<ResumenDiario> resultado = new ArrayList<>();
+      for (int i = posicion(desde); i < dias.size() && dias.get(i).getDia() <= hasta; i++)
+         resultado.add(new ResumenDiario(dias.get(i)));
+      return resultado;
+   }
+
+   /*
+    * Obtiene una copia del resumen de un día; vacío si no hubo actividad.
+    */
+   ResumenDiario delDia(long dia) {
+      int i = posicion(dia);
+      return (i < dias.size() && dias.get(i).getDia() == dia) ? new ResumenDiario(dias.get(i)) : new ResumenDiario(dia);
+   }
+
+   /*
+    * Obtiene una copia del resumen de todos los días.
+    */
+   ResumenDiario total() {
+      return new ResumenDiario(total);
+   }
+
+   /*
+    * Aplica una mutación de pedidos o historial.
+    */
+   private void aplicar(Mutacion mutacion) {
+      if (mutacion.getColeccion() == Coleccion.PEDIDOS)
+         actualizarPedido(mutacion.getId(), (Pedido) mutacion.getEntidad());
+      else if (mutacion.getColeccion() == Coleccion.HISTORIAL)
+         actualizarHistorial(mutacion.getId(), (HistorialDeEntrega) mutacion.getEntidad());
+   }
+
+   /*
+    * Reemplaza el aporte de un pedido por el de su estado actual, o lo retira si `pedido` es null.
+    */
+   private void actualizarPedido(String id, Pedido pedido) {
+      if (id == null)
+         return;
+      AportePedido anterior = aportesPedido.remove(id);
+      if (anterior != null)
+         sumar(anterior, -1);
+      if (pedido == null || pedido.getFechaCreacionMs() == FormatoFecha.SIN_FECHA)
+         return;
+      AportePedido aporte = new AportePedido();
+      aporte.dia = FormatoFecha.diaEpoca(pedido.getFechaCreacionMs());
+      aporte.combo = pedido.getCombo();
+      aporte.metodoPago = pedido.getMetodoPago();
+      aportesPedido.put(id, aporte);
+      sumar(aporte, 1);
+   }
+
+   /*
+    * Reemplaza el aporte de un historial por el de su estado actual, o lo retira si `historial` es null.
+    */
+   private void actualizarHistorial(String id, HistorialDeEntrega historial) {
+      if (id == null)
+         return;
+      AporteHistorial anterior = aportesHistorial.remove(id);
+      if (anterior != null)
+         sumar(anterior, -1);
+      if (historial == null || historial.getFechaRegistroMs() == FormatoFecha.SIN_FECHA)
+         return;
+      AporteHistorial aporte = new AporteHistorial();
+      aporte.dia = FormatoFecha.diaEpoca(historial.getFechaRegistroMs());
+      aporte.entregado = "Entregado".equalsIgnoreCase(historial.getEstadoEntrega());
+      aporte.cancelado = "Cancelado".equalsIgnoreCase(historial.getEstadoEntrega());
+      if (aporte.entregado) {
+         aporte.minutos = ResumenDiario.minutosDeEntrega(historial);
+         aporte.medida = aporte.minutos >= 0;
+      }
+      if (!aporte.entregado && !aporte.cancelado)
+         return;
+      aportesHistorial.put(id, aporte);
+      sumar(aporte, 1);
+   }
+
+   /*
+    * Suma o resta el aporte de un pedido a su día y al total.
+    */
+   private void sumar(AportePedido aporte, int signo) {
+      dia(aporte.dia).registrarPedido(aporte.combo, aporte.metodoPago, signo);
+      total.registrarPedido(aporte.combo, aporte.metodoPago, signo);
+      quitarSiVacio(aporte.dia);
+   }
+
+   /*
+    * Suma o resta el aporte de un historial a su día y al total.
+    */
+   private void sumar(AporteHistorial aporte, int signo) {
+      ResumenDiario resumen = dia(aporte.dia);
+      if (aporte.entregado) {
+         resumen.registrarEntrega(aporte.medida, aporte.minutos, signo);
+         total.registrarEntrega(aporte.medida, aporte.minutos, signo);
+      } else {
+         resumen.registrarCancelacion(signo);
+         total.registrarCancelacion(signo);
+      }
+      quitarSiVacio(aporte.dia);
+   }
+
+   /*
+    * Obtiene el resumen de un día, creándolo en su posición si no existe.
+    */
+   private ResumenDiario dia(long dia) {
+      int i = posicion(dia);
+      if (i < dias.size() && dias.get(i).getDia() == dia)
+         return dias.get(i);
+      ResumenDiario resumen = new ResumenDiario(dia);
+      dias.add(i, resumen);
+      return resumen;
+   }
+
+   /*
+    * Quita el resumen de un día si se quedó sin actividad.
+    */
+   private void quitarSiVacio(long dia) {
+      int i = posicion(dia);
+      if (i < dias.size() && dias.get(i).getDia() == dia && dias.get(i).estaVacio())
+         dias.remove(i);
+   }
+
+   /*
+    * Busca, por bisección, la posición del primer resumen cuyo día es mayor o igual que `dia`.
+    * Los días nuevos suelen ser los más recientes, por lo que se comprueba primero el final.
+    */
+   private int posicion(long dia) {
+      int n = dias.size();
+      if (n == 0 || dias.get(n - 1).getDia() < dia)
+         return n;
+      int bajo = 0;
+      int alto = n - 1;
+      while (bajo < alto) {
+         int medio = (bajo + alto) >>> 1;
+         if (dias.get(medio).getDia() < dia)
+            bajo = medio + 1;
+         else
+            alto = medio;
+      }
+      return bajo;
+   }
+
+   /*
+    * Indica si la fecha de un resumen leído del archivo puede interpretarse.
+    */
+   private static boolean diaValido(ResumenDiario resumen) {
+      try {
+         return resumen.getDia() != FormatoFecha.SIN_FECHA;
+      } catch (RuntimeException e) {
+         return false;
+      }
+   }
+}
@@ -0,0 +1,180 @@
+package project.model.base;
+
+import project.util.Registro;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.Timer;
+
+/*
+ * La clase `BusDeEventos` avisa a las ventanas de los cambios que hacen los repositorios: un pedido
+ * creado, un pedido que cambia de estado, un repartidor que cambia de disponibilidad o un historial
+ * de entrega registrado. Los repositorios publican desde cualquier hilo y los eventos se acumulan
+ * durante `ESPERA_MS` milisegundos; luego cada suscriptor recibe, una sola vez y en el hilo de
+ * eventos, un `Lote` con las claves afectadas de los tipos que le interesan, sin repetir.
+ * Así una ráfaga de cambios produce una única actualización de cada ventana.
+ * Los eventos solo indican que algo cambió: quien los recibe vuelve a leer los datos que necesita.
+ */
+public final class BusDeEventos {
+   private static final Registro REGISTRO = Registro.para(BusDeEventos.class);
+   // Milisegundos durante los que se acumulan los eventos antes de entregarlos
+   private static final int ESPERA_MS = 100;
+
+   /*
+    * Tipos de evento que publican los repositorios.
+    */
+   public enum Tipo {
+      PEDIDO_CREADO,
+      ESTADO_DE_PEDIDO_CAMBIADO,
+      DISPONIBILIDAD_CAMBIADA,
+      HISTORIAL_REGISTRADO
+   }
+
+   /*
+    * Recibe los eventos acumulados. Se invoca en el hilo de eventos.
+    */
+   @FunctionalInterface
+   public interface Suscriptor {
+      void alRecibir(Lote lote);
+   }
+
+   /*
+    * Eventos acumulados durante una espera: por cada tipo, las claves de las entidades afectadas.
+    */
+   public static final class Lote {
+      private final Map<Tipo, Set<String>> idsPorTipo;
+
+      private Lote(Map<Tipo, Set<String>> idsPorTipo) {
+         this.idsPorTipo = idsPorTipo;
+      }
+
+      /*
+       * Indica si el lote tiene algún evento del tipo indicado.
+       */
+      public boolean contiene(Tipo tipo) {
+         return idsPorTipo.containsKey(tipo);
+      }
+
+      /*
+       * Obtiene, en orden de publicación, las claves de las entidades con eventos del tipo indicado.
+       */
+      public Set<String> getIds(Tipo tipo) {
+         Set<String> ids = idsPorTipo.get(tipo);
+         return (ids == null) ? Set.of() : Collections.unmodifiableSet(ids);
+      }
+
+      /*
+       * Obtiene el lote con solo los tipos indicados, o null si no tiene ninguno.
+       */
+      private Lote de(Set<Tipo> tipos) {
+         Map<Tipo, Set<String>> elegidos = new EnumMap<>(Tipo.class);
+         for (Map.Entry<Tipo, Set<String>> entrada : idsPorTipo.entrySet()) {
+            if (tipos.contains(entrada.getKey()))
+               elegidos.put(entrada.getKey(), entrada.getValue());
+         }
+         return elegidos.isEmpty() ? null : new Lote(elegidos);
+      }
+   }
+
+   /*
+    * Suscripción de un suscriptor a unos tipos de evento; se cancela con `cancelar`.
+    */
+   public final class Suscripcion {
+      private final Suscriptor suscriptor;
+      private final Set<Tipo> tipos;
+
+      private Suscripcion(Suscriptor suscriptor, Set<Tipo> tipos) {
+         this.suscriptor = suscriptor;
+         this.tipos = tipos;
+      }
+
+      /*
+       * Deja de entregar eventos al suscriptor, incluidos los que ya estaban acumulados.
+       */
+      public void cancelar() {
+         suscripciones.remove(this);
+      }
+   }
+
+   private final CopyOnWriteArrayList<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+   private final Timer espera;
+   // Eventos publicados desde la última entrega; protegido por `this`
+   private Map<Tipo, Set<String>> pendientes = new EnumMap<>(Tipo.class);
+
+   /*
+    * Contenedor del bus compartido; se crea la primera vez que se usa.
+    */
+   private static final class Contenedor {
+      private static final BusDeEventos INSTANCIA = new BusDeEventos();
+   }
+
+   /*
+    * Constructor privado; el bus se obtiene con `getInstancia`.
+    */
+   private BusDeEventos() {
+      espera = new Timer(ESPERA_MS, e -> entregar());
+      espera.setRepeats(false);
+      // Sin combinar avisos: si la espera vuelve a vencer mientras se entrega el lote anterior, el
+      // aviso debe llegar igualmente para no dejar eventos pendientes.
+      espera.setCoalesce(false);
+   }
+
+   /*
+    * Obtiene el bus de eventos compartido por los repositorios y las ventanas.
+    */
+   public static BusDeEventos getInstancia() {
+      return Contenedor.INSTANCIA;
+   }
+
+   /*
+    * Suscribe un suscriptor a los tipos de evento indicados, o a todos si no se indica ninguno.
+    */
+   public Suscripcion suscribir(Suscriptor suscriptor, Tipo... tipos) {
+      Set<Tipo> elegidos = (tipos.length == 0) ? EnumSet.allOf(Tipo.class) : EnumSet.noneOf(Tipo.class);
+      Collections.addAll(elegidos, tipos);
+      Suscripcion suscripcion = new Suscripcion(suscriptor, elegidos);
+      suscripciones.add(suscripcion);
+      return suscripcion;
+   }
+
+   /*
+    * Publica un evento sobre la entidad con la clave indicada. Puede invocarse desde cualquier hilo;
+    * el primer evento tras una entrega inicia la espera y los siguientes se suman al mismo lote.
+    */
+   public void publicar(Tipo tipo, String id) {
+      boolean primero;
+      synchronized (this) {
+         primero = pendientes.isEmpty();
+         pendientes.computeIfAbsent(tipo, t -> new LinkedHashSet<>()).add(id);
+      }
+      // El temporizador de Swing admite que se inicie desde otro hilo y avisa en el hilo de eventos.
+      if (primero)
+         espera.start();
+   }
+
+   /*
+    * Entrega los eventos acumulados a cada suscriptor interesado. Se ejecuta en el hilo de eventos.
+    */
+   private void entregar() {
+      Lote lote;
+      synchronized (this) {
+         lote = new Lote(pendientes);
+         pendientes = new EnumMap<>(Tipo.class);
+      }
+      for (Suscripcion suscripcion : suscripciones) {
+         Lote propio = lote.de(suscripcion.tipos);
+         if (propio == null)
+            continue;
+         try {
+            suscripcion.suscriptor.alRecibir(propio);
+         } catch (RuntimeException e) {
+            // Un suscriptor con errores no impide la entrega a los demás.
+            REGISTRO.error("Error al entregar eventos de los repositorios.", e);
+         }
+      }
+   }
+}
@@ -0,0 +1,58 @@
+package project.model.base;
+
+import java.util.function.Function;
+
+/*
+ * La clase `Orden` es una clave de ordenación para las consultas por páginas de un repositorio: un
+ * nombre y la función que obtiene de cada entidad el valor por el que se ordena. El almacén mantiene
+ * un índice ordenado por cada clave que se consulta, así que dos órdenes de la misma colección con
+ * el mismo nombre se consideran el mismo y deben obtener el mismo valor.
+ * Los valores null van antes que cualquier otro; a igualdad de valor, las entidades se ordenan por
+ * su clave primaria.
+ */
+public final class Orden<T> {
+   private final String nombre;
+   private final Function<? super T, ? extends Comparable<?>> valor;
+
+   /*
+    * Constructor de la clase `Orden`.
+    */
+   public Orden(String nombre, Function<? super T, ? extends Comparable<?>> valor) {
+      this.nombre = nombre;
+      this.valor = valor;
+   }
+
+   /*
+    * Obtiene el nombre que identifica la clave de ordenación.
+    */
+   public String getNombre() {
+      return nombre;
+   }
+
+   /*
+    * Obtiene el valor por el que se ordena una entidad.
+    */
+   public Comparable<?> valorDe(T entidad) {
+      return valor.apply(entidad);
+   }
+
+   /*
+    * Compara dos valores obtenidos con `valorDe`, con los null primero.
+    */
+   @SuppressWarnings("unchecked")
+   public static int comparar(Comparable<?> a, Comparable<?> b) {
+      if (a == null || b == null)
+         return (a == null) ? ((b == null) ? 0 : -1) : 1;
+      return ((Comparable<Object>) a).compareTo(b);
+   }
+
+   @Override
+   public boolean equals(Object otro) {
+      return otro instanceof Orden && nombre.equals(((Orden<?>) otro).nombre);
+   }
+
+   @Override
+   public int hashCode() {
+      return nombre.hashCode();
+   }
+}
@@ -0,0 +1,55 @@
+package project.model.base;
+
+import java.util.List;
+
+/*
+ * La clase `Pagina` contiene una parte de las entidades de un repositorio, el cursor para pedir
+ * la siguiente y el número total de entidades de la consulta. El cursor es la clave primaria de la
+ * última entidad de la página, no su posición, de modo que las entidades añadidas o eliminadas entre
+ * una página y otra no desplazan las siguientes.
+ */
+public final class Pagina<T> {
+   private final List<T> entidades;
+   private final String cursor;
+   private final boolean hayMas;
+   private final int total;
+
+   /*
+    * Constructor de la clase `Pagina`.
+    */
+   public Pagina(List<T> entidades, String cursor, boolean hayMas, int total) {
+      this.entidades = entidades;
+      this.cursor = cursor;
+      this.hayMas = hayMas;
+      this.total = total;
+   }
+
+   /*
+    * Obtiene las entidades de la página, en el orden en que se pidieron.
+    */
+   public List<T> getEntidades() {
+      return entidades;
+   }
+
+   /*
+    * Obtiene la clave primaria de la última entidad de la página, que se indica para pedir la
+    * siguiente, o null si la página está vacía.
+    */
+   public String getCursor() {
+      return cursor;
+   }
+
+   /*
+    * Indica si hay más entidades después de esta página.
+    */
+   public boolean hayMas() {
+      return hayMas;
+   }
+
+   /*
+    * Obtiene el número de entidades de toda la consulta en el momento de leer la página.
+    */
+   public int getTotal() {
+      return total;
+   }
+}
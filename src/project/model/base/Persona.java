@@ -29,6 +29,13 @@ public abstract class Persona {
       this.cedulaIdentidad = cedulaIdentidad;
    }
 
+   /*
+    * Constructor de copia.
+    */
+   protected Persona(Persona otra) {
+      this(otra.nombre, otra.numeroTelefono, otra.cedulaIdentidad);
+   }
+
    /*
     * Obtiene el nombre de la persona.
     */
@@ -2,6 +2,7 @@
 package project.model.base;
 
 import java.util.List;
+import java.util.Set;
 
 /*
  * Interfaz genérica para definir las operaciones básicas de un repositorio.
@@ -23,6 +24,21 @@ public interface Repository<T> {
     */
    List<T> obtenerTodos();
 
+   /*
+    * Obtiene hasta `cantidad` entidades en el orden del repositorio, a continuación de la entidad
+    * con el identificador `despuesDe` (el cursor de la página anterior), o desde la primera si es null.
+    * El costo es proporcional a `cantidad`, no al número de entidades.
+    */
+   Pagina<T> obtenerPagina(String despuesDe, int cantidad);
+
+   /*
+    * Obtiene hasta `cantidad` entidades a partir de la posición `desde` en el orden indicado por la
+    * clave `orden` (null para el orden del repositorio) y la dirección `descendente`. Si `claves` no
+    * es null, la consulta incluye solo las entidades con esos identificadores. El total de la página
+    * es el de toda la consulta, para que una tabla sepa cuántas filas tiene sin leerlas.
+    */
+   Pagina<T> obtenerPagina(Orden<T> orden, boolean descendente, Set<String> claves, int desde, int cantidad);
+
    /*
     * Busca una entidad en el repositorio por su identificador único.
     */
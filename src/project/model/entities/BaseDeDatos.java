@@ -8,8 +8,18 @@ import java.util.List;
  * La clase `BaseDeDatos` actúa como un contenedor central para todas las listas
  * de entidades principales del sistema, como usuarios, repartidores, pedidos, clientes
  * e historial de entregas. Facilita la gestión y el acceso a los datos en memoria.
+ * También guarda el resumen diario que el almacén mantiene a partir de pedidos e historial.
  */
 public class BaseDeDatos {
+   /*
+    * Versión actual del formato del archivo. La versión 2 guarda las relaciones entre
+    * pedidos, clientes, repartidores e historial como cédulas e IDs en lugar de copias embebidas.
+    */
+   public static final int VERSION_FORMATO = 2;
+   /*
+    * Versión del formato con el que se leyó o escribió el archivo; null si el archivo es anterior a la versión 2.
+    */
+   private Integer version;
    /*
     * Lista de objetos `Usuario` registrados en el sistema.
     */
@@ -30,6 +40,11 @@ public class BaseDeDatos {
     * Lista de objetos `HistorialDeEntrega` que registran entregas pasadas.
     */
    private List<HistorialDeEntrega> historial;
+   /*
+    * Lista de objetos `ResumenDiario`, uno por día y ordenados por fecha. Es null si el archivo
+    * no incluía la sección, en cuyo caso el almacén lo calcula a partir de pedidos e historial.
+    */
+   private List<ResumenDiario> resumenDiario;
    
    /*
     * Constructor de la clase `BaseDeDatos`.
@@ -44,6 +59,20 @@ public class BaseDeDatos {
       this.historial = new ArrayList<>();
    }
    
+   /*
+    * Obtiene la versión del formato del archivo, o null si el archivo no la indicaba.
+    */
+   public Integer getVersion() {
+      return version;
+   }
+
+   /*
+    * Establece la versión del formato del archivo.
+    */
+   public void setVersion(Integer version) {
+      this.version = version;
+   }
+
    /*
     * Obtiene la lista de usuarios.
     */
@@ -113,4 +142,18 @@ public class BaseDeDatos {
    public void setHistorial(List<HistorialDeEntrega> historial) {
       this.historial = historial;
    }
+
+   /*
+    * Obtiene la lista de resúmenes diarios, o null si no se leyó del archivo.
+    */
+   public List<ResumenDiario> getResumenDiario() {
+      return resumenDiario;
+   }
+
+   /*
+    * Establece la lista de resúmenes diarios.
+    */
+   public void setResumenDiario(List<ResumenDiario> resumenDiario) {
+      this.resumenDiario = resumenDiario;
+   }
 }
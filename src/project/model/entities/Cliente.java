@@ -18,6 +18,14 @@ public class Cliente extends Persona{
       super(nombre, numeroTelefono, cedulaIdentidad); // Llama al constructor de la clase base Persona
       this.direccion = direccion;
    }
+
+   /*
+    * Constructor de copia.
+    */
+   public Cliente(Cliente otro) {
+      super(otro);
+      this.direccion = otro.direccion;
+   }
     
    /*
     * Obtiene la dirección del cliente.
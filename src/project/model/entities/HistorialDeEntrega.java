@@ -1,18 +1,25 @@
 
 package project.model.entities;
 
+import project.util.FormatoFecha;
 import java.util.Date;
+import java.util.Objects;
 
 /*
  * Representa el historial de una entrega específica en el sistema.
  * Contiene detalles como el ID del historial, el pedido asociado, el repartidor,
  * la fecha de registro, el estado de la entrega y la ubicación.
+ * El pedido y el repartidor se persisten solo por su ID y cédula; los objetos correspondientes
+ * son referencias transitorias que el almacén resuelve al cargar la base de datos.
  */
 public class HistorialDeEntrega {
    private String idHistorial;
-   private Pedido pedidoAsociado;
-   private Repartidor repartidor;
-   private Date fechaRegistro;
+   private String idPedido;
+   private String cedulaRepartidor;
+   private transient Pedido pedidoAsociado;
+   private transient Repartidor repartidor;
+   // Fecha en milisegundos desde la época; `FormatoFecha.SIN_FECHA` si no tiene.
+   private long fechaRegistro = FormatoFecha.SIN_FECHA;
    private String estadoEntrega;
    private String ubicacionEntrega;
     
@@ -21,11 +28,25 @@ public class HistorialDeEntrega {
     */
    public HistorialDeEntrega(String idHistorial, Date fechaRegistro, String estadoEntrega, String ubicacionEntrega, Repartidor repartidor, Pedido pedidoAsociado) {
       this.idHistorial = idHistorial;
-      this.fechaRegistro = fechaRegistro;
+      setFechaRegistro(fechaRegistro);
       this.estadoEntrega = estadoEntrega;
       this.ubicacionEntrega = ubicacionEntrega;
-      this.repartidor = repartidor;
-      this.pedidoAsociado = pedidoAsociado;
+      setRepartidor(repartidor);
+      setPedidoAsociado(pedidoAsociado);
+   }
+
+   /*
+    * Constructor de copia. La copia comparte con el original el pedido y el repartidor enlazados.
+    */
+   public HistorialDeEntrega(HistorialDeEntrega otro) {
+      this.idHistorial = otro.idHistorial;
+      this.idPedido = otro.idPedido;
+      this.cedulaRepartidor = otro.cedulaRepartidor;
+      this.pedidoAsociado = otro.pedidoAsociado;
+      this.repartidor = otro.repartidor;
+      this.fechaRegistro = otro.fechaRegistro;
+      this.estadoEntrega = otro.estadoEntrega;
+      this.ubicacionEntrega = otro.ubicacionEntrega;
    }
    
    /*
@@ -50,10 +71,27 @@ public class HistorialDeEntrega {
    }
 
    /*
-    * Establece el pedido asociado a este historial de entrega.
+    * Establece el pedido asociado a este historial de entrega y actualiza el ID persistido.
     */
    public void setPedidoAsociado(Pedido pedidoAsociado) {
       this.pedidoAsociado = pedidoAsociado;
+      this.idPedido = (pedidoAsociado != null) ? pedidoAsociado.getIdPedido() : null;
+   }
+
+   /*
+    * Obtiene el ID del pedido asociado, aunque el pedido ya no exista en la base de datos.
+    */
+   public String getIdPedido() {
+      return idPedido;
+   }
+
+   /*
+    * Establece el ID del pedido asociado. Si no coincide con el pedido enlazado, este se descarta.
+    */
+   public void setIdPedido(String idPedido) {
+      this.idPedido = idPedido;
+      if (pedidoAsociado != null && !Objects.equals(pedidoAsociado.getIdPedido(), idPedido))
+         this.pedidoAsociado = null;
    }
 
    /*
@@ -64,23 +102,64 @@ public class HistorialDeEntrega {
    }
 
    /*
-    * Establece el repartidor asignado a esta entrega.
+    * Establece el repartidor asignado a esta entrega y actualiza la cédula persistida.
     */
    public void setRepartidor(Repartidor repartidor) {
       this.repartidor = repartidor;
+      this.cedulaRepartidor = (repartidor != null) ? repartidor.getCedulaIdentidad() : null;
    }
 
    /*
-    * Obtiene la fecha y hora de registro de este historial.
+    * Obtiene la cédula del repartidor de esta entrega, aunque el repartidor ya no exista en la base de datos.
+    */
+   public String getCedulaRepartidor() {
+      return cedulaRepartidor;
+   }
+
+   /*
+    * Establece la cédula del repartidor de esta entrega. Si no coincide con el repartidor enlazado, este se descarta.
+    */
+   public void setCedulaRepartidor(String cedulaRepartidor) {
+      this.cedulaRepartidor = cedulaRepartidor;
+      if (repartidor != null && !Objects.equals(repartidor.getCedulaIdentidad(), cedulaRepartidor))
+         this.repartidor = null;
+   }
+
+   /*
+    * Asocia los objetos resueltos a partir del ID y la cédula persistidos, sin modificarlos.
+    * Lo utiliza el almacén de datos después de cargar o modificar la base de datos.
+    */
+   public void vincularReferencias(Pedido pedidoAsociado, Repartidor repartidor) {
+      this.pedidoAsociado = pedidoAsociado;
+      this.repartidor = repartidor;
+   }
+
+   /*
+    * Obtiene la fecha y hora de registro de este historial, o null si no tiene.
+    * Retorna una copia; para cálculos use `getFechaRegistroMs`, que no crea objetos.
     */
    public Date getFechaRegistro() {
-      return fechaRegistro;
+      return (fechaRegistro == FormatoFecha.SIN_FECHA) ? null : new Date(fechaRegistro);
    }
 
    /*
-    * Establece la fecha y hora de registro de este historial.
+    * Establece la fecha y hora de registro de este historial. Null indica que no tiene.
     */
    public void setFechaRegistro(Date fechaRegistro) {
+      this.fechaRegistro = (fechaRegistro == null) ? FormatoFecha.SIN_FECHA : fechaRegistro.getTime();
+   }
+
+   /*
+    * Obtiene la fecha y hora de registro de este historial en milisegundos desde la época, o `FormatoFecha.SIN_FECHA` si no tiene.
+    */
+   public long getFechaRegistroMs() {
+      return fechaRegistro;
+   }
+
+   /*
+    * Establece la fecha y hora de registro de este historial en milisegundos desde la época (`FormatoFecha.SIN_FECHA` si no tiene).
+    */
+   public void setFechaRegistroMs(long fechaRegistro) {
       this.fechaRegistro = fechaRegistro;
    }
 
@@ -3,7 +3,9 @@ package project.model.entities;
 
 import project.model.enums.Combo;
 import project.model.enums.MetodoDePago;
+import project.util.FormatoFecha;
 import java.util.Date;
+import java.util.Objects;
 import java.util.List;
 import java.util.ArrayList; // Importar ArrayList para inicializar historialEntregas
 
@@ -12,11 +14,15 @@ import java.util.ArrayList; // Importar ArrayList para inicializar historialEntr
  * Contiene toda la información relevante de un pedido, incluyendo el cliente,
  * el repartidor asignado, los detalles del combo, método de pago, costos, estado,
  * fechas y un historial de entregas.
+ * El cliente y el repartidor se persisten solo por su cédula; los objetos correspondientes
+ * son referencias transitorias que el almacén resuelve al cargar la base de datos.
  */
 public class Pedido {
    private String idPedido;
-   private Cliente cliente;
-   private Repartidor repartidorAsignado;
+   private String cedulaCliente;
+   private String cedulaRepartidor;
+   private transient Cliente cliente;
+   private transient Repartidor repartidorAsignado;
    private String direccionEntrega;
    private Combo combo;
    private double precioCombo;
@@ -25,8 +31,9 @@ public class Pedido {
    private double costoEntrega;
    private double vuelto;
    private String estado;
-   private Date fechaCreacion;
-   private Date fechaEntrega;
+   // Fechas en milisegundos desde la época; `FormatoFecha.SIN_FECHA` si no tiene.
+   private long fechaCreacion = FormatoFecha.SIN_FECHA;
+   private long fechaEntrega = FormatoFecha.SIN_FECHA;
    private double montoTotal;
    // transient para indicar que esta lista no debe ser serializada si se usa un ORM o persistencia similar
    private transient List<HistorialDeEntrega> historialEntregas;
@@ -36,8 +43,8 @@ public class Pedido {
     */
    public Pedido(String idPedido, Cliente cliente, Repartidor repartidorAsignado, String direccionEntrega, Combo combo, MetodoDePago metodoPago, boolean requiereCambio, double costoEntrega, double vuelto, String estado, Date fechaCreacion, Date fechaEntrega, List<HistorialDeEntrega> historialEntregas) {
       this.idPedido = idPedido;
-      this.cliente = cliente;
-      this.repartidorAsignado = repartidorAsignado;
+      setCliente(cliente);
+      setRepartidorAsignado(repartidorAsignado);
       this.direccionEntrega = direccionEntrega;
       this.combo = combo;
       this.precioCombo = combo.getPrecio(); // El precio del combo se obtiene directamente del enum
@@ -46,12 +53,36 @@ public class Pedido {
       this.costoEntrega = costoEntrega;
       this.vuelto = vuelto;
       this.estado = estado;
-      this.fechaCreacion = fechaCreacion;
-      this.fechaEntrega = fechaEntrega;
+      setFechaCreacion(fechaCreacion);
+      setFechaEntrega(fechaEntrega);
       // Inicializa la lista de historial de entregas si es nula
       this.historialEntregas = (historialEntregas != null) ? historialEntregas : new ArrayList<>();
       this.montoTotal = this.precioCombo + this.costoEntrega; // Calcula el monto total al crear el pedido
    }
+
+   /*
+    * Constructor de copia. La copia comparte con el original el cliente y el repartidor enlazados,
+    * pero tiene su propia lista de historiales.
+    */
+   public Pedido(Pedido otro) {
+      this.idPedido = otro.idPedido;
+      this.cedulaCliente = otro.cedulaCliente;
+      this.cedulaRepartidor = otro.cedulaRepartidor;
+      this.cliente = otro.cliente;
+      this.repartidorAsignado = otro.repartidorAsignado;
+      this.direccionEntrega = otro.direccionEntrega;
+      this.combo = otro.combo;
+      this.precioCombo = otro.precioCombo;
+      this.metodoPago = otro.metodoPago;
+      this.requiereCambio = otro.requiereCambio;
+      this.costoEntrega = otro.costoEntrega;
+      this.vuelto = otro.vuelto;
+      this.estado = otro.estado;
+      this.fechaCreacion = otro.fechaCreacion;
+      this.fechaEntrega = otro.fechaEntrega;
+      this.montoTotal = otro.montoTotal;
+      this.historialEntregas = (otro.historialEntregas != null) ? new ArrayList<>(otro.historialEntregas) : new ArrayList<>();
+   }
    
    /*
     * Obtiene el identificador único del pedido.
@@ -75,10 +106,27 @@ public class Pedido {
    }
 
    /*
-    * Establece el cliente asociado a este pedido.
+    * Establece el cliente asociado a este pedido y actualiza la cédula persistida.
     */
    public void setCliente(Cliente cliente) {
       this.cliente = cliente;
+      this.cedulaCliente = (cliente != null) ? cliente.getCedulaIdentidad() : null;
+   }
+
+   /*
+    * Obtiene la cédula del cliente asociado, aunque el cliente ya no exista en la base de datos.
+    */
+   public String getCedulaCliente() {
+      return cedulaCliente;
+   }
+
+   /*
+    * Establece la cédula del cliente asociado. Si no coincide con el cliente enlazado, este se descarta.
+    */
+   public void setCedulaCliente(String cedulaCliente) {
+      this.cedulaCliente = cedulaCliente;
+      if (cliente != null && !Objects.equals(cliente.getCedulaIdentidad(), cedulaCliente))
+         this.cliente = null;
    }
 
    /*
@@ -89,10 +137,36 @@ public class Pedido {
    }
 
    /*
-    * Establece el repartidor asignado a este pedido.
+    * Establece el repartidor asignado a este pedido y actualiza la cédula persistida.
     */
    public void setRepartidorAsignado(Repartidor repartidorAsignado) {
       this.repartidorAsignado = repartidorAsignado;
+      this.cedulaRepartidor = (repartidorAsignado != null) ? repartidorAsignado.getCedulaIdentidad() : null;
+   }
+
+   /*
+    * Obtiene la cédula del repartidor asignado, o null si el pedido no tiene repartidor.
+    */
+   public String getCedulaRepartidor() {
+      return cedulaRepartidor;
+   }
+
+   /*
+    * Establece la cédula del repartidor asignado. Si no coincide con el repartidor enlazado, este se descarta.
+    */
+   public void setCedulaRepartidor(String cedulaRepartidor) {
+      this.cedulaRepartidor = cedulaRepartidor;
+      if (repartidorAsignado != null && !Objects.equals(repartidorAsignado.getCedulaIdentidad(), cedulaRepartidor))
+         this.repartidorAsignado = null;
+   }
+
+   /*
+    * Asocia los objetos resueltos a partir de las cédulas persistidas, sin modificar dichas cédulas.
+    * Lo utiliza el almacén de datos después de cargar o modificar la base de datos.
+    */
+   public void vincularReferencias(Cliente cliente, Repartidor repartidorAsignado) {
+      this.cliente = cliente;
+      this.repartidorAsignado = repartidorAsignado;
    }
 
    /*
@@ -208,16 +282,31 @@ public class Pedido {
    }
 
    /*
-    * Obtiene la fecha y hora de creación del pedido.
+    * Obtiene la fecha y hora de creación del pedido, o null si no tiene.
+    * Retorna una copia; para cálculos use `getFechaCreacionMs`, que no crea objetos.
     */
    public Date getFechaCreacion() {
-      return fechaCreacion;
+      return (fechaCreacion == FormatoFecha.SIN_FECHA) ? null : new Date(fechaCreacion);
    }
 
    /*
-    * Establece la fecha y hora de creación del pedido.
+    * Establece la fecha y hora de creación del pedido. Null indica que no tiene.
     */
    public void setFechaCreacion(Date fechaCreacion) {
+      this.fechaCreacion = (fechaCreacion == null) ? FormatoFecha.SIN_FECHA : fechaCreacion.getTime();
+   }
+
+   /*
+    * Obtiene la fecha y hora de creación del pedido en milisegundos desde la época, o `FormatoFecha.SIN_FECHA` si no tiene.
+    */
+   public long getFechaCreacionMs() {
+      return fechaCreacion;
+   }
+
+   /*
+    * Establece la fecha y hora de creación del pedido en milisegundos desde la época (`FormatoFecha.SIN_FECHA` si no tiene).
+    */
+   public void setFechaCreacionMs(long fechaCreacion) {
       this.fechaCreacion = fechaCreacion;
    }
 
@@ -229,16 +318,31 @@ public class Pedido {
    }
 
    /*
-    * Obtiene la fecha y hora de entrega del pedido.
+    * Obtiene la fecha y hora de entrega del pedido, o null si no tiene.
+    * Retorna una copia; para cálculos use `getFechaEntregaMs`, que no crea objetos.
     */
    public Date getFechaEntrega() {
-      return fechaEntrega;
+      return (fechaEntrega == FormatoFecha.SIN_FECHA) ? null : new Date(fechaEntrega);
    }
 
    /*
-    * Establece la fecha y hora de entrega del pedido.
+    * Establece la fecha y hora de entrega del pedido. Null indica que no tiene.
     */
    public void setFechaEntrega(Date fechaEntrega) {
+      this.fechaEntrega = (fechaEntrega == null) ? FormatoFecha.SIN_FECHA : fechaEntrega.getTime();
+   }
+
+   /*
+    * Obtiene la fecha y hora de entrega del pedido en milisegundos desde la época, o `FormatoFecha.SIN_FECHA` si no tiene.
+    */
+   public long getFechaEntregaMs() {
+      return fechaEntrega;
+   }
+
+   /*
+    * Establece la fecha y hora de entrega del pedido en milisegundos desde la época (`FormatoFecha.SIN_FECHA` si no tiene).
+    */
+   public void setFechaEntregaMs(long fechaEntrega) {
       this.fechaEntrega = fechaEntrega;
    }
    
@@ -275,10 +379,10 @@ public class Pedido {
    }
 
    /*
-    * Asigna un repartidor a este pedido.
+    * Asigna un repartidor a este pedido; igual que `setRepartidorAsignado`, actualiza también su cédula.
     */
    public void asignarRepartidor(Repartidor repartidorAsignado) {
-      this.repartidorAsignado = repartidorAsignado;
+      setRepartidorAsignado(repartidorAsignado);
    }
 
    /*
@@ -1,6 +1,7 @@
 package project.model.entities;
 
 import project.model.base.Persona;
+import project.util.Registro;
 
 /*
  * La clase `Repartidor` extiende de `Persona` y representa a un repartidor en el sistema.
@@ -8,6 +9,8 @@ import project.model.base.Persona;
  * como la actualización de datos y la consulta de historial/pedidos.
  */
 public class Repartidor extends Persona{
+   private static final Registro REGISTRO = Registro.para(Repartidor.class);
+
    /*
     * Indica la disponibilidad del repartidor (true si está disponible, false si está ocupado).
     */
@@ -28,6 +31,15 @@ public class Repartidor extends Persona{
       this.contrasena = contrasena;
    }
 
+   /*
+    * Constructor de copia.
+    */
+   public Repartidor(Repartidor otro) {
+      super(otro);
+      this.disponibilidad = otro.disponibilidad;
+      this.contrasena = otro.contrasena;
+   }
+
    /*
     * Obtiene el estado de disponibilidad del repartidor.
     */
@@ -70,7 +82,7 @@ public class Repartidor extends Persona{
     * Actualmente solo imprime un mensaje en la consola.
     */
    public void consultarHistorialPersonal() {
-      System.out.println("Consultando historial de entregas de " + getNombre());
+      REGISTRO.depurar(() -> "Consultando historial de entregas de " + getNombre());
    }
 
    /*
@@ -78,7 +90,7 @@ public class Repartidor extends Persona{
     * Actualmente solo imprime un mensaje en la consola.
     */
    public void consultarPedidosAsignados() {
-      System.out.println("Consultando pedidos asignados a " + getNombre());
+      REGISTRO.depurar(() -> "Consultando pedidos asignados a " + getNombre());
    }
    
    /*
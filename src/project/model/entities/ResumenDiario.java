@@ -0,0 +1,261 @@
+package project.model.entities;
+
+import project.model.enums.Combo;
+import project.model.enums.MetodoDePago;
+import project.model.estadisticas.HistogramaDeMinutos;
+import project.util.FormatoFecha;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Representa el resumen de la actividad de un día: pedidos creados (en total, por combo y por
+ * método de pago), entregas y cancelaciones registradas en el historial, y la suma y cantidad de
+ * los tiempos de entrega, con su histograma para obtener percentiles. El almacén mantiene un
+ * resumen por día que se actualiza con cada cambio de pedidos e historial y se guarda en la
+ * sección "resumenDiario" del archivo, de modo que las estadísticas se leen de aquí sin recorrer
+ * los registros originales.
+ * Los pedidos se cuentan en el día de su creación; las entregas y cancelaciones, en el día en que
+ * se registraron en el historial.
+ */
+public class ResumenDiario {
+   /*
+    * Minutos máximos entre la creación del pedido y su entrega para considerarla a tiempo.
+    */
+   public static final long UMBRAL_A_TIEMPO_MINUTOS = 60;
+
+   private String fecha;
+   // Día (días desde el 01/01/1970) correspondiente a `fecha`; se calcula al leer el archivo.
+   private transient long dia = FormatoFecha.SIN_FECHA;
+   private int pedidosCreados;
+   private int pedidosEntregados;
+   private int pedidosCancelados;
+   // Entregas con pedido y fechas válidas, cuyo tiempo de entrega se mide.
+   private int entregasMedidas;
+   private int entregasATiempo;
+   private long minutosEntrega;
+   private HistogramaDeMinutos histogramaMinutos = new HistogramaDeMinutos();
+   private Map<String, Integer> pedidosPorCombo = new LinkedHashMap<>();
+   private Map<String, Integer> pedidosPorMetodoPago = new LinkedHashMap<>();
+
+   /*
+    * Constructor para crear el resumen vacío de un día (días desde el 01/01/1970).
+    * Con `FormatoFecha.SIN_FECHA` crea un resumen sin día, útil para acumular totales.
+    */
+   public ResumenDiario(long dia) {
+      this.dia = dia;
+      this.fecha = (dia == FormatoFecha.SIN_FECHA) ? null : FormatoFecha.etiquetaDia(dia);
+   }
+
+   /*
+    * Constructor con todos los valores, usado al leer la instantánea binaria.
+    */
+   public ResumenDiario(long dia, int pedidosCreados, int pedidosEntregados, int pedidosCancelados, int entregasMedidas,
+         int entregasATiempo, long minutosEntrega, HistogramaDeMinutos histogramaMinutos, Map<String, Integer> pedidosPorCombo,
+         Map<String, Integer> pedidosPorMetodoPago) {
+      this(dia);
+      this.pedidosCreados = pedidosCreados;
+      this.pedidosEntregados = pedidosEntregados;
+      this.pedidosCancelados = pedidosCancelados;
+      this.entregasMedidas = entregasMedidas;
+      this.entregasATiempo = entregasATiempo;
+      this.minutosEntrega = minutosEntrega;
+      this.histogramaMinutos = histogramaMinutos;
+      this.pedidosPorCombo.putAll(pedidosPorCombo);
+      this.pedidosPorMetodoPago.putAll(pedidosPorMetodoPago);
+   }
+
+   /*
+    * Constructor sin argumentos usado por Gson al leer el archivo.
+    */
+   private ResumenDiario() {
+   }
+
+   /*
+    * Constructor de copia.
+    */
+   public ResumenDiario(ResumenDiario otro) {
+      this(otro.getDia());
+      sumar(otro);
+   }
+
+   /*
+    * Obtiene la fecha del resumen con formato "dd/MM/yyyy".
+    */
+   public String getFecha() {
+      return fecha;
+   }
+
+   /*
+    * Obtiene el día del resumen (días desde el 01/01/1970), o `FormatoFecha.SIN_FECHA` si no tiene.
+    */
+   public long getDia() {
+      if (dia == FormatoFecha.SIN_FECHA && fecha != null)
+         dia = FormatoFecha.analizarDia(fecha);
+      return dia;
+   }
+
+   /*
+    * Obtiene el número de pedidos creados en el día.
+    */
+   public int getPedidosCreados() {
+      return pedidosCreados;
+   }
+
+   /*
+    * Obtiene el número de entregas registradas en el día.
+    */
+   public int getPedidosEntregados() {
+      return pedidosEntregados;
+   }
+
+   /*
+    * Obtiene el número de cancelaciones registradas en el día.
+    */
+   public int getPedidosCancelados() {
+      return pedidosCancelados;
+   }
+
+   /*
+    * Obtiene el número de entregas del día cuyo tiempo de entrega se conoce.
+    */
+   public int getEntregasMedidas() {
+      return entregasMedidas;
+   }
+
+   /*
+    * Obtiene el número de entregas del día realizadas dentro de `UMBRAL_A_TIEMPO_MINUTOS`.
+    */
+   public int getEntregasATiempo() {
+      return entregasATiempo;
+   }
+
+   /*
+    * Obtiene la suma, en minutos, de los tiempos de entrega medidos en el día.
+    */
+   public long getMinutosEntrega() {
+      return minutosEntrega;
+   }
+
+   /*
+    * Obtiene el tiempo promedio de entrega en minutos, o 0 si no hay entregas medidas.
+    */
+   public double getPromedioMinutosEntrega() {
+      return (entregasMedidas == 0) ? 0.0 : (double) minutosEntrega / entregasMedidas;
+   }
+
+   /*
+    * Obtiene el tiempo de entrega, en minutos, del percentil indicado (por ejemplo, 90 para el p90),
+    * con el error de `HistogramaDeMinutos`; 0 si no hay entregas medidas.
+    */
+   public long getPercentilMinutosEntrega(double percentil) {
+      return (histogramaMinutos == null) ? 0 : histogramaMinutos.percentil(percentil);
+   }
+
+   /*
+    * Obtiene una copia del histograma de los tiempos de entrega medidos.
+    */
+   public HistogramaDeMinutos getHistogramaMinutos() {
+      HistogramaDeMinutos copia = new HistogramaDeMinutos();
+      if (histogramaMinutos != null)
+         copia.sumar(histogramaMinutos);
+      return copia;
+   }
+
+   /*
+    * Obtiene el porcentaje de entregas medidas que se realizaron a tiempo, o 0 si no hay ninguna.
+    */
+   public double getPorcentajeATiempo() {
+      return (entregasMedidas == 0) ? 0.0 : (double) entregasATiempo / entregasMedidas * 100.0;
+   }
+
+   /*
+    * Obtiene el número de pedidos creados en el día por cada combo, por el nombre de su constante.
+    */
+   public Map<String, Integer> getPedidosPorCombo() {
+      return Collections.unmodifiableMap(pedidosPorCombo);
+   }
+
+   /*
+    * Obtiene el número de pedidos creados en el día por cada método de pago, por el nombre de su constante.
+    */
+   public Map<String, Integer> getPedidosPorMetodoPago() {
+      return Collections.unmodifiableMap(pedidosPorMetodoPago);
+   }
+
+   /*
+    * Suma (`signo` = 1) o resta (`signo` = -1) un pedido creado con el combo y método de pago indicados.
+    */
+   public void registrarPedido(Combo combo, MetodoDePago metodoPago, int signo) {
+      pedidosCreados += signo;
+      if (combo != null)
+         contar(pedidosPorCombo, combo.name(), signo);
+      if (metodoPago != null)
+         contar(pedidosPorMetodoPago, metodoPago.name(), signo);
+   }
+
+   /*
+    * Suma (`signo` = 1) o resta (`signo` = -1) una entrega. Si `medida` es true, también su tiempo
+    * de entrega en minutos.
+    */
+   public void registrarEntrega(boolean medida, long minutos, int signo) {
+      pedidosEntregados += signo;
+      if (medida) {
+         entregasMedidas += signo;
+         minutosEntrega += signo * minutos;
+         histogramaMinutos.registrar(minutos, signo);
+         if (minutos <= UMBRAL_A_TIEMPO_MINUTOS)
+            entregasATiempo += signo;
+      }
+   }
+
+   /*
+    * Suma (`signo` = 1) o resta (`signo` = -1) una cancelación.
+    */
+   public void registrarCancelacion(int signo) {
+      pedidosCancelados += signo;
+   }
+
+   /*
+    * Suma a este resumen los valores de otro, por ejemplo para agrupar varios días.
+    */
+   public void sumar(ResumenDiario otro) {
+      pedidosCreados += otro.pedidosCreados;
+      pedidosEntregados += otro.pedidosEntregados;
+      pedidosCancelados += otro.pedidosCancelados;
+      entregasMedidas += otro.entregasMedidas;
+      entregasATiempo += otro.entregasATiempo;
+      minutosEntrega += otro.minutosEntrega;
+      if (otro.histogramaMinutos != null)
+         histogramaMinutos.sumar(otro.histogramaMinutos);
+      if (otro.pedidosPorCombo != null)
+         otro.pedidosPorCombo.forEach((clave, cantidad) -> contar(pedidosPorCombo, clave, cantidad));
+      if (otro.pedidosPorMetodoPago != null)
+         otro.pedidosPorMetodoPago.forEach((clave, cantidad) -> contar(pedidosPorMetodoPago, clave, cantidad));
+   }
+
+   /*
+    * Indica si el resumen no tiene ningún pedido, entrega ni cancelación.
+    */
+   public boolean estaVacio() {
+      return pedidosCreados == 0 && pedidosEntregados == 0 && pedidosCancelados == 0;
+   }
+
+   /*
+    * Obtiene el tiempo de entrega en minutos de un historial (desde la creación del pedido hasta el
+    * registro de la entrega), o -1 si no puede medirse porque falta el pedido o alguna fecha.
+    */
+   public static long minutosDeEntrega(HistorialDeEntrega historial) {
+      Pedido pedido = historial.getPedidoAsociado();
+      if (pedido == null || pedido.getFechaCreacionMs() == FormatoFecha.SIN_FECHA || historial.getFechaRegistroMs() == FormatoFecha.SIN_FECHA)
+         return -1;
+      return Math.abs(historial.getFechaRegistroMs() - pedido.getFechaCreacionMs()) / (60L * 1000);
+   }
+
+   /*
+    * Suma `cantidad` al contador de `clave`, quitándolo si llega a cero.
+    */
+   private static void contar(Map<String, Integer> contadores, String clave, int cantidad) {
+      contadores.merge(clave, cantidad, (a, b) -> (a + b == 0) ? null : a + b);
+   }
+}
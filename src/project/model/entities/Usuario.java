@@ -19,6 +19,21 @@ public class Usuario {
     */
    private String rol;
 
+   /*
+    * Constructor de un usuario sin datos.
+    */
+   public Usuario() {
+   }
+
+   /*
+    * Constructor de copia.
+    */
+   public Usuario(Usuario otro) {
+      this.cedula = otro.cedula;
+      this.contrasena = otro.contrasena;
+      this.rol = otro.rol;
+   }
+
    /*
     * Obtiene la cédula de identidad del usuario.
     */
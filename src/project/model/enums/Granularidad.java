@@ -0,0 +1,63 @@
+package project.model.enums;
+
+import project.util.FormatoFecha;
+import java.time.LocalDate;
+
+/*
+ * Enumeración que define el tamaño de los periodos en que se agrupan las estadísticas.
+ * Cada granularidad tiene un nombre descriptivo asociado.
+ */
+public enum Granularidad {
+   // Una posición por cada hora con actividad.
+   HORA("Hora"),
+   // Una posición por cada día con actividad.
+   DIA("Día"),
+   // Una posición por cada semana (de lunes a domingo) con actividad.
+   SEMANA("Semana"),
+   // Una posición por cada mes con actividad.
+   MES("Mes");
+
+   // Campo para almacenar el nombre descriptivo de la granularidad.
+   private final String nombre;
+
+   /*
+    * Constructor para inicializar un elemento de la enumeración Granularidad.
+    */
+   Granularidad(String nombre) {
+      this.nombre = nombre;
+   }
+
+   /*
+    * Obtiene el primer día (días desde el 01/01/1970) del periodo al que pertenece `dia`.
+    * Con `HORA` y `DIA` el periodo empieza el mismo día.
+    */
+   public long inicioDelPeriodo(long dia) {
+      switch (this) {
+         case SEMANA:
+            // El 01/01/1970 fue jueves: se retrocede hasta el lunes anterior.
+            return dia - Math.floorMod(dia + 3, 7);
+         case MES:
+            return LocalDate.ofEpochDay(dia).withDayOfMonth(1).toEpochDay();
+         default:
+            return dia;
+      }
+   }
+
+   /*
+    * Obtiene la etiqueta del periodo que empieza en `inicio`: "dd/MM/yyyy" para días, horas y
+    * semanas (el lunes de la semana) y "MM/yyyy" para meses.
+    */
+   public String etiquetaDelPeriodo(long inicio) {
+      String etiqueta = FormatoFecha.etiquetaDia(inicio);
+      return (this == MES) ? etiqueta.substring(3) : etiqueta;
+   }
+
+   /*
+    * Sobrescribe el método toString() para proporcionar una representación legible
+    * de la granularidad, mostrando su nombre.
+    */
+   @Override
+   public String toString() {
+      return nombre;
+   }
+}
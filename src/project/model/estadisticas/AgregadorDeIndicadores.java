@@ -0,0 +1,220 @@
+package project.model.estadisticas;
+
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.data.Mutacion;
+import project.data.OyenteDeMutaciones;
+import project.model.entities.BaseDeDatos;
+import project.model.entities.HistorialDeEntrega;
+import project.model.entities.Pedido;
+import project.model.entities.Repartidor;
+import project.model.entities.ResumenDiario;
+import project.util.FormatoFecha;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * La clase `AgregadorDeIndicadores` mantiene los indicadores de las tarjetas del panel de
+ * administración (entregas de hoy, porcentaje de entregas a tiempo, tiempo promedio de entrega,
+ * pedidos en curso y repartidores disponibles) sin recorrer las colecciones. Los indicadores de
+ * entregas se leen del resumen diario del almacén; los pedidos en curso y los repartidores
+ * disponibles se mantienen como conjuntos que se actualizan con cada mutación. También mantiene el
+ * `RankingDeRepartidores` (entregas, OTD% e histograma de tiempos de cada repartidor), guardando el
+ * aporte de cada historial para restarlo cuando cambia o se elimina. Así, consultar los indicadores
+ * cuesta O(1) sin importar el tamaño del historial. Los métodos son seguros entre hilos.
+ */
+public final class AgregadorDeIndicadores implements OyenteDeMutaciones {
+
+   /*
+    * Contenedor perezoso y seguro entre hilos para la instancia única del agregador.
+    */
+   private static class Contenedor {
+      private static final AgregadorDeIndicadores INSTANCIA = crear();
+   }
+
+   /*
+    * Aporte de un historial de entrega al ranking de repartidores.
+    */
+   private static final class AporteEntrega {
+      final String cedulaRepartidor;
+      final boolean entregado;
+      final long minutos;
+
+      AporteEntrega(String cedulaRepartidor, boolean entregado, long minutos) {
+         this.cedulaRepartidor = cedulaRepartidor;
+         this.entregado = entregado;
+         this.minutos = minutos;
+      }
+   }
+
+   private final AlmacenDeDatos almacen = AlmacenDeDatos.getInstancia();
+   // Protegidos por el monitor de esta instancia.
+   private final Set<String> pedidosEnCurso = new HashSet<>();
+   private final Set<String> repartidoresDisponibles = new HashSet<>();
+   private final Map<String, AporteEntrega> aportesEntrega = new HashMap<>();
+   private final RankingDeRepartidores ranking = new RankingDeRepartidores();
+
+   /*
+    * Constructor privado; la instancia compartida se obtiene con `getInstancia`.
+    */
+   private AgregadorDeIndicadores() {
+   }
+
+   /*
+    * Obtiene la instancia compartida del agregador, registrada como oyente del almacén.
+    */
+   public static AgregadorDeIndicadores getInstancia() {
+      return Contenedor.INSTANCIA;
+   }
+
+   /*
+    * Crea el agregador y lo registra en el almacén, que le entrega la base de datos inicial.
+    */
+   private static AgregadorDeIndicadores crear() {
+      AgregadorDeIndicadores agregador = new AgregadorDeIndicadores();
+      AlmacenDeDatos.getInstancia().agregarOyente(agregador);
+      return agregador;
+   }
+
+   /*
+    * Obtiene el número de entregas registradas en el día actual.
+    * Los indicadores de entregas consultan el almacén, por lo que no toman el monitor de la
+    * instancia: el almacén lo necesita mientras notifica una mutación.
+    */
+   public int getEntregasHoy() {
+      return almacen.obtenerResumenDelDia(FormatoFecha.diaEpoca(System.currentTimeMillis())).getPedidosEntregados();
+   }
+
+   /*
+    * Obtiene el porcentaje de entregas completadas dentro de `ResumenDiario.UMBRAL_A_TIEMPO_MINUTOS`.
+    */
+   public double getPorcentajeATiempo() {
+      return almacen.obtenerResumenTotal().getPorcentajeATiempo();
+   }
+
+   /*
+    * Obtiene el tiempo promedio, en minutos, entre la creación de un pedido y su entrega.
+    */
+   public double getTiempoPromedioEntrega() {
+      return almacen.obtenerResumenTotal().getPromedioMinutosEntrega();
+   }
+
+   /*
+    * Obtiene el tiempo de entrega, en minutos, del percentil indicado (50 para la mediana, 90 para
+    * el p90, etc.) entre todas las entregas.
+    */
+   public long getPercentilTiempoEntrega(double percentil) {
+      return almacen.obtenerResumenTotal().getPercentilMinutosEntrega(percentil);
+   }
+
+   /*
+    * Obtiene el tiempo de entrega, en minutos, del percentil indicado entre las entregas del
+    * repartidor con la cédula indicada; 0 si no tiene entregas medidas.
+    */
+   public synchronized long getPercentilTiempoEntrega(String cedulaRepartidor, double percentil) {
+      return ranking.percentil(cedulaRepartidor, percentil);
+   }
+
+   /*
+    * Obtiene los `n` mejores repartidores por porcentaje de entregas a tiempo y, a igualdad, por
+    * número de entregas.
+    */
+   public synchronized List<RankingDeRepartidores.Posicion> getTopRepartidores(int n) {
+      return ranking.primeros(n);
+   }
+
+   /*
+    * Obtiene el número de pedidos en estado "Pendiente" o "En Camino".
+    */
+   public synchronized int getPedidosEnCurso() {
+      return pedidosEnCurso.size();
+   }
+
+   /*
+    * Obtiene el número de repartidores disponibles.
+    */
+   public synchronized int getRepartidoresDisponibles() {
+      return repartidoresDisponibles.size();
+   }
+
+   @Override
+   public synchronized void alCargar(BaseDeDatos baseDeDatos) {
+      pedidosEnCurso.clear();
+      repartidoresDisponibles.clear();
+      aportesEntrega.clear();
+      ranking.limpiar();
+      for (Repartidor repartidor : baseDeDatos.getRepartidor())
+         actualizarRepartidor(repartidor.getCedulaIdentidad(), repartidor);
+      for (Pedido pedido : baseDeDatos.getPedido())
+         actualizarPedido(pedido.getIdPedido(), pedido);
+      for (HistorialDeEntrega historial : baseDeDatos.getHistorial())
+         actualizarEntrega(historial.getIdHistorial(), historial);
+   }
+
+   @Override
+   public synchronized void alAplicar(Mutacion mutacion) {
+      Object entidad = mutacion.getEntidad();
+      if (mutacion.getColeccion() == Coleccion.HISTORIAL)
+         actualizarEntrega(mutacion.getId(), (HistorialDeEntrega) entidad);
+      else if (mutacion.getColeccion() == Coleccion.PEDIDOS)
+         actualizarPedido(mutacion.getId(), (Pedido) entidad);
+      else if (mutacion.getColeccion() == Coleccion.REPARTIDORES)
+         actualizarRepartidor(mutacion.getId(), (Repartidor) entidad);
+   }
+
+   /*
+    * Reemplaza el aporte de un historial por el de su estado actual, o lo retira si `historial` es
+    * null. Solo aportan los historiales con repartidor, pedido y ambas fechas; cuentan en el total
+    * del repartidor con cualquier estado, y en el OTD% y el histograma si están en "Entregado".
+    */
+   private void actualizarEntrega(String id, HistorialDeEntrega historial) {
+      if (id == null)
+         return;
+      AporteEntrega anterior = aportesEntrega.remove(id);
+      if (anterior != null)
+         registrar(anterior, -1);
+      if (historial == null || historial.getCedulaRepartidor() == null)
+         return;
+      long minutos = ResumenDiario.minutosDeEntrega(historial);
+      if (minutos < 0)
+         return;
+      AporteEntrega aporte = new AporteEntrega(historial.getCedulaRepartidor(), "Entregado".equalsIgnoreCase(historial.getEstadoEntrega()), minutos);
+      aportesEntrega.put(id, aporte);
+      registrar(aporte, 1);
+   }
+
+   /*
+    * Suma o resta el aporte de una entrega al ranking de repartidores.
+    */
+   private void registrar(AporteEntrega aporte, int signo) {
+      ranking.registrarEntrega(aporte.cedulaRepartidor, aporte.entregado, aporte.minutos, signo);
+   }
+
+   /*
+    * Actualiza si un pedido está en curso, o lo retira si `pedido` es null.
+    */
+   private void actualizarPedido(String id, Pedido pedido) {
+      if (id == null)
+         return;
+      if (pedido != null && ("Pendiente".equalsIgnoreCase(pedido.getEstado()) || "En Camino".equalsIgnoreCase(pedido.getEstado())))
+         pedidosEnCurso.add(id);
+      else
+         pedidosEnCurso.remove(id);
+   }
+
+   /*
+    * Actualiza si un repartidor está disponible, o lo retira si `repartidor` es null.
+    */
+   private void actualizarRepartidor(String cedula, Repartidor repartidor) {
+      if (cedula == null)
+         return;
+      if (repartidor != null && repartidor.isDisponibilidad())
+         repartidoresDisponibles.add(cedula);
+      else
+         repartidoresDisponibles.remove(cedula);
+      ranking.registrarRepartidor(cedula, repartidor != null);
+   }
+}
@@ -0,0 +1,132 @@
+package project.model.estadisticas;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * La clase `HistogramaDeMinutos` cuenta tiempos de entrega en minutos en cubetas de tamaño
+ * logarítmico, al estilo de HdrHistogram: los valores menores que `EXACTOS` tienen una cubeta
+ * cada uno, y cada potencia de dos por encima se divide en `SUBDIVISIONES` cubetas iguales, de modo
+ * que el error relativo de un percentil es como mucho 1/`SUBDIVISIONES` (3,125 %).
+ * Los contadores admiten restas, de modo que el histograma se mantiene al cambiar o eliminar una
+ * entrega. La memoria está acotada (menos de dos mil contadores) sin importar cuántas entregas se cuenten.
+ * No es segura entre hilos.
+ */
+public final class HistogramaDeMinutos {
+   private static final int BITS_SUBDIVISION = 5;
+   private static final int SUBDIVISIONES = 1 << BITS_SUBDIVISION;
+   private static final int EXACTOS = 2 * SUBDIVISIONES;
+
+   // Contadores por cubeta; el arreglo crece justo hasta la cubeta más alta usada.
+   private int[] cuentas = new int[0];
+   private long total;
+
+   /*
+    * Constructor para crear un histograma vacío.
+    */
+   public HistogramaDeMinutos() {
+   }
+
+   /*
+    * Constructor para crear un histograma a partir de sus contadores (ver `getCuentas`).
+    */
+   public HistogramaDeMinutos(int[] cuentas) {
+      this.cuentas = cuentas.clone();
+      for (int cuenta : cuentas)
+         total += cuenta;
+   }
+
+   /*
+    * Suma `cantidad` veces un tiempo de entrega en minutos; con -1 lo resta.
+    */
+   public void registrar(long minutos, int cantidad) {
+      int cubeta = cubeta(Math.max(minutos, 0));
+      if (cubeta >= cuentas.length)
+         cuentas = Arrays.copyOf(cuentas, cubeta + 1);
+      cuentas[cubeta] += cantidad;
+      total += cantidad;
+   }
+
+   /*
+    * Suma a este histograma los contadores de otro, por ejemplo para agrupar varios días.
+    */
+   public void sumar(HistogramaDeMinutos otro) {
+      if (otro.cuentas.length > cuentas.length)
+         cuentas = Arrays.copyOf(cuentas, otro.cuentas.length);
+      for (int i = 0; i < otro.cuentas.length; i++)
+         cuentas[i] += otro.cuentas[i];
+      total += otro.total;
+   }
+
+   /*
+    * Obtiene el número de tiempos contados.
+    */
+   public long getTotal() {
+      return total;
+   }
+
+   /*
+    * Obtiene el tiempo, en minutos, por debajo del cual (o igual) está el `percentil` por ciento de
+    * los tiempos contados; por ejemplo, `percentil(90)` es el p90. Retorna el mayor valor de la
+    * cubeta correspondiente, o 0 si el histograma está vacío.
+    */
+   public long percentil(double percentil) {
+      if (total <= 0)
+         return 0;
+      long posicion = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentil, 0.0), 100.0) / 100.0 * total));
+      long acumulado = 0;
+      for (int i = 0; i < cuentas.length; i++) {
+         acumulado += cuentas[i];
+         if (acumulado >= posicion)
+            return mayorValor(i);
+      }
+      return mayorValor(cuentas.length - 1);
+   }
+
+   /*
+    * Obtiene una copia de los contadores, sin las cubetas vacías del final.
+    */
+   public int[] getCuentas() {
+      int longitud = cuentas.length;
+      while (longitud > 0 && cuentas[longitud - 1] == 0)
+         longitud--;
+      return Arrays.copyOf(cuentas, longitud);
+   }
+
+   /*
+    * Obtiene los contadores de las cubetas no vacías, en orden, con el mayor valor en minutos de
+    * cada cubeta como clave. Registrar cada clave con su cantidad reconstruye el histograma.
+    */
+   public Map<Long, Integer> getCuentasPorMinutos() {
+      Map<Long, Integer> resultado = new LinkedHashMap<>();
+      for (int i = 0; i < cuentas.length; i++) {
+         if (cuentas[i] != 0)
+            resultado.put(mayorValor(i), cuentas[i]);
+      }
+      return resultado;
+   }
+
+   /*
+    * Obtiene la cubeta de un valor no negativo.
+    */
+   private static int cubeta(long valor) {
+      if (valor < EXACTOS)
+         return (int) valor;
+      int exponente = 63 - Long.numberOfLeadingZeros(valor);
+      int subdivision = (int) (valor >>> (exponente - BITS_SUBDIVISION)) & (SUBDIVISIONES - 1);
+      return EXACTOS + (exponente - BITS_SUBDIVISION - 1) * SUBDIVISIONES + subdivision;
+   }
+
+   /*
+    * Obtiene el mayor valor que cae en una cubeta.
+    */
+   private static long mayorValor(int cubeta) {
+      if (cubeta < EXACTOS)
+         return cubeta;
+      int exponente = (cubeta - EXACTOS) / SUBDIVISIONES + BITS_SUBDIVISION + 1;
+      int subdivision = (cubeta - EXACTOS) % SUBDIVISIONES;
+      long ancho = 1L << (exponente - BITS_SUBDIVISION);
+      return (SUBDIVISIONES + subdivision) * ancho + ancho - 1;
+   }
+}
@@ -0,0 +1,176 @@
+package project.model.estadisticas;
+
+import project.model.entities.ResumenDiario;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ * La clase `RankingDeRepartidores` mantiene, por cédula, las entregas de cada repartidor (total,
+ * a tiempo e histograma de tiempos) y un `TreeSet` de los repartidores registrados ordenado por
+ * porcentaje de entregas a tiempo (descendente), número de entregas (descendente) y cédula.
+ * Cada cambio saca al repartidor del conjunto, actualiza sus contadores y lo vuelve a insertar, en
+ * O(log n); obtener los N primeros recorre solo esas N posiciones, sin ordenar a todos.
+ * No es segura entre hilos.
+ */
+public final class RankingDeRepartidores {
+   /*
+    * Contadores de un repartidor. Mientras está en `ranking` sus contadores no se modifican.
+    */
+   private static final class Contadores {
+      final String cedula;
+      boolean registrado;
+      int entregas;
+      int entregasATiempo;
+      final HistogramaDeMinutos histograma = new HistogramaDeMinutos();
+
+      Contadores(String cedula) {
+         this.cedula = cedula;
+      }
+
+      double porcentajeATiempo() {
+         return (entregas == 0) ? 0.0 : (double) entregasATiempo / entregas * 100.0;
+      }
+   }
+
+   /*
+    * Posición de un repartidor en el ranking: copia de sus contadores en el momento de la consulta.
+    */
+   public static final class Posicion {
+      private final String cedula;
+      private final int entregas;
+      private final int entregasATiempo;
+      private final double porcentajeATiempo;
+      private final HistogramaDeMinutos histograma = new HistogramaDeMinutos();
+
+      private Posicion(Contadores contadores) {
+         this.cedula = contadores.cedula;
+         this.entregas = contadores.entregas;
+         this.entregasATiempo = contadores.entregasATiempo;
+         this.porcentajeATiempo = contadores.porcentajeATiempo();
+         this.histograma.sumar(contadores.histograma);
+      }
+
+      /*
+       * Obtiene la cédula del repartidor.
+       */
+      public String getCedula() {
+         return cedula;
+      }
+
+      /*
+       * Obtiene el número de entregas registradas en el historial del repartidor.
+       */
+      public int getEntregas() {
+         return entregas;
+      }
+
+      /*
+       * Obtiene el número de entregas realizadas dentro de `ResumenDiario.UMBRAL_A_TIEMPO_MINUTOS`.
+       */
+      public int getEntregasATiempo() {
+         return entregasATiempo;
+      }
+
+      /*
+       * Obtiene el porcentaje de entregas a tiempo (OTD%).
+       */
+      public double getPorcentajeATiempo() {
+         return porcentajeATiempo;
+      }
+
+      /*
+       * Obtiene el tiempo de entrega, en minutos, del percentil indicado; 0 si no hay entregas completadas.
+       */
+      public long getPercentilMinutos(double percentil) {
+         return histograma.percentil(percentil);
+      }
+   }
+
+   // Primero el mayor OTD%, luego el mayor número de entregas; la cédula desempata.
+   private static final Comparator<Contadores> ORDEN = Comparator
+         .comparingDouble(Contadores::porcentajeATiempo).reversed()
+         .thenComparing(Comparator.comparingInt((Contadores c) -> c.entregas).reversed())
+         .thenComparing(c -> c.cedula);
+
+   private final Map<String, Contadores> porCedula = new HashMap<>();
+   private final TreeSet<Contadores> ranking = new TreeSet<>(ORDEN);
+
+   /*
+    * Quita todos los repartidores y sus entregas.
+    */
+   public void limpiar() {
+      porCedula.clear();
+      ranking.clear();
+   }
+
+   /*
+    * Registra si existe un repartidor con la cédula indicada. Solo los repartidores registrados
+    * aparecen en el ranking; las entregas de una cédula se cuentan aunque su repartidor aún no
+    * exista o se haya eliminado.
+    */
+   public void registrarRepartidor(String cedula, boolean registrado) {
+      Contadores contadores = porCedula.computeIfAbsent(cedula, Contadores::new);
+      if (contadores.registrado == registrado)
+         return;
+      if (registrado)
+         ranking.add(contadores);
+      else
+         ranking.remove(contadores);
+      contadores.registrado = registrado;
+      quitarSiVacio(contadores);
+   }
+
+   /*
+    * Suma (`signo` = 1) o resta (`signo` = -1) una entrega del repartidor con la cédula indicada.
+    * Si `entregado` es true la entrega se completó en `minutos` minutos y cuenta para el OTD% y el
+    * histograma; si no (por ejemplo, una cancelación), solo cuenta en el total.
+    */
+   public void registrarEntrega(String cedula, boolean entregado, long minutos, int signo) {
+      Contadores contadores = porCedula.computeIfAbsent(cedula, Contadores::new);
+      // Se saca del conjunto antes de cambiar los valores por los que está ordenado.
+      if (contadores.registrado)
+         ranking.remove(contadores);
+      contadores.entregas += signo;
+      if (entregado) {
+         contadores.histograma.registrar(minutos, signo);
+         if (minutos <= ResumenDiario.UMBRAL_A_TIEMPO_MINUTOS)
+            contadores.entregasATiempo += signo;
+      }
+      if (contadores.registrado)
+         ranking.add(contadores);
+      quitarSiVacio(contadores);
+   }
+
+   /*
+    * Obtiene las primeras `n` posiciones del ranking.
+    */
+   public List<Posicion> primeros(int n) {
+      List<Posicion> resultado = new ArrayList<>(Math.min(n, ranking.size()));
+      Iterator<Contadores> iterador = ranking.iterator();
+      while (resultado.size() < n && iterador.hasNext())
+         resultado.add(new Posicion(iterador.next()));
+      return resultado;
+   }
+
+   /*
+    * Obtiene el tiempo de entrega, en minutos, del percentil indicado entre las entregas del
+    * repartidor con la cédula indicada; 0 si no tiene entregas completadas.
+    */
+   public long percentil(String cedula, double percentil) {
+      Contadores contadores = porCedula.get(cedula);
+      return (contadores == null) ? 0 : contadores.histograma.percentil(percentil);
+   }
+
+   /*
+    * Olvida los contadores de una cédula sin repartidor ni entregas.
+    */
+   private void quitarSiVacio(Contadores contadores) {
+      if (!contadores.registrado && contadores.entregas == 0)
+         porCedula.remove(contadores.cedula);
+   }
+}
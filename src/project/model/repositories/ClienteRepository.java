@@ -1,24 +1,28 @@
-
 package project.model.repositories;
 
-import project.data.GestorJSON;
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.model.base.Orden;
+import project.model.base.Pagina;
 import project.model.base.Repository;
-import project.model.entities.BaseDeDatos;
 import project.model.entities.Cliente;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /*
  * Clase ClienteRepository que implementa la interfaz Repository para la entidad Cliente.
  * Gestiona las operaciones CRUD (Crear, Leer, Actualizar, Eliminar) para los objetos Cliente
- * persistiendo los datos a través de GestorJSON.
+ * sobre el almacén compartido en memoria, que se encarga de persistir los cambios.
  */
 public class ClienteRepository implements Repository<Cliente> {
+   // Almacén compartido que contiene la base de datos en memoria.
+   private final AlmacenDeDatos almacen;
 
    /*
     * Constructor predeterminado de ClienteRepository.
     */
    public ClienteRepository() {
+      this.almacen = AlmacenDeDatos.getInstancia();
    }
 
    /*
@@ -27,32 +31,8 @@ public class ClienteRepository implements Repository<Cliente> {
     */
    @Override
    public void guardar(Cliente cliente) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de clientes de la base de datos.
-      List<Cliente> clientes = bd.getCliente();
-      boolean encontrado = false;
-
-      // Itera sobre la lista de clientes para verificar si el cliente ya existe.
-      for (int i = 0; i < clientes.size(); i++) {
-         // Comprueba si el cliente actual no es nulo y si su cédula de identidad coincide.
-         if (clientes.get(i) != null && clientes.get(i).getCedulaIdentidad() != null &&
-            clientes.get(i).getCedulaIdentidad().equals(cliente.getCedulaIdentidad())) {
-            // Si se encuentra, actualiza el cliente existente.
-            clientes.set(i, cliente);
-            encontrado = true;
-            break; // Sale del bucle una vez que se encuentra y actualiza el cliente.
-         }
-      }
-
-      // Si el cliente no fue encontrado, lo añade a la lista.
-      if (!encontrado)
-         clientes.add(cliente);
-
-      // Establece la lista de clientes actualizada en la base de datos.
-      bd.setCliente(clientes);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      // Reemplaza el cliente con la misma cédula o lo añade; el almacén registra el cambio.
+      almacen.guardar(Coleccion.CLIENTES, cliente);
    }
 
    /*
@@ -60,10 +40,24 @@ public class ClienteRepository implements Repository<Cliente> {
     */
    @Override
    public List<Cliente> obtenerTodos() {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Retorna una nueva ArrayList que contiene todos los clientes de la base de datos.
-      return new ArrayList<>(bd.getCliente());
+      // Retorna una nueva ArrayList que contiene todos los clientes en memoria.
+      return almacen.obtenerTodos(Coleccion.CLIENTES);
+   }
+
+   /*
+    * Obtiene una página de clientes en el orden en que están guardados, a continuación del cursor `despuesDe`.
+    */
+   @Override
+   public Pagina<Cliente> obtenerPagina(String despuesDe, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.CLIENTES, despuesDe, cantidad);
+   }
+
+   /*
+    * Obtiene una página de clientes en el orden `orden` y la dirección indicada, a partir de la posición `desde`.
+    */
+   @Override
+   public Pagina<Cliente> obtenerPagina(Orden<Cliente> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.CLIENTES, orden, descendente, claves, desde, cantidad);
    }
 
    /*
@@ -71,11 +65,8 @@ public class ClienteRepository implements Repository<Cliente> {
     */
    @Override
    public Cliente buscarPorId(String cedula) {
-      // Obtiene todos los clientes y usa un stream para filtrar por cédula de identidad.
-      return obtenerTodos().stream()
-         .filter(c -> c != null && c.getCedulaIdentidad() != null && c.getCedulaIdentidad().equals(cedula))
-         .findFirst() // Encuentra el primer cliente que coincida.
-         .orElse(null); // Retorna null si no se encuentra ningún cliente.
+      // Retorna null si no se encuentra ningún cliente.
+      return almacen.buscar(Coleccion.CLIENTES, cedula);
    }
 
    /*
@@ -83,32 +74,15 @@ public class ClienteRepository implements Repository<Cliente> {
     */
    @Override
    public void eliminarPorId(String cedula) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de clientes de la base de datos.
-      List<Cliente> clientes = bd.getCliente();
-
       // Elimina el cliente de la lista si su cédula de identidad coincide.
-      clientes.removeIf(clienteActual -> clienteActual != null && clienteActual.getCedulaIdentidad() != null && clienteActual.getCedulaIdentidad().equals(cedula));
-
-      // Establece la lista de clientes actualizada en la base de datos.
-      bd.setCliente(clientes);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      almacen.eliminar(Coleccion.CLIENTES, cedula);
    }
-    
+
    /*
     * Elimina un cliente de la base de datos por su ID de cliente.
     */
    public boolean eliminar(String idCliente) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de clientes de la base de datos.
-      List<Cliente> clientes = bd.getCliente();
-      // Elimina el cliente de la lista si su cédula de identidad coincide.
-      boolean eliminado = clientes.removeIf(cliente -> cliente.getCedulaIdentidad().equals(idCliente));
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd); // ¡Esta línea es la clave!
-      return eliminado;
+      // Elimina el cliente de la lista si su cédula de identidad coincide y persiste el cambio.
+      return almacen.eliminar(Coleccion.CLIENTES, idCliente);
    }
 }
@@ -1,19 +1,28 @@
-
 package project.model.repositories;
 
-import project.data.GestorJSON;
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.data.IndiceSecundario;
+import project.model.base.BusDeEventos;
+import project.model.base.Orden;
+import project.model.base.Pagina;
 import project.model.base.Repository;
-import project.model.entities.BaseDeDatos;
 import project.model.entities.HistorialDeEntrega;
-import java.util.ArrayList;
+import project.util.FormatoFecha;
 import java.util.List;
+import java.util.Set;
 
 /*
  * Clase HistorialEntregaRepository que implementa la interfaz Repository para la entidad HistorialDeEntrega.
  * Gestiona las operaciones CRUD (Crear, Leer, Actualizar, Eliminar) para los objetos HistorialDeEntrega
- * persistiendo los datos a través de GestorJSON.
+ * sobre el almacén compartido en memoria, que se encarga de persistir los cambios.
+ * Los historiales nuevos se publican en el `BusDeEventos`.
  */
 public class HistorialEntregaRepository implements Repository<HistorialDeEntrega> {
+   // Almacén compartido que contiene la base de datos en memoria.
+   private final AlmacenDeDatos almacen = AlmacenDeDatos.getInstancia();
+   // Bus en el que se publican los cambios para las ventanas.
+   private final BusDeEventos eventos = BusDeEventos.getInstancia();
 
    /*
     * Guarda un historial de entrega en la base de datos. Si el historial ya existe (basado en el ID),
@@ -21,31 +30,9 @@ public class HistorialEntregaRepository implements Repository<HistorialDeEntrega
     */
    @Override
    public void guardar(HistorialDeEntrega historial) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de historiales de entrega de la base de datos.
-      List<HistorialDeEntrega> historiales = bd.getHistorial();
-      boolean encontrado = false;
-
-      // Itera sobre la lista de historiales para verificar si el historial ya existe.
-      for (int i = 0; i < historiales.size(); i++) {
-         // Comprueba si el ID del historial actual coincide con el ID del historial a guardar.
-         if (historiales.get(i).getIdHistorial().equals(historial.getIdHistorial())) {
-            // Si se encuentra, actualiza el historial existente.
-            historiales.set(i, historial);
-            encontrado = true;
-            break; // Sale del bucle una vez que se encuentra y actualiza el historial.
-         }
-      }
-
-      // Si el historial no fue encontrado, lo añade a la lista.
-      if (!encontrado) {
-         historiales.add(historial);
-      }
-      // Establece la lista de historiales actualizada en la base de datos.
-      bd.setHistorial(historiales);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      // Reemplaza el historial con el mismo ID o lo añade; el almacén registra el cambio.
+      if (almacen.guardar(Coleccion.HISTORIAL, historial).esInsercion())
+         eventos.publicar(BusDeEventos.Tipo.HISTORIAL_REGISTRADO, historial.getIdHistorial());
    }
 
    /*
@@ -53,10 +40,24 @@ public class HistorialEntregaRepository implements Repository<HistorialDeEntrega
     */
    @Override
    public List<HistorialDeEntrega> obtenerTodos() {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Retorna una nueva ArrayList que contiene todos los historiales de entrega de la base de datos.
-      return new ArrayList<>(bd.getHistorial());
+      // Retorna una nueva ArrayList que contiene todos los historiales de entrega en memoria.
+      return almacen.obtenerTodos(Coleccion.HISTORIAL);
+   }
+
+   /*
+    * Obtiene una página de historiales de entrega en el orden en que están guardados, a continuación del cursor `despuesDe`.
+    */
+   @Override
+   public Pagina<HistorialDeEntrega> obtenerPagina(String despuesDe, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.HISTORIAL, despuesDe, cantidad);
+   }
+
+   /*
+    * Obtiene una página de historiales de entrega en el orden `orden` y la dirección indicada, a partir de la posición `desde`.
+    */
+   @Override
+   public Pagina<HistorialDeEntrega> obtenerPagina(Orden<HistorialDeEntrega> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.HISTORIAL, orden, descendente, claves, desde, cantidad);
    }
 
    /*
@@ -64,8 +65,29 @@ public class HistorialEntregaRepository implements Repository<HistorialDeEntrega
     */
    @Override
    public HistorialDeEntrega buscarPorId(String id) {
-      // Obtiene todos los historiales y usa un stream para filtrar por ID.
-      return obtenerTodos().stream().filter(h -> h.getIdHistorial().equals(id)).findFirst().orElse(null);
+      return almacen.buscar(Coleccion.HISTORIAL, id);
+   }
+
+   /*
+    * Obtiene los historiales de entrega registrados por el repartidor con la cédula indicada.
+    */
+   public List<HistorialDeEntrega> buscarPorRepartidor(String cedulaRepartidor) {
+      return almacen.buscarPor(IndiceSecundario.HISTORIAL_POR_REPARTIDOR, cedulaRepartidor);
+   }
+
+   /*
+    * Obtiene los historiales de entrega asociados al pedido con el ID indicado.
+    */
+   public List<HistorialDeEntrega> buscarPorPedido(String idPedido) {
+      return almacen.buscarPor(IndiceSecundario.HISTORIAL_POR_PEDIDO, idPedido);
+   }
+
+   /*
+    * Obtiene los historiales de entrega registrados en el día indicado (días desde el 01/01/1970),
+    * usando el índice por día.
+    */
+   public List<HistorialDeEntrega> buscarPorDia(long dia) {
+      return almacen.buscarPor(IndiceSecundario.HISTORIAL_POR_DIA, FormatoFecha.etiquetaDia(dia));
    }
 
    /*
@@ -73,15 +95,7 @@ public class HistorialEntregaRepository implements Repository<HistorialDeEntrega
     */
    @Override
    public void eliminarPorId(String id) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de historiales de entrega de la base de datos.
-      List<HistorialDeEntrega> historiales = bd.getHistorial();
       // Elimina el historial de la lista si su ID coincide.
-      historiales.removeIf(h -> h.getIdHistorial().equals(id));
-      // Establece la lista de historiales actualizada en la base de datos.
-      bd.setHistorial(historiales);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      almacen.eliminar(Coleccion.HISTORIAL, id);
    }
 }
@@ -1,19 +1,34 @@
-
 package project.model.repositories;
 
-import project.data.GestorJSON;
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.data.Guardado;
+import project.data.IndiceSecundario;
+import project.model.base.BusDeEventos;
+import project.model.base.Orden;
+import project.model.base.Pagina;
 import project.model.base.Repository;
-import project.model.entities.BaseDeDatos;
 import project.model.entities.Pedido;
+import project.util.FormatoFecha;
+import project.util.Registro;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /*
  * Clase PedidoRepository que implementa la interfaz Repository para la entidad Pedido.
  * Gestiona las operaciones CRUD (Crear, Leer, Actualizar, Eliminar) para los objetos Pedido
- * persistiendo los datos a través de GestorJSON.
+ * sobre el almacén compartido en memoria, que se encarga de persistir los cambios.
+ * Al guardar publica en el `BusDeEventos` los pedidos creados y los que cambian de estado.
  */
 public class PedidoRepository implements Repository<Pedido> {
+   private static final Registro REGISTRO = Registro.para(PedidoRepository.class);
+
+   // Almacén compartido que contiene la base de datos en memoria.
+   private final AlmacenDeDatos almacen = AlmacenDeDatos.getInstancia();
+   // Bus en el que se publican los cambios para las ventanas.
+   private final BusDeEventos eventos = BusDeEventos.getInstancia();
 
    /*
     * Guarda un pedido en la base de datos. Si el pedido ya existe (basado en el ID del pedido),
@@ -21,91 +36,126 @@ public class PedidoRepository implements Repository<Pedido> {
     */
    @Override
    public void guardar(Pedido pedido) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de pedidos de la base de datos.
-      List<Pedido> pedidos = bd.getPedido();
-      boolean encontrado = false;
-
-      // Itera sobre la lista de pedidos para verificar si el pedido ya existe.
-      for (int i = 0; i < pedidos.size(); i++) {
-         // Comprueba si el ID del pedido actual coincide con el ID del pedido a guardar.
-         if (pedidos.get(i).getIdPedido().equals(pedido.getIdPedido())) {
-            // Si se encuentra, actualiza el pedido existente.
-            pedidos.set(i, pedido);
-            encontrado = true;
-            break; // Sale del bucle una vez que se encuentra y actualiza el pedido.
-         }
-      }
-      // Si el pedido no fue encontrado, lo añade a la lista.
-      if (!encontrado)
-         pedidos.add(pedido);
-      // Establece la lista de pedidos actualizada en la base de datos.
-      bd.setPedido(pedidos);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      guardarYPublicar(pedido);
    }
 
    /*
     * Actualiza un pedido existente en la base de datos.
     */
    public boolean actualizarPedido(Pedido pedido) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de pedidos de la base de datos.
-      List<Pedido> pedidos = bd.getPedido();
-      boolean encontrado = false;
-
-      // Itera sobre la lista de pedidos para verificar si el pedido ya existe.
-      for (int i = 0; i < pedidos.size(); i++) {
-         // Comprueba si el ID del pedido actual coincide con el ID del pedido a actualizar.
-         if (pedidos.get(i).getIdPedido().equals(pedido.getIdPedido())) {
-            // Si se encuentra, actualiza el pedido existente.
-            pedidos.set(i, pedido);
-            encontrado = true;
-            break; // Sale del bucle una vez que se encuentra y actualiza el pedido.
-         }
-      }
-      // Si el pedido no fue encontrado, lo añade a la lista (comportamiento de "upsert").
-      if (!encontrado) {
-         pedidos.add(pedido);
-      }
       try {
-         // Establece la lista de pedidos actualizada en la base de datos.
-         bd.setPedido(pedidos);
-         // Guarda la base de datos actualizada en el archivo JSON.
-         GestorJSON.guardarBaseDatos(bd);
+         // Actualiza el pedido en memoria (comportamiento de "upsert") y persiste el cambio.
+         guardarYPublicar(pedido);
          return true; // Retorna true si la operación fue exitosa.
       } catch (Exception e) {
          // Captura cualquier excepción durante el guardado y la imprime en la consola de errores.
-         System.err.println("Error al guardar/actualizar pedido: " + e.getMessage());
+         REGISTRO.error("Error al guardar/actualizar pedido: " + e.getMessage());
          return false; // Retorna false si hubo un error.
       }
    }
 
+   /*
+    * Modifica el pedido con el ID indicado bajo el candado del almacén, sin tocar la instancia que
+    * ya tienen otros hilos, y publica si cambió su estado. Retorna el pedido tal como quedó
+    * guardado, o null si no existe.
+    */
+   public Pedido actualizarPedido(String idPedido, Consumer<Pedido> cambio) {
+      Guardado<Pedido> guardado = almacen.actualizar(Coleccion.PEDIDOS, idPedido, cambio);
+      if (guardado == null)
+         return null;
+      publicar(guardado);
+      return guardado.getEntidad();
+   }
+
+   /*
+    * Guarda el pedido y publica si es nuevo o si su estado cambió desde la última vez que se guardó.
+    * El almacén lo informa en el mismo cambio, comparando con el estado indexado del pedido.
+    */
+   private void guardarYPublicar(Pedido pedido) {
+      publicar(almacen.guardar(Coleccion.PEDIDOS, pedido));
+   }
+
+   /*
+    * Publica el evento que corresponde al guardado de un pedido, si corresponde alguno.
+    */
+   private void publicar(Guardado<Pedido> guardado) {
+      String id = guardado.getEntidad().getIdPedido();
+      if (guardado.esInsercion())
+         eventos.publicar(BusDeEventos.Tipo.PEDIDO_CREADO, id);
+      else if (guardado.cambio(IndiceSecundario.PEDIDOS_POR_ESTADO))
+         eventos.publicar(BusDeEventos.Tipo.ESTADO_DE_PEDIDO_CAMBIADO, id);
+   }
+
    /*
     * Obtiene todos los pedidos de la base de datos.
     */
    @Override
    public List<Pedido> obtenerTodos() {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Retorna una nueva ArrayList que contiene todos los pedidos de la base de datos.
-      return new ArrayList<>(bd.getPedido());
+      // Retorna una nueva ArrayList que contiene todos los pedidos en memoria.
+      return almacen.obtenerTodos(Coleccion.PEDIDOS);
+   }
+
+   /*
+    * Obtiene una página de pedidos en el orden en que están guardados, a continuación del cursor `despuesDe`.
+    */
+   @Override
+   public Pagina<Pedido> obtenerPagina(String despuesDe, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.PEDIDOS, despuesDe, cantidad);
+   }
+
+   /*
+    * Obtiene una página de pedidos en el orden `orden` y la dirección indicada, a partir de la posición `desde`.
+    */
+   @Override
+   public Pagina<Pedido> obtenerPagina(Orden<Pedido> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.PEDIDOS, orden, descendente, claves, desde, cantidad);
    }
-   
+
    /*
     * Busca un pedido por su ID.
     */
    @Override
    public Pedido buscarPorId(String id) {
-      // Itera sobre todos los pedidos para encontrar uno con el ID coincidente.
-      for (Pedido pedidoActual : obtenerTodos()) {
-         if (pedidoActual.getIdPedido().equals(id)) {
-            return pedidoActual; // Retorna el pedido si se encuentra.
-         }
-      }
-      return null; // Retorna null si no se encuentra ningún pedido con el ID.
+      // Retorna null si no se encuentra ningún pedido con el ID.
+      return almacen.buscar(Coleccion.PEDIDOS, id);
+   }
+
+   /*
+    * Obtiene los pedidos con el estado indicado (sin distinguir mayúsculas), usando el índice por estado.
+    */
+   public List<Pedido> buscarPorEstado(String estado) {
+      return almacen.buscarPor(IndiceSecundario.PEDIDOS_POR_ESTADO, estado);
+   }
+
+   /*
+    * Obtiene los pedidos cuyo estado es cualquiera de los indicados.
+    */
+   public List<Pedido> buscarPorEstados(String... estados) {
+      List<Pedido> resultado = new ArrayList<>();
+      for (String estado : estados)
+         resultado.addAll(buscarPorEstado(estado));
+      return resultado;
+   }
+
+   /*
+    * Obtiene los pedidos asignados al repartidor con la cédula indicada.
+    */
+   public List<Pedido> buscarPorRepartidor(String cedulaRepartidor) {
+      return almacen.buscarPor(IndiceSecundario.PEDIDOS_POR_REPARTIDOR, cedulaRepartidor);
+   }
+
+   /*
+    * Obtiene los pedidos del cliente con la cédula indicada.
+    */
+   public List<Pedido> buscarPorCliente(String cedulaCliente) {
+      return almacen.buscarPor(IndiceSecundario.PEDIDOS_POR_CLIENTE, cedulaCliente);
+   }
+
+   /*
+    * Obtiene los pedidos creados en el día indicado (días desde el 01/01/1970), usando el índice por día.
+    */
+   public List<Pedido> buscarPorDia(long dia) {
+      return almacen.buscarPor(IndiceSecundario.PEDIDOS_POR_DIA, FormatoFecha.etiquetaDia(dia));
    }
 
    /*
@@ -113,31 +163,15 @@ public class PedidoRepository implements Repository<Pedido> {
     */
    @Override
    public void eliminarPorId(String id) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de pedidos de la base de datos.
-      List<Pedido> pedidos = bd.getPedido();
       // Elimina el pedido de la lista si su ID coincide.
-      pedidos.removeIf(pedidoActual -> pedidoActual.getIdPedido().equals(id));
-      // Establece la lista de pedidos actualizada en la base de datos.
-      bd.setPedido(pedidos);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      almacen.eliminar(Coleccion.PEDIDOS, id);
    }
-   
+
    /*
     * Elimina un pedido de la base de datos por su ID.
     */
    public boolean eliminar(String idPedido) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de pedidos de la base de datos.
-      List<Pedido> pedidos = bd.getPedido();
-      // Intenta eliminar el pedido de la lista si su ID coincide.
-      boolean removed = pedidos.removeIf(p -> p.getIdPedido().equals(idPedido));
-      // Si el pedido fue eliminado, guarda la base de datos actualizada.
-      if (removed)
-         GestorJSON.guardarBaseDatos(bd);
-      return removed; // Retorna true si fue eliminado, false si no se encontró.
+      // Intenta eliminar el pedido; el almacén solo registra el cambio si realmente fue eliminado.
+      return almacen.eliminar(Coleccion.PEDIDOS, idPedido);
    }
 }
@@ -1,18 +1,29 @@
 package project.model.repositories;
 
-import project.data.GestorJSON;
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.model.base.BusDeEventos;
+import project.model.base.Orden;
+import project.model.base.Pagina;
 import project.model.base.Repository;
-import project.model.entities.BaseDeDatos;
 import project.model.entities.Repartidor;
-import java.util.ArrayList;
+import project.util.Registro;
 import java.util.List;
+import java.util.Set;
 
 /*
  * Clase RepartidorRepository que implementa la interfaz Repository para la entidad Repartidor.
  * Gestiona las operaciones CRUD (Crear, Leer, Actualizar, Eliminar) para los objetos Repartidor
- * persistiendo los datos a través de GestorJSON.
+ * sobre el almacén compartido en memoria, que se encarga de persistir los cambios.
+ * Los cambios de disponibilidad se publican en el `BusDeEventos`.
  */
 public class RepartidorRepository implements Repository<Repartidor>{
+   private static final Registro REGISTRO = Registro.para(RepartidorRepository.class);
+
+   // Almacén compartido que contiene la base de datos en memoria.
+   private final AlmacenDeDatos almacen = AlmacenDeDatos.getInstancia();
+   // Bus en el que se publican los cambios para las ventanas.
+   private final BusDeEventos eventos = BusDeEventos.getInstancia();
 
    /*
     * Guarda un repartidor en la base de datos. Si el repartidor ya existe (basado en la cédula de identidad),
@@ -20,42 +31,40 @@ public class RepartidorRepository implements Repository<Repartidor>{
     */
    @Override
    public void guardar(Repartidor repartidor) {
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      List<Repartidor> repartidores = bd.getRepartidor();
-      boolean encontrado = false;
-
       // Asegurarse de que el repartidor que se intenta guardar no tenga una cédula nula
       // Esto es una validación adicional para evitar que se guarden repartidores inválidos
       if (repartidor == null || repartidor.getCedulaIdentidad() == null || repartidor.getCedulaIdentidad().trim().isEmpty()) {
-          System.err.println("ERROR: No se puede guardar un repartidor con cédula de identidad nula o vacía.");
+          REGISTRO.error("No se puede guardar un repartidor con cédula de identidad nula o vacía.");
           return; // Sale del método si el repartidor es inválido
       }
 
-      for (int i = 0; i < repartidores.size(); i++) {
-         Repartidor rActual = repartidores.get(i);
-         // Añadir una comprobación de nulidad para rActual y su cédula de identidad
-         // antes de intentar llamar a .equals()
-         if (rActual != null && rActual.getCedulaIdentidad() != null && rActual.getCedulaIdentidad().equals(repartidor.getCedulaIdentidad())) {
-            repartidores.set(i, repartidor);
-            encontrado = true;
-            break;
-         }
-      }
-      if (!encontrado)
-         repartidores.add(repartidor);
-      bd.setRepartidor(repartidores);
-      GestorJSON.guardarBaseDatos(bd);
+      // Reemplaza el repartidor con la misma cédula o lo añade; el almacén registra el cambio.
+      almacen.guardar(Coleccion.REPARTIDORES, repartidor);
    }
-   
+
    /*
     * Obtiene todos los repartidores de la base de datos.
     */
    @Override
    public List<Repartidor> obtenerTodos() {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Retorna una nueva ArrayList que contiene todos los repartidores de la base de datos.
-      return new ArrayList<>(bd.getRepartidor());
+      // Retorna una nueva ArrayList que contiene todos los repartidores en memoria.
+      return almacen.obtenerTodos(Coleccion.REPARTIDORES);
+   }
+
+   /*
+    * Obtiene una página de repartidores en el orden en que están guardados, a continuación del cursor `despuesDe`.
+    */
+   @Override
+   public Pagina<Repartidor> obtenerPagina(String despuesDe, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.REPARTIDORES, despuesDe, cantidad);
+   }
+
+   /*
+    * Obtiene una página de repartidores en el orden `orden` y la dirección indicada, a partir de la posición `desde`.
+    */
+   @Override
+   public Pagina<Repartidor> obtenerPagina(Orden<Repartidor> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.REPARTIDORES, orden, descendente, claves, desde, cantidad);
    }
 
    /*
@@ -65,12 +74,8 @@ public class RepartidorRepository implements Repository<Repartidor>{
     */
    @Override
    public Repartidor buscarPorId(String cedula) {
-      // Obtiene todos los repartidores y usa un stream para filtrar por cédula de identidad.
-      // Se añade r != null y r.getCedulaIdentidad() != null para manejar posibles valores nulos.
-      return obtenerTodos().stream()
-                           .filter(r -> r != null && r.getCedulaIdentidad() != null && r.getCedulaIdentidad().equals(cedula))
-                           .findFirst()
-                           .orElse(null);
+      // El almacén ignora entradas nulas o sin cédula al comparar claves.
+      return almacen.buscar(Coleccion.REPARTIDORES, cedula);
    }
 
    /*
@@ -78,53 +83,26 @@ public class RepartidorRepository implements Repository<Repartidor>{
     */
    @Override
    public void eliminarPorId(String cedula) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de repartidores de la base de datos.
-      List<Repartidor> repartidores = bd.getRepartidor();
       // Elimina el repartidor de la lista si su cédula de identidad coincide.
-      repartidores.removeIf(repartidorActual -> repartidorActual.getCedulaIdentidad().equals(cedula));
-      // Establece la lista de repartidores actualizada en la base de datos.
-      bd.setRepartidor(repartidores);
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
+      almacen.eliminar(Coleccion.REPARTIDORES, cedula);
    }
-   
+
    /*
     * Actualiza la disponibilidad de un repartidor específico.
     */
    public boolean actualizarDisponibilidad(String cedula, boolean nuevoEstado) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de repartidores de la base de datos.
-      List<Repartidor> repartidores = bd.getRepartidor();
-      // Itera sobre los repartidores para encontrar el que coincide con la cédula.
-      for (Repartidor r : repartidores) {
-         if (r.getCedulaIdentidad().equals(cedula)) {
-            // Actualiza el estado de disponibilidad.
-            r.setDisponibilidad(nuevoEstado);
-            // Establece la lista de repartidores actualizada en la base de datos.
-            bd.setRepartidor(repartidores);
-            // Guarda la base de datos actualizada en el archivo JSON.
-            GestorJSON.guardarBaseDatos(bd);
-            return true; // Retorna true si la actualización fue exitosa.
-         }
-      }
-      return false; // Retorna false si el repartidor no fue encontrado.
+      // Retorna false si el repartidor no fue encontrado.
+      boolean actualizado = almacen.actualizar(Coleccion.REPARTIDORES, cedula, r -> r.setDisponibilidad(nuevoEstado)) != null;
+      if (actualizado)
+         eventos.publicar(BusDeEventos.Tipo.DISPONIBILIDAD_CAMBIADA, cedula);
+      return actualizado;
    }
-   
+
    /*
     * Elimina un repartidor de la base de datos por su ID.
     */
    public boolean eliminar(String idRepartidor) {
-      // Lee la base de datos actual desde el archivo JSON.
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      // Obtiene la lista de repartidores de la base de datos.
-      List<Repartidor> repartidores = bd.getRepartidor();
-      // Elimina el repartidor de la lista si su cédula de identidad coincide.
-      boolean eliminado = repartidores.removeIf(repartidor -> repartidor != null && repartidor.getCedulaIdentidad() != null && repartidor.getCedulaIdentidad().equals(idRepartidor));
-      // Guarda la base de datos actualizada en el archivo JSON.
-      GestorJSON.guardarBaseDatos(bd);
-      return eliminado;
+      // Elimina el repartidor de la lista si su cédula de identidad coincide y persiste el cambio.
+      return almacen.eliminar(Coleccion.REPARTIDORES, idRepartidor);
    }
 }
@@ -0,0 +1,43 @@
+package project.model.repositories;
+
+import project.data.AlmacenDeDatos;
+import project.model.entities.ResumenDiario;
+import java.util.List;
+
+/*
+ * Clase ResumenDiarioRepository que da acceso de solo lectura al resumen diario de pedidos y
+ * entregas. El almacén mantiene el resumen a partir de los cambios de pedidos e historial, por lo
+ * que no hay operaciones para guardarlo ni eliminarlo.
+ */
+public class ResumenDiarioRepository {
+   // Almacén compartido que contiene la base de datos en memoria.
+   private final AlmacenDeDatos almacen = AlmacenDeDatos.getInstancia();
+
+   /*
+    * Obtiene los resúmenes de todos los días con actividad, en orden cronológico.
+    */
+   public List<ResumenDiario> obtenerTodos() {
+      return almacen.obtenerResumenDiario(Long.MIN_VALUE, Long.MAX_VALUE);
+   }
+
+   /*
+    * Obtiene los resúmenes de los días entre `desde` y `hasta` (días desde el 01/01/1970), ambos incluidos.
+    */
+   public List<ResumenDiario> obtenerEntre(long desde, long hasta) {
+      return almacen.obtenerResumenDiario(desde, hasta);
+   }
+
+   /*
+    * Obtiene el resumen de un día (días desde el 01/01/1970); vacío si no hubo actividad.
+    */
+   public ResumenDiario obtenerDelDia(long dia) {
+      return almacen.obtenerResumenDelDia(dia);
+   }
+
+   /*
+    * Obtiene el resumen acumulado de todos los días.
+    */
+   public ResumenDiario obtenerTotal() {
+      return almacen.obtenerResumenTotal();
+   }
+}
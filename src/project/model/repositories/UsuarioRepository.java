@@ -1,53 +1,49 @@
-
 package project.model.repositories;
 
-import project.data.GestorJSON;
+import project.data.AlmacenDeDatos;
+import project.data.Coleccion;
+import project.model.base.Orden;
+import project.model.base.Pagina;
 import project.model.base.Repository;
-import project.model.entities.BaseDeDatos;
 import project.model.entities.Usuario;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class UsuarioRepository implements Repository<Usuario> {
+   private final AlmacenDeDatos almacen = AlmacenDeDatos.getInstancia();
+
    @Override
    public void guardar(Usuario usuario) {
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      List<Usuario> usuarios = bd.getUsuarios();
-      boolean encontrado = false;
-      for (int i = 0; i < usuarios.size(); i++) {
-         if (usuarios.get(i).getCedula().equals(usuario.getCedula())) {
-            usuarios.set(i, usuario);
-            encontrado = true;
-            break;
-         }
-      }
-      if (!encontrado)
-         usuarios.add(usuario);
-      bd.setUsuarios(usuarios);
-      GestorJSON.guardarBaseDatos(bd);
+      almacen.guardar(Coleccion.USUARIOS, usuario);
    }
-   
+
    @Override
    public List<Usuario> obtenerTodos() {
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      return new ArrayList<>(bd.getUsuarios());
+      return almacen.obtenerTodos(Coleccion.USUARIOS);
+   }
+
+   @Override
+   public Pagina<Usuario> obtenerPagina(String despuesDe, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.USUARIOS, despuesDe, cantidad);
    }
-   
+
+   @Override
+   public Pagina<Usuario> obtenerPagina(Orden<Usuario> orden, boolean descendente, Set<String> claves, int desde, int cantidad) {
+      return almacen.obtenerPagina(Coleccion.USUARIOS, orden, descendente, claves, desde, cantidad);
+   }
+
    @Override
    public Usuario buscarPorId(String cedula) {
-      return obtenerTodos().stream().filter(u -> u.getCedula().equals(cedula)).findFirst().orElse(null);
+      return almacen.buscar(Coleccion.USUARIOS, cedula);
    }
 
    @Override
    public void eliminarPorId(String cedula) {
-      BaseDeDatos bd = GestorJSON.leerBaseDatos();
-      List<Usuario> usuarios = bd.getUsuarios();
-      usuarios.removeIf(usuarioActual -> usuarioActual.getCedula().equals(cedula));
-      bd.setUsuarios(usuarios);
-      GestorJSON.guardarBaseDatos(bd);
+      almacen.eliminar(Coleccion.USUARIOS, cedula);
    }
 
    public Usuario autenticar(String cedula, String contrasena) {
-      return obtenerTodos().stream().filter(u -> u.getCedula().equals(cedula) && u.getContrasena().equals(contrasena)).findFirst().orElse(null);
+      Usuario usuario = almacen.buscar(Coleccion.USUARIOS, cedula);
+      return (usuario != null && usuario.getContrasena().equals(contrasena)) ? usuario : null;
    }
 }
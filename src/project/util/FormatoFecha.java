@@ -0,0 +1,194 @@
+package project.util;
+
+import java.text.ParsePosition;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+
+/*
+ * Clase de utilidad para formatear y analizar las fechas de la aplicación ("dd/MM/yyyy HH:mm").
+ * Usa formateadores inmutables de `java.time`, por lo que es segura entre hilos. Las etiquetas de
+ * día ("dd/MM/yyyy") y de hora ("HH:mm") se calculan una sola vez y se guardan en tablas, de modo
+ * que formatear una fecha no crea formateadores ni objetos intermedios por cada fila de una tabla.
+ * Todas las fechas se interpretan en la zona horaria del sistema, igual que `SimpleDateFormat`.
+ */
+public final class FormatoFecha {
+   /*
+    * Texto que se muestra cuando una fecha no está disponible.
+    */
+   public static final String NO_DISPONIBLE = "N/A";
+   /*
+    * Valor de una fecha en milisegundos que indica que la fecha no está disponible.
+    */
+   public static final long SIN_FECHA = Long.MIN_VALUE;
+   /*
+    * Formato de fecha y hora de la aplicación, usado también en el archivo JSON.
+    */
+   public static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+   /*
+    * Formato de solo fecha.
+    */
+   public static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+   private static final long MILISEGUNDOS_POR_DIA = 24L * 60 * 60 * 1000;
+   private static final long MILISEGUNDOS_POR_MINUTO = 60L * 1000;
+   // Acepta días, meses, horas y minutos de uno o dos dígitos, como lo hacía `SimpleDateFormat`.
+   private static final DateTimeFormatter ANALIZADOR = new DateTimeFormatterBuilder()
+         .appendValue(ChronoField.DAY_OF_MONTH, 1, 2, SignStyle.NOT_NEGATIVE).appendLiteral('/')
+         .appendValue(ChronoField.MONTH_OF_YEAR, 1, 2, SignStyle.NOT_NEGATIVE).appendLiteral('/')
+         .appendValue(ChronoField.YEAR, 4).appendLiteral(' ')
+         .appendValue(ChronoField.HOUR_OF_DAY, 1, 2, SignStyle.NOT_NEGATIVE).appendLiteral(':')
+         .appendValue(ChronoField.MINUTE_OF_HOUR, 1, 2, SignStyle.NOT_NEGATIVE)
+         .toFormatter();
+   private static final ZoneId ZONA = ZoneId.systemDefault();
+   private static final ZoneRules REGLAS = ZONA.getRules();
+   // Desfase fijo de la zona en milisegundos, o null si la zona tiene horario de verano.
+   private static final Integer DESFASE_FIJO = REGLAS.isFixedOffset() ? REGLAS.getOffset(Instant.EPOCH).getTotalSeconds() * 1000 : null;
+
+   // Etiquetas "dd/MM/yyyy" por día desde `PRIMER_DIA`, calculadas a medida que se piden.
+   // Escribir una entrada repetida desde dos hilos es inofensivo: ambos calculan la misma cadena inmutable.
+   private static final long PRIMER_DIA = LocalDate.of(2000, 1, 1).toEpochDay();
+   private static final String[] ETIQUETAS_DIA = new String[100 * 366];
+   // Etiquetas "HH:mm" para cada minuto del día.
+   private static final String[] ETIQUETAS_HORA = new String[24 * 60];
+
+   static {
+      for (int minuto = 0; minuto < ETIQUETAS_HORA.length; minuto++)
+         ETIQUETAS_HORA[minuto] = String.format("%02d:%02d", minuto / 60, minuto % 60);
+   }
+
+   /*
+    * Clase utilitaria; no se instancia.
+    */
+   private FormatoFecha() {
+   }
+
+   /*
+    * Formatea una fecha como "dd/MM/yyyy HH:mm". Retorna "N/A" si la fecha es nula.
+    */
+   public static String fechaHora(Date fecha) {
+      return fechaHora((fecha == null) ? SIN_FECHA : fecha.getTime());
+   }
+
+   /*
+    * Formatea una fecha en milisegundos como "dd/MM/yyyy HH:mm". Retorna "N/A" si es `SIN_FECHA`.
+    */
+   public static String fechaHora(long milisegundos) {
+      if (milisegundos == SIN_FECHA)
+         return NO_DISPONIBLE;
+      long local = milisegundosLocales(milisegundos);
+      return etiquetaDia(Math.floorDiv(local, MILISEGUNDOS_POR_DIA)) + " " + ETIQUETAS_HORA[(int) (Math.floorMod(local, MILISEGUNDOS_POR_DIA) / MILISEGUNDOS_POR_MINUTO)];
+   }
+
+   /*
+    * Formatea una fecha como "dd/MM/yyyy". Retorna "N/A" si la fecha es nula.
+    */
+   public static String fecha(Date fecha) {
+      return fecha((fecha == null) ? SIN_FECHA : fecha.getTime());
+   }
+
+   /*
+    * Formatea una fecha en milisegundos como "dd/MM/yyyy". Retorna "N/A" si es `SIN_FECHA`.
+    */
+   public static String fecha(long milisegundos) {
+      return (milisegundos == SIN_FECHA) ? NO_DISPONIBLE : etiquetaDia(diaEpoca(milisegundos));
+   }
+
+   /*
+    * Formatea la hora de una fecha como "HH:mm". Retorna "N/A" si la fecha es nula.
+    */
+   public static String hora(Date fecha) {
+      return hora((fecha == null) ? SIN_FECHA : fecha.getTime());
+   }
+
+   /*
+    * Formatea la hora de una fecha en milisegundos como "HH:mm". Retorna "N/A" si es `SIN_FECHA`.
+    */
+   public static String hora(long milisegundos) {
+      if (milisegundos == SIN_FECHA)
+         return NO_DISPONIBLE;
+      return ETIQUETAS_HORA[(int) (Math.floorMod(milisegundosLocales(milisegundos), MILISEGUNDOS_POR_DIA) / MILISEGUNDOS_POR_MINUTO)];
+   }
+
+   /*
+    * Obtiene el día (días desde el 01/01/1970, en la zona del sistema) al que pertenece un instante.
+    */
+   public static long diaEpoca(long milisegundos) {
+      return Math.floorDiv(milisegundosLocales(milisegundos), MILISEGUNDOS_POR_DIA);
+   }
+
+   /*
+    * Obtiene la hora del día (0 a 23, en la zona del sistema) de un instante.
+    */
+   public static int horaDelDia(long milisegundos) {
+      return (int) (Math.floorMod(milisegundosLocales(milisegundos), MILISEGUNDOS_POR_DIA) / (60 * MILISEGUNDOS_POR_MINUTO));
+   }
+
+   /*
+    * Indica si dos fechas caen en el mismo día, ignorando la hora.
+    */
+   public static boolean mismoDia(Date fecha1, Date fecha2) {
+      if (fecha1 == null || fecha2 == null)
+         return false;
+      return diaEpoca(fecha1.getTime()) == diaEpoca(fecha2.getTime());
+   }
+
+   /*
+    * Obtiene la etiqueta "dd/MM/yyyy" de un día desde el 01/01/1970. Las etiquetas se guardan en
+    * una tabla, de modo que cada día se formatea una sola vez.
+    */
+   public static String etiquetaDia(long diaEpoca) {
+      long indice = diaEpoca - PRIMER_DIA;
+      if (indice < 0 || indice >= ETIQUETAS_DIA.length)
+         return FECHA.format(LocalDate.ofEpochDay(diaEpoca));
+      String etiqueta = ETIQUETAS_DIA[(int) indice];
+      if (etiqueta == null) {
+         etiqueta = FECHA.format(LocalDate.ofEpochDay(diaEpoca));
+         ETIQUETAS_DIA[(int) indice] = etiqueta;
+      }
+      return etiqueta;
+   }
+
+   /*
+    * Analiza un texto con formato "dd/MM/yyyy HH:mm" y retorna los milisegundos desde la época.
+    * Como `SimpleDateFormat`, admite números de un dígito, ignora el texto posterior a la fecha y,
+    * en la hora repetida al terminar el horario de verano, elige la hora estándar.
+    */
+   public static long analizarFechaHora(String texto) {
+      ParsePosition posicion = new ParsePosition(0);
+      LocalDateTime fecha = LocalDateTime.from(ANALIZADOR.parse(texto, posicion));
+      return fecha.atZone(ZONA).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+   }
+
+   /*
+    * Analiza un texto con formato "dd/MM/yyyy" y retorna el día correspondiente (días desde el 01/01/1970).
+    * Lanza `DateTimeException` si el texto no tiene ese formato.
+    */
+   public static long analizarDia(String texto) {
+      return LocalDate.parse(texto, FECHA).toEpochDay();
+   }
+
+   /*
+    * Analiza un texto con formato "dd/MM/yyyy HH:mm" y retorna la fecha correspondiente.
+    * Lanza `DateTimeException` si el texto no tiene ese formato.
+    */
+   public static Date analizarFecha(String texto) {
+      return new Date(analizarFechaHora(texto));
+   }
+
+   /*
+    * Convierte un instante en milisegundos de "hora local" (el instante más el desfase de la zona).
+    */
+   private static long milisegundosLocales(long milisegundos) {
+      if (DESFASE_FIJO != null)
+         return milisegundos + DESFASE_FIJO;
+      return milisegundos + REGLAS.getOffset(Instant.ofEpochMilli(milisegundos)).getTotalSeconds() * 1000L;
+   }
+}
@@ -0,0 +1,215 @@
+package project.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/*
+ * Clase de utilidad para el registro de mensajes de la aplicación, construida sobre `java.util.logging`.
+ * Los mensajes se encolan y un hilo de fondo los escribe en la consola, de modo que quien registra
+ * no espera a la salida estándar. Los mensajes de depuración se construyen solo si el nivel está
+ * activo (`depurar` recibe un `Supplier`), así que desactivados no cuestan nada.
+ *
+ * Los niveles se configuran con la propiedad del sistema `project.log`: una lista separada por comas
+ * con un nivel general y, opcionalmente, niveles por paquete. Por ejemplo:
+ *    -Dproject.log=DEBUG
+ *    -Dproject.log=INFO,project.data=DEBUG,project.controller=ERROR
+ * Los niveles válidos son DEBUG, INFO, ADVERTENCIA y ERROR; por defecto, INFO.
+ */
+public final class Registro {
+   /*
+    * Propiedad del sistema con la configuración de niveles.
+    */
+   public static final String PROPIEDAD_NIVELES = "project.log";
+
+   private static final String RAIZ = "project";
+   private static final Level DEPURACION = Level.FINE;
+
+   // Referencias fuertes a los registradores configurados: `java.util.logging` solo guarda
+   // referencias débiles y perdería el nivel asignado si el registrador se recolecta.
+   private static final List<Logger> CONFIGURADOS = new ArrayList<>();
+
+   static {
+      configurar();
+   }
+
+   private final Logger logger;
+
+   /*
+    * Constructor privado; las instancias se obtienen con `para`.
+    */
+   private Registro(Logger logger) {
+      this.logger = logger;
+   }
+
+   /*
+    * Obtiene el registro de una clase. Su nivel es el del paquete más específico configurado.
+    */
+   public static Registro para(Class<?> clase) {
+      return new Registro(Logger.getLogger(clase.getName()));
+   }
+
+   /*
+    * Indica si los mensajes de depuración están activos para este registro. Útil para evitar
+    * recorridos que solo sirven para depurar.
+    */
+   public boolean depuracionActiva() {
+      return logger.isLoggable(DEPURACION);
+   }
+
+   /*
+    * Registra un mensaje de depuración. El mensaje solo se construye si el nivel está activo.
+    */
+   public void depurar(Supplier<String> mensaje) {
+      logger.log(DEPURACION, mensaje);
+   }
+
+   /*
+    * Registra un mensaje informativo.
+    */
+   public void info(String mensaje) {
+      logger.log(Level.INFO, mensaje);
+   }
+
+   /*
+    * Registra una advertencia.
+    */
+   public void advertencia(String mensaje) {
+      logger.log(Level.WARNING, mensaje);
+   }
+
+   /*
+    * Registra un error.
+    */
+   public void error(String mensaje) {
+      logger.log(Level.SEVERE, mensaje);
+   }
+
+   /*
+    * Registra un error junto con la excepción que lo causó.
+    */
+   public void error(String mensaje, Throwable causa) {
+      logger.log(Level.SEVERE, mensaje, causa);
+   }
+
+   /*
+    * Instala el manejador asíncrono en el registrador raíz de la aplicación y aplica los niveles
+    * de la propiedad `project.log`.
+    */
+   private static void configurar() {
+      Logger raiz = Logger.getLogger(RAIZ);
+      raiz.setUseParentHandlers(false);
+      ManejadorAsincrono manejador = new ManejadorAsincrono();
+      manejador.setLevel(Level.ALL);
+      raiz.addHandler(manejador);
+      raiz.setLevel(Level.INFO);
+      CONFIGURADOS.add(raiz);
+      for (String entrada : System.getProperty(PROPIEDAD_NIVELES, "").split(",")) {
+         String texto = entrada.trim();
+         if (texto.isEmpty())
+            continue;
+         int igual = texto.indexOf('=');
+         Logger destino = (igual < 0) ? raiz : Logger.getLogger(texto.substring(0, igual).trim());
+         Level nivel = nivel(igual < 0 ? texto : texto.substring(igual + 1).trim());
+         if (nivel == null) {
+            System.err.println("ERROR: Nivel de registro desconocido en " + PROPIEDAD_NIVELES + ": '" + texto + "'");
+            continue;
+         }
+         destino.setLevel(nivel);
+         CONFIGURADOS.add(destino);
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(manejador::close, "registro-cierre"));
+   }
+
+   /*
+    * Convierte el nombre de un nivel de la aplicación en un nivel de `java.util.logging`.
+    */
+   private static Level nivel(String nombre) {
+      switch (nombre.toUpperCase(Locale.ROOT)) {
+         case "DEBUG":
+            return DEPURACION;
+         case "INFO":
+            return Level.INFO;
+         case "ADVERTENCIA":
+            return Level.WARNING;
+         case "ERROR":
+            return Level.SEVERE;
+         case "NINGUNO":
+            return Level.OFF;
+         default:
+            return null;
+      }
+   }
+
+   /*
+    * Manejador que entrega los mensajes a un hilo de fondo para escribirlos en la consola con el
+    * mismo formato que usaba la aplicación ("DEBUG: ...", "ERROR: ..."). Las advertencias y errores
+    * van a la salida de errores. Si la cola está llena, o el manejador ya se cerró, el mensaje se
+    * escribe directamente para no perderlo.
+    */
+   private static final class ManejadorAsincrono extends Handler {
+      private final BlockingQueue<LogRecord> cola = new ArrayBlockingQueue<>(8192);
+      private final Thread escritor;
+      private volatile boolean cerrado;
+
+      ManejadorAsincrono() {
+         escritor = new Thread(this::escribirPendientes, "registro-asincrono");
+         escritor.setDaemon(true);
+         escritor.start();
+      }
+
+      @Override
+      public void publish(LogRecord registro) {
+         if (!isLoggable(registro))
+            return;
+         if (cerrado || !cola.offer(registro))
+            escribir(registro);
+      }
+
+      @Override
+      public void flush() {
+         LogRecord registro;
+         while ((registro = cola.poll()) != null)
+            escribir(registro);
+      }
+
+      @Override
+      public void close() {
+         cerrado = true;
+         escritor.interrupt();
+         flush();
+      }
+
+      /*
+       * Bucle del hilo de fondo: escribe los mensajes a medida que llegan.
+       */
+      private void escribirPendientes() {
+         try {
+            while (!cerrado)
+               escribir(cola.take());
+         } catch (InterruptedException e) {
+            // Cierre del manejador; `close` escribe lo que quede en la cola.
+         }
+      }
+
+      /*
+       * Escribe un mensaje en la consola.
+       */
+      private static synchronized void escribir(LogRecord registro) {
+         int valor = registro.getLevel().intValue();
+         PrintStream salida = (valor >= Level.WARNING.intValue()) ? System.err : System.out;
+         String prefijo = (valor >= Level.SEVERE.intValue()) ? "ERROR" : (valor >= Level.WARNING.intValue()) ? "ADVERTENCIA" : (valor >= Level.INFO.intValue()) ? "INFO" : "DEBUG";
+         salida.println(prefijo + ": " + registro.getMessage());
+         if (registro.getThrown() != null)
+            registro.getThrown().printStackTrace(salida);
+      }
+   }
+}
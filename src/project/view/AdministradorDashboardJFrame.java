@@ -3,12 +3,17 @@ package project.view;
 
 import project.controller.AdministradorController;
 import project.controller.EstadisticasController;
+import project.controller.ModeloTablaPaginada;
+import project.model.base.BusDeEventos;
 import project.model.entities.Cliente;
 import project.model.entities.HistorialDeEntrega;
 import project.model.entities.Pedido;
 import project.model.entities.Repartidor;
 import project.model.enums.Combo;
 import project.model.enums.MetodoDePago;
+import project.util.FormatoFecha;
+import project.util.Registro;
+import project.view.components.BusquedaEnTabla;
 import project.view.components.DetalleButtonEditor;
 import project.view.components.DetalleButtonRenderer;
 import java.awt.BorderLayout;
@@ -21,8 +26,14 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.ButtonGroup;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
@@ -32,12 +43,9 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTable;
 import javax.swing.JTextField;
-import javax.swing.RowFilter;
+import javax.swing.SwingWorker;
 import javax.swing.Timer;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableModel;
 import org.jfree.chart.ChartPanel;
 
 /*
@@ -68,6 +76,35 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
     // Controlador para la lógica de negocio del administrador
     private final AdministradorController adminController;
 
+    private static final Registro REGISTRO = Registro.para(AdministradorDashboardJFrame.class);
+
+    // Hilos que generan los modelos de las tablas y ComboBoxes fuera del hilo de eventos
+    private static final ExecutorService GENERADORES = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 4)), tarea -> {
+                Thread hilo = new Thread(tarea, "panel-administracion-carga");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+
+    /*
+     * Partes del panel que genera una carga de datos; cada alcance incluye los anteriores.
+     */
+    private enum Alcance {
+        // Tarjetas KPI y top de repartidores
+        INDICADORES,
+        // Además, los ComboBoxes del formulario de pedidos
+        PANEL,
+        // Además, los modelos de las tablas
+        COMPLETA
+    }
+
+    // Carga de datos en curso, o null; solo se usa desde el hilo de eventos
+    private CargaDeDatos cargaEnCurso;
+    // Alcance de la carga que se hará al terminar la actual, o null si no hay ninguna pendiente
+    private Alcance recargaPendiente;
+    // Suscripción a los cambios publicados por los repositorios
+    private final BusDeEventos.Suscripcion suscripcionEventos;
+
     /*
      * Constructor de la clase AdministradorDashboardJFrame.
      * Inicializa los componentes de la UI y configura los eventos y datos iniciales.
@@ -95,6 +132,18 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
         initializeUIComponents();
         // Visualización inicial de datos
         visualizarDatos();
+        // Los cambios hechos desde cualquier ventana, como un pedido entregado por un repartidor,
+        // actualizan los indicadores sin esperar a que el administrador recargue el panel.
+        suscripcionEventos = BusDeEventos.getInstancia().suscribir(lote -> cargarDatos(Alcance.INDICADORES));
+    }
+
+    /*
+     * Cancela la suscripción a los cambios de los repositorios antes de cerrar la ventana.
+     */
+    @Override
+    public void dispose() {
+        suscripcionEventos.cancelar();
+        super.dispose();
     }
 
     /*
@@ -118,7 +167,6 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
         configurarPanelesNavegacion();
         configurarPlaceholders();
         integrarGraficaEstadisticas();
-        actualizarKpiCards();
     }
 
     /*
@@ -152,18 +200,14 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
     /*
      * Actualiza los valores de las tarjetas KPI (Key Performance Indicator) en el dashboard.
      */
-    private void actualizarKpiCards() {
-        int pedidosEntregadosHoy = adminController.getPedidosEntregadosHoy();
-        double otdPorcentaje = adminController.getOnTimeDeliveryPorcentaje();
-        double tiempoPromedioEntrega = adminController.getTiempoPromedioEntrega();
-        int pedidosEnCurso = adminController.getPedidosEnCurso();
-        int repartidoresDisponibles = adminController.getRepartidoresDisponiblesActivos();
-
-        jLabel45.setText(String.valueOf(pedidosEntregadosHoy));
-        jLabel46.setText(String.format("%.1f%%", otdPorcentaje));
-        jLabel47.setText(String.format("%.1f min", tiempoPromedioEntrega));
-        jLabel48.setText(String.valueOf(pedidosEnCurso));
-        jLabel49.setText(String.valueOf(repartidoresDisponibles));
+    private void actualizarKpiCards(DatosDelPanel datos) {
+        jLabel45.setText(String.valueOf(datos.pedidosEntregadosHoy));
+        jLabel46.setText(String.format("%.1f%%", datos.otdPorcentaje));
+        // El promedio oculta las entregas más lentas; los percentiles se muestran debajo.
+        jLabel47.setText(String.format("<html><center>%.1f min<br><small>p50 %d · p90 %d · p99 %d</small></center></html>", datos.tiempoPromedioEntrega, datos.p50, datos.p90, datos.p99));
+        jLabel47.setToolTipText(String.format("Tiempo de entrega: promedio %.1f min, mediana %d min, p90 %d min, p99 %d min", datos.tiempoPromedioEntrega, datos.p50, datos.p90, datos.p99));
+        jLabel48.setText(String.valueOf(datos.pedidosEnCurso));
+        jLabel49.setText(String.valueOf(datos.repartidoresDisponibles));
     }
 
     /*
@@ -205,11 +249,13 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
      * Maneja el evento de clic en el botón de detalle de una tabla.
      */
     private void handleDetalleButtonClick(JTable tabla, int row, String tipoEntidad) {
+        // La fila seleccionada es de la vista; con filtros u orden no coincide con la del modelo.
+        int fila = tabla.convertRowIndexToModel(row);
         String idEntidad;
         if ("cliente".equals(tipoEntidad) || "repartidor".equals(tipoEntidad)) {
-            idEntidad = (String) tabla.getModel().getValueAt(row, 1); 
+            idEntidad = (String) tabla.getModel().getValueAt(fila, 1); 
         } else {
-            idEntidad = (String) tabla.getModel().getValueAt(row, 0);
+            idEntidad = (String) tabla.getModel().getValueAt(fila, 0);
         }
 
         switch (tipoEntidad) {
@@ -303,49 +349,14 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
     }
 
     /*
-     * Inicializa los filtros de búsqueda para las tablas.
+     * Instala la búsqueda de cada tabla de gestión. Se invoca una sola vez: la búsqueda se vuelve a
+     * aplicar sola cuando la tabla recibe un modelo nuevo o cambian sus filas.
      */
     private void inicializarFiltros() {
-        aplicarFiltro(txtBuscarCliente, jTableClientes);
-        aplicarFiltro(txtBuscarRepartidor, jTableRepartidores);
-        aplicarFiltro(txtBuscarPedido, jTablePedidos);
-        aplicarFiltro(txtBuscarHistorial, jTableHistorialEntregas);
-    }
-
-    /*
-     * Aplica un filtro de búsqueda a una tabla basado en el texto de un campo de texto.
-     */
-    private void aplicarFiltro(JTextField campoTexto, JTable tabla) {
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>((DefaultTableModel) tabla.getModel());
-        tabla.setRowSorter(sorter);  
-        campoTexto.getDocument().addDocumentListener(new DocumentListener() {
-            @Override
-            public void insertUpdate(DocumentEvent e) {
-                filtrarTabla(campoTexto, sorter);
-            }
-            @Override
-            public void removeUpdate(DocumentEvent e) {
-                filtrarTabla(campoTexto, sorter);
-            }
-            @Override
-            public void changedUpdate(DocumentEvent e) {
-                filtrarTabla(campoTexto, sorter);
-            }
-        });
-    }
-
-    /*
-     * Realiza el filtrado de la tabla basado en el texto del campo de búsqueda.
-     */
-    private void filtrarTabla(JTextField campoTexto, TableRowSorter<DefaultTableModel> sorter) {
-        String texto = campoTexto.getText();
-        if (isPlaceholderText(texto)) {
-            sorter.setRowFilter(null);
-        } else if (texto.trim().isEmpty()) {
-            sorter.setRowFilter(null);
-        } else { 
-            sorter.setRowFilter(RowFilter.regexFilter("(?i)" + texto));
-        }
+        BusquedaEnTabla.instalar(txtBuscarCliente, jTableClientes, this::isPlaceholderText);
+        BusquedaEnTabla.instalar(txtBuscarRepartidor, jTableRepartidores, this::isPlaceholderText);
+        BusquedaEnTabla.instalar(txtBuscarPedido, jTablePedidos, this::isPlaceholderText);
+        BusquedaEnTabla.instalar(txtBuscarHistorial, jTableHistorialEntregas, this::isPlaceholderText);
     }
 
     /*
@@ -388,8 +399,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
             public void mouseClicked(MouseEvent e) {
                 jTabbedPane1.setSelectedIndex(index);
                 updateNavPanelColors(index);
-                visualizarDatos();
-                actualizarKpiCards();
+                actualizarIndicadores();
             }
             @Override
             public void mouseEntered(MouseEvent e) {
@@ -461,8 +471,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
                 // Si el registro fue exitoso, resultadoRegistro es la contraseña generada
                 mostrarMensajeTemporizado(AdministradorDashboardJFrame.this, "Repartidor registrado correctamente. Contraseña: " + resultadoRegistro, "Registro exitoso", 5000);
                 limpiarCamposRepartidor(); // Limpia los campos de entrada
-                visualizarDatos();
-                actualizarKpiCards();
+                actualizarIndicadores();
             }
         });
     }
@@ -497,8 +506,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
         } else {
             cleanupAction.run();
             mostrarMensajeTemporizado(AdministradorDashboardJFrame.this, successMessage, successTitle, 3000);
-            visualizarDatos();
-            actualizarKpiCards();
+            actualizarIndicadores();
         }
     }
 
@@ -574,30 +582,167 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
     }
 
     /*
-     * Actualiza y visualiza todos los datos en los ComboBoxes y tablas de la interfaz.
+     * Actualiza y visualiza todos los datos en los ComboBoxes, tablas y tarjetas KPI de la interfaz.
+     * Los modelos se generan en segundo plano, en paralelo, y se colocan todos juntos en el hilo de
+     * eventos cuando están listos, de modo que la ventana no se congela mientras se leen los datos.
+     * Después de la primera carga, los modelos de las tablas de entidades se mantienen al día solos
+     * (ver `SincronizadorDeTablas`), por lo que tras un cambio basta con `actualizarIndicadores`.
+     * Los cambios publicados en el `BusDeEventos` actualizan solo las tarjetas KPI y el top.
      */
     public final void visualizarDatos() {
+        cargarDatos(Alcance.COMPLETA);
+    }
+
+    /*
+     * Actualiza los ComboBoxes, el top de repartidores y las tarjetas KPI, sin reemplazar los
+     * modelos de las tablas de entidades, que ya reciben cada cambio fila por fila.
+     */
+    private void actualizarIndicadores() {
+        cargarDatos(Alcance.PANEL);
+    }
+
+    /*
+     * Lanza la carga de datos en segundo plano con el alcance indicado. Si se pide una carga mientras
+     * otra está en curso, se hace una sola más al terminar, con el mayor de los alcances pedidos.
+     * Las cargas de solo indicadores no muestran el cursor de espera, porque no las pide el usuario.
+     */
+    private void cargarDatos(Alcance alcance) {
+        if (cargaEnCurso != null) {
+            if (recargaPendiente == null || alcance.compareTo(recargaPendiente) > 0)
+                recargaPendiente = alcance;
+            return;
+        }
+        recargaPendiente = null;
+        if (alcance != Alcance.INDICADORES)
+            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        cargaEnCurso = new CargaDeDatos(alcance);
+        cargaEnCurso.execute();
+    }
+
+    /*
+     * Coloca en la interfaz los modelos y valores generados por `CargaDeDatos`.
+     */
+    private void mostrarDatos(DatosDelPanel datos) {
         // Actualizar modelos de ComboBoxes
-        clientejComboBox.setModel(adminController.generarModeloComboBoxClientes());
-        comboBoxCombos.setModel(adminController.generarModeloComboBoxCombos());
-        MetodoDePagojComboBox.setModel(adminController.generarModeloComboBoxMetodosPago());
-        RepartidoresPedidojComboBox.setModel(adminController.generarModeloComboBoxRepartidores());
+        if (datos.clientes != null) {
+            clientejComboBox.setModel(datos.clientes);
+            comboBoxCombos.setModel(datos.combos);
+            MetodoDePagojComboBox.setModel(datos.metodosPago);
+            RepartidoresPedidojComboBox.setModel(datos.repartidores);
+        }
+        jTable8.setModel(datos.topRepartidores);
+        actualizarKpiCards(datos);
+        if (datos.pedidosDashboard == null)
+            return;
 
         // Actualizar modelos de tablas del Dashboard
-        jTable1.setModel(adminController.generarModeloTablaPedidosDashboard());
-        jTable2.setModel(adminController.generarModeloTablaRepartidoresDashboard());
-        jTable3.setModel(adminController.generarModeloTablaHistorialDeEntregaDashboard());
-
-        // Actualizar modelos de tablas de gestión
-        jTable4.setModel(adminController.generarModeloTablaClientes());
-        jTable5.setModel(adminController.generarModeloTablaRepartidores());
-        jTable6.setModel(adminController.generarModeloTablaPedidos());
-        jTable7.setModel(adminController.generarModeloTablaHistorialDeEntrega());
-        jTable8.setModel(adminController.generarModeloTablaTopRepartidores());
-
-        // Reconfigurar botones de detalle y filtros después de actualizar los datos
+        jTable1.setModel(datos.pedidosDashboard);
+        jTable2.setModel(datos.repartidoresDashboard);
+        jTable3.setModel(datos.historialDashboard);
+
+        // Actualizar modelos de tablas de gestión; cada una lee solo las páginas que muestra
+        datos.tablaClientes.mostrarEn(jTable4);
+        datos.tablaRepartidores.mostrarEn(jTable5);
+        datos.tablaPedidos.mostrarEn(jTable6);
+        datos.tablaHistorial.mostrarEn(jTable7);
+
+        // Reconfigurar botones de detalle después de asignar los modelos
         configurarBotonesDetalle();
-        inicializarFiltros();
+    }
+
+    /*
+     * Modelos y valores que muestra el panel, generados fuera del hilo de eventos.
+     */
+    private static final class DatosDelPanel {
+        DefaultComboBoxModel<Cliente> clientes;
+        DefaultComboBoxModel<Combo> combos;
+        DefaultComboBoxModel<MetodoDePago> metodosPago;
+        DefaultComboBoxModel<Repartidor> repartidores;
+        TableModel pedidosDashboard;
+        TableModel repartidoresDashboard;
+        TableModel historialDashboard;
+        ModeloTablaPaginada<Cliente> tablaClientes;
+        ModeloTablaPaginada<Repartidor> tablaRepartidores;
+        ModeloTablaPaginada<Pedido> tablaPedidos;
+        ModeloTablaPaginada<HistorialDeEntrega> tablaHistorial;
+        TableModel topRepartidores;
+        int pedidosEntregadosHoy;
+        double otdPorcentaje;
+        double tiempoPromedioEntrega;
+        long p50;
+        long p90;
+        long p99;
+        int pedidosEnCurso;
+        int repartidoresDisponibles;
+    }
+
+    /*
+     * Genera en segundo plano los datos del panel. Cada modelo es independiente, así que se genera
+     * en paralelo en `GENERADORES`; al terminar, `done` los coloca en la interfaz desde el hilo de eventos.
+     */
+    private final class CargaDeDatos extends SwingWorker<DatosDelPanel, Void> {
+        private final Alcance alcance;
+
+        CargaDeDatos(Alcance alcance) {
+            this.alcance = alcance;
+        }
+
+        @Override
+        protected DatosDelPanel doInBackground() {
+            DatosDelPanel datos = new DatosDelPanel();
+            List<CompletableFuture<Void>> tareas = new ArrayList<>();
+            if (alcance != Alcance.INDICADORES) {
+                tareas.add(generar(() -> datos.clientes = adminController.generarModeloComboBoxClientes()));
+                tareas.add(generar(() -> datos.combos = adminController.generarModeloComboBoxCombos()));
+                tareas.add(generar(() -> datos.metodosPago = adminController.generarModeloComboBoxMetodosPago()));
+                tareas.add(generar(() -> datos.repartidores = adminController.generarModeloComboBoxRepartidores()));
+            }
+            tareas.add(generar(() -> datos.topRepartidores = adminController.generarModeloTablaTopRepartidores()));
+            tareas.add(generar(() -> {
+                datos.pedidosEntregadosHoy = adminController.getPedidosEntregadosHoy();
+                datos.otdPorcentaje = adminController.getOnTimeDeliveryPorcentaje();
+                datos.tiempoPromedioEntrega = adminController.getTiempoPromedioEntrega();
+                datos.p50 = adminController.getPercentilTiempoEntrega(50);
+                datos.p90 = adminController.getPercentilTiempoEntrega(90);
+                datos.p99 = adminController.getPercentilTiempoEntrega(99);
+                datos.pedidosEnCurso = adminController.getPedidosEnCurso();
+                datos.repartidoresDisponibles = adminController.getRepartidoresDisponiblesActivos();
+            }));
+            if (alcance == Alcance.COMPLETA) {
+                tareas.add(generar(() -> datos.pedidosDashboard = adminController.generarModeloTablaPedidosDashboard()));
+                tareas.add(generar(() -> datos.repartidoresDashboard = adminController.generarModeloTablaRepartidoresDashboard()));
+                tareas.add(generar(() -> datos.historialDashboard = adminController.generarModeloTablaHistorialDeEntregaDashboard()));
+                tareas.add(generar(() -> datos.tablaClientes = adminController.generarModeloTablaClientes()));
+                tareas.add(generar(() -> datos.tablaRepartidores = adminController.generarModeloTablaRepartidores()));
+                tareas.add(generar(() -> datos.tablaPedidos = adminController.generarModeloTablaPedidos()));
+                tareas.add(generar(() -> datos.tablaHistorial = adminController.generarModeloTablaHistorialDeEntrega()));
+            }
+            CompletableFuture.allOf(tareas.toArray(new CompletableFuture<?>[0])).join();
+            // Tras join() las asignaciones que hizo cada tarea en `datos` son visibles en este hilo.
+            return datos;
+        }
+
+        /*
+         * Lanza una tarea de generación en `GENERADORES`.
+         */
+        private CompletableFuture<Void> generar(Runnable tarea) {
+            return CompletableFuture.runAsync(tarea, GENERADORES);
+        }
+
+        @Override
+        protected void done() {
+            cargaEnCurso = null;
+            setCursor(Cursor.getDefaultCursor());
+            try {
+                mostrarDatos(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                REGISTRO.error("Error al cargar los datos del panel de administración.", e.getCause());
+            }
+            if (recargaPendiente != null)
+                cargarDatos(recargaPendiente);
+        }
     }
 
     /*
@@ -705,8 +850,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
                 if (eliminado) {
                     JOptionPane.showMessageDialog(dialog, "Cliente eliminado exitosamente.");
                     dialog.dispose();
-                    visualizarDatos();
-                    actualizarKpiCards();
+                    actualizarIndicadores();
                 } else {
                     JOptionPane.showMessageDialog(dialog, "No se pudo eliminar el cliente. Verifique que no tenga pedidos asociados.", "Error", JOptionPane.ERROR_MESSAGE);
                 }
@@ -762,8 +906,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
                 if (eliminado) {
                     JOptionPane.showMessageDialog(dialog, "Repartidor eliminado exitosamente.");
                     dialog.dispose();
-                    visualizarDatos();
-                    actualizarKpiCards();
+                    actualizarIndicadores();
                 } else {
                     JOptionPane.showMessageDialog(dialog, "No se pudo eliminar el repartidor. Verifique que no tenga pedidos asignados.", "Error", JOptionPane.ERROR_MESSAGE);
                 }
@@ -777,7 +920,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
      * Permite cancelar el pedido o reasignar un repartidor.
      */
     public void mostrarVentanaDetallePedido(Pedido pedido) {
-        System.out.println("Mostrando detalles del pedido: " + pedido.getIdPedido());
+        REGISTRO.depurar(() -> "Mostrando detalles del pedido: " + pedido.getIdPedido());
         JDialog dialogoDetalle = new JDialog(this, "Detalle del Pedido: " + pedido.getIdPedido(), true);
         JPanel panelContenido = new JPanel(new GridLayout(0, 2, 10, 10));
 
@@ -833,7 +976,6 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
      * Añade la información específica del pedido a un panel.
      */
     private void addPedidoInfoToPanel(JPanel panel, Pedido pedido) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
         panel.add(new JLabel("Dirección de Entrega:"));
         panel.add(new JLabel(pedido.getDireccionEntrega()));
         panel.add(new JLabel("Combo:"));
@@ -853,10 +995,10 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
         panel.add(new JLabel("Estado:"));
         panel.add(new JLabel(pedido.getEstado()));
         panel.add(new JLabel("Fecha de Creación:"));
-        panel.add(new JLabel(pedido.getFechaCreacion() != null ? dateFormat.format(pedido.getFechaCreacion()) : "N/A"));
+        panel.add(new JLabel(FormatoFecha.fechaHora(pedido.getFechaCreacion())));
         if (pedido.getFechaEntrega() != null) {
             panel.add(new JLabel("Fecha de Entrega:"));
-            panel.add(new JLabel(dateFormat.format(pedido.getFechaEntrega())));
+            panel.add(new JLabel(FormatoFecha.fechaHora(pedido.getFechaEntrega())));
         }
     }
 
@@ -906,8 +1048,6 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
             String mensaje = adminController.cancelarPedido(pedido.getIdPedido());
             if (mensaje == null) {
                 mostrarMensajeTemporizado(AdministradorDashboardJFrame.this, "Pedido cancelado exitosamente.", "Éxito", 2000);
-                visualizarDatos();
-                actualizarKpiCards();
                 dialogoDetalle.dispose();
             } else {
                 mostrarMensajeErrorTemporizado(AdministradorDashboardJFrame.this, mensaje, "Error al Cancelar", 3000);
@@ -937,8 +1077,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
                 String mensaje = adminController.reasignarRepartidorAPedido(pedido.getIdPedido(), nuevoRepartidor);
                 if (mensaje == null) {
                     mostrarMensajeTemporizado(AdministradorDashboardJFrame.this, "Repartidor reasignado exitosamente.", "Éxito", 2000);
-                    visualizarDatos();
-                    actualizarKpiCards();
+                    actualizarIndicadores();
                     dialogoDetalle.dispose();
                 } else {
                     mostrarMensajeErrorTemporizado(AdministradorDashboardJFrame.this, mensaje, "Error al Reasignar", 3000);
@@ -953,7 +1092,7 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
      * Muestra una ventana de diálogo con los detalles de un historial de entrega.
      */
     public void mostrarVentanaDetalleHistorialDeEntrega(HistorialDeEntrega historial) {
-        System.out.println("Mostrando detalles del historial de entrega: " + historial.getIdHistorial());
+        REGISTRO.depurar(() -> "Mostrando detalles del historial de entrega: " + historial.getIdHistorial());
         JDialog dialogoDetalle = new JDialog(this, "Detalle del Historial: " + historial.getIdHistorial(), true);
         JPanel panelContenido = new JPanel(new GridLayout(0, 2, 10, 10));
 
@@ -969,11 +1108,10 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
      * Añade los detalles de un historial de entrega a un panel.
      */
    private void addHistorialDetailsToPanel(JPanel panel, HistorialDeEntrega historial) {
-      SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
       panel.add(new JLabel("ID Historial:"));
       panel.add(new JLabel(historial.getIdHistorial()));
       panel.add(new JLabel("Fecha Registro:"));
-      panel.add(new JLabel(historial.getFechaRegistro() != null ? dateFormat.format(historial.getFechaRegistro()) : "N/A"));
+      panel.add(new JLabel(FormatoFecha.fechaHora(historial.getFechaRegistro())));
       panel.add(new JLabel("Estado Entrega:"));
       panel.add(new JLabel(historial.getEstadoEntrega()));
       panel.add(new JLabel("Ubicación Entrega:"));
@@ -1011,7 +1149,6 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
     * Añade la información del pedido asociado a un historial de entrega a un panel.
     */
    private void addPedidoInfoToHistorialPanel(JPanel panel, Pedido pedido) {
-      SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
       if (pedido != null) {
          panel.add(new JLabel("ID Pedido Asociado:"));
          panel.add(new JLabel(pedido.getIdPedido()));
@@ -1033,10 +1170,10 @@ public class AdministradorDashboardJFrame extends javax.swing.JFrame {
          panel.add(new JLabel("Estado Pedido:"));
          panel.add(new JLabel(pedido.getEstado()));
          panel.add(new JLabel("Fecha Creación Pedido:"));
-         panel.add(new JLabel(pedido.getFechaCreacion() != null ? dateFormat.format(pedido.getFechaCreacion()) : "N/A")); 
+         panel.add(new JLabel(FormatoFecha.fechaHora(pedido.getFechaCreacion()))); 
          if (pedido.getFechaEntrega() != null) {
             panel.add(new JLabel("Fecha Entrega Pedido:"));
-            panel.add(new JLabel(dateFormat.format(pedido.getFechaEntrega())));
+            panel.add(new JLabel(FormatoFecha.fechaHora(pedido.getFechaEntrega())));
          }
       } else {
          panel.add(new JLabel("Pedido Asociado:"));
@@ -2,8 +2,11 @@
 package project.view;
 
 import project.controller.RepartidorController;
+import project.model.base.BusDeEventos;
 import project.model.entities.Pedido;
 import project.model.entities.Repartidor;
+import project.util.FormatoFecha;
+import project.view.components.BusquedaEnTabla;
 import project.view.components.DetalleButtonEditor;
 import project.view.components.DetalleButtonRenderer;
 import project.view.components.EntregadoButtonEditor;
@@ -14,7 +17,6 @@ import java.awt.FlowLayout;
 import java.awt.GridLayout;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
-import java.text.SimpleDateFormat;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JDialog;
@@ -24,12 +26,8 @@ import javax.swing.JPanel;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.JToggleButton;
-import javax.swing.RowFilter;
 import javax.swing.Timer;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableModel;
 
 /*
  * Clase principal de la interfaz de usuario para el dashboard del repartidor.
@@ -46,6 +44,9 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
    private final JTable tablaHistorialEntregas;
    private final JTextField txtNombreRepartidor;
    private final JToggleButton toggleDisponibilidad;
+
+   // Suscripción a los cambios de disponibilidad publicados por los repositorios
+   private final BusDeEventos.Suscripcion suscripcionEventos;
    
    /*
     * Constructor de la clase RepartidorDashboardJFrame.
@@ -67,6 +68,28 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
       actualizarEstadoDisponibilidad(); // Actualiza el texto y color del botón de disponibilidad
       cargarDatosYConfigurarTablas(); // Carga datos y configura las tablas
       inicializarFiltros(); // Inicializa los filtros de búsqueda para las tablas
+      suscripcionEventos = BusDeEventos.getInstancia().suscribir(this::alCambiarDisponibilidad, BusDeEventos.Tipo.DISPONIBILIDAD_CAMBIADA);
+   }
+
+   /*
+    * Cancela la suscripción a los cambios de los repositorios antes de cerrar la ventana.
+    */
+   @Override
+   public void dispose() {
+      suscripcionEventos.cancelar();
+      super.dispose();
+   }
+
+   /*
+    * Refleja en el botón de disponibilidad los cambios de disponibilidad del repartidor actual
+    * hechos desde cualquier ventana. Las tablas no se recargan aquí: sus modelos ya reciben cada
+    * pedido e historial que cambia.
+    */
+   private void alCambiarDisponibilidad(BusDeEventos.Lote lote) {
+      if (repartidorActual == null || !lote.getIds(BusDeEventos.Tipo.DISPONIBILIDAD_CAMBIADA).contains(repartidorActual.getCedulaIdentidad()))
+         return;
+      toggleDisponibilidad.setSelected(repartidorController.consultarDisponibilidad(repartidorActual));
+      actualizarEstadoDisponibilidad();
    }
     
    /*
@@ -75,7 +98,7 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
    private void inicializarDatosRepartidor() {
       if (repartidorActual != null) {
          txtNombreRepartidor.setText(repartidorActual.getNombre());
-         toggleDisponibilidad.setSelected(repartidorActual.isDisponibilidad());
+         toggleDisponibilidad.setSelected(repartidorController.consultarDisponibilidad(repartidorActual));
       } else {
          txtNombreRepartidor.setText("N/A"); // Establece un mensaje por defecto o de error
          toggleDisponibilidad.setEnabled(false); // Deshabilita el toggle si no hay repartidor
@@ -100,13 +123,13 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
     */
    public final void cargarDatosYConfigurarTablas() {
       // Carga y configura la tabla de pedidos asignados
-      DefaultTableModel modeloPedidos = repartidorController.obtenerModeloPedidosAsignados(repartidorActual);
+      TableModel modeloPedidos = repartidorController.obtenerModeloPedidosAsignados(repartidorActual);
       tablaPedidosAsignados.setModel(modeloPedidos);
       configurarBotonDetallePedidosAsignados(tablaPedidosAsignados, "Detalle");
       configurarBotonEntregadoPedidosAsignados(tablaPedidosAsignados, "Acción"); // Asegúrate de que esta columna exista
 
       // Carga y configura la tabla de historial de entregas
-      DefaultTableModel modeloHistorial = repartidorController.obtenerModeloHistorialDeEntregas(repartidorActual);
+      TableModel modeloHistorial = repartidorController.obtenerModeloHistorialDeEntregas(repartidorActual);
       tablaHistorialEntregas.setModel(modeloHistorial);
    }
     
@@ -237,10 +260,10 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
       panelContenido.add(new JLabel("Estado:"));
       panelContenido.add(new JLabel(pedido.getEstado()));
       panelContenido.add(new JLabel("Fecha de Creación:"));
-      panelContenido.add(new JLabel(pedido.getFechaCreacion() != null ? new SimpleDateFormat("dd/MM/yyyy HH:mm").format(pedido.getFechaCreacion()) : "N/A"));
+      panelContenido.add(new JLabel(FormatoFecha.fechaHora(pedido.getFechaCreacion())));
       if (pedido.getFechaEntrega() != null) {
          panelContenido.add(new JLabel("Fecha de Entrega:"));
-         panelContenido.add(new JLabel(new SimpleDateFormat("dd/MM/yyyy HH:mm").format(pedido.getFechaEntrega())));
+         panelContenido.add(new JLabel(FormatoFecha.fechaHora(pedido.getFechaEntrega())));
       }
    }
 
@@ -295,7 +318,6 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
             boolean cancelado = repartidorController.cancelarPedido(pedido.getIdPedido());
             if (cancelado) {
                mostrarMensajeTemporizado(RepartidorDashboardJFrame.this, "Pedido cancelado exitosamente.", "Éxito", 2000);
-               actualizarTablaPedidos();
                dialogoDetalle.dispose();
             } else {
                mostrarMensajeErrorTemporizado(RepartidorDashboardJFrame.this, "Error al cancelar el pedido.", "Error", 3000);
@@ -314,8 +336,6 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
             boolean entregado = repartidorController.marcarPedidoComoEntregado(pedido.getIdPedido());
             if (entregado) {
                mostrarMensajeTemporizado(RepartidorDashboardJFrame.this, "Pedido marcado como entregado exitosamente.", "Éxito", 2000);
-               actualizarTablaPedidos();
-               actualizarTablaHistorial();
                dialogoDetalle.dispose();
             } else {
                mostrarMensajeErrorTemporizado(RepartidorDashboardJFrame.this, "Error al marcar el pedido como entregado.", "Error", 3000);
@@ -369,62 +389,12 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
       timer.stop(); 
    }
     
-   /*
-    * Actualiza la tabla de pedidos asignados recargando los datos del controlador
-    * y reconfigurando los botones de detalle y acción.
-    */
-   public void actualizarTablaPedidos() {
-      DefaultTableModel modeloPedidos = repartidorController.obtenerModeloPedidosAsignados(repartidorActual);
-      tablaPedidosAsignados.setModel(modeloPedidos);
-      configurarBotonDetallePedidosAsignados(tablaPedidosAsignados, "Detalle");
-      configurarBotonEntregadoPedidosAsignados(tablaPedidosAsignados, "Acción");
-   }
-
-   /*
-    * Actualiza la tabla del historial de entregas recargando los datos del controlador.
-    */
-   public void actualizarTablaHistorial() {
-      DefaultTableModel modeloHistorial = repartidorController.obtenerModeloHistorialDeEntregas(repartidorActual);
-      tablaHistorialEntregas.setModel(modeloHistorial);
-   }
-
    /*
     * Inicializa los filtros de búsqueda para las tablas.
     * Actualmente, solo aplica el filtro a la tabla de historial de entregas.
     */
    private void inicializarFiltros() {
-      aplicarFiltro(txtBuscarPedido, tablaHistorialEntregas);
-   }
-
-   /*
-    * Aplica un filtro de texto a una JTable utilizando un TableRowSorter.
-    * El filtro se actualiza dinámicamente a medida que el usuario escribe en el campo de texto.
-    */
-   private void aplicarFiltro(JTextField campoTexto, JTable tabla) {
-      TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>((DefaultTableModel) tabla.getModel());
-      tabla.setRowSorter(sorter);  
-      campoTexto.getDocument().addDocumentListener(new DocumentListener() {
-         @Override
-         public void insertUpdate(DocumentEvent e) {
-            filtrar();
-         }
-         @Override
-         public void removeUpdate(DocumentEvent e) {
-            filtrar();
-         }
-         @Override
-         public void changedUpdate(DocumentEvent e) {
-            filtrar();
-         }
-         private void filtrar() {
-            String texto = campoTexto.getText();
-            if (texto.trim().isEmpty())
-               sorter.setRowFilter(null);
-            else
-               // (?i) hace que la búsqueda sea insensible a mayúsculas/minúsculas
-               sorter.setRowFilter(RowFilter.regexFilter("(?i)" + texto));
-         }
-      });
+      BusquedaEnTabla.instalar(txtBuscarPedido, tablaHistorialEntregas, "Buscar pedido..."::equals);
    }
    
    /**
@@ -626,8 +596,9 @@ public class RepartidorDashboardJFrame extends javax.swing.JFrame {
    }// </editor-fold>//GEN-END:initComponents
 
    private void DisponibilidadjToggleButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_DisponibilidadjToggleButtonActionPerformed
-      boolean nuevoEstado = repartidorController.cambiarEstadoDisponibilidad(repartidorActual);
-      toggleDisponibilidad.setSelected(nuevoEstado);
+      repartidorController.cambiarEstadoDisponibilidad(repartidorActual);
+      // El estado se vuelve a leer del almacén: si el cambio falló, el botón recupera el estado guardado.
+      toggleDisponibilidad.setSelected(repartidorController.consultarDisponibilidad(repartidorActual));
       actualizarEstadoDisponibilidad();
    }//GEN-LAST:event_DisponibilidadjToggleButtonActionPerformed
 
@@ -0,0 +1,154 @@
+package project.view.components;
+
+import project.controller.IndiceDeBusqueda;
+import project.controller.ModeloTablaEntidades;
+import project.controller.ModeloTablaPaginada;
+import java.beans.PropertyChangeEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.RowFilter;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+
+/*
+ * BusquedaEnTabla filtra las filas de una JTable con el texto de un campo de búsqueda.
+ * La búsqueda se hace cuando el usuario deja de escribir durante `ESPERA_MS` milisegundos, no en
+ * cada tecla, y se resuelve fuera del hilo de eventos con el `IndiceDeBusqueda` del modelo de la
+ * tabla: cada palabra escrita debe ser el comienzo de alguna palabra de la fila, sin distinguir
+ * mayúsculas ni acentos. El índice entrega las filas del modelo que coinciden, así que el hilo de
+ * eventos solo instala un filtro que consulta cada fila en ese conjunto.
+ * Un `ModeloTablaPaginada` no tiene todas las filas, así que recibe el texto y resuelve él mismo la
+ * búsqueda en el almacén, también después de cada cambio.
+ * La búsqueda se repite cuando la tabla recibe otro modelo o cambian las filas del modelo.
+ */
+public final class BusquedaEnTabla {
+   // Milisegundos sin escribir antes de buscar
+   private static final int ESPERA_MS = 200;
+   // Las búsquedas de todas las tablas se resuelven, en orden, en un único hilo
+   private static final ExecutorService BUSCADOR = Executors.newSingleThreadExecutor(tarea -> {
+      Thread hilo = new Thread(tarea, "busqueda-en-tablas");
+      hilo.setDaemon(true);
+      return hilo;
+   });
+
+   private final JTextField campoTexto;
+   private final JTable tabla;
+   private final Predicate<String> esMarcador;
+   private final Timer espera;
+   private final TableModelListener alCambiarFilas;
+   // Número de la última búsqueda iniciada; las respuestas de búsquedas anteriores se descartan
+   private int busqueda;
+   private boolean filtrando;
+
+   /*
+    * Constructor privado; la búsqueda se instala con `instalar`.
+    */
+   private BusquedaEnTabla(JTextField campoTexto, JTable tabla, Predicate<String> esMarcador) {
+      this.campoTexto = campoTexto;
+      this.tabla = tabla;
+      this.esMarcador = esMarcador;
+      this.espera = new Timer(ESPERA_MS, e -> buscar());
+      this.espera.setRepeats(false);
+      // Los cambios de filas no reinician la espera, para que una serie continua de cambios no
+      // aplace la búsqueda indefinidamente.
+      this.alCambiarFilas = e -> {
+         if (filtrando && !espera.isRunning() && !(tabla.getModel() instanceof ModeloTablaPaginada))
+            espera.start();
+      };
+   }
+
+   /*
+    * Instala la búsqueda del campo de texto sobre la tabla. `esMarcador` indica si un texto es el
+    * marcador de posición del campo, que no se busca. Debe invocarse desde el hilo de eventos.
+    */
+   public static BusquedaEnTabla instalar(JTextField campoTexto, JTable tabla, Predicate<String> esMarcador) {
+      BusquedaEnTabla busqueda = new BusquedaEnTabla(campoTexto, tabla, esMarcador);
+      // La tabla crea un TableRowSorter<TableModel> nuevo cada vez que recibe otro modelo.
+      tabla.setAutoCreateRowSorter(true);
+      tabla.getModel().addTableModelListener(busqueda.alCambiarFilas);
+      tabla.addPropertyChangeListener("model", busqueda::alCambiarModelo);
+      campoTexto.getDocument().addDocumentListener(new DocumentListener() {
+         @Override
+         public void insertUpdate(DocumentEvent e) {
+            busqueda.espera.restart();
+         }
+         @Override
+         public void removeUpdate(DocumentEvent e) {
+            busqueda.espera.restart();
+         }
+         @Override
+         public void changedUpdate(DocumentEvent e) {
+            busqueda.espera.restart();
+         }
+      });
+      return busqueda;
+   }
+
+   /*
+    * Traslada el oyente de filas al nuevo modelo y vuelve a buscar sin esperar, porque el
+    * ordenador nuevo de la tabla no tiene filtro. La tabla crea ese ordenador después de avisar del
+    * cambio de modelo, así que la búsqueda se inicia en el siguiente evento.
+    */
+   private void alCambiarModelo(PropertyChangeEvent evento) {
+      ((TableModel) evento.getOldValue()).removeTableModelListener(alCambiarFilas);
+      ((TableModel) evento.getNewValue()).addTableModelListener(alCambiarFilas);
+      espera.stop();
+      SwingUtilities.invokeLater(this::buscar);
+   }
+
+   /*
+    * Inicia la búsqueda del texto actual. Sin texto se quita el filtro de inmediato; con texto, las
+    * coincidencias se obtienen en `BUSCADOR` y se aplican después en el hilo de eventos.
+    */
+   private void buscar() {
+      int numero = ++busqueda;
+      String texto = campoTexto.getText();
+      filtrando = !texto.trim().isEmpty() && !esMarcador.test(texto);
+      TableModel modelo = tabla.getModel();
+      if (modelo instanceof ModeloTablaPaginada) {
+         ((ModeloTablaPaginada<?>) modelo).buscar(filtrando ? texto : null);
+         return;
+      }
+      if (!filtrando) {
+         ordenador().setRowFilter(null);
+         return;
+      }
+      IndiceDeBusqueda indice = (modelo instanceof ModeloTablaEntidades)
+            ? ((ModeloTablaEntidades<?>) modelo).getIndiceDeBusqueda() : null;
+      if (indice == null) {
+         // Modelo sin índice: se filtra por el texto literal en cualquier celda.
+         ordenador().setRowFilter(RowFilter.regexFilter("(?i)" + Pattern.quote(texto.trim())));
+         return;
+      }
+      ModeloTablaEntidades<?> entidades = (ModeloTablaEntidades<?>) modelo;
+      BUSCADOR.execute(() -> {
+         IndiceDeBusqueda.Coincidencias coincidencias = indice.buscar(texto);
+         SwingUtilities.invokeLater(() -> {
+            if (numero == busqueda && tabla.getModel() == entidades)
+               ordenador().setRowFilter(new RowFilter<TableModel, Integer>() {
+                  @Override
+                  public boolean include(Entry<? extends TableModel, ? extends Integer> fila) {
+                     return coincidencias.contiene(fila.getIdentifier(), entidades::getClave);
+                  }
+               });
+         });
+      });
+   }
+
+   /*
+    * Obtiene el ordenador actual de la tabla.
+    */
+   @SuppressWarnings("unchecked")
+   private TableRowSorter<TableModel> ordenador() {
+      return (TableRowSorter<TableModel>) tabla.getRowSorter();
+   }
+}
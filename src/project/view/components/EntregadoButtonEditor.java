@@ -11,8 +11,6 @@ import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import project.controller.RepartidorController;
 import project.model.entities.Repartidor;
-import project.view.RepartidorDashboardJFrame;
-import javax.swing.SwingUtilities;
 
 public class EntregadoButtonEditor extends DefaultCellEditor {
    protected JButton button;
@@ -39,12 +37,8 @@ public class EntregadoButtonEditor extends DefaultCellEditor {
          if (confirm == JOptionPane.YES_OPTION) {
             boolean entregado = repartidorController.marcarPedidoComoEntregado(idPedido);
             if (entregado) {
+               // La fila del pedido se actualiza sola: el modelo de la tabla recibe el cambio del almacén.
                JOptionPane.showMessageDialog(button, "Pedido " + idPedido + " marcado como entregado.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                 
-               RepartidorDashboardJFrame parentFrame = (RepartidorDashboardJFrame) SwingUtilities.getWindowAncestor(table);
-               if (parentFrame != null) {
-                  parentFrame.actualizarTablaPedidos();
-               }
             } else {
                JOptionPane.showMessageDialog(button, "Error al marcar como entregado.", "Error", JOptionPane.ERROR_MESSAGE);
             }